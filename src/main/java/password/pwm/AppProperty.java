@@ -64,6 +64,9 @@ public enum AppProperty {
     CONFIG_GUIDE_THEME                              ("configGuide.theme"),
     CONFIG_MANAGER_ZIPDEBUG_MAXLOGLINES             ("configManager.zipDebug.maxLogLines"),
     CONFIG_MANAGER_ZIPDEBUG_MAXLOGSECONDS           ("configManager.zipDebug.maxLogSeconds"),
+    DB_CONNECTION_POOL_MAX_SIZE                     ("db.connectionPool.maxSize"),
+    DB_CONNECTION_POOL_MAX_WAIT_MS                  ("db.connectionPool.maxWaitMS"),
+    DB_CONNECTION_POOL_VALIDATION_INTERVAL_MS       ("db.connectionPool.validationIntervalMS"),
     FORM_EMAIL_REGEX                                ("form.email.regexTest"),
     HTTP_RESOURCES_MAX_CACHE_ITEMS                  ("http.resources.maxCacheItems"),
     HTTP_RESOURCES_MAX_CACHE_BYTES                  ("http.resources.maxCacheBytes"),
@@ -84,6 +87,11 @@ public enum AppProperty {
     HTTP_COOKIE_LOGIN_NAME                          ("http.cookie.login.name"),
     HTTP_BASIC_AUTH_CHARSET                         ("http.basicAuth.charset"),
     HTTP_BODY_MAXREAD_LENGTH                        ("http.body.maxReadLength"),
+    HTTP_CLIENT_CONNECTION_WAIT_MS                  ("http.client.connectionWaitMs"),
+    HTTP_CLIENT_IDLE_TIMEOUT_MS                     ("http.client.idleTimeoutMs"),
+    HTTP_CLIENT_KEEP_ALIVE_MS                       ("http.client.keepAliveMs"),
+    HTTP_CLIENT_MAX_CONNECTIONS                     ("http.client.maxConnections"),
+    HTTP_CLIENT_MAX_CONNECTIONS_PER_ROUTE           ("http.client.maxConnectionsPerRoute"),
     HTTP_ENABLE_GZIP                                ("http.gzip.enable"),
     HTTP_ERRORS_ALLOW_HTML                          ("http.errors.allowHtml"),
     HTTP_HEADER_SEND_XAMB                           ("http.header.sendXAmb"),
@@ -134,6 +142,8 @@ public enum AppProperty {
     INTRUDER_MAX_DELAY_PENALTY_MS                   ("intruder.maximumDelayPenaltyMS"),
     INTRUDER_DELAY_PER_COUNT_MS                     ("intruder.delayPerCountMS"),
     INTRUDER_DELAY_MAX_JITTER_MS                    ("intruder.delayMaxJitterMS"),
+    INTRUDER_WRITE_BACK_INTERVAL_MS                 ("intruder.writeBack.intervalMS"),
+    INTRUDER_WRITE_BACK_MAX_CACHED_RECORDS          ("intruder.writeBack.maxCachedRecords"),
     HEALTH_MIN_CHECK_INTERVAL_SECONDS               ("health.minimumCheckIntervalSeconds"),
     HEALTH_CERTIFICATE_WARN_SECONDS                 ("health.certificate.warnSeconds"),
     HEALTH_LDAP_CAUTION_DURATION_MS                 ("health.ldap.cautionDurationMS"),
@@ -144,12 +154,19 @@ public enum AppProperty {
     LDAP_CONNECTION_TIMEOUT                         ("ldap.connection.timeoutMS"),
     LDAP_PROFILE_RETRY_DELAY                        ("ldap.profile.retryDelayMS"),
     LDAP_PROMISCUOUS_ENABLE                         ("ldap.promiscuousEnable"),
+    LDAP_PROXY_POOL_SIZE                            ("ldap.proxy.poolSize"),
+    LDAP_PROXY_PROBE_INTERVAL_MS                    ("ldap.proxy.probeIntervalMS"),
     LDAP_PASSWORD_REPLICA_CHECK_INIT_DELAY_MS       ("ldap.password.replicaCheck.initialDelayMS"),
     LDAP_PASSWORD_REPLICA_CHECK_CYCLE_DELAY_MS      ("ldap.password.replicaCheck.cycleDelayMS"),
     LDAP_GUID_PATTERN                               ("ldap.guid.pattern"),
     LDAP_BROWSER_MAX_ENTRIES                        ("ldap.browser.maxEntries"),
     LDAP_SEARCH_PAGING_ENABLE                       ("ldap.search.paging.enable"),
+    LDAP_SEARCH_PARALLEL_ENABLE                     ("ldap.search.parallel.enable"),
+    LDAP_SEARCH_PARALLEL_THREADS                    ("ldap.search.parallel.threads"),
     LDAP_SEARCH_PAGING_SIZE                         ("ldap.search.paging.size"),
+    LDAP_USERNAME_CACHE_ENABLE                      ("ldap.usernameCache.enable"),
+    LDAP_USERNAME_CACHE_LIFETIME_MS                 ("ldap.usernameCache.lifetimeMS"),
+    LDAP_USERNAME_CACHE_NEGATIVE_LIFETIME_MS        ("ldap.usernameCache.negativeLifetimeMS"),
     LOGGING_PATTERN                                 ("logging.pattern"),
     LOGGING_FILE_MAX_SIZE                           ("logging.file.maxSize"),
     LOGGING_FILE_MAX_ROLLOVER                       ("logging.file.maxRollover"),
@@ -184,12 +201,16 @@ public enum AppProperty {
     PASSWORD_RANDOMGEN_MAX_ATTEMPTS                 ("password.randomGenerator.maxAttempts"),
     PASSWORD_RANDOMGEN_MAX_LENGTH                   ("password.randomGenerator.maxLength"),
     PASSWORD_RANDOMGEN_JITTER_COUNT                 ("password.randomGenerator.jitter.count"),
+    PEOPLESEARCH_BULK_READ_BATCH_SIZE               ("peoplesearch.bulkRead.batchSize"),
     PEOPLESEARCH_DISPLAYNAME_USEALLMACROS           ("peoplesearch.displayName.enableAllMacros"),
+    PEOPLESEARCH_PHOTO_CACHE_MAX_BYTES              ("peoplesearch.photo.cache.maxBytes"),
+    PEOPLESEARCH_PHOTO_MAX_DIMENSION                ("peoplesearch.photo.maxDimension"),
     PEOPLESEARCH_MAX_VALUE_VERIFYUSERDN             ("peoplesearch.values.verifyUserDN"),
     PEOPLESEARCH_VALUE_MAXCOUNT                     ("peoplesearch.values.maxCount"),
     QUEUE_EMAIL_RETRY_TIMEOUT_MS                    ("queue.email.retryTimeoutMs"),
     QUEUE_EMAIL_MAX_AGE_MS                          ("queue.email.maxAgeMs"),
     QUEUE_EMAIL_MAX_COUNT                           ("queue.email.maxCount"),
+    QUEUE_EMAIL_SENDER_THREADS                      ("queue.email.senderThreads"),
     QUEUE_SMS_RETRY_TIMEOUT_MS                      ("queue.sms.retryTimeoutMs"),
     QUEUE_SMS_MAX_AGE_MS                            ("queue.sms.maxAgeMs"),
     QUEUE_SMS_MAX_COUNT                             ("queue.sms.maxCount"),
@@ -201,6 +222,10 @@ public enum AppProperty {
     RECAPTCHA_CLIENT_IFRAME_URL                     ("recaptcha.clientIframeUrl"),
     RECAPTCHA_VALIDATE_URL                          ("recaptcha.validateUrl"),
     REPORTING_LDAP_SEARCH_TIMEOUT                   ("reporting.ldap.searchTimeoutMs"),
+    REPORTING_LDAP_SEARCH_PAGE_SIZE                 ("reporting.ldap.searchPageSize"),
+    REPORTING_LDAP_WORKER_THREADS                   ("reporting.ldap.workerThreads"),
+    REPORTING_LDAP_MAX_REQUESTS_PER_SECOND          ("reporting.ldap.maxRequestsPerSecond"),
+    REPORTING_LDAP_MIN_REQUESTS_PER_SECOND          ("reporting.ldap.minRequestsPerSecond"),
     SECURITY_STRIP_INLINE_JAVASCRIPT                ("security.html.stripInlineJavascript"),
     SECURITY_HTTP_STRIP_HEADER_REGEX                ("security.http.stripHeaderRegex"),
     SECURITY_HTTP_PROMISCUOUS_ENABLE                ("security.http.promiscuousEnable"),
@@ -222,6 +247,8 @@ public enum AppProperty {
     SECURITY_DEFAULT_EPHEMERAL_BLOCK_ALG            ("security.defaultEphemeralBlockAlg"),
     SECURITY_DEFAULT_EPHEMERAL_HASH_ALG             ("security.defaultEphemeralHashAlg"),
     SEEDLIST_BUILTIN_PATH                           ("seedlist.builtin.path"),
+    SMTP_CONNECTION_MAX_IDLE_MS                     ("smtp.connection.maxIdleMs"),
+    SMTP_CONNECTION_MAX_MESSAGES                    ("smtp.connection.maxMessages"),
     SMTP_SUBJECT_ENCODING_CHARSET                   ("smtp.subjectEncodingCharset"),
     TOKEN_REMOVAL_DELAY_MS                          ("token.removalDelayMS"),
     TOKEN_PURGE_BATCH_SIZE                          ("token.purgeBatchSize"),
@@ -230,6 +257,11 @@ public enum AppProperty {
     /** Regular expression to be used for matching URLs to be shortened by the URL Shortening Service Class. */
     URL_SHORTNER_URL_REGEX                          ("urlshortener.url.regex"),
     WORDLIST_BUILTIN_PATH                           ("wordlist.builtin.path"),
+    WORDLIST_BLOOM_FILTER_ENABLE                    ("wordlist.bloomFilter.enable"),
+    WORDLIST_BLOOM_FILTER_FALSE_POSITIVE_RATE       ("wordlist.bloomFilter.falsePositiveRate"),
+    WORDLIST_BLOOM_FILTER_MAX_BYTES                 ("wordlist.bloomFilter.maxBytes"),
+    WORDLIST_POPULATE_THREADS                       ("wordlist.populate.threads"),
+    WORDLIST_STORAGE_MODE                           ("wordlist.storageMode"),
     WS_REST_CLIENT_PWRULE_HALTONERROR               ("ws.restClient.pwRule.haltOnError"),
 
     ;
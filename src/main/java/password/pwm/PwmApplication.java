@@ -35,6 +35,7 @@ import password.pwm.error.PwmError;
 import password.pwm.error.PwmException;
 import password.pwm.error.PwmUnrecoverableException;
 import password.pwm.health.HealthMonitor;
+import password.pwm.http.client.HttpClientService;
 import password.pwm.http.servlet.resource.ResourceServletService;
 import password.pwm.http.state.SessionStateService;
 import password.pwm.ldap.LdapConnectionService;
@@ -96,6 +97,8 @@ public class PwmApplication {
         TOKEN_COUNTER("tokenCounter"),
         REPORT_STATUS("reporting.status"),
         REPORT_CLEAN_FLAG("reporting.cleanFlag"),
+        REPORT_SEARCH_CURSOR("reporting.searchCursor"),
+        REPORT_SUMMARY_DATA("reporting.summaryData"),
         SMS_ITEM_COUNTER("smsQueue.itemCount"),
         EMAIL_ITEM_COUNTER("itemQueue.itemCount"),
         LOCALDB_IMPORT_STATUS("localDB.import.status"),
@@ -398,6 +401,10 @@ public class PwmApplication {
         return (SessionTrackService)pwmServiceManager.getService(SessionTrackService.class);
     }
 
+    public HttpClientService getHttpClientService() {
+        return (HttpClientService)pwmServiceManager.getService(HttpClientService.class);
+    }
+
     public ResourceServletService getResourceServletService() {
         return (ResourceServletService)pwmServiceManager.getService(ResourceServletService.class);
     }
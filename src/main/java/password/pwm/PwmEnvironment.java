@@ -412,7 +412,7 @@ public class PwmEnvironment implements Serializable {
     }
 
     public void waitForFileLock() throws PwmUnrecoverableException {
-        final int maxWaitSeconds = Integer.parseInt(getConfig().readAppProperty(AppProperty.APPLICATION_FILELOCK_WAIT_SECONDS));
+        final int maxWaitSeconds = getConfig().readAppPropertyAsInt(AppProperty.APPLICATION_FILELOCK_WAIT_SECONDS);
         final Date startTime = new Date();
         final int attemptInterval = 5021; //ms
 
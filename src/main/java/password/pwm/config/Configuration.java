@@ -502,7 +502,7 @@ public class Configuration implements Serializable, SettingReader {
             return tempInstanceKey;
         }
 
-        final int minSecurityKeyLength = Integer.parseInt(readAppProperty(AppProperty.SECURITY_CONFIG_MIN_SECURITY_KEY_LENGTH));
+        final int minSecurityKeyLength = readAppPropertyAsInt(AppProperty.SECURITY_CONFIG_MIN_SECURITY_KEY_LENGTH);
         if (configValue.getStringValue().length() < minSecurityKeyLength) {
             final String errorMsg = "Security Key must be greater than 32 characters in length";
             final ErrorInformation errorInfo = new ErrorInformation(PwmError.ERROR_INVALID_SECURITY_KEY, errorMsg);
@@ -633,11 +633,33 @@ public class Configuration implements Serializable, SettingReader {
     }
 
     public String readAppProperty(AppProperty property) {
-        final Map<String,String> configurationValues = StringUtil.convertStringListToNameValuePair(this.readSettingAsStringArray(PwmSetting.APP_PROPERTY_OVERRIDES),"=");
-        if (configurationValues.containsKey(property.getKey())) {
-            return configurationValues.get(property.getKey());
+        return appPropertyValues().readString(property);
+    }
+
+    /**
+     * @throws NumberFormatException if the property value is not an integer
+     */
+    public int readAppPropertyAsInt(final AppProperty property) {
+        return appPropertyValues().readInt(property);
+    }
+
+    /**
+     * @throws NumberFormatException if the property value is not a long
+     */
+    public long readAppPropertyAsLong(final AppProperty property) {
+        return appPropertyValues().readLong(property);
+    }
+
+    public boolean readAppPropertyAsBoolean(final AppProperty property) {
+        return appPropertyValues().readBoolean(property);
+    }
+
+    private AppPropertyValues appPropertyValues() {
+        if (dataCache.appPropertyValues == null) {
+            final Map<String,String> configurationValues = StringUtil.convertStringListToNameValuePair(this.readSettingAsStringArray(PwmSetting.APP_PROPERTY_OVERRIDES),"=");
+            dataCache.appPropertyValues = new AppPropertyValues(configurationValues);
         }
-        return property.getDefaultValue();
+        return dataCache.appPropertyValues;
     }
 
     private Convenience helper = new Convenience();
@@ -721,6 +743,67 @@ public class Configuration implements Serializable, SettingReader {
         private final Map<PwmSetting, StoredValue> settings = new EnumMap<>(PwmSetting.class);
         private final Map<String,Map<Locale,String>> customText = new HashMap<>();
         private final Map<ProfileType,Map<String,Profile>> profileCache = new HashMap<>();
+        private AppPropertyValues appPropertyValues;
+    }
+
+    /**
+     * Values of every {@link AppProperty} with the configured overrides applied.  Numeric and boolean conversions are
+     * done once when the values are loaded, so reading a property on a request path does no parsing.
+     */
+    private static class AppPropertyValues implements Serializable {
+        private final String[] stringValues;
+        private final long[] longValues;
+        private final boolean[] isLongValue;
+        private final boolean[] booleanValues;
+
+        private AppPropertyValues(final Map<String,String> configurationValues) {
+            final AppProperty[] properties = AppProperty.values();
+            stringValues = new String[properties.length];
+            longValues = new long[properties.length];
+            isLongValue = new boolean[properties.length];
+            booleanValues = new boolean[properties.length];
+            for (final AppProperty property : properties) {
+                final int index = property.ordinal();
+                final String value = configurationValues.containsKey(property.getKey())
+                        ? configurationValues.get(property.getKey())
+                        : property.getDefaultValue();
+                stringValues[index] = value;
+                booleanValues[index] = Boolean.parseBoolean(value);
+                if (value != null) {
+                    try {
+                        longValues[index] = Long.parseLong(value);
+                        isLongValue[index] = true;
+                    } catch (NumberFormatException e) {
+                        // not numeric, reported if the value is read as a number
+                    }
+                }
+            }
+        }
+
+        private String readString(final AppProperty property) {
+            return stringValues[property.ordinal()];
+        }
+
+        private int readInt(final AppProperty property) {
+            final int index = property.ordinal();
+            final long value = longValues[index];
+            if (!isLongValue[index] || value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+                return Integer.parseInt(stringValues[index]);
+            }
+            return (int) value;
+        }
+
+        private long readLong(final AppProperty property) {
+            final int index = property.ordinal();
+            if (!isLongValue[index]) {
+                return Long.parseLong(stringValues[index]);
+            }
+            return longValues[index];
+        }
+
+        private boolean readBoolean(final AppProperty property) {
+            return booleanValues[property.ordinal()];
+        }
     }
 
     public Map<AppProperty,String> readAllNonDefaultAppProperties() {
@@ -812,7 +895,7 @@ public class Configuration implements Serializable, SettingReader {
 
 
     public boolean isDevDebugMode() {
-        return Boolean.parseBoolean(readAppProperty(AppProperty.LOGGING_DEV_OUTPUT));
+        return readAppPropertyAsBoolean(AppProperty.LOGGING_DEV_OUTPUT);
     }
     
     public String configurationHash() 
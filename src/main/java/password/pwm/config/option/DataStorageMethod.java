@@ -29,5 +29,6 @@ public enum DataStorageMethod implements ConfigurationOption {
     LOCALDB,
     NMAS,
     NMASUAWS,
-    CRYPTO
+    CRYPTO,
+    FILE,
 }
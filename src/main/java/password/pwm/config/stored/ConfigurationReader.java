@@ -171,7 +171,7 @@ public class ConfigurationReader {
                 final File pwmPath = pwmApplication.getPwmEnvironment().getApplicationPath();
                 backupDirectory = FileSystemUtility.figureFilepath(backupDirSetting, pwmPath);
             }
-            backupRotations = Integer.parseInt(configuration.readAppProperty(AppProperty.BACKUP_CONFIG_COUNT));
+            backupRotations = configuration.readAppPropertyAsInt(AppProperty.BACKUP_CONFIG_COUNT);
         }
 
 
@@ -23,6 +23,7 @@
 package password.pwm.config.stored;
 
 import org.jdom2.*;
+import org.jdom2.filter.Filters;
 import org.jdom2.xpath.XPathExpression;
 import org.jdom2.xpath.XPathFactory;
 import password.pwm.AppProperty;
@@ -46,6 +47,7 @@ import java.io.OutputStream;
 import java.io.Serializable;
 import java.text.ParseException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
@@ -63,6 +65,7 @@ public class StoredConfigurationImpl implements Serializable, StoredConfiguratio
     private boolean locked = false;
     private boolean setting_writeLabels = true;
     private final ReentrantReadWriteLock domModifyLock = new ReentrantReadWriteLock();
+    private transient volatile ReadIndex readIndex;
 
 // -------------------------- STATIC METHODS --------------------------
 
@@ -73,6 +76,7 @@ public class StoredConfigurationImpl implements Serializable, StoredConfiguratio
     public static StoredConfigurationImpl copy(final StoredConfigurationImpl input) throws PwmUnrecoverableException {
         final StoredConfigurationImpl copy = new StoredConfigurationImpl();
         copy.document = input.document.clone();
+        copy.documentModified();
         return copy;
     }
 
@@ -87,6 +91,7 @@ public class StoredConfigurationImpl implements Serializable, StoredConfiguratio
 
         try {
             newConfiguration.document = inputDocument;
+            newConfiguration.documentModified();
             newConfiguration.createTime(); // verify create time;
             ConfigurationCleaner.cleanup(newConfiguration);
         } catch (Exception e) {
@@ -156,9 +161,13 @@ public class StoredConfigurationImpl implements Serializable, StoredConfiguratio
 
     @Override
     public String readConfigProperty(final ConfigurationProperty propertyName) {
-        final XPathExpression xp = XPathBuilder.xpathForConfigProperty(propertyName);
-        final Element propertyElement = (Element)xp.evaluateFirst(document);
-        return propertyElement == null ? null : propertyElement.getText();
+        domModifyLock.readLock().lock();
+        try {
+            final Element propertyElement = readIndex().configPropertyElements.get(propertyName.getKey());
+            return propertyElement == null ? null : propertyElement.getText();
+        } finally {
+            domModifyLock.readLock().unlock();
+        }
     }
 
     @Override
@@ -191,6 +200,7 @@ public class StoredConfigurationImpl implements Serializable, StoredConfiguratio
             propertiesElement.setAttribute(XML_ATTRIBUTE_MODIFY_TIME,PwmConstants.DEFAULT_DATETIME_FORMAT.format(new Date()));
             propertiesElement.addContent(propertyElement);
         } finally {
+            documentModified();
             domModifyLock.writeLock().unlock();
         }
     }
@@ -202,8 +212,7 @@ public class StoredConfigurationImpl implements Serializable, StoredConfiguratio
     public Map<String,String> readLocaleBundleMap(final String bundleName, final String keyName) {
         domModifyLock.readLock().lock();
         try {
-            final XPathExpression xp = XPathBuilder.xpathForLocaleBundleSetting(bundleName, keyName);
-            final Element localeBundleElement = (Element)xp.evaluateFirst(document);
+            final Element localeBundleElement = readIndex().localeBundleElements.get(ReadIndex.localeBundleKey(bundleName, keyName));
             if (localeBundleElement != null) {
                 final Map<String,String> bundleMap = new LinkedHashMap<>();
                 for (final Element valueElement : localeBundleElement.getChildren("value")) {
@@ -262,6 +271,7 @@ public class StoredConfigurationImpl implements Serializable, StoredConfiguratio
                 }
             }
         } finally {
+            documentModified();
             domModifyLock.writeLock().unlock();
         }
     }
@@ -276,6 +286,7 @@ public class StoredConfigurationImpl implements Serializable, StoredConfiguratio
             settingElement.addContent(new Element(XML_ELEMENT_DEFAULT));
             updateMetaData(settingElement, userIdentity);
         } finally {
+            documentModified();
             domModifyLock.writeLock().unlock();
         }
     }
@@ -312,16 +323,16 @@ public class StoredConfigurationImpl implements Serializable, StoredConfiguratio
     }
 
     public PwmSettingTemplateSet getTemplateSet() {
-        final Set<PwmSettingTemplate> templates = new HashSet<>();
-        templates.add(readTemplateValue(document, PwmSetting.TEMPLATE_LDAP));
-        templates.add(readTemplateValue(document, PwmSetting.TEMPLATE_STORAGE));
-        templates.add(readTemplateValue(document, PwmSetting.DB_VENDOR_TEMPLATE));
-        return new PwmSettingTemplateSet(templates);
+        domModifyLock.readLock().lock();
+        try {
+            return readIndex().getTemplateSet();
+        } finally {
+            domModifyLock.readLock().unlock();
+        }
     }
 
-    private static PwmSettingTemplate readTemplateValue(final Document document, PwmSetting pwmSetting) {
-        final XPathExpression xp = XPathBuilder.xpathForSetting(pwmSetting, null);
-        final Element settingElement = (Element) xp.evaluateFirst(document);
+    private static PwmSettingTemplate readTemplateValue(final ReadIndex readIndex, PwmSetting pwmSetting) {
+        final Element settingElement = readIndex.settingElements.get(ReadIndex.settingKey(pwmSetting, null));
         if (settingElement != null) {
             try {
                 final String strValue = (String) ValueFactory.fromXmlValues(pwmSetting, settingElement, null).toNativeObject();
@@ -430,6 +441,7 @@ public class StoredConfigurationImpl implements Serializable, StoredConfiguratio
             throws IOException, PwmUnrecoverableException
     {
         ConfigurationCleaner.updateMandatoryElements(document);
+        documentModified();
         XmlUtil.outputDocument(document, outputStream);
     }
 
@@ -475,8 +487,13 @@ public class StoredConfigurationImpl implements Serializable, StoredConfiguratio
     }
 
     public ValueMetaData readSettingMetadata(final PwmSetting setting, final String profileID) {
-        final XPathExpression xp = XPathBuilder.xpathForSetting(setting, profileID);
-        final Element settingElement = (Element)xp.evaluateFirst(document);
+        final Element settingElement;
+        domModifyLock.readLock().lock();
+        try {
+            settingElement = readIndex().settingElements.get(ReadIndex.settingKey(setting, profileID));
+        } finally {
+            domModifyLock.readLock().unlock();
+        }
 
         if (settingElement == null) {
             return null;
@@ -618,23 +635,27 @@ public class StoredConfigurationImpl implements Serializable, StoredConfiguratio
         }
         domModifyLock.readLock().lock();
         try {
-            final XPathExpression xp = XPathBuilder.xpathForSetting(setting, profileID);
-            final Element settingElement = (Element)xp.evaluateFirst(document);
-
-            if (settingElement == null) {
-                return defaultValue(setting, getTemplateSet());
-            }
-
-            if (settingElement.getChild(XML_ELEMENT_DEFAULT) != null) {
-                return defaultValue(setting, getTemplateSet());
+            final ReadIndex index = readIndex();
+            final String settingKey = ReadIndex.settingKey(setting, profileID);
+            final StoredValue indexedValue = index.storedValues.get(settingKey);
+            if (indexedValue != null) {
+                return indexedValue;
             }
 
-            try {
-                return ValueFactory.fromXmlValues(setting, settingElement, getKey());
-            } catch (PwmException e) {
-                final String errorMsg = "unexpected error reading setting '" + setting.getKey() + "' profile '" + profileID + "', error: " + e.getMessage();
-                throw new IllegalStateException(errorMsg);
+            final Element settingElement = index.settingElements.get(settingKey);
+            final StoredValue storedValue;
+            if (settingElement == null || settingElement.getChild(XML_ELEMENT_DEFAULT) != null) {
+                storedValue = defaultValue(setting, index.getTemplateSet());
+            } else {
+                try {
+                    storedValue = ValueFactory.fromXmlValues(setting, settingElement, getKey());
+                } catch (PwmException e) {
+                    final String errorMsg = "unexpected error reading setting '" + setting.getKey() + "' profile '" + profileID + "', error: " + e.getMessage();
+                    throw new IllegalStateException(errorMsg);
+                }
             }
+            index.storedValues.put(settingKey, storedValue);
+            return storedValue;
         } finally {
             domModifyLock.readLock().unlock();
         }
@@ -683,6 +704,7 @@ public class StoredConfigurationImpl implements Serializable, StoredConfiguratio
             localeBundleElement.setAttribute(XML_ATTRIBUTE_MODIFY_TIME,PwmConstants.DEFAULT_DATETIME_FORMAT.format(new Date()));
             document.getRootElement().addContent(localeBundleElement);
         } finally {
+            documentModified();
             domModifyLock.writeLock().unlock();
         }
     }
@@ -807,6 +829,7 @@ public class StoredConfigurationImpl implements Serializable, StoredConfiguratio
 
             updateMetaData(settingElement, userIdentity);
         } finally {
+            documentModified();
             domModifyLock.writeLock().unlock();
         }
     }
@@ -838,6 +861,27 @@ public class StoredConfigurationImpl implements Serializable, StoredConfiguratio
         document.getRootElement().setAttribute(XML_ATTRIBUTE_MODIFY_TIME,PwmConstants.DEFAULT_DATETIME_FORMAT.format(new Date()));
     }
 
+    /**
+     * Discard the read index of the previous document version.  Must be called after every change to the document,
+     * while still holding the write lock if the change was made under it.
+     */
+    private void documentModified() {
+        readIndex = null;
+    }
+
+    /**
+     * Returns the read index for the current document version, building it if the document has changed since the last
+     * read.  Callers must hold the read or write lock.
+     */
+    private ReadIndex readIndex() {
+        ReadIndex index = readIndex;
+        if (index == null) {
+            index = new ReadIndex(document);
+            readIndex = index;
+        }
+        return index;
+    }
+
 // -------------------------- INNER CLASSES --------------------------
 
     public void setPassword(final String password)
@@ -922,10 +966,90 @@ public class StoredConfigurationImpl implements Serializable, StoredConfiguratio
     }
 
 
+    /**
+     * Setting, locale bundle and config property elements of one version of the document, found with a single walk of
+     * the document instead of an xpath search per read.  Each entry holds the first matching element in document order,
+     * as the xpath searches did.  Setting values are decoded once and kept for the life of the index, which is safe as
+     * stored values are immutable.
+     */
+    private static class ReadIndex {
+        private final Map<String,Element> settingElements = new HashMap<>();
+        private final Map<String,Element> localeBundleElements = new HashMap<>();
+        private final Map<String,Element> configPropertyElements = new HashMap<>();
+        private final Map<String,StoredValue> storedValues = new ConcurrentHashMap<>();
+        private volatile PwmSettingTemplateSet templateSet;
+
+        private ReadIndex(final Document document) {
+            for (final Element element : document.getDescendants(Filters.element())) {
+                switch (element.getName()) {
+                    case XML_ELEMENT_SETTING: {
+                        final String key = element.getAttributeValue(XML_ATTRIBUTE_KEY);
+                        if (key != null) {
+                            putFirst(settingElements, settingKey(key, element.getAttributeValue(XML_ATTRIBUTE_PROFILE)), element);
+                        }
+                        break;
+                    }
+
+                    case XML_ELEMENT_LOCALEBUNDLE: {
+                        final String bundle = element.getAttributeValue(XML_ATTRIBUTE_BUNDLE);
+                        final String key = element.getAttributeValue(XML_ATTRIBUTE_KEY);
+                        if (bundle != null && key != null) {
+                            putFirst(localeBundleElements, localeBundleKey(bundle, key), element);
+                        }
+                        break;
+                    }
+
+                    case XML_ELEMENT_PROPERTY: {
+                        final Element parent = element.getParentElement();
+                        final String key = element.getAttributeValue(XML_ATTRIBUTE_KEY);
+                        if (key != null && parent != null && XML_ELEMENT_PROPERTIES.equals(parent.getName())
+                                && XML_ATTRIBUTE_VALUE_CONFIG.equals(parent.getAttributeValue(XML_ATTRIBUTE_TYPE))) {
+                            putFirst(configPropertyElements, key, element);
+                        }
+                        break;
+                    }
+
+                    default:
+                        // other elements are not indexed
+                }
+            }
+        }
+
+        private PwmSettingTemplateSet getTemplateSet() {
+            if (templateSet == null) {
+                final Set<PwmSettingTemplate> templates = new HashSet<>();
+                templates.add(readTemplateValue(this, PwmSetting.TEMPLATE_LDAP));
+                templates.add(readTemplateValue(this, PwmSetting.TEMPLATE_STORAGE));
+                templates.add(readTemplateValue(this, PwmSetting.DB_VENDOR_TEMPLATE));
+                templateSet = new PwmSettingTemplateSet(templates);
+            }
+            return templateSet;
+        }
+
+        private static void putFirst(final Map<String,Element> map, final String key, final Element element) {
+            if (!map.containsKey(key)) {
+                map.put(key, element);
+            }
+        }
+
+        private static String settingKey(final PwmSetting setting, final String profileID) {
+            return settingKey(setting.getKey(), profileID);
+        }
+
+        private static String settingKey(final String settingKey, final String profileID) {
+            return profileID == null || profileID.isEmpty() ? settingKey : settingKey + "|" + profileID;
+        }
+
+        private static String localeBundleKey(final String bundleName, final String keyName) {
+            return bundleName + "|" + keyName;
+        }
+    }
+
     private static class ConfigurationCleaner {
         private static void cleanup(final StoredConfigurationImpl configuration) throws PwmUnrecoverableException {
             updateProperitiesWithoutType(configuration);
             updateMandatoryElements(configuration.document);
+            configuration.documentModified();
             profilizeNonProfiledSettings(configuration);
             stripOrphanedProfileSettings(configuration);
             migrateAppProperties(configuration);
@@ -1019,6 +1143,7 @@ public class StoredConfigurationImpl implements Serializable, StoredConfiguratio
                         LOGGER.info("moving setting " + setting.getKey() + " without profile attribute to profile \"" + NEW_PROFILE_NAME + "\".");
                         // change setting to "default" profile.
                         settingElement.setAttribute(XML_ATTRIBUTE_PROFILE, NEW_PROFILE_NAME);
+                        storedConfiguration.documentModified();
 
                         final PwmSetting profileSetting = setting.getCategory().getProfileSetting();
                         final List<String> profileStringDefinitions = new ArrayList<>();
@@ -1051,6 +1176,7 @@ public class StoredConfigurationImpl implements Serializable, StoredConfiguratio
                     final String value = propertyElement.get(0).getText();
                     storedConfiguration.writeSetting(PwmSetting.TEMPLATE_LDAP, new StringValue(value), null);
                     propertyElement.get(0).detach();
+                    storedConfiguration.documentModified();
                 }
             }
             {
@@ -1061,6 +1187,7 @@ public class StoredConfigurationImpl implements Serializable, StoredConfiguratio
                     final String value = propertyElement.get(0).getText();
                     storedConfiguration.writeSetting(PwmSetting.NOTES, new StringValue(value), null);
                     propertyElement.get(0).detach();
+                    storedConfiguration.documentModified();
                 }
             }
         }
@@ -1091,6 +1218,7 @@ public class StoredConfigurationImpl implements Serializable, StoredConfiguratio
                             if (!validProfiles.contains(profileID)) {
                                 LOGGER.info("removing setting " + setting.getKey() + " with profile \"" + profileID + "\", profile is not a valid profile");
                                 settingElement.detach();
+                                storedConfiguration.documentModified();
                             }
                         }
                     }
@@ -1120,6 +1248,7 @@ public class StoredConfigurationImpl implements Serializable, StoredConfiguratio
                     }
                 }
                 element.detach();
+                storedConfiguration.documentModified();
             }
         }
 
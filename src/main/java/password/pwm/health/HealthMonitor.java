@@ -105,7 +105,7 @@ public class HealthMonitor implements PwmService {
     public void init(PwmApplication pwmApplication) throws PwmException {
         status = STATUS.OPENING;
         this.pwmApplication = pwmApplication;
-        this.intervalSeconds = Integer.parseInt(pwmApplication.getConfig().readAppProperty(AppProperty.HEALTH_MIN_CHECK_INTERVAL_SECONDS));
+        this.intervalSeconds = pwmApplication.getConfig().readAppPropertyAsInt(AppProperty.HEALTH_MIN_CHECK_INTERVAL_SECONDS);
 
         if (intervalSeconds < MIN_INTERVAL_SECONDS) {
             intervalSeconds = MIN_INTERVAL_SECONDS;
@@ -75,7 +75,7 @@ public abstract class PwmHttpRequestWrapper {
 
     public String readRequestBodyAsString()
             throws IOException, PwmUnrecoverableException {
-        final int maxChars = Integer.parseInt(configuration.readAppProperty(AppProperty.HTTP_BODY_MAXREAD_LENGTH));
+        final int maxChars = configuration.readAppPropertyAsInt(AppProperty.HTTP_BODY_MAXREAD_LENGTH);
         return readRequestBodyAsString(maxChars);
     }
 
@@ -111,9 +111,9 @@ public abstract class PwmHttpRequestWrapper {
         final String bodyString = readRequestBodyAsString();
         final Map<String, String> inputMap = JsonUtil.deserializeStringMap(bodyString);
 
-        final boolean trim = Boolean.parseBoolean(configuration.readAppProperty(AppProperty.SECURITY_INPUT_TRIM));
-        final boolean passwordTrim = Boolean.parseBoolean(configuration.readAppProperty(AppProperty.SECURITY_INPUT_PASSWORD_TRIM));
-        final int maxLength = Integer.parseInt(configuration.readAppProperty(AppProperty.HTTP_PARAM_MAX_READ_LENGTH));
+        final boolean trim = configuration.readAppPropertyAsBoolean(AppProperty.SECURITY_INPUT_TRIM);
+        final boolean passwordTrim = configuration.readAppPropertyAsBoolean(AppProperty.SECURITY_INPUT_PASSWORD_TRIM);
+        final int maxLength = configuration.readAppPropertyAsInt(AppProperty.HTTP_PARAM_MAX_READ_LENGTH);
 
         final Map<String, String> outputMap = new LinkedHashMap<>();
         if (inputMap != null) {
@@ -142,9 +142,9 @@ public abstract class PwmHttpRequestWrapper {
         final String bodyString = readRequestBodyAsString();
         final Map<String, Object> inputMap = JsonUtil.deserializeMap(bodyString);
 
-        final boolean trim = Boolean.parseBoolean(configuration.readAppProperty(AppProperty.SECURITY_INPUT_TRIM));
-        final boolean passwordTrim = Boolean.parseBoolean(configuration.readAppProperty(AppProperty.SECURITY_INPUT_PASSWORD_TRIM));
-        final int maxLength = Integer.parseInt(configuration.readAppProperty(AppProperty.HTTP_PARAM_MAX_READ_LENGTH));
+        final boolean trim = configuration.readAppPropertyAsBoolean(AppProperty.SECURITY_INPUT_TRIM);
+        final boolean passwordTrim = configuration.readAppPropertyAsBoolean(AppProperty.SECURITY_INPUT_PASSWORD_TRIM);
+        final int maxLength = configuration.readAppPropertyAsInt(AppProperty.HTTP_PARAM_MAX_READ_LENGTH);
 
         final Map<String, Object> outputMap = new LinkedHashMap<>();
         if (inputMap != null) {
@@ -175,8 +175,8 @@ public abstract class PwmHttpRequestWrapper {
     public PasswordData readParameterAsPassword(final String name)
             throws PwmUnrecoverableException
     {
-        final int maxLength = Integer.parseInt(configuration.readAppProperty(AppProperty.HTTP_PARAM_MAX_READ_LENGTH));
-        final boolean trim = Boolean.parseBoolean(configuration.readAppProperty(AppProperty.SECURITY_INPUT_PASSWORD_TRIM));
+        final int maxLength = configuration.readAppPropertyAsInt(AppProperty.HTTP_PARAM_MAX_READ_LENGTH);
+        final boolean trim = configuration.readAppPropertyAsBoolean(AppProperty.SECURITY_INPUT_PASSWORD_TRIM);
 
         final String rawValue = httpServletRequest.getParameter(name);
         if (rawValue != null && !rawValue.isEmpty()) {
@@ -202,7 +202,7 @@ public abstract class PwmHttpRequestWrapper {
 
     public String readParameterAsString(final String name, final String valueIfNotPresent)
             throws PwmUnrecoverableException {
-        final int maxLength = Integer.parseInt(configuration.readAppProperty(AppProperty.HTTP_PARAM_MAX_READ_LENGTH));
+        final int maxLength = configuration.readAppPropertyAsInt(AppProperty.HTTP_PARAM_MAX_READ_LENGTH);
         final String returnValue = readParameterAsString(name, maxLength);
         return returnValue == null || returnValue.isEmpty() ? valueIfNotPresent : returnValue;
     }
@@ -214,7 +214,7 @@ public abstract class PwmHttpRequestWrapper {
 
     public String readParameterAsString(final String name, final Flag... flags)
             throws PwmUnrecoverableException {
-        final int maxLength = Integer.parseInt(configuration.readAppProperty(AppProperty.HTTP_PARAM_MAX_READ_LENGTH));
+        final int maxLength = configuration.readAppPropertyAsInt(AppProperty.HTTP_PARAM_MAX_READ_LENGTH);
         return readParameterAsString(name, maxLength, flags);
     }
 
@@ -243,7 +243,7 @@ public abstract class PwmHttpRequestWrapper {
     {
         boolean bypassInputValidation = flags != null && Arrays.asList(flags).contains(Flag.BypassValidation);
         final HttpServletRequest req = this.getHttpServletRequest();
-        final boolean trim = Boolean.parseBoolean(configuration.readAppProperty(AppProperty.SECURITY_INPUT_TRIM));
+        final boolean trim = configuration.readAppPropertyAsBoolean(AppProperty.SECURITY_INPUT_TRIM);
         final String[] rawValues = req.getParameterValues(name);
         if (rawValues == null || rawValues.length == 0) {
             return Collections.emptyList();
@@ -269,7 +269,7 @@ public abstract class PwmHttpRequestWrapper {
     }
 
     public String readHeaderValueAsString(final String headerName) {
-        final int maxChars = Integer.parseInt(configuration.readAppProperty(AppProperty.HTTP_PARAM_MAX_READ_LENGTH));
+        final int maxChars = configuration.readAppPropertyAsInt(AppProperty.HTTP_PARAM_MAX_READ_LENGTH);
         final HttpServletRequest req = this.getHttpServletRequest();
         final String rawValue = req.getHeader(headerName);
         final String sanitizedInputValue = Validator.sanitizeInputValue(configuration, rawValue, maxChars);
@@ -277,7 +277,7 @@ public abstract class PwmHttpRequestWrapper {
     }
 
     public Map<String, List<String>> readHeaderValuesMap() {
-        final int maxChars = Integer.parseInt(configuration.readAppProperty(AppProperty.HTTP_PARAM_MAX_READ_LENGTH));
+        final int maxChars = configuration.readAppPropertyAsInt(AppProperty.HTTP_PARAM_MAX_READ_LENGTH);
         final HttpServletRequest req = this.getHttpServletRequest();
         final Map<String, List<String>> returnObj = new LinkedHashMap<>();
 
@@ -300,7 +300,7 @@ public abstract class PwmHttpRequestWrapper {
     }
 
     public List<String> parameterNames() {
-        final int maxChars = Integer.parseInt(configuration.readAppProperty(AppProperty.HTTP_PARAM_MAX_READ_LENGTH));
+        final int maxChars = configuration.readAppPropertyAsInt(AppProperty.HTTP_PARAM_MAX_READ_LENGTH);
         final List<String> returnObj = new ArrayList();
         for (Enumeration nameEnum = getHttpServletRequest().getParameterNames(); nameEnum.hasMoreElements(); ) {
             final String paramName = nameEnum.nextElement().toString();
@@ -322,7 +322,7 @@ public abstract class PwmHttpRequestWrapper {
 
     public Map<String, List<String>> readMultiParametersAsMap()
             throws PwmUnrecoverableException {
-        final int maxLength = Integer.parseInt(configuration.readAppProperty(AppProperty.HTTP_PARAM_MAX_READ_LENGTH));
+        final int maxLength = configuration.readAppPropertyAsInt(AppProperty.HTTP_PARAM_MAX_READ_LENGTH);
         final Map<String, List<String>> returnObj = new HashMap<>();
         for (String paramName : parameterNames()) {
             final List<String> values = readParameterAsStrings(paramName, maxLength);
@@ -332,7 +332,7 @@ public abstract class PwmHttpRequestWrapper {
     }
 
     public String readCookie(final String cookieName) {
-        final int maxChars = Integer.parseInt(configuration.readAppProperty(AppProperty.HTTP_COOKIE_MAX_READ_LENGTH));
+        final int maxChars = configuration.readAppPropertyAsInt(AppProperty.HTTP_COOKIE_MAX_READ_LENGTH);
         final Cookie[] cookies = this.getHttpServletRequest().getCookies();
         if (cookies != null) {
             for (final Cookie cookie : cookies) {
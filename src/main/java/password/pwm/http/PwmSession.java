@@ -84,7 +84,7 @@ public class PwmSession implements Serializable {
             throw new IllegalStateException("PwmApplication must be available during session creation");
         }
 
-        final int sessionValidationKeyLength = Integer.parseInt(pwmApplication.getConfig().readAppProperty(AppProperty.HTTP_SESSION_VALIDATION_KEY_LENGTH));
+        final int sessionValidationKeyLength = pwmApplication.getConfig().readAppPropertyAsInt(AppProperty.HTTP_SESSION_VALIDATION_KEY_LENGTH);
         sessionStateBean = new LocalSessionStateBean(sessionValidationKeyLength);
         sessionStateBean.regenerateSessionVerificationKey();
         this.sessionStateBean.setSessionID(null);
@@ -106,7 +106,7 @@ public class PwmSession implements Serializable {
 
         pwmApplication.getSessionTrackService().addSessionData(this);
 
-        settings.restKeyLength = Integer.parseInt(pwmApplication.getConfig().readAppProperty(AppProperty.SECURITY_WS_REST_CLIENT_KEY_LENGTH));
+        settings.restKeyLength = pwmApplication.getConfig().readAppPropertyAsInt(AppProperty.SECURITY_WS_REST_CLIENT_KEY_LENGTH);
         LOGGER.trace(this,"created new session");
     }
 
@@ -96,17 +96,16 @@ public class ServletHelper {
         final PwmResponse resp = pwmRequest.getPwmResponse();
 
         if (!resp.isCommitted()) {
-            final boolean includeXAmb = Boolean.parseBoolean(pwmApplication.getConfig().readAppProperty(AppProperty.HTTP_HEADER_SEND_XAMB));
-            final boolean includeXInstance = Boolean.parseBoolean(pwmApplication.getConfig().readAppProperty(AppProperty.HTTP_HEADER_SEND_XINSTANCE));
-            final boolean includeXSessionID = Boolean.parseBoolean(pwmApplication.getConfig().readAppProperty(AppProperty.HTTP_HEADER_SEND_XSESSIONID));
-            final boolean includeXVersion = Boolean.parseBoolean(pwmApplication.getConfig().readAppProperty(AppProperty.HTTP_HEADER_SEND_XVERSION));
-            final boolean includeXContentTypeOptions = Boolean.parseBoolean(pwmApplication.getConfig().readAppProperty(AppProperty.HTTP_HEADER_SEND_XCONTENTTYPEOPTIONS));
-            final boolean includeXXSSProtection = Boolean.parseBoolean(pwmApplication.getConfig().readAppProperty(AppProperty.HTTP_HEADER_SEND_XXSSPROTECTION));
+            final boolean includeXAmb = pwmApplication.getConfig().readAppPropertyAsBoolean(AppProperty.HTTP_HEADER_SEND_XAMB);
+            final boolean includeXInstance = pwmApplication.getConfig().readAppPropertyAsBoolean(AppProperty.HTTP_HEADER_SEND_XINSTANCE);
+            final boolean includeXSessionID = pwmApplication.getConfig().readAppPropertyAsBoolean(AppProperty.HTTP_HEADER_SEND_XSESSIONID);
+            final boolean includeXVersion = pwmApplication.getConfig().readAppPropertyAsBoolean(AppProperty.HTTP_HEADER_SEND_XVERSION);
+            final boolean includeXContentTypeOptions = pwmApplication.getConfig().readAppPropertyAsBoolean(AppProperty.HTTP_HEADER_SEND_XCONTENTTYPEOPTIONS);
+            final boolean includeXXSSProtection = pwmApplication.getConfig().readAppPropertyAsBoolean(AppProperty.HTTP_HEADER_SEND_XXSSPROTECTION);
 
 
             final boolean includeXFrameDeny = pwmApplication.getConfig().readSettingAsBoolean(PwmSetting.SECURITY_PREVENT_FRAMING);
-            final boolean sendNoise = Boolean.parseBoolean(pwmApplication.getConfig().readAppProperty(
-                    AppProperty.HTTP_HEADER_SEND_XNOISE));
+            final boolean sendNoise = pwmApplication.getConfig().readAppPropertyAsBoolean(AppProperty.HTTP_HEADER_SEND_XNOISE);
 
             if (sendNoise) {
                 resp.setHeader(
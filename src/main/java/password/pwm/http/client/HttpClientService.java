@@ -0,0 +1,317 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://code.google.com/p/pwm/
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2015 The PWM Project
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package password.pwm.http.client;
+
+import org.apache.http.HeaderElement;
+import org.apache.http.HeaderElementIterator;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.params.CookiePolicy;
+import org.apache.http.client.params.HttpClientParams;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.scheme.PlainSocketFactory;
+import org.apache.http.conn.scheme.Scheme;
+import org.apache.http.conn.scheme.SchemeRegistry;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.impl.conn.SchemeRegistryFactory;
+import org.apache.http.message.BasicHeaderElementIterator;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HTTP;
+import org.apache.http.protocol.HttpContext;
+import password.pwm.AppProperty;
+import password.pwm.PwmApplication;
+import password.pwm.config.Configuration;
+import password.pwm.config.option.DataStorageMethod;
+import password.pwm.error.ErrorInformation;
+import password.pwm.error.PwmError;
+import password.pwm.error.PwmException;
+import password.pwm.error.PwmUnrecoverableException;
+import password.pwm.health.HealthRecord;
+import password.pwm.svc.PwmService;
+import password.pwm.util.Helper;
+import password.pwm.util.logging.PwmLogger;
+import password.pwm.util.secure.PwmHashAlgorithm;
+import password.pwm.util.secure.SecureEngine;
+
+import javax.net.ssl.TrustManager;
+import java.io.ByteArrayOutputStream;
+import java.security.cert.X509Certificate;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds the application's shared outbound http clients.  One client is kept per trust configuration (default, promiscuous,
+ * or a specific set of trusted certificates), each with its own pool of keep-alive connections capped per route.  Idle
+ * and expired connections are evicted by a background task.
+ */
+public class HttpClientService implements PwmService {
+    private static final PwmLogger LOGGER = PwmLogger.forClass(HttpClientService.class);
+
+    private static final String DEFAULT_TRUST_KEY = "default";
+    private static final String PROMISCUOUS_TRUST_KEY = "promiscuous";
+    private static final long MIN_EVICTION_INTERVAL_MS = 1000;
+
+    private final Map<String, DefaultHttpClient> clients = new ConcurrentHashMap<>();
+
+    private PwmApplication pwmApplication;
+    private Settings settings;
+    private boolean promiscuous;
+    private ScheduledExecutorService executorService;
+    private volatile STATUS status = STATUS.NEW;
+
+    @Override
+    public STATUS status() {
+        return status;
+    }
+
+    @Override
+    public void init(final PwmApplication pwmApplication) throws PwmException {
+        status = STATUS.OPENING;
+        this.pwmApplication = pwmApplication;
+        final Configuration config = pwmApplication.getConfig();
+        settings = Settings.fromConfiguration(config);
+        promiscuous = config.readAppPropertyAsBoolean(AppProperty.SECURITY_HTTP_PROMISCUOUS_ENABLE);
+
+        executorService = Executors.newSingleThreadScheduledExecutor(
+                Helper.makePwmThreadFactory(
+                        Helper.makeThreadName(pwmApplication, this.getClass()) + "-",
+                        true
+                ));
+        final long evictionInterval = Math.max(MIN_EVICTION_INTERVAL_MS, settings.getIdleTimeoutMs() / 2);
+        executorService.scheduleWithFixedDelay(new EvictionTask(), evictionInterval, evictionInterval, TimeUnit.MILLISECONDS);
+        status = STATUS.OPEN;
+    }
+
+    @Override
+    public void close() {
+        status = STATUS.CLOSED;
+        if (executorService != null) {
+            executorService.shutdown();
+            executorService = null;
+        }
+        for (final DefaultHttpClient httpClient : clients.values()) {
+            httpClient.getConnectionManager().shutdown();
+        }
+        clients.clear();
+    }
+
+    @Override
+    public List<HealthRecord> healthCheck() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public ServiceInfo serviceInfo() {
+        final Map<String, String> debugProperties = new LinkedHashMap<>();
+        if (status == STATUS.OPEN) {
+            int leased = 0;
+            int available = 0;
+            int pending = 0;
+            for (final DefaultHttpClient httpClient : clients.values()) {
+                final PoolStats poolStats = ((PoolingClientConnectionManager) httpClient.getConnectionManager()).getTotalStats();
+                leased += poolStats.getLeased();
+                available += poolStats.getAvailable();
+                pending += poolStats.getPending();
+            }
+            debugProperties.put("clients", String.valueOf(clients.size()));
+            debugProperties.put("leasedConnections", String.valueOf(leased));
+            debugProperties.put("idleConnections", String.valueOf(available));
+            debugProperties.put("pendingRequests", String.valueOf(pending));
+            debugProperties.put("maxConnections", String.valueOf(settings.getMaxConnections()));
+            debugProperties.put("maxConnectionsPerRoute", String.valueOf(settings.getMaxConnectionsPerRoute()));
+        }
+        return new ServiceInfo(Collections.<DataStorageMethod>emptyList(), debugProperties);
+    }
+
+    HttpClient getHttpClient(final PwmHttpClientConfiguration pwmHttpClientConfiguration)
+            throws PwmUnrecoverableException
+    {
+        final String trustKey = makeTrustKey(pwmHttpClientConfiguration);
+        final DefaultHttpClient existingClient = clients.get(trustKey);
+        if (existingClient != null) {
+            return existingClient;
+        }
+
+        synchronized (clients) {
+            if (!clients.containsKey(trustKey)) {
+                final Configuration config = pwmApplication.getConfig();
+                final SchemeRegistry schemeRegistry;
+                try {
+                    final TrustManager trustManager = PwmHttpClient.makeTrustManager(config, pwmHttpClientConfiguration);
+                    if (trustManager == null) {
+                        schemeRegistry = SchemeRegistryFactory.createDefault();
+                    } else {
+                        schemeRegistry = new SchemeRegistry();
+                        schemeRegistry.register(new Scheme("http", 80, PlainSocketFactory.getSocketFactory()));
+                        schemeRegistry.register(PwmHttpClient.makeHttpsScheme(trustManager));
+                    }
+                } catch (PwmUnrecoverableException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new PwmUnrecoverableException(new ErrorInformation(PwmError.ERROR_UNKNOWN, "unexpected error creating pooled https client: " + e.getMessage()));
+                }
+                final DefaultHttpClient httpClient = makePooledClient(schemeRegistry, settings);
+                PwmHttpClient.applyClientSettings(httpClient, config);
+                clients.put(trustKey, httpClient);
+                LOGGER.debug("created pooled http client for trust configuration " + trustKey);
+            }
+            return clients.get(trustKey);
+        }
+    }
+
+    private String makeTrustKey(final PwmHttpClientConfiguration pwmHttpClientConfiguration)
+            throws PwmUnrecoverableException
+    {
+        if (promiscuous) {
+            return PROMISCUOUS_TRUST_KEY;
+        }
+        if (pwmHttpClientConfiguration == null || pwmHttpClientConfiguration.getCertificates() == null) {
+            return DEFAULT_TRUST_KEY;
+        }
+        try {
+            final ByteArrayOutputStream encodedCerts = new ByteArrayOutputStream();
+            for (final X509Certificate certificate : pwmHttpClientConfiguration.getCertificates()) {
+                encodedCerts.write(certificate.getEncoded());
+            }
+            return "certs-" + SecureEngine.hash(encodedCerts.toByteArray(), PwmHashAlgorithm.SHA1);
+        } catch (PwmUnrecoverableException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new PwmUnrecoverableException(new ErrorInformation(PwmError.ERROR_UNKNOWN, "unable to read trusted certificates for http client: " + e.getMessage()));
+        }
+    }
+
+    static DefaultHttpClient makePooledClient(final SchemeRegistry schemeRegistry, final Settings settings) {
+        final PoolingClientConnectionManager connectionManager = new PoolingClientConnectionManager(schemeRegistry);
+        connectionManager.setMaxTotal(settings.getMaxConnections());
+        connectionManager.setDefaultMaxPerRoute(settings.getMaxConnectionsPerRoute());
+
+        final DefaultHttpClient httpClient = new DefaultHttpClient(connectionManager);
+        // fail rather than hang forever if connections are leaked by callers not consuming the response entity
+        HttpClientParams.setConnectionManagerTimeout(httpClient.getParams(), settings.getConnectionWaitMs());
+        httpClient.setKeepAliveStrategy(new BoundedKeepAliveStrategy(settings.getKeepAliveMs()));
+        // the client is shared by all users, so cookies set by one response must never be sent with another request
+        HttpClientParams.setCookiePolicy(httpClient.getParams(), CookiePolicy.IGNORE_COOKIES);
+        return httpClient;
+    }
+
+    private class EvictionTask implements Runnable {
+        @Override
+        public void run() {
+            try {
+                for (final DefaultHttpClient httpClient : clients.values()) {
+                    httpClient.getConnectionManager().closeExpiredConnections();
+                    httpClient.getConnectionManager().closeIdleConnections(settings.getIdleTimeoutMs(), TimeUnit.MILLISECONDS);
+                }
+            } catch (Exception e) {
+                LOGGER.error("unexpected error evicting idle http connections: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Honors the server's keep-alive timeout header, but never keeps a connection longer than the configured maximum.
+     */
+    private static class BoundedKeepAliveStrategy implements ConnectionKeepAliveStrategy {
+        private final long maxKeepAliveMs;
+
+        private BoundedKeepAliveStrategy(final long maxKeepAliveMs) {
+            this.maxKeepAliveMs = maxKeepAliveMs;
+        }
+
+        @Override
+        public long getKeepAliveDuration(final HttpResponse response, final HttpContext context) {
+            final HeaderElementIterator iterator = new BasicHeaderElementIterator(response.headerIterator(HTTP.CONN_KEEP_ALIVE));
+            while (iterator.hasNext()) {
+                final HeaderElement element = iterator.nextElement();
+                if ("timeout".equalsIgnoreCase(element.getName()) && element.getValue() != null) {
+                    try {
+                        return Math.min(maxKeepAliveMs, Long.parseLong(element.getValue()) * 1000);
+                    } catch (NumberFormatException e) {
+                        /* noop */
+                    }
+                }
+            }
+            return maxKeepAliveMs;
+        }
+    }
+
+    static class Settings {
+        private final int maxConnections;
+        private final int maxConnectionsPerRoute;
+        private final long keepAliveMs;
+        private final long idleTimeoutMs;
+        private final long connectionWaitMs;
+
+        Settings(
+                final int maxConnections,
+                final int maxConnectionsPerRoute,
+                final long keepAliveMs,
+                final long idleTimeoutMs,
+                final long connectionWaitMs
+        ) {
+            this.maxConnections = maxConnections;
+            this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+            this.keepAliveMs = keepAliveMs;
+            this.idleTimeoutMs = idleTimeoutMs;
+            this.connectionWaitMs = connectionWaitMs;
+        }
+
+        static Settings fromConfiguration(final Configuration config) {
+            return new Settings(
+                    config.readAppPropertyAsInt(AppProperty.HTTP_CLIENT_MAX_CONNECTIONS),
+                    config.readAppPropertyAsInt(AppProperty.HTTP_CLIENT_MAX_CONNECTIONS_PER_ROUTE),
+                    config.readAppPropertyAsLong(AppProperty.HTTP_CLIENT_KEEP_ALIVE_MS),
+                    config.readAppPropertyAsLong(AppProperty.HTTP_CLIENT_IDLE_TIMEOUT_MS),
+                    config.readAppPropertyAsLong(AppProperty.HTTP_CLIENT_CONNECTION_WAIT_MS)
+            );
+        }
+
+        int getMaxConnections() {
+            return maxConnections;
+        }
+
+        int getMaxConnectionsPerRoute() {
+            return maxConnectionsPerRoute;
+        }
+
+        long getKeepAliveMs() {
+            return keepAliveMs;
+        }
+
+        long getIdleTimeoutMs() {
+            return idleTimeoutMs;
+        }
+
+        long getConnectionWaitMs() {
+            return connectionWaitMs;
+        }
+    }
+}
@@ -49,6 +49,7 @@ import password.pwm.config.PwmSetting;
 import password.pwm.error.ErrorInformation;
 import password.pwm.error.PwmError;
 import password.pwm.error.PwmUnrecoverableException;
+import password.pwm.svc.PwmService;
 import password.pwm.util.TimeDuration;
 import password.pwm.util.X509Utils;
 import password.pwm.util.logging.PwmLogger;
@@ -98,10 +99,8 @@ public class PwmHttpClient {
     {
         final DefaultHttpClient httpClient;
         try {
-            if (Boolean.parseBoolean(configuration.readAppProperty(AppProperty.SECURITY_HTTP_PROMISCUOUS_ENABLE))) {
-                httpClient = new DefaultHttpClient(makeConnectionManager(new X509Utils.PromiscuousTrustManager()));
-            } else if (pwmHttpClientConfiguration != null && pwmHttpClientConfiguration.getCertificates() != null) {
-                final TrustManager trustManager = new X509Utils.CertMatchingTrustManager(configuration,pwmHttpClientConfiguration.getCertificates());
+            final TrustManager trustManager = makeTrustManager(configuration, pwmHttpClientConfiguration);
+            if (trustManager != null) {
                 httpClient = new DefaultHttpClient(makeConnectionManager(trustManager));
             } else {
                 httpClient = new DefaultHttpClient();
@@ -109,6 +108,37 @@ public class PwmHttpClient {
         } catch (Exception e) {
             throw new PwmUnrecoverableException(new ErrorInformation(PwmError.ERROR_UNKNOWN,"unexpected error creating promiscuous https client: " + e.getMessage()));
         }
+        applyClientSettings(httpClient, configuration);
+        return httpClient;
+    }
+
+    /**
+     * Returns the application's shared client for the trust configuration, with pooled keep-alive connections.  If
+     * the {@link HttpClientService} is not available a new unpooled client is returned instead.  Callers must fully
+     * consume each response entity so the connection is returned to the pool.
+     */
+    public static HttpClient getHttpClient(final PwmApplication pwmApplication, final PwmHttpClientConfiguration pwmHttpClientConfiguration)
+            throws PwmUnrecoverableException
+    {
+        final HttpClientService httpClientService = pwmApplication.getHttpClientService();
+        if (httpClientService != null && httpClientService.status() == PwmService.STATUS.OPEN) {
+            return httpClientService.getHttpClient(pwmHttpClientConfiguration);
+        }
+        return getHttpClient(pwmApplication.getConfig(), pwmHttpClientConfiguration);
+    }
+
+    static TrustManager makeTrustManager(final Configuration configuration, final PwmHttpClientConfiguration pwmHttpClientConfiguration)
+            throws PwmUnrecoverableException
+    {
+        if (configuration.readAppPropertyAsBoolean(AppProperty.SECURITY_HTTP_PROMISCUOUS_ENABLE)) {
+            return new X509Utils.PromiscuousTrustManager();
+        } else if (pwmHttpClientConfiguration != null && pwmHttpClientConfiguration.getCertificates() != null) {
+            return new X509Utils.CertMatchingTrustManager(configuration, pwmHttpClientConfiguration.getCertificates());
+        }
+        return null;
+    }
+
+    static void applyClientSettings(final DefaultHttpClient httpClient, final Configuration configuration) {
         final String strValue = configuration.readSettingAsString(PwmSetting.HTTP_PROXY_URL);
         if (strValue != null && strValue.length() > 0) {
             final URI proxyURI = URI.create(strValue);
@@ -127,7 +157,6 @@ public class PwmHttpClient {
         }
         final String userAgent = PwmConstants.PWM_APP_NAME + " " + PwmConstants.SERVLET_VERSION;
         httpClient.getParams().setParameter(HttpProtocolParams.USER_AGENT, userAgent);
-        return httpClient;
     }
 
     static String entityToDebugString(
@@ -201,7 +230,7 @@ public class PwmHttpClient {
             }
         }
 
-        final HttpClient httpClient = getHttpClient(pwmApplication.getConfig(), pwmHttpClientConfiguration);
+        final HttpClient httpClient = getHttpClient(pwmApplication, pwmHttpClientConfiguration);
         LOGGER.trace(sessionLabel, "preparing to send (id=" + counter + ") " + clientRequest.toDebugString());
 
         final HttpResponse httpResponse = httpClient.execute(httpRequest);
@@ -227,6 +256,15 @@ public class PwmHttpClient {
 
     private static ClientConnectionManager makeConnectionManager(TrustManager trustManager)
             throws NoSuchAlgorithmException, KeyManagementException
+    {
+        final SchemeRegistry schemeRegistry = new SchemeRegistry();
+        schemeRegistry.register(makeHttpsScheme(trustManager));
+
+        return new SingleClientConnManager(schemeRegistry);
+    }
+
+    static Scheme makeHttpsScheme(final TrustManager trustManager)
+            throws NoSuchAlgorithmException, KeyManagementException
     {
         final SSLContext sslContext = SSLContext.getInstance("SSL");
 
@@ -236,11 +274,6 @@ public class PwmHttpClient {
         final HostnameVerifier hostnameVerifier = org.apache.http.conn.ssl.SSLSocketFactory.ALLOW_ALL_HOSTNAME_VERIFIER;
 
         sf.setHostnameVerifier((X509HostnameVerifier) hostnameVerifier);
-        final Scheme httpsScheme = new Scheme("https", 443, sf);
-        final SchemeRegistry schemeRegistry = new SchemeRegistry();
-        schemeRegistry.register(httpsScheme);
-
-        return new SingleClientConnManager(schemeRegistry);
+        return new Scheme("https", 443, sf);
     }
 }
-
@@ -182,7 +182,7 @@ public class AuthenticationFilter extends AbstractPwmFilter {
             return;
         }
 
-        final int cookieAgeSeconds = Integer.parseInt(pwmRequest.getConfig().readAppProperty(AppProperty.HTTP_COOKIE_AUTHRECORD_AGE));
+        final int cookieAgeSeconds = pwmRequest.getConfig().readAppPropertyAsInt(AppProperty.HTTP_COOKIE_AUTHRECORD_AGE);
         if (cookieAgeSeconds < 1) {
             LOGGER.debug(pwmRequest, "skipping auth record cookie set, cookie age parameter is less than 1" );
             return;
@@ -245,7 +245,7 @@ public class ConfigAccessFilter extends AbstractPwmFilter {
                 new Date(),
                 pwmRequest.getPwmSession().getSessionStateBean().getSrcAddress()
         );
-        final int maxEvents = Integer.parseInt(pwmRequest.getPwmApplication().getConfig().readAppProperty(AppProperty.CONFIG_HISTORY_MAX_ITEMS));
+        final int maxEvents = pwmRequest.getPwmApplication().getConfig().readAppPropertyAsInt(AppProperty.CONFIG_HISTORY_MAX_ITEMS);
         configLoginHistory.addEvent(event, maxEvents, successful);
         pwmRequest.getPwmApplication().writeAppAttribute(PwmApplication.AppAttribute.CONFIG_LOGIN_HISTORY, configLoginHistory);
     }
@@ -324,6 +324,6 @@ public class ConfigAccessFilter extends AbstractPwmFilter {
     }
 
     static int figureMaxLoginSeconds(final PwmRequest pwmRequest) {
-        return Integer.parseInt(pwmRequest.getConfig().readAppProperty(AppProperty.CONFIG_MAX_PERSISTENT_LOGIN_SECONDS));
+        return pwmRequest.getConfig().readAppPropertyAsInt(AppProperty.CONFIG_MAX_PERSISTENT_LOGIN_SECONDS);
     }
 }
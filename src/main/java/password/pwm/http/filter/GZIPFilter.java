@@ -86,7 +86,7 @@ public class GZIPFilter implements Filter {
         final PwmApplication pwmApplication;
         try {
             pwmApplication = ContextManager.getPwmApplication((HttpServletRequest) servletRequest);
-            return Boolean.parseBoolean(pwmApplication.getConfig().readAppProperty(AppProperty.HTTP_ENABLE_GZIP));
+            return pwmApplication.getConfig().readAppPropertyAsBoolean(AppProperty.HTTP_ENABLE_GZIP);
         } catch (PwmUnrecoverableException e) {
             LOGGER.trace("unable to read http-gzip app-property, defaulting to non-gzip: " + e.getMessage());
         }
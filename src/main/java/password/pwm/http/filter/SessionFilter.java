@@ -397,7 +397,7 @@ public class SessionFilter extends AbstractPwmFilter {
                 if (configuredTheme != null && configuredTheme.equalsIgnoreCase(themeReqParameter)) {
                     pwmRequest.getPwmResponse().removeCookie(themeCookieName, PwmHttpResponseWrapper.CookiePath.Application);
                 } else {
-                    int maxAge = Integer.parseInt(config.readAppProperty(AppProperty.HTTP_COOKIE_THEME_AGE));
+                    int maxAge = config.readAppPropertyAsInt(AppProperty.HTTP_COOKIE_THEME_AGE);
                     pwmRequest.getPwmResponse().writeCookie(themeCookieName, themeReqParameter, maxAge,  PwmHttpResponseWrapper.CookiePath.Application);
 
                 }
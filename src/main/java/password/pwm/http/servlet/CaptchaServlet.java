@@ -247,7 +247,7 @@ public class CaptchaServlet extends AbstractPwmServlet {
             throws PwmUnrecoverableException
     {
         final String cookieValue = figureSkipCookieValue(pwmRequest);
-        final int captchaSkipCookieLifetimeSeconds = Integer.parseInt(pwmRequest.getConfig().readAppProperty(AppProperty.HTTP_COOKIE_CAPTCHA_SKIP_AGE));
+        final int captchaSkipCookieLifetimeSeconds = pwmRequest.getConfig().readAppPropertyAsInt(AppProperty.HTTP_COOKIE_CAPTCHA_SKIP_AGE);
         final String captchaSkipCookieName = pwmRequest.getConfig().readAppProperty(AppProperty.HTTP_COOKIE_CAPTCHA_SKIP_NAME);
         if (cookieValue != null) {
             pwmRequest.getPwmResponse().writeCookie(
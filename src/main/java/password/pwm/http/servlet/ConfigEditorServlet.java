@@ -167,7 +167,7 @@ public class ConfigEditorServlet extends AbstractPwmServlet {
 
         pwmSession.setSessionTimeout(
                 pwmRequest.getHttpServletRequest().getSession(),
-                Integer.parseInt(pwmRequest.getConfig().readAppProperty(AppProperty.CONFIG_EDITOR_IDLE_TIMEOUT)));
+                pwmRequest.getConfig().readAppPropertyAsInt(AppProperty.CONFIG_EDITOR_IDLE_TIMEOUT));
 
 
         final ConfigEditorAction action = readProcessAction(pwmRequest);
@@ -718,7 +718,7 @@ public class ConfigEditorServlet extends AbstractPwmServlet {
     {
         final String key = pwmRequest.readParameterAsString("key");
         final PwmSetting setting = PwmSetting.forKey(key);
-        final int maxFileSize = Integer.parseInt(pwmRequest.getConfig().readAppProperty(AppProperty.CONFIG_MAX_JDBC_JAR_SIZE));
+        final int maxFileSize = pwmRequest.getConfig().readAppPropertyAsInt(AppProperty.CONFIG_MAX_JDBC_JAR_SIZE);
 
         final FileValue fileValue = readFileUploadToSettingValue(pwmRequest, maxFileSize);
         if (fileValue != null) {
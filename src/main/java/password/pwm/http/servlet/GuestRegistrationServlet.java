@@ -217,6 +217,7 @@ public class GuestRegistrationServlet extends AbstractPwmServlet {
 
             // Update user attributes
             Helper.writeFormValuesToLdap(pwmApplication, pwmSession, theGuest, formValues, false);
+            UserSearchEngine.invalidateResolutionCache();
 
             // Write expirationDate
             if (expirationDate != null) {
@@ -400,6 +401,7 @@ public class GuestRegistrationServlet extends AbstractPwmServlet {
             final Set<String> createObjectClasses = new HashSet<>(config.readSettingAsStringArray(PwmSetting.DEFAULT_OBJECT_CLASSES));
 
             provider.createEntry(guestUserDN, createObjectClasses, createAttributes);
+            UserSearchEngine.invalidateResolutionCache();
             LOGGER.info(pwmSession, "created user object: " + guestUserDN);
 
             final ChaiUser theUser = ChaiFactory.createChaiUser(guestUserDN, provider);
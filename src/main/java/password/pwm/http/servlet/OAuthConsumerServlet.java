@@ -301,7 +301,7 @@ public class OAuthConsumerServlet extends AbstractPwmServlet {
             final PwmRequest pwmRequest
     )
     {
-        if (!Boolean.parseBoolean(pwmRequest.getConfig().readAppProperty(AppProperty.OAUTH_ENABLE_TOKEN_REFRESH))) {
+        if (!pwmRequest.getConfig().readAppPropertyAsBoolean(AppProperty.OAUTH_ENABLE_TOKEN_REFRESH)) {
             return false;
         }
 
@@ -455,8 +455,8 @@ public class SetupOtpServlet extends AbstractPwmServlet {
             }
         }
 
-        final int height = Integer.parseInt(pwmRequest.getConfig().readAppProperty(AppProperty.OTP_QR_IMAGE_HEIGHT));
-        final int width = Integer.parseInt(pwmRequest.getConfig().readAppProperty(AppProperty.OTP_QR_IMAGE_WIDTH));
+        final int height = pwmRequest.getConfig().readAppPropertyAsInt(AppProperty.OTP_QR_IMAGE_HEIGHT);
+        final int width = pwmRequest.getConfig().readAppPropertyAsInt(AppProperty.OTP_QR_IMAGE_WIDTH);
 
         final byte[] imageBytes;
         try {
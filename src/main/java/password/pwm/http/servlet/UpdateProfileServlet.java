@@ -41,6 +41,7 @@ import password.pwm.http.PwmSession;
 import password.pwm.http.bean.UpdateProfileBean;
 import password.pwm.i18n.Message;
 import password.pwm.ldap.UserDataReader;
+import password.pwm.ldap.UserSearchEngine;
 import password.pwm.ldap.UserStatusReader;
 import password.pwm.svc.event.AuditEvent;
 import password.pwm.svc.event.AuditRecord;
@@ -387,6 +388,7 @@ public class UpdateProfileServlet extends AbstractPwmServlet {
         pwmRequest.getPwmSession().getSessionManager().getChaiProvider();
 
         Helper.writeFormValuesToLdap(pwmRequest.getPwmApplication(), pwmRequest.getPwmSession(), theUser, formMap, false);
+        UserSearchEngine.invalidateResolutionCache();
 
         final UserIdentity userIdentity = uiBean.getUserIdentity();
 
@@ -150,7 +150,7 @@ public class ConfigGuideServlet extends AbstractPwmServlet {
 
         pwmSession.setSessionTimeout(
                 pwmRequest.getHttpServletRequest().getSession(),
-                Integer.parseInt(pwmApplication.getConfig().readAppProperty(AppProperty.CONFIG_GUIDE_IDLE_TIMEOUT)));
+                pwmApplication.getConfig().readAppPropertyAsInt(AppProperty.CONFIG_GUIDE_IDLE_TIMEOUT));
 
         if (configGuideBean.getStep() == GuideStep.LDAP_CERT) {
             final String ldapServerString = ConfigGuideForm.figureLdapUrlFromFormConfig(configGuideBean.getFormData());
@@ -613,7 +613,7 @@ public class ConfigGuideServlet extends AbstractPwmServlet {
             throws PwmUnrecoverableException, IOException, ServletException
     {
         try {
-            final int maxFileSize = Integer.parseInt(pwmRequest.getConfig().readAppProperty(AppProperty.CONFIG_MAX_JDBC_JAR_SIZE));
+            final int maxFileSize = pwmRequest.getConfig().readAppPropertyAsInt(AppProperty.CONFIG_MAX_JDBC_JAR_SIZE);
             final FileValue fileValue = ConfigEditorServlet.readFileUploadToSettingValue(pwmRequest, maxFileSize);
             configGuideBean.setDatabaseDriver(fileValue);
             final RestResultBean restResultBean = new RestResultBean();
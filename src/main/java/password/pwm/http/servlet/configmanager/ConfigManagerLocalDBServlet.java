@@ -122,7 +122,7 @@ public class ConfigManagerLocalDBServlet extends AbstractPwmServlet {
         resp.setHeader(PwmConstants.HttpHeader.ContentTransferEncoding, "binary");
         final LocalDBUtility localDBUtility = new LocalDBUtility(pwmRequest.getPwmApplication().getLocalDB());
         try {
-            final int bufferSize = Integer.parseInt(pwmRequest.getConfig().readAppProperty(AppProperty.HTTP_DOWNLOAD_BUFFER_SIZE));
+            final int bufferSize = pwmRequest.getConfig().readAppPropertyAsInt(AppProperty.HTTP_DOWNLOAD_BUFFER_SIZE);
             final OutputStream bos = new BufferedOutputStream(resp.getOutputStream(),bufferSize);
             localDBUtility.exportLocalDB(bos, LOGGER.asAppendable(PwmLogLevel.DEBUG, pwmRequest.getSessionLabel()), false);
             LOGGER.debug(pwmRequest, "completed localDBExport process in " + TimeDuration.fromCurrent(startTime).asCompactString());
@@ -449,8 +449,8 @@ public class DebugItemGenerator {
                 final OutputStream outputStream
         ) throws Exception {
 
-            final int maxCount = Integer.parseInt(pwmRequest.getConfig().readAppProperty(AppProperty.CONFIG_MANAGER_ZIPDEBUG_MAXLOGLINES));
-            final int maxSeconds = Integer.parseInt(pwmRequest.getConfig().readAppProperty(AppProperty.CONFIG_MANAGER_ZIPDEBUG_MAXLOGSECONDS));
+            final int maxCount = pwmRequest.getConfig().readAppPropertyAsInt(AppProperty.CONFIG_MANAGER_ZIPDEBUG_MAXLOGLINES);
+            final int maxSeconds = pwmRequest.getConfig().readAppPropertyAsInt(AppProperty.CONFIG_MANAGER_ZIPDEBUG_MAXLOGSECONDS);
             final LocalDBLogger.SearchParameters searchParameters = new LocalDBLogger.SearchParameters(
                     PwmLogLevel.TRACE,
                     maxCount,
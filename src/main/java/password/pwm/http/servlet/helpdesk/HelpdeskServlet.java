@@ -334,6 +334,7 @@ public class HelpdeskServlet extends AbstractPwmServlet {
 
         try {
             provider.deleteEntry(userIdentity.getUserDN());
+            UserSearchEngine.invalidateResolutionCache();
         } catch (ChaiOperationException e) {
             final String errorMsg = "error while attempting to delete user " + userIdentity.toString() + ", error: " + e.getMessage();
             final ErrorInformation errorInformation = new ErrorInformation(PwmError.ERROR_UNKNOWN, errorMsg);
@@ -95,7 +95,7 @@ class NewUserFormUtils {
             try {
                 decryptedPassword = pwmRequest.getPwmApplication().getSecureService().decryptStringValue(passwordInToken);
             } catch (PwmUnrecoverableException e) {
-                final boolean allowUnencryptedPassword = Boolean.parseBoolean(pwmRequest.getConfig().readAppProperty(AppProperty.NEWUSER_TOKEN_ALLOW_PLAIN_PW));
+                final boolean allowUnencryptedPassword = pwmRequest.getConfig().readAppPropertyAsBoolean(AppProperty.NEWUSER_TOKEN_ALLOW_PLAIN_PW);
                 if (allowUnencryptedPassword && e.getError() == PwmError.ERROR_CRYPT_ERROR) {
                     LOGGER.warn(pwmRequest, "error decrypting password in tokenPayload, will use raw password value: " + e.getMessage());
                 } else {
@@ -568,6 +568,7 @@ public class NewUserServlet extends AbstractPwmServlet {
         final ChaiProvider chaiProvider = pwmApplication.getConfig().getDefaultLdapProfile().getProxyChaiProvider(pwmApplication);
         try { // create the ldap entry
             chaiProvider.createEntry(newUserDN, createObjectClasses, createAttributes);
+            UserSearchEngine.invalidateResolutionCache();
 
             LOGGER.info(pwmSession, "created user entry: " + newUserDN);
         } catch (ChaiOperationException e) {
@@ -709,6 +710,7 @@ public class NewUserServlet extends AbstractPwmServlet {
         try {
             LOGGER.warn(pwmRequest, "deleting ldap user account " + userDN);
             pwmRequest.getConfig().getDefaultLdapProfile().getProxyChaiProvider(pwmRequest.getPwmApplication()).deleteEntry(userDN);
+            UserSearchEngine.invalidateResolutionCache();
             LOGGER.warn(pwmRequest, "ldap user account " + userDN + " has been deleted");
         } catch (ChaiUnavailableException | ChaiOperationException e) {
             LOGGER.error(pwmRequest, "error deleting ldap user account " + userDN + ", " + e.getMessage());
@@ -0,0 +1,257 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://code.google.com/p/pwm/
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2015 The PWM Project
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package password.pwm.http.servlet.peoplesearch;
+
+import com.novell.ldapchai.exception.ChaiOperationException;
+import com.novell.ldapchai.exception.ChaiUnavailableException;
+import com.novell.ldapchai.provider.ChaiProvider;
+import com.novell.ldapchai.util.SearchHelper;
+import password.pwm.bean.SessionLabel;
+import password.pwm.bean.UserIdentity;
+import password.pwm.ldap.UserDataReader;
+import password.pwm.util.StringUtil;
+import password.pwm.util.TimeDuration;
+import password.pwm.util.logging.PwmLogger;
+
+import java.util.*;
+
+/**
+ * Reads attributes of many users with a few ldap searches instead of one read per user.  Users are grouped by
+ * their parent container, and each container is searched one level deep with an OR filter of the users' naming
+ * values, so a whole team is typically read with a single search.  Users whose DN can not be expressed as a
+ * simple filter are skipped and should be read individually, see {@link #isSearchable(UserIdentity)}.
+ */
+class BulkUserDataReader {
+    private static final PwmLogger LOGGER = PwmLogger.forClass(BulkUserDataReader.class);
+
+    private final ChaiProvider chaiProvider;
+    private final SessionLabel sessionLabel;
+    private final int batchSize;
+
+    BulkUserDataReader(
+            final ChaiProvider chaiProvider,
+            final SessionLabel sessionLabel,
+            final int batchSize
+    ) {
+        this.chaiProvider = chaiProvider;
+        this.sessionLabel = sessionLabel;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    static boolean isSearchable(final UserIdentity userIdentity) {
+        return userIdentity != null && splitDN(userIdentity.getUserDN()) != null;
+    }
+
+    /**
+     * @param filter optional filter the users must also match, may be null
+     * @return attribute values (keyed case insensitively) of each searchable user that exists and matches the filter
+     */
+    Map<UserIdentity, Map<String, String>> search(
+            final Collection<UserIdentity> userIdentities,
+            final String filter,
+            final Collection<String> attributes
+    )
+            throws ChaiUnavailableException, ChaiOperationException
+    {
+        final Date startTime = new Date();
+        final Map<String, String> containers = new LinkedHashMap<>();
+        final Map<String, List<UserIdentity>> identitiesByContainer = new LinkedHashMap<>();
+        for (final UserIdentity userIdentity : userIdentities) {
+            final String[] dnParts = splitDN(userIdentity.getUserDN());
+            if (dnParts != null) {
+                final String containerKey = normalizeDN(dnParts[2]);
+                if (!identitiesByContainer.containsKey(containerKey)) {
+                    containers.put(containerKey, dnParts[2]);
+                    identitiesByContainer.put(containerKey, new ArrayList<UserIdentity>());
+                }
+                identitiesByContainer.get(containerKey).add(userIdentity);
+            }
+        }
+
+        final Map<UserIdentity, Map<String, String>> returnMap = new LinkedHashMap<>();
+        int searchCount = 0;
+        for (final String containerKey : identitiesByContainer.keySet()) {
+            final List<UserIdentity> containerIdentities = identitiesByContainer.get(containerKey);
+            for (int i = 0; i < containerIdentities.size(); i += batchSize) {
+                final List<UserIdentity> batch = containerIdentities.subList(i, Math.min(containerIdentities.size(), i + batchSize));
+                returnMap.putAll(searchBatch(containers.get(containerKey), batch, filter, attributes));
+                searchCount++;
+            }
+        }
+
+        LOGGER.trace(sessionLabel, "bulk read of " + attributes.size() + " attributes for " + userIdentities.size()
+                + " users matched " + returnMap.size() + " users using " + searchCount + " searches in "
+                + TimeDuration.fromCurrent(startTime).asCompactString());
+        return returnMap;
+    }
+
+    private Map<UserIdentity, Map<String, String>> searchBatch(
+            final String container,
+            final List<UserIdentity> batch,
+            final String filter,
+            final Collection<String> attributes
+    )
+            throws ChaiUnavailableException, ChaiOperationException
+    {
+        final Map<String, UserIdentity> identitiesByDN = new HashMap<>();
+        final StringBuilder namingFilter = new StringBuilder();
+        namingFilter.append("(|");
+        for (final UserIdentity userIdentity : batch) {
+            final String[] dnParts = splitDN(userIdentity.getUserDN());
+            namingFilter.append("(").append(dnParts[0]).append("=").append(StringUtil.escapeLdapFilter(dnParts[1])).append(")");
+            identitiesByDN.put(normalizeDN(userIdentity.getUserDN()), userIdentity);
+        }
+        namingFilter.append(")");
+
+        final SearchHelper searchHelper = new SearchHelper();
+        searchHelper.setFilter(filter == null || filter.isEmpty()
+                ? namingFilter.toString()
+                : "(&" + filter + namingFilter.toString() + ")");
+        searchHelper.setAttributes(attributes);
+        // not limited to the batch size, naming attributes may be multi-valued so other entries can match the filter too
+        searchHelper.setSearchScope(ChaiProvider.SEARCH_SCOPE.ONE);
+
+        final Map<String, Map<String, String>> results = chaiProvider.search(container, searchHelper);
+        final Map<UserIdentity, Map<String, String>> returnMap = new LinkedHashMap<>();
+        for (final String resultDN : results.keySet()) {
+            final UserIdentity userIdentity = identitiesByDN.get(normalizeDN(resultDN));
+            if (userIdentity != null) {
+                final Map<String, String> values = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+                values.putAll(results.get(resultDN));
+                returnMap.put(userIdentity, values);
+            }
+        }
+        return returnMap;
+    }
+
+    /**
+     * @return naming attribute, naming value and container of the DN, or null if the DN uses escaping, quoting or
+     *         a multi-valued RDN
+     */
+    private static String[] splitDN(final String dn) {
+        if (dn == null || dn.indexOf('\\') >= 0 || dn.indexOf('"') >= 0) {
+            return null;
+        }
+        final int commaIndex = dn.indexOf(',');
+        if (commaIndex < 1) {
+            return null;
+        }
+        final String rdn = dn.substring(0, commaIndex);
+        final int equalsIndex = rdn.indexOf('=');
+        if (equalsIndex < 1 || rdn.indexOf('+') >= 0) {
+            return null;
+        }
+        final String namingAttribute = rdn.substring(0, equalsIndex).trim();
+        final String namingValue = rdn.substring(equalsIndex + 1).trim();
+        final String container = dn.substring(commaIndex + 1).trim();
+        if (namingAttribute.isEmpty() || namingValue.isEmpty() || container.isEmpty()) {
+            return null;
+        }
+        return new String[]{namingAttribute, namingValue, container};
+    }
+
+    private static String normalizeDN(final String dn) {
+        return dn.toLowerCase().replaceAll("\\s*([,=])\\s*", "$1").trim();
+    }
+
+    /**
+     * Serves attributes read by a bulk search, and reads any other attribute through the wrapped reader.
+     */
+    static class PreloadedUserDataReader implements UserDataReader {
+        private final UserDataReader userDataReader;
+        private final Set<String> preloadedAttributes;
+        private final Map<String, String> preloadedValues;
+
+        PreloadedUserDataReader(
+                final UserDataReader userDataReader,
+                final Collection<String> preloadedAttributes,
+                final Map<String, String> preloadedValues
+        ) {
+            this.userDataReader = userDataReader;
+            this.preloadedAttributes = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+            this.preloadedAttributes.addAll(preloadedAttributes);
+            this.preloadedValues = preloadedValues;
+        }
+
+        @Override
+        public String getUserDN() {
+            return userDataReader.getUserDN();
+        }
+
+        @Override
+        public String readStringAttribute(final String attribute)
+                throws ChaiUnavailableException, ChaiOperationException
+        {
+            return readStringAttribute(attribute, false);
+        }
+
+        @Override
+        public String readStringAttribute(final String attribute, final boolean ignoreCache)
+                throws ChaiUnavailableException, ChaiOperationException
+        {
+            if (!ignoreCache && preloadedAttributes.contains(attribute)) {
+                return preloadedValues.get(attribute);
+            }
+            return userDataReader.readStringAttribute(attribute, ignoreCache);
+        }
+
+        @Override
+        public Date readDateAttribute(final String attribute)
+                throws ChaiUnavailableException, ChaiOperationException
+        {
+            return userDataReader.readDateAttribute(attribute);
+        }
+
+        @Override
+        public Map<String, String> readStringAttributes(final Collection<String> attributes)
+                throws ChaiUnavailableException, ChaiOperationException
+        {
+            return readStringAttributes(attributes, false);
+        }
+
+        @Override
+        public Map<String, String> readStringAttributes(final Collection<String> attributes, final boolean ignoreCache)
+                throws ChaiUnavailableException, ChaiOperationException
+        {
+            if (ignoreCache) {
+                return userDataReader.readStringAttributes(attributes, true);
+            }
+
+            final Map<String, String> returnMap = new HashMap<>();
+            final List<String> unloadedAttributes = new ArrayList<>();
+            for (final String attribute : attributes) {
+                if (preloadedAttributes.contains(attribute)) {
+                    if (preloadedValues.containsKey(attribute)) {
+                        returnMap.put(attribute, preloadedValues.get(attribute));
+                    }
+                } else {
+                    unloadedAttributes.add(attribute);
+                }
+            }
+            if (!unloadedAttributes.isEmpty()) {
+                returnMap.putAll(userDataReader.readStringAttributes(unloadedAttributes, false));
+            }
+            return returnMap;
+        }
+    }
+}
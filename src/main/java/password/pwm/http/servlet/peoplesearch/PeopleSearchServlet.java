@@ -51,17 +51,26 @@ import password.pwm.util.LocaleHelper;
 import password.pwm.util.TimeDuration;
 import password.pwm.util.logging.PwmLogger;
 import password.pwm.util.macro.MacroMachine;
+import password.pwm.util.secure.PwmHashAlgorithm;
+import password.pwm.util.secure.SecureEngine;
 import password.pwm.ws.server.RestResultBean;
 
 import javax.servlet.ServletException;
 import javax.servlet.annotation.WebServlet;
+import javax.imageio.ImageIO;
 import javax.servlet.http.HttpServletResponse;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.Serializable;
 import java.net.URLConnection;
 import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 @WebServlet(
         name="PeopleSearchServlet",
@@ -76,6 +85,10 @@ public class PeopleSearchServlet extends AbstractPwmServlet {
 
     private static final PwmLogger LOGGER = PwmLogger.forClass(PeopleSearchServlet.class);
 
+    private static final Pattern LDAP_MACRO_ATTRIBUTE_PATTERN = Pattern.compile("@LDAP:([^:@/]+)[:@]");
+
+    private static volatile PhotoDataCache photoDataCache;
+
     public enum PeopleSearchActions implements ProcessAction {
         search(HttpMethod.POST),
         detail(HttpMethod.POST),
@@ -393,9 +406,13 @@ public class PeopleSearchServlet extends AbstractPwmServlet {
 
         final Map<String,OrgChartReferenceBean> sortedSiblings = new TreeMap<>();
         final List<UserIdentity> childIdentities = readUserDNAttributeValues(pwmRequest, parentIdentity, childAttribute);
+        final Map<UserIdentity,OrgChartPreloadData> childPreloadData = preloadOrgChartData(pwmRequest, childIdentities, childAttribute);
         int counter = 0;
         for (final UserIdentity  childIdentity : childIdentities) {
-            final OrgChartReferenceBean childReference = makeOrgChartReferenceForIdentity(pwmRequest, childIdentity, childAttribute);
+            final OrgChartPreloadData preloadData = childPreloadData.get(childIdentity);
+            final OrgChartReferenceBean childReference = preloadData == null
+                    ? makeOrgChartReferenceForIdentity(pwmRequest, childIdentity, childAttribute)
+                    : makeOrgChartReferenceForIdentity(pwmRequest, childIdentity, childAttribute, preloadData.userDataReader, preloadData.hasPhotoData);
             if (childReference != null) {
                 if (childReference.getDisplayNames() != null && !childReference.getDisplayNames().isEmpty()) {
                     final String firstDisplayName = childReference.getDisplayNames().iterator().next();
@@ -412,6 +429,68 @@ public class PeopleSearchServlet extends AbstractPwmServlet {
         return orgChartData;
     }
 
+    /**
+     * Reads the display name, photo and next node data of all the identities using bulk searches, instead of several
+     * reads per identity.  Identities missing from the returned map could not be bulk read and are read individually.
+     */
+    private static Map<UserIdentity,OrgChartPreloadData> preloadOrgChartData(
+            final PwmRequest pwmRequest,
+            final List<UserIdentity> userIdentities,
+            final String nextNodeAttribute
+    )
+            throws PwmUnrecoverableException
+    {
+        final Configuration config = pwmRequest.getConfig();
+        final int batchSize = config.readAppPropertyAsInt(AppProperty.PEOPLESEARCH_BULK_READ_BATCH_SIZE);
+        if (batchSize < 1 || userIdentities.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        final String overrideURL = config.readSettingAsString(PwmSetting.PEOPLE_SEARCH_PHOTO_URL_OVERRIDE);
+        final List<String> macroSettings = new ArrayList<>(config.readSettingAsStringArray(PwmSetting.PEOPLE_SEARCH_DISPLAY_NAMES_CARD_LABELS));
+        if (overrideURL != null && !overrideURL.isEmpty()) {
+            macroSettings.add(overrideURL);
+        }
+
+        final Set<String> attributes = new LinkedHashSet<>();
+        attributes.add(nextNodeAttribute);
+        for (final String macroSetting : macroSettings) {
+            final Matcher matcher = LDAP_MACRO_ATTRIBUTE_PATTERN.matcher(macroSetting);
+            while (matcher.find()) {
+                if (!"dn".equalsIgnoreCase(matcher.group(1))) {
+                    attributes.add(matcher.group(1));
+                }
+            }
+        }
+
+        final String photoAttribute = config.readSettingAsString(PwmSetting.PEOPLE_SEARCH_PHOTO_ATTRIBUTE);
+        final boolean checkPhotoData = (overrideURL == null || overrideURL.isEmpty()) && photoAttribute != null && !photoAttribute.isEmpty();
+
+        final Map<UserIdentity,OrgChartPreloadData> returnMap = new HashMap<>();
+        try {
+            final ChaiProvider chaiProvider = getChaiUser(pwmRequest, userIdentities.get(0)).getChaiProvider();
+            final BulkUserDataReader bulkUserDataReader = new BulkUserDataReader(chaiProvider, pwmRequest.getSessionLabel(), batchSize);
+            final Map<UserIdentity,Map<String,String>> attributeValues = bulkUserDataReader.search(userIdentities, null, attributes);
+            final Set<UserIdentity> photoIdentities = checkPhotoData
+                    ? bulkUserDataReader.search(attributeValues.keySet(), "(" + photoAttribute + "=*)", Collections.<String>emptyList()).keySet()
+                    : Collections.<UserIdentity>emptySet();
+
+            for (final UserIdentity userIdentity : attributeValues.keySet()) {
+                final UserDataReader userDataReader = new BulkUserDataReader.PreloadedUserDataReader(
+                        new LdapUserDataReader(userIdentity, getChaiUser(pwmRequest, userIdentity)),
+                        attributes,
+                        attributeValues.get(userIdentity)
+                );
+                final Boolean hasPhotoData = checkPhotoData ? photoIdentities.contains(userIdentity) : null;
+                returnMap.put(userIdentity, new OrgChartPreloadData(userDataReader, hasPhotoData));
+            }
+        } catch (ChaiException e) {
+            LOGGER.debug(pwmRequest, "error during bulk read of org chart data, users will be read individually: " + e.getMessage());
+            return Collections.emptyMap();
+        }
+        return returnMap;
+    }
+
     private void restUserDetailRequest(
             final PwmRequest pwmRequest,
             final PeopleSearchConfiguration peopleSearchConfiguration
@@ -528,6 +607,21 @@ public class PeopleSearchServlet extends AbstractPwmServlet {
             final UserIdentity userIdentity
     )
             throws PwmUnrecoverableException
+    {
+        return figurePhotoURL(pwmRequest, userIdentity, null, null);
+    }
+
+    /**
+     * @param userDataReader reader used for the override url macros, or null to read directly
+     * @param hasPhotoData photo data presence if already known, or null to read the photo attribute
+     */
+    private static String figurePhotoURL(
+            final PwmRequest pwmRequest,
+            final UserIdentity userIdentity,
+            final UserDataReader userDataReader,
+            final Boolean hasPhotoData
+    )
+            throws PwmUnrecoverableException
     {
         final PwmApplication pwmApplication = pwmRequest.getPwmApplication();
         final List<UserPermission> showPhotoPermission = pwmApplication.getConfig().readSettingAsUserPermission(PwmSetting.PEOPLE_SEARCH_PHOTO_QUERY_FILTER);
@@ -539,13 +633,21 @@ public class PeopleSearchServlet extends AbstractPwmServlet {
         final String overrideURL = pwmApplication.getConfig().readSettingAsString(PwmSetting.PEOPLE_SEARCH_PHOTO_URL_OVERRIDE);
         try {
             if (overrideURL != null && !overrideURL.isEmpty()) {
-                final MacroMachine macroMachine = getMacroMachine(pwmRequest, userIdentity);
+                final MacroMachine macroMachine = getMacroMachine(pwmRequest, userIdentity, userDataReader);
                 return macroMachine.expandMacros(overrideURL);
             }
 
-            try {
-                readPhotoDataFromLdap(pwmRequest, userIdentity);
-            } catch (PwmOperationalException e) {
+            boolean photoDataAvailable = true;
+            if (hasPhotoData != null) {
+                photoDataAvailable = hasPhotoData;
+            } else {
+                try {
+                    readPhotoData(pwmRequest, userIdentity);
+                } catch (PwmOperationalException e) {
+                    photoDataAvailable = false;
+                }
+            }
+            if (!photoDataAvailable) {
                 LOGGER.debug(pwmRequest, "determined " + userIdentity + " does not have photo data available while generating detail data");
                 return null;
             }
@@ -572,11 +674,21 @@ public class PeopleSearchServlet extends AbstractPwmServlet {
             final UserIdentity userIdentity
     )
             throws PwmUnrecoverableException
+    {
+        return figureDisplaynames(pwmRequest, userIdentity, null);
+    }
+
+    private static List<String> figureDisplaynames(
+            final PwmRequest pwmRequest,
+            final UserIdentity userIdentity,
+            final UserDataReader userDataReader
+    )
+            throws PwmUnrecoverableException
     {
         final List<String> displayLabels = new ArrayList<>();
         final List<String> displayStringSettings = pwmRequest.getConfig().readSettingAsStringArray(PwmSetting.PEOPLE_SEARCH_DISPLAY_NAMES_CARD_LABELS);
         if (displayStringSettings != null) {
-            final MacroMachine macroMachine = getMacroMachine(pwmRequest, userIdentity);
+            final MacroMachine macroMachine = getMacroMachine(pwmRequest, userIdentity, userDataReader);
             for (final String displayStringSetting : displayStringSettings) {
                 final String displayLabel = macroMachine.expandMacros(displayStringSetting);
                 displayLabels.add(displayLabel);
@@ -612,7 +724,7 @@ public class PeopleSearchServlet extends AbstractPwmServlet {
 
         final PhotoDataBean photoData;
         try {
-            photoData = readPhotoDataFromLdap(pwmRequest, userIdentity);
+            photoData = readPhotoData(pwmRequest, userIdentity);
         } catch (PwmOperationalException e) {
             final ErrorInformation errorInformation = e.getErrorInformation();
             LOGGER.error(pwmRequest, errorInformation);
@@ -624,9 +736,18 @@ public class PeopleSearchServlet extends AbstractPwmServlet {
         try {
             final long maxCacheSeconds = pwmRequest.getConfig().readSettingAsLong(PwmSetting.PEOPLE_SEARCH_MAX_CACHE_SECONDS);
             final HttpServletResponse resp = pwmRequest.getPwmResponse().getHttpServletResponse();
-            resp.setContentType(photoData.getMimeType());
             resp.setDateHeader("Expires", System.currentTimeMillis() + (maxCacheSeconds * 1000l));
             resp.setHeader("Cache-Control", "public, max-age=" + maxCacheSeconds);
+            if (photoData.getETag() != null) {
+                resp.setHeader("ETag", photoData.getETag());
+                final String ifNoneMatchValue = pwmRequest.readHeaderValueAsString(PwmConstants.HttpHeader.If_None_Match);
+                if (eTagMatches(ifNoneMatchValue, photoData.getETag())) {
+                    resp.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                    LOGGER.trace(pwmRequest, "photo for " + userIdentity + " is unchanged, returning HTTP 304 status");
+                    return;
+                }
+            }
+            resp.setContentType(photoData.getMimeType());
 
             outputStream = pwmRequest.getPwmResponse().getOutputStream();
             outputStream.write(photoData.getContents());
@@ -709,9 +830,18 @@ public class PeopleSearchServlet extends AbstractPwmServlet {
     )
             throws PwmUnrecoverableException
     {
-        final ChaiUser chaiUser = getChaiUser(pwmRequest, userIdentity);
+        return getMacroMachine(pwmRequest, userIdentity, null);
+    }
+
+    private static MacroMachine getMacroMachine(
+            final PwmRequest pwmRequest,
+            final UserIdentity userIdentity,
+            final UserDataReader preloadedDataReader
+    )
+            throws PwmUnrecoverableException
+    {
         final UserInfoBean userInfoBean;
-        if (Boolean.parseBoolean(pwmRequest.getConfig().readAppProperty(AppProperty.PEOPLESEARCH_DISPLAYNAME_USEALLMACROS))) {
+        if (pwmRequest.getConfig().readAppPropertyAsBoolean(AppProperty.PEOPLESEARCH_DISPLAYNAME_USEALLMACROS)) {
             final Locale locale = pwmRequest.getLocale();
             final ChaiProvider chaiProvider = pwmRequest.getPwmApplication().getProxiedChaiUser(userIdentity).getChaiProvider();
             userInfoBean = new UserInfoBean();
@@ -720,7 +850,9 @@ public class PeopleSearchServlet extends AbstractPwmServlet {
         } else {
             userInfoBean = null;
         }
-        UserDataReader userDataReader = new LdapUserDataReader(userIdentity, chaiUser);
+        final UserDataReader userDataReader = preloadedDataReader != null
+                ? preloadedDataReader
+                : new LdapUserDataReader(userIdentity, getChaiUser(pwmRequest, userIdentity));
         return new MacroMachine(pwmRequest.getPwmApplication(), pwmRequest.getSessionLabel(), userInfoBean, null, userDataReader);
     }
 
@@ -730,18 +862,108 @@ public class PeopleSearchServlet extends AbstractPwmServlet {
     )
             throws  PwmUnrecoverableException, PwmOperationalException
     {
-        final String filterSetting = getSearchFilter(pwmRequest.getConfig());
-        String filterString = filterSetting.replace(PwmConstants.VALUE_REPLACEMENT_USERNAME, "*");
-        while (filterString.contains("**")) {
-            filterString = filterString.replace("**", "*");
+        final String filterString = getViewableFilter(pwmRequest.getConfig());
+        final CacheKey cacheKey = makeViewableCacheKey(pwmRequest, filterString, userIdentity);
+        final String cachedOutput = pwmRequest.getPwmApplication().getCacheService().get(cacheKey);
+
+        boolean match = false;
+        if (cachedOutput != null) {
+            match = Boolean.parseBoolean(cachedOutput);
+        } else {
+            try {
+                match = LdapPermissionTester.testQueryMatchStrict(pwmRequest.getPwmApplication(), pwmRequest.getSessionLabel(), userIdentity, filterString);
+                storeDataInCache(pwmRequest.getPwmApplication(), cacheKey, String.valueOf(match));
+            } catch (ChaiException e) {
+                // not cached, so the check is retried on the next request
+                LOGGER.warn(pwmRequest, "ldap error during search filter check for " + userIdentity + ", error: " + e.getMessage());
+            }
         }
 
-        final boolean match = LdapPermissionTester.testQueryMatch(pwmRequest.getPwmApplication(), pwmRequest.getSessionLabel(), userIdentity, filterString);
         if (!match) {
             throw new PwmOperationalException(new ErrorInformation(PwmError.ERROR_SERVICE_NOT_AVAILABLE, "requested userDN is not available within configured search filter"));
         }
     }
 
+    /**
+     * Checks which of the identities match the search filter, using cached results where available and a bulk
+     * search of the remainder.  Identities the bulk search did not return, or could not check, are not present in
+     * the returned map and should be checked individually.
+     */
+    private static Map<UserIdentity,Boolean> checkIfUserIdentitiesViewable(
+            final PwmRequest pwmRequest,
+            final Collection<UserIdentity> userIdentities
+    )
+            throws PwmUnrecoverableException
+    {
+        final PwmApplication pwmApplication = pwmRequest.getPwmApplication();
+        final String filterString = getViewableFilter(pwmRequest.getConfig());
+        final Map<UserIdentity,Boolean> returnMap = new HashMap<>();
+        if (LdapPermissionTester.isMatchAllQuery(filterString)) {
+            for (final UserIdentity userIdentity : userIdentities) {
+                returnMap.put(userIdentity, true);
+            }
+            return returnMap;
+        }
+
+        final Map<String,List<UserIdentity>> uncheckedIdentities = new LinkedHashMap<>();
+        for (final UserIdentity userIdentity : userIdentities) {
+            final String cachedOutput = pwmApplication.getCacheService().get(makeViewableCacheKey(pwmRequest, filterString, userIdentity));
+            if (cachedOutput != null) {
+                returnMap.put(userIdentity, Boolean.parseBoolean(cachedOutput));
+            } else if (BulkUserDataReader.isSearchable(userIdentity)) {
+                final String profileID = userIdentity.getLdapProfileID();
+                if (!uncheckedIdentities.containsKey(profileID)) {
+                    uncheckedIdentities.put(profileID, new ArrayList<UserIdentity>());
+                }
+                uncheckedIdentities.get(profileID).add(userIdentity);
+            }
+        }
+
+        final int batchSize = pwmRequest.getConfig().readAppPropertyAsInt(AppProperty.PEOPLESEARCH_BULK_READ_BATCH_SIZE);
+        if (batchSize < 1 || uncheckedIdentities.isEmpty()) {
+            return returnMap;
+        }
+
+        for (final String profileID : uncheckedIdentities.keySet()) {
+            final List<UserIdentity> profileIdentities = uncheckedIdentities.get(profileID);
+            try {
+                // viewability is always tested using the proxy connection, same as LdapPermissionTester.testQueryMatch
+                final ChaiProvider chaiProvider = pwmApplication.getProxyChaiProvider(profileID);
+                final BulkUserDataReader bulkUserDataReader = new BulkUserDataReader(chaiProvider, pwmRequest.getSessionLabel(), batchSize);
+                final Set<UserIdentity> matchedIdentities = bulkUserDataReader.search(profileIdentities, filterString, Collections.<String>emptyList()).keySet();
+                // only matches are conclusive, a user missing from the results is left for the individual check
+                for (final UserIdentity userIdentity : matchedIdentities) {
+                    returnMap.put(userIdentity, true);
+                    storeDataInCache(pwmApplication, makeViewableCacheKey(pwmRequest, filterString, userIdentity), String.valueOf(true));
+                }
+            } catch (ChaiException e) {
+                LOGGER.debug(pwmRequest, "error during bulk search filter check, users will be checked individually: " + e.getMessage());
+            }
+        }
+        return returnMap;
+    }
+
+    private static String getViewableFilter(final Configuration configuration) {
+        final String filterSetting = getSearchFilter(configuration);
+        String filterString = filterSetting.replace(PwmConstants.VALUE_REPLACEMENT_USERNAME, "*");
+        while (filterString.contains("**")) {
+            filterString = filterString.replace("**", "*");
+        }
+        return filterString;
+    }
+
+    private static CacheKey makeViewableCacheKey(
+            final PwmRequest pwmRequest,
+            final String filterString,
+            final UserIdentity userIdentity
+    )
+            throws PwmUnrecoverableException
+    {
+        // the filter check does not depend on the requesting user, so the result is shared by all users
+        final String keyString = "viewable|" + pwmRequest.getPwmApplication().getSecureService().hash(filterString + "|" + userIdentity.toDelimitedKey());
+        return CacheKey.makeCacheKey(PeopleSearchServlet.class, null, keyString);
+    }
+
     private static PhotoDataBean readPhotoDataFromLdap(
             final PwmRequest pwmRequest,
             final UserIdentity userIdentity
@@ -766,7 +988,110 @@ public class PeopleSearchServlet extends AbstractPwmServlet {
         } catch (IOException | ChaiOperationException e) {
             throw new PwmOperationalException(new ErrorInformation(PwmError.ERROR_UNKNOWN, "error reading user photo ldap attribute: " + e.getMessage()));
         }
-        return new PhotoDataBean(mimeType, photoData);
+
+        final int maxDimension = pwmRequest.getConfig().readAppPropertyAsInt(AppProperty.PEOPLESEARCH_PHOTO_MAX_DIMENSION);
+        if (maxDimension > 0) {
+            photoData = scalePhotoData(pwmRequest, photoData, mimeType, maxDimension);
+        }
+        final String eTag = "\"" + SecureEngine.hash(photoData, PwmHashAlgorithm.SHA1) + "\"";
+        return new PhotoDataBean(mimeType, photoData, eTag);
+    }
+
+    /**
+     * Reads the photo through the photo cache.  Photos read using the requesting user's own ldap connection are
+     * cached separately for each requesting user, as directory access rights may differ between users.
+     */
+    private static PhotoDataBean readPhotoData(
+            final PwmRequest pwmRequest,
+            final UserIdentity userIdentity
+    )
+            throws ChaiUnavailableException, PwmUnrecoverableException, PwmOperationalException
+    {
+        final Configuration config = pwmRequest.getConfig();
+        final long maxBytes = config.readAppPropertyAsLong(AppProperty.PEOPLESEARCH_PHOTO_CACHE_MAX_BYTES);
+        PhotoDataCache cache = photoDataCache;
+        if (cache == null || cache.getMaxBytes() != maxBytes) {
+            cache = new PhotoDataCache(maxBytes);
+            photoDataCache = cache;
+        }
+
+        final UserIdentity requestingIdentity = pwmRequest.isAuthenticated() && !useProxy(pwmRequest)
+                ? pwmRequest.getUserInfoIfLoggedIn()
+                : null;
+        final String cacheKey = (requestingIdentity == null ? "" : requestingIdentity.toDelimitedKey())
+                + "|" + config.readSettingAsString(PwmSetting.PEOPLE_SEARCH_PHOTO_ATTRIBUTE)
+                + "|" + config.readAppPropertyAsInt(AppProperty.PEOPLESEARCH_PHOTO_MAX_DIMENSION)
+                + "|" + userIdentity.toDelimitedKey();
+
+        final PhotoDataBean cachedPhotoData = cache.get(cacheKey);
+        if (cachedPhotoData != null) {
+            return cachedPhotoData;
+        }
+
+        final PhotoDataBean photoData = readPhotoDataFromLdap(pwmRequest, userIdentity);
+        final long maxCacheSeconds = config.readSettingAsLong(PwmSetting.PEOPLE_SEARCH_MAX_CACHE_SECONDS);
+        cache.put(cacheKey, photoData, maxCacheSeconds * 1000);
+        return photoData;
+    }
+
+    /**
+     * Scale the photo down so neither side exceeds maxDimension pixels.  The original data is returned if the photo
+     * is already small enough, can not be decoded, or the scaled image would not be smaller.
+     */
+    private static byte[] scalePhotoData(
+            final PwmRequest pwmRequest,
+            final byte[] photoData,
+            final String mimeType,
+            final int maxDimension
+    )
+    {
+        if (mimeType == null || !mimeType.startsWith("image/")) {
+            return photoData;
+        }
+        final String formatName = mimeType.substring("image/".length());
+
+        try {
+            final BufferedImage image = ImageIO.read(new ByteArrayInputStream(photoData));
+            if (image == null || (image.getWidth() <= maxDimension && image.getHeight() <= maxDimension)) {
+                return photoData;
+            }
+
+            final double scale = Math.min((double) maxDimension / image.getWidth(), (double) maxDimension / image.getHeight());
+            final int width = Math.max(1, (int) Math.round(image.getWidth() * scale));
+            final int height = Math.max(1, (int) Math.round(image.getHeight() * scale));
+            final int imageType = "jpeg".equalsIgnoreCase(formatName) ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB;
+            final BufferedImage scaledImage = new BufferedImage(width, height, imageType);
+            final Graphics2D graphics = scaledImage.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.drawImage(image, 0, 0, width, height, null);
+            } finally {
+                graphics.dispose();
+            }
+
+            final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            if (!ImageIO.write(scaledImage, formatName, outputStream) || outputStream.size() >= photoData.length) {
+                return photoData;
+            }
+            return outputStream.toByteArray();
+        } catch (IOException e) {
+            LOGGER.debug(pwmRequest, "unable to scale photo data, original photo will be used: " + e.getMessage());
+            return photoData;
+        }
+    }
+
+    private static boolean eTagMatches(final String ifNoneMatchValue, final String eTagValue) {
+        if (ifNoneMatchValue == null || eTagValue == null) {
+            return false;
+        }
+        for (final String value : ifNoneMatchValue.split(",")) {
+            final String trimmedValue = value.trim();
+            final String tagValue = trimmedValue.startsWith("W/") ? trimmedValue.substring(2) : trimmedValue;
+            if ("*".equals(tagValue) || eTagValue.equals(tagValue)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     private static String getSearchFilter(final Configuration configuration) {
@@ -802,17 +1127,29 @@ public class PeopleSearchServlet extends AbstractPwmServlet {
             final String nextNodeAttribute
     )
             throws PwmUnrecoverableException
+    {
+        final UserDataReader userDataReader = new LdapUserDataReader(userIdentity, getChaiUser(pwmRequest, userIdentity));
+        return makeOrgChartReferenceForIdentity(pwmRequest, userIdentity, nextNodeAttribute, userDataReader, null);
+    }
+
+    private static OrgChartReferenceBean makeOrgChartReferenceForIdentity(
+            final PwmRequest pwmRequest,
+            final UserIdentity userIdentity,
+            final String nextNodeAttribute,
+            final UserDataReader userDataReader,
+            final Boolean hasPhotoData
+    )
+            throws PwmUnrecoverableException
     {
         final OrgChartReferenceBean orgChartReferenceBean = new OrgChartReferenceBean();
         orgChartReferenceBean.setUserKey(userIdentity.toObfuscatedKey(pwmRequest.getPwmApplication()));
-        orgChartReferenceBean.setPhotoURL(figurePhotoURL(pwmRequest, userIdentity));
+        orgChartReferenceBean.setPhotoURL(figurePhotoURL(pwmRequest, userIdentity, userDataReader, hasPhotoData));
 
-        final List<String> displayLabels = figureDisplaynames(pwmRequest, userIdentity);
+        final List<String> displayLabels = figureDisplaynames(pwmRequest, userIdentity, userDataReader);
         orgChartReferenceBean.setDisplayNames(displayLabels);
 
         orgChartReferenceBean.setHasMoreNodes(false);
         try {
-            final UserDataReader userDataReader = new LdapUserDataReader(userIdentity, getChaiUser(pwmRequest, userIdentity));
             final String nextNodeValue = userDataReader.readStringAttribute(nextNodeAttribute);
             if (nextNodeValue != null && !nextNodeValue.isEmpty()) {
                 orgChartReferenceBean.setHasMoreNodes(true);
@@ -834,7 +1171,7 @@ public class PeopleSearchServlet extends AbstractPwmServlet {
 
         final List<UserIdentity> returnObj = new ArrayList<>();
 
-        final int MAX_VALUES = Integer.parseInt(pwmRequest.getConfig().readAppProperty(AppProperty.PEOPLESEARCH_VALUE_MAXCOUNT));
+        final int MAX_VALUES = pwmRequest.getConfig().readAppPropertyAsInt(AppProperty.PEOPLESEARCH_VALUE_MAXCOUNT);
         final ChaiUser chaiUser = getChaiUser(pwmRequest, userIdentity);
         final Set<String> ldapValues;
         try {
@@ -846,13 +1183,27 @@ public class PeopleSearchServlet extends AbstractPwmServlet {
         }
 
 
-        final boolean checkUserDNValues = Boolean.parseBoolean(pwmRequest.getConfig().readAppProperty(AppProperty.PEOPLESEARCH_MAX_VALUE_VERIFYUSERDN));
+        final List<UserIdentity> valueIdentities = new ArrayList<>();
         for (final String userDN : ldapValues) {
-            final UserIdentity loopIdentity = new UserIdentity(userDN, userIdentity.getLdapProfileID());
+            valueIdentities.add(new UserIdentity(userDN, userIdentity.getLdapProfileID()));
+        }
+
+        final boolean checkUserDNValues = pwmRequest.getConfig().readAppPropertyAsBoolean(AppProperty.PEOPLESEARCH_MAX_VALUE_VERIFYUSERDN);
+        final Map<UserIdentity,Boolean> viewableIdentities = checkUserDNValues
+                ? checkIfUserIdentitiesViewable(pwmRequest, valueIdentities.subList(0, Math.min(MAX_VALUES, valueIdentities.size())))
+                : Collections.<UserIdentity,Boolean>emptyMap();
+
+        for (final UserIdentity loopIdentity : valueIdentities) {
+            final String userDN = loopIdentity.getUserDN();
             if (returnObj.size() < MAX_VALUES) {
                 try {
                     if (checkUserDNValues) {
-                        checkIfUserIdentityViewable(pwmRequest, loopIdentity);
+                        final Boolean viewable = viewableIdentities.get(loopIdentity);
+                        if (viewable == null) {
+                            checkIfUserIdentityViewable(pwmRequest, loopIdentity);
+                        } else if (!viewable) {
+                            throw new PwmOperationalException(new ErrorInformation(PwmError.ERROR_SERVICE_NOT_AVAILABLE, "requested userDN is not available within configured search filter"));
+                        }
                     }
                     returnObj.add(loopIdentity);
                 } catch (PwmOperationalException e) {
@@ -886,6 +1237,16 @@ public class PeopleSearchServlet extends AbstractPwmServlet {
                 keyString);
     }
 
+    private static class OrgChartPreloadData {
+        private final UserDataReader userDataReader;
+        private final Boolean hasPhotoData;
+
+        private OrgChartPreloadData(final UserDataReader userDataReader, final Boolean hasPhotoData) {
+            this.userDataReader = userDataReader;
+            this.hasPhotoData = hasPhotoData;
+        }
+    }
+
     private static class PeopleSearchConfiguration {
         private final Configuration configuration;
 
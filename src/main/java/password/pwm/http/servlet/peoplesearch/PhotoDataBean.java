@@ -25,10 +25,12 @@ package password.pwm.http.servlet.peoplesearch;
 class PhotoDataBean {
     private final String mimeType;
     private byte[] contents;
+    private final String eTag;
 
-    PhotoDataBean(String mimeType, byte[] contents) {
+    PhotoDataBean(String mimeType, byte[] contents, String eTag) {
         this.mimeType = mimeType;
         this.contents = contents;
+        this.eTag = eTag;
     }
 
     public String getMimeType() {
@@ -38,4 +40,8 @@ class PhotoDataBean {
     public byte[] getContents() {
         return contents;
     }
+
+    public String getETag() {
+        return eTag;
+    }
 }
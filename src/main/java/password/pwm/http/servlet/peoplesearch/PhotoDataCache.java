@@ -0,0 +1,83 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://code.google.com/p/pwm/
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2015 The PWM Project
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package password.pwm.http.servlet.peoplesearch;
+
+import com.googlecode.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
+import com.googlecode.concurrentlinkedhashmap.Weigher;
+
+import java.util.Map;
+
+/**
+ * Memory cache of user photos, bounded by the total size of the cached photo data instead of an item count, so a
+ * few large photos can not crowd out the heap.  The least recently used photos are evicted first.
+ */
+class PhotoDataCache {
+    private final long maxBytes;
+    private final Map<String, CachedPhoto> cacheMap;
+
+    PhotoDataCache(final long maxBytes) {
+        this.maxBytes = maxBytes;
+        this.cacheMap = new ConcurrentLinkedHashMap.Builder<String, CachedPhoto>()
+                .maximumWeightedCapacity(Math.max(1, maxBytes))
+                .weigher(new Weigher<CachedPhoto>() {
+                    @Override
+                    public int weightOf(final CachedPhoto cachedPhoto) {
+                        return Math.max(1, cachedPhoto.photoData.getContents().length);
+                    }
+                })
+                .build();
+    }
+
+    long getMaxBytes() {
+        return maxBytes;
+    }
+
+    PhotoDataBean get(final String key) {
+        final CachedPhoto cachedPhoto = cacheMap.get(key);
+        if (cachedPhoto == null) {
+            return null;
+        }
+        if (cachedPhoto.expirationTime < System.currentTimeMillis()) {
+            cacheMap.remove(key);
+            return null;
+        }
+        return cachedPhoto.photoData;
+    }
+
+    void put(final String key, final PhotoDataBean photoData, final long lifetimeMs) {
+        if (maxBytes <= 0 || lifetimeMs <= 0 || photoData.getContents().length > maxBytes) {
+            return;
+        }
+        cacheMap.put(key, new CachedPhoto(photoData, System.currentTimeMillis() + lifetimeMs));
+    }
+
+    private static class CachedPhoto {
+        private final PhotoDataBean photoData;
+        private final long expirationTime;
+
+        private CachedPhoto(final PhotoDataBean photoData, final long expirationTime) {
+            this.photoData = photoData;
+            this.expirationTime = expirationTime;
+        }
+    }
+}
@@ -94,11 +94,11 @@ class ResourceServletConfiguration {
 
     ResourceServletConfiguration(final PwmApplication pwmApplication) {
         LOGGER.trace("initializing");
-        maxCacheItems = Integer.parseInt(pwmApplication.getConfig().readAppProperty(AppProperty.HTTP_RESOURCES_MAX_CACHE_ITEMS));
-        cacheExpireSeconds = Long.parseLong(pwmApplication.getConfig().readAppProperty(AppProperty.HTTP_RESOURCES_EXPIRATION_SECONDS));
-        enableGzip = Boolean.parseBoolean(pwmApplication.getConfig().readAppProperty(AppProperty.HTTP_RESOURCES_ENABLE_GZIP));
-        enablePathNonce = Boolean.parseBoolean(pwmApplication.getConfig().readAppProperty(AppProperty.HTTP_RESOURCES_ENABLE_PATH_NONCE));
-        maxCacheBytes = Long.parseLong(pwmApplication.getConfig().readAppProperty(AppProperty.HTTP_RESOURCES_MAX_CACHE_BYTES));
+        maxCacheItems = pwmApplication.getConfig().readAppPropertyAsInt(AppProperty.HTTP_RESOURCES_MAX_CACHE_ITEMS);
+        cacheExpireSeconds = pwmApplication.getConfig().readAppPropertyAsLong(AppProperty.HTTP_RESOURCES_EXPIRATION_SECONDS);
+        enableGzip = pwmApplication.getConfig().readAppPropertyAsBoolean(AppProperty.HTTP_RESOURCES_ENABLE_GZIP);
+        enablePathNonce = pwmApplication.getConfig().readAppPropertyAsBoolean(AppProperty.HTTP_RESOURCES_ENABLE_PATH_NONCE);
+        maxCacheBytes = pwmApplication.getConfig().readAppPropertyAsLong(AppProperty.HTTP_RESOURCES_MAX_CACHE_BYTES);
 
         final String noncePrefix = pwmApplication.getConfig().readAppProperty(AppProperty.HTTP_RESOURCES_NONCE_PATH_PREFIX);
         noncePattern = Pattern.compile(noncePrefix + "[^/]*?/");
@@ -131,7 +131,7 @@ public class ResourceServletService implements PwmService {
     }
 
     private static String makeResourcePathNonce(final PwmApplication pwmApplication) {
-        final boolean enablePathNonce = Boolean.parseBoolean(pwmApplication.getConfig().readAppProperty(AppProperty.HTTP_RESOURCES_ENABLE_PATH_NONCE));
+        final boolean enablePathNonce = pwmApplication.getConfig().readAppPropertyAsBoolean(AppProperty.HTTP_RESOURCES_ENABLE_PATH_NONCE);
         final String noncePrefix = pwmApplication.getConfig().readAppProperty(AppProperty.HTTP_RESOURCES_NONCE_PATH_PREFIX);
         final String nonceValue = Long.toString(pwmApplication.getStartupTime().getTime(),36);
 
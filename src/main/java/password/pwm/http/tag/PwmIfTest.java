@@ -122,7 +122,7 @@ public enum PwmIfTest {
             final PwmApplication.MODE applicationMode = pwmRequest.getPwmApplication().getApplicationMode();
             boolean configMode = applicationMode == PwmApplication.MODE.CONFIGURATION;
             boolean adminUser = pwmRequest.getPwmSession().getSessionManager().checkPermission(pwmRequest.getPwmApplication(), Permission.PWMADMIN);
-            if (Boolean.parseBoolean(pwmRequest.getConfig().readAppProperty(AppProperty.CLIENT_WARNING_HEADER_SHOW))) {
+            if (pwmRequest.getConfig().readAppPropertyAsBoolean(AppProperty.CLIENT_WARNING_HEADER_SHOW)) {
                 if (!pwmRequest.getURL().isConfigManagerURL()) {
                     if (configMode || PwmConstants.TRIAL_MODE) {
                         return true;
@@ -130,7 +130,7 @@ public class LdapBrowser {
 
     private int getMaxSizeLimit() {
         final Configuration configuration = new Configuration(storedConfiguration);
-        return Integer.parseInt(configuration.readAppProperty(AppProperty.LDAP_BROWSER_MAX_ENTRIES));
+        return configuration.readAppPropertyAsInt(AppProperty.LDAP_BROWSER_MAX_ENTRIES);
     }
 
     private Map<String, Boolean> getChildEntries(
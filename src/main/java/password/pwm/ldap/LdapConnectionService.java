@@ -24,6 +24,7 @@ package password.pwm.ldap;
 
 import com.google.gson.reflect.TypeToken;
 import com.novell.ldapchai.provider.ChaiProvider;
+import password.pwm.AppProperty;
 import password.pwm.PwmApplication;
 import password.pwm.config.option.DataStorageMethod;
 import password.pwm.config.profile.LdapProfile;
@@ -33,17 +34,27 @@ import password.pwm.error.PwmException;
 import password.pwm.error.PwmUnrecoverableException;
 import password.pwm.health.HealthRecord;
 import password.pwm.svc.PwmService;
+import password.pwm.util.Helper;
 import password.pwm.util.JsonUtil;
 import password.pwm.util.logging.PwmLogger;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 public class LdapConnectionService implements PwmService {
     final private static PwmLogger LOGGER = PwmLogger.forClass(LdapConnectionService.class);
 
-    private final Map<String,ChaiProvider> proxyChaiProviders = new HashMap<>();
-    private final Map<LdapProfile,ErrorInformation> lastLdapErrors = new HashMap<>();
+    private final Map<String,LdapProxyConnectionPool> proxyConnectionPools = new ConcurrentHashMap<>();
+    private final Map<LdapProfile,ErrorInformation> lastLdapErrors = new ConcurrentHashMap<>();
     private PwmApplication pwmApplication;
+    private ExecutorService searchExecutor;
+    private ScheduledExecutorService probeExecutor;
     private STATUS status = STATUS.NEW;
 
     public STATUS status()
@@ -59,23 +70,50 @@ public class LdapConnectionService implements PwmService {
         // read the lastLoginTime
         this.lastLdapErrors.putAll(readLastLdapFailure(pwmApplication));
 
+        if (pwmApplication.getConfig().readAppPropertyAsBoolean(AppProperty.LDAP_SEARCH_PARALLEL_ENABLE)) {
+            final int searchThreads = pwmApplication.getConfig().readAppPropertyAsInt(AppProperty.LDAP_SEARCH_PARALLEL_THREADS);
+            // searches beyond the thread limit run on the calling thread rather than queueing behind other requests
+            searchExecutor = new ThreadPoolExecutor(
+                    0,
+                    Math.max(1, searchThreads),
+                    60, TimeUnit.SECONDS,
+                    new SynchronousQueue<Runnable>(),
+                    Helper.makePwmThreadFactory(Helper.makeThreadName(pwmApplication, this.getClass()) + "-search-", true),
+                    new ThreadPoolExecutor.CallerRunsPolicy()
+            );
+        }
+
+        final long probeIntervalMS = pwmApplication.getConfig().readAppPropertyAsLong(AppProperty.LDAP_PROXY_PROBE_INTERVAL_MS);
+        if (probeIntervalMS > 0) {
+            probeExecutor = Executors.newSingleThreadScheduledExecutor(
+                    Helper.makePwmThreadFactory(Helper.makeThreadName(pwmApplication, this.getClass()) + "-probe-", true)
+            );
+            probeExecutor.scheduleWithFixedDelay(new ProbeTask(), probeIntervalMS, probeIntervalMS, TimeUnit.MILLISECONDS);
+        }
+
         status = STATUS.OPEN;
     }
 
     public void close()
     {
         status = STATUS.CLOSED;
+        if (searchExecutor != null) {
+            searchExecutor.shutdownNow();
+            searchExecutor = null;
+        }
+        if (probeExecutor != null) {
+            probeExecutor.shutdownNow();
+            probeExecutor = null;
+        }
         LOGGER.trace("closing ldap proxy connections");
-        for (final String id : proxyChaiProviders.keySet()) {
-            final ChaiProvider existingProvider = proxyChaiProviders.get(id);
-
+        for (final LdapProxyConnectionPool connectionPool : proxyConnectionPools.values()) {
             try {
-                existingProvider.close();
+                connectionPool.close();
             } catch (Exception e) {
                 LOGGER.error("error closing ldap proxy connection: " + e.getMessage(), e);
             }
         }
-        proxyChaiProviders.clear();
+        proxyConnectionPools.clear();
     }
 
     public List<HealthRecord> healthCheck()
@@ -85,10 +123,21 @@ public class LdapConnectionService implements PwmService {
 
     public ServiceInfo serviceInfo()
     {
-        return new ServiceInfo(Collections.singletonList(DataStorageMethod.LDAP));
+        final Map<String,String> debugProperties = new LinkedHashMap<>();
+        for (final LdapProxyConnectionPool connectionPool : proxyConnectionPools.values()) {
+            debugProperties.putAll(connectionPool.debugProperties());
+        }
+        return new ServiceInfo(Collections.singletonList(DataStorageMethod.LDAP), debugProperties);
     }
 
 
+    /**
+     * @return executor for running the searches of a single user search concurrently, or null if parallel searching is disabled.
+     */
+    ExecutorService getSearchExecutor() {
+        return status == STATUS.OPEN ? searchExecutor : null;
+    }
+
     public ChaiProvider getProxyChaiProvider(final LdapProfile ldapProfile)
             throws PwmUnrecoverableException
     {
@@ -98,9 +147,20 @@ public class LdapConnectionService implements PwmService {
     public ChaiProvider getProxyChaiProvider(final String identifier)
             throws PwmUnrecoverableException
     {
-        final ChaiProvider proxyChaiProvider = proxyChaiProviders.get(identifier == null ? "" : identifier);
-        if (proxyChaiProvider != null) {
-            return proxyChaiProvider;
+        final LdapProxyConnectionPool connectionPool = proxyConnectionPools.get(identifier == null ? "" : identifier);
+        if (connectionPool != null) {
+            return connectionPool.getProvider();
+        }
+
+        return openProxyChaiProvider(identifier);
+    }
+
+    private synchronized ChaiProvider openProxyChaiProvider(final String identifier)
+            throws PwmUnrecoverableException
+    {
+        final LdapProxyConnectionPool existingPool = proxyConnectionPools.get(identifier == null ? "" : identifier);
+        if (existingPool != null) {
+            return existingPool.getProvider();
         }
 
         final LdapProfile ldapProfile = pwmApplication.getConfig().getLdapProfiles().get(identifier == null ? "" : identifier);
@@ -110,20 +170,30 @@ public class LdapConnectionService implements PwmService {
         }
 
         try {
-            final ChaiProvider newProvider = LdapOperationsHelper.openProxyChaiProvider(
-                    null,
-                    ldapProfile,
-                    pwmApplication.getConfig(),
-                    pwmApplication.getStatisticsManager()
-            );
-            proxyChaiProviders.put(identifier, newProvider);
-            return newProvider;
+            final int poolSize = pwmApplication.getConfig().readAppPropertyAsInt(AppProperty.LDAP_PROXY_POOL_SIZE);
+            final LdapProxyConnectionPool newPool = new LdapProxyConnectionPool(pwmApplication, ldapProfile, poolSize);
+            newPool.open();
+            proxyConnectionPools.put(identifier == null ? "" : identifier, newPool);
+            return newPool.getProvider();
         } catch (PwmUnrecoverableException e) {
             setLastLdapFailure(ldapProfile,e.getErrorInformation());
             throw e;
         }
     }
 
+    private class ProbeTask implements Runnable {
+        @Override
+        public void run() {
+            for (final LdapProxyConnectionPool connectionPool : proxyConnectionPools.values()) {
+                try {
+                    connectionPool.probe();
+                } catch (Exception e) {
+                    LOGGER.error("unexpected error probing ldap proxy connections: " + e.getMessage());
+                }
+            }
+        }
+    }
+
     public void setLastLdapFailure(final LdapProfile ldapProfile, final ErrorInformation errorInformation) {
         lastLdapErrors.put(ldapProfile, errorInformation);
         final HashMap<String,ErrorInformation> outputMap = new HashMap<>();
@@ -159,6 +159,26 @@ public class LdapPermissionTester {
             final String filterString
     )
             throws PwmUnrecoverableException {
+        try {
+            return testQueryMatchStrict(pwmApplication, pwmSession, userIdentity, filterString);
+        } catch (ChaiException e) {
+            LOGGER.warn(pwmSession, "LDAP error during check for " + userIdentity + " using " + filterString + ", error:" + e.getMessage());
+            LOGGER.debug(pwmSession, "user " + userIdentity + " is not a match for '" + filterString + "'");
+            return false;
+        }
+    }
+
+    /**
+     * Same as {@link #testQueryMatch(PwmApplication, SessionLabel, UserIdentity, String)}, but an ldap error is thrown
+     * rather than reported as a non-match, so callers caching the result can tell the two apart.
+     */
+    public static boolean testQueryMatchStrict(
+            final PwmApplication pwmApplication,
+            final SessionLabel pwmSession,
+            final UserIdentity userIdentity,
+            final String filterString
+    )
+            throws PwmUnrecoverableException, ChaiException {
         if (userIdentity == null) {
             return false;
         }
@@ -168,19 +188,15 @@ public class LdapPermissionTester {
         boolean result = false;
         if (filterString == null || filterString.length() < 1) {
             LOGGER.trace(pwmSession, "missing queryMatch value, skipping check");
-        } else if ("(objectClass=*)".equalsIgnoreCase(filterString) || "objectClass=*".equalsIgnoreCase(filterString)) {
+        } else if (isMatchAllQuery(filterString)) {
             LOGGER.trace(pwmSession, "queryMatch check is guaranteed to be true, skipping ldap query");
             result = true;
         } else {
-            try {
-                LOGGER.trace(pwmSession, "checking ldap to see if " + userIdentity + " matches '" + filterString + "'");
-                final ChaiUser theUser = pwmApplication.getProxiedChaiUser(userIdentity);
-                final Map<String, Map<String, String>> results = theUser.getChaiProvider().search(theUser.getEntryDN(), filterString, Collections.<String>emptySet(), ChaiProvider.SEARCH_SCOPE.BASE);
-                if (results.size() == 1 && results.keySet().contains(theUser.getEntryDN())) {
-                    result = true;
-                }
-            } catch (ChaiException e) {
-                LOGGER.warn(pwmSession, "LDAP error during check for " + userIdentity + " using " + filterString + ", error:" + e.getMessage());
+            LOGGER.trace(pwmSession, "checking ldap to see if " + userIdentity + " matches '" + filterString + "'");
+            final ChaiUser theUser = pwmApplication.getProxiedChaiUser(userIdentity);
+            final Map<String, Map<String, String>> results = theUser.getChaiProvider().search(theUser.getEntryDN(), filterString, Collections.<String>emptySet(), ChaiProvider.SEARCH_SCOPE.BASE);
+            if (results.size() == 1 && results.keySet().contains(theUser.getEntryDN())) {
+                result = true;
             }
         }
 
@@ -192,6 +208,13 @@ public class LdapPermissionTester {
         return result;
     }
 
+    /**
+     * @return true if the query matches every entry, so testing it against the directory can be skipped
+     */
+    public static boolean isMatchAllQuery(final String filterString) {
+        return "(objectClass=*)".equalsIgnoreCase(filterString) || "objectClass=*".equalsIgnoreCase(filterString);
+    }
+
     public static Map<UserIdentity, Map<String, String>> discoverMatchingUsers(
             final PwmApplication pwmApplication,
             final int maxResultSize,
@@ -263,7 +286,7 @@ public class LdapPermissionTester {
         }
 
         {
-            final boolean doCanonicalDnResolve = Boolean.parseBoolean(pwmApplication.getConfig().readAppProperty(AppProperty.SECURITY_LDAP_BASEDN_RESOLVE_CANONICAL_DN));
+            final boolean doCanonicalDnResolve = pwmApplication.getConfig().readAppPropertyAsBoolean(AppProperty.SECURITY_LDAP_BASEDN_RESOLVE_CANONICAL_DN);
             if (!doCanonicalDnResolve) {
                 return false;
             }
@@ -283,7 +306,7 @@ public class LdapPermissionTester {
                 final ChaiProvider chaiProvider = pwmApplication.getProxyChaiProvider(userIdentity.getLdapProfileID());
                 ChaiEntry chaiEntry = ChaiFactory.createChaiEntry(ldapBase, chaiProvider);
                 canonicalBaseDN = chaiEntry.readCanonicalDN();
-                final long cacheSeconds = Long.parseLong(pwmApplication.getConfig().readAppProperty(AppProperty.SECURITY_LDAP_BASEDN_CANONICAL_CACHE_SECONDS));
+                final long cacheSeconds = pwmApplication.getConfig().readAppPropertyAsLong(AppProperty.SECURITY_LDAP_BASEDN_CANONICAL_CACHE_SECONDS);
                 final CachePolicy cachePolicy = CachePolicy.makePolicyWithExpirationMS(cacheSeconds * 1000);
                 pwmApplication.getCacheService().put(cacheKey, cachePolicy, canonicalBaseDN);
             } catch (ChaiUnavailableException | ChaiOperationException e) {
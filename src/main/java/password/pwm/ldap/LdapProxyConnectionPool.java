@@ -0,0 +1,353 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://code.google.com/p/pwm/
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2015 The PWM Project
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package password.pwm.ldap;
+
+import com.novell.ldapchai.exception.ChaiError;
+import com.novell.ldapchai.exception.ChaiOperationException;
+import com.novell.ldapchai.exception.ChaiUnavailableException;
+import com.novell.ldapchai.provider.ChaiProvider;
+import password.pwm.AppProperty;
+import password.pwm.PwmApplication;
+import password.pwm.config.PwmSetting;
+import password.pwm.config.profile.LdapProfile;
+import password.pwm.error.PwmUnrecoverableException;
+import password.pwm.util.logging.PwmLogger;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A fixed number of proxy connections to a single ldap profile, exposed as one {@link ChaiProvider}.  Each call made
+ * on the provider is sent to the usable connection with the fewest calls in flight, so a slow ldap operation only
+ * holds up its own connection.  Connections are opened on first use, marked failed when an operation reports the
+ * directory unavailable, and replaced by a new connection after the profile retry delay.
+ */
+class LdapProxyConnectionPool {
+    private static final PwmLogger LOGGER = PwmLogger.forClass(LdapProxyConnectionPool.class);
+
+    private final PwmApplication pwmApplication;
+    private final LdapProfile ldapProfile;
+    private final Member[] members;
+    private final long reopenDelayMS;
+
+    private volatile ChaiProvider provider;
+
+    private volatile boolean closed;
+
+    LdapProxyConnectionPool(final PwmApplication pwmApplication, final LdapProfile ldapProfile, final int size) {
+        this.pwmApplication = pwmApplication;
+        this.ldapProfile = ldapProfile;
+        this.members = new Member[Math.max(1, size)];
+        for (int i = 0; i < members.length; i++) {
+            members[i] = new Member(i);
+        }
+        this.reopenDelayMS = pwmApplication.getConfig().readAppPropertyAsLong(AppProperty.LDAP_PROFILE_RETRY_DELAY);
+    }
+
+    /**
+     * Open the first connection, so that a bad proxy configuration is reported to the caller requesting the pool.  The
+     * pooled provider implements the same interfaces as that connection, so chai internals that expect its
+     * implementation interfaces keep working.
+     */
+    void open()
+            throws PwmUnrecoverableException
+    {
+        members[0].open();
+        final Class providerClass = members[0].provider.getClass();
+        final Set<Class> interfaces = new LinkedHashSet<>();
+        interfaces.add(ChaiProvider.class);
+        for (Class loopClass = providerClass; loopClass != null; loopClass = loopClass.getSuperclass()) {
+            for (final Class loopInterface : loopClass.getInterfaces()) {
+                if (Modifier.isPublic(loopInterface.getModifiers())) {
+                    interfaces.add(loopInterface);
+                }
+            }
+        }
+        provider = (ChaiProvider) Proxy.newProxyInstance(
+                providerClass.getClassLoader(),
+                interfaces.toArray(new Class[interfaces.size()]),
+                new PoolInvocationHandler()
+        );
+    }
+
+    ChaiProvider getProvider() {
+        return provider;
+    }
+
+    void close() {
+        closed = true;
+        for (final Member member : members) {
+            member.close();
+        }
+    }
+
+    /**
+     * Check each idle connection with a read of the proxy user entry, and replace connections that have failed.
+     */
+    void probe() {
+        if (closed) {
+            return;
+        }
+        final String proxyDN = ldapProfile.readSettingAsString(PwmSetting.LDAP_PROXY_USER_DN);
+        for (final Member member : members) {
+            final ChaiProvider memberProvider = member.provider;
+            if (memberProvider != null && !member.failed && member.inFlight.get() == 0) {
+                try {
+                    memberProvider.readStringAttribute(proxyDN, "objectClass");
+                } catch (ChaiUnavailableException e) {
+                    LOGGER.debug("ldap proxy connection " + member.describe() + " failed health probe: " + e.getMessage());
+                    member.markFailed();
+                } catch (ChaiOperationException e) {
+                    // the directory answered, so the connection is usable
+                } catch (Exception e) {
+                    LOGGER.debug("ldap proxy connection " + member.describe() + " failed health probe: " + e.getMessage());
+                    member.markFailed();
+                }
+            }
+            if (member.failed) {
+                member.tryOpen();
+            }
+        }
+    }
+
+    Map<String,String> debugProperties() {
+        final Map<String,String> properties = new LinkedHashMap<>();
+        for (final Member member : members) {
+            final String prefix = "proxyConnection." + ldapProfile.getIdentifier() + "." + member.index + ".";
+            final long operations = member.operations.get();
+            properties.put(prefix + "state", member.provider == null ? "closed" : member.failed ? "failed" : "open");
+            properties.put(prefix + "inFlight", String.valueOf(member.inFlight.get()));
+            properties.put(prefix + "operations", String.valueOf(operations));
+            properties.put(prefix + "failures", String.valueOf(member.failures.get()));
+            properties.put(prefix + "avgLatencyMS", String.valueOf(operations == 0 ? 0 : member.totalNanos.get() / operations / 1000 / 1000));
+            properties.put(prefix + "maxLatencyMS", String.valueOf(member.maxNanos.get() / 1000 / 1000));
+        }
+        return properties;
+    }
+
+    private Member selectMember() {
+        Member leastBusy = null;
+        for (final Member member : members) {
+            if (member.isUsable() && (leastBusy == null || member.inFlight.get() < leastBusy.inFlight.get())) {
+                leastBusy = member;
+            }
+        }
+        if (leastBusy != null && leastBusy.inFlight.get() == 0) {
+            return leastBusy;
+        }
+
+        // every open connection is busy or has failed, so bring up another one if possible
+        for (final Member member : members) {
+            if (!member.isUsable() && member.tryOpen()) {
+                return member;
+            }
+        }
+        if (leastBusy != null) {
+            return leastBusy;
+        }
+
+        // nothing usable, fall back to a failed connection in case it has since recovered
+        for (final Member member : members) {
+            if (member.provider != null) {
+                return member;
+            }
+        }
+        return null;
+    }
+
+    private class PoolInvocationHandler implements InvocationHandler {
+        @Override
+        public Object invoke(final Object proxy, final Method method, final Object[] args)
+                throws Throwable
+        {
+            if (method.getDeclaringClass() == Object.class) {
+                switch (method.getName()) {
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    default:
+                        return "pooled ldap proxy provider for profile " + ldapProfile.getIdentifier();
+                }
+            }
+
+            if ("close".equals(method.getName()) && method.getParameterTypes().length == 0) {
+                // the provider is shared by all callers, only LdapConnectionService may close the pool
+                LOGGER.warn("ignoring close() of shared " + ldapProfile.getIdentifier() + " ldap proxy provider, connection pool remains open");
+                return null;
+            }
+
+            final Member member = selectMember();
+            if (member == null) {
+                throw makeUnavailableException(method, "no ldap proxy connection is available for profile " + ldapProfile.getIdentifier());
+            }
+            return member.invoke(method, args);
+        }
+    }
+
+    private static Exception makeUnavailableException(final Method method, final String errorMsg) {
+        if (Arrays.asList(method.getExceptionTypes()).contains(ChaiUnavailableException.class)) {
+            return new ChaiUnavailableException(errorMsg, ChaiError.UNKNOWN);
+        }
+        return new IllegalStateException(errorMsg);
+    }
+
+    private class Member {
+        private final int index;
+        private final ReentrantLock openLock = new ReentrantLock();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicLong operations = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        private volatile ChaiProvider provider;
+        private volatile boolean failed;
+        private volatile long lastOpenAttempt;
+
+        private Member(final int index) {
+            this.index = index;
+        }
+
+        private boolean isUsable() {
+            return provider != null && !failed;
+        }
+
+        private String describe() {
+            return ldapProfile.getIdentifier() + "#" + index;
+        }
+
+        private Object invoke(final Method method, final Object[] args)
+                throws Throwable
+        {
+            final ChaiProvider target = provider;
+            if (target == null) {
+                throw makeUnavailableException(method, "ldap proxy connection " + describe() + " is closed");
+            }
+            inFlight.incrementAndGet();
+            final long startTime = System.nanoTime();
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                if (e.getCause() instanceof ChaiUnavailableException) {
+                    markFailed();
+                }
+                throw e.getCause();
+            } finally {
+                final long elapsed = System.nanoTime() - startTime;
+                inFlight.decrementAndGet();
+                operations.incrementAndGet();
+                totalNanos.addAndGet(elapsed);
+                long currentMax = maxNanos.get();
+                while (elapsed > currentMax && !maxNanos.compareAndSet(currentMax, elapsed)) {
+                    currentMax = maxNanos.get();
+                }
+            }
+        }
+
+        private void markFailed() {
+            if (!failed) {
+                failed = true;
+                failures.incrementAndGet();
+                LOGGER.warn("ldap proxy connection " + describe() + " marked as failed, it will be replaced");
+            }
+        }
+
+        /**
+         * Open or replace the connection unless another thread is already doing so or the retry delay has not passed.
+         *
+         * @return true if the connection is usable afterwards
+         */
+        private boolean tryOpen() {
+            if (closed || !openLock.tryLock()) {
+                return false;
+            }
+            try {
+                if (isUsable()) {
+                    return true;
+                }
+                if (lastOpenAttempt != 0 && System.currentTimeMillis() - lastOpenAttempt < reopenDelayMS) {
+                    return false;
+                }
+                open();
+                return true;
+            } catch (PwmUnrecoverableException e) {
+                LOGGER.debug("unable to open ldap proxy connection " + describe() + ": " + e.getMessage());
+                return false;
+            } finally {
+                openLock.unlock();
+            }
+        }
+
+        private void open()
+                throws PwmUnrecoverableException
+        {
+            openLock.lock();
+            try {
+                lastOpenAttempt = System.currentTimeMillis();
+                final ChaiProvider newProvider = LdapOperationsHelper.openProxyChaiProvider(
+                        null,
+                        ldapProfile,
+                        pwmApplication.getConfig(),
+                        pwmApplication.getStatisticsManager()
+                );
+                final ChaiProvider oldProvider = provider;
+                provider = newProvider;
+                failed = false;
+                if (oldProvider != null) {
+                    LOGGER.debug("replaced ldap proxy connection " + describe());
+                    closeProvider(oldProvider);
+                }
+            } finally {
+                openLock.unlock();
+            }
+        }
+
+        private void close() {
+            final ChaiProvider oldProvider = provider;
+            provider = null;
+            if (oldProvider != null) {
+                closeProvider(oldProvider);
+            }
+        }
+
+        private void closeProvider(final ChaiProvider chaiProvider) {
+            try {
+                chaiProvider.close();
+            } catch (Exception e) {
+                LOGGER.error("error closing ldap proxy connection " + describe() + ": " + e.getMessage());
+            }
+        }
+    }
+}
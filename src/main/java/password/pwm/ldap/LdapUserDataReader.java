@@ -40,9 +40,10 @@ import java.util.*;
 public class LdapUserDataReader implements Serializable, UserDataReader {
 
     private static final Boolean NULL_CACHE_VALUE = Boolean.FALSE;
+    private static final int MAX_CACHED_ATTRIBUTES = 500;
 
     private final Map<String,Object> cacheMap = new ConcurrentLinkedHashMap.Builder<String, Object>()
-            .maximumWeightedCapacity(100)  // safety limit
+            .maximumWeightedCapacity(MAX_CACHED_ATTRIBUTES)  // safety limit
             .build();
     private final ChaiUser user;
     private final UserIdentity userIdentity;
@@ -146,7 +147,7 @@ public class LdapUserDataReader implements Serializable, UserDataReader {
         // read uncached attributes into cache
         if (!uncachedAttributes.isEmpty()) {
             final Map<String,String> readData = user.readStringAttributes(new HashSet<>(uncachedAttributes));
-            for (final String attribute : attributes) {
+            for (final String attribute : uncachedAttributes) {
                 cacheMap.put(attribute,readData.containsKey(attribute) ? readData.get(attribute) : NULL_CACHE_VALUE);
             }
         }
@@ -279,8 +279,8 @@ public class PasswordChangeProgressChecker {
             final ProgressTracker tracker
 
     ) {
-        final long initDelayMs = Long.parseLong(pwmApplication.getConfig().readAppProperty(AppProperty.LDAP_PASSWORD_REPLICA_CHECK_INIT_DELAY_MS));
-        final long cycleDelayMs = Long.parseLong(pwmApplication.getConfig().readAppProperty(AppProperty.LDAP_PASSWORD_REPLICA_CHECK_CYCLE_DELAY_MS));
+        final long initDelayMs = pwmApplication.getConfig().readAppPropertyAsLong(AppProperty.LDAP_PASSWORD_REPLICA_CHECK_INIT_DELAY_MS);
+        final long cycleDelayMs = pwmApplication.getConfig().readAppPropertyAsLong(AppProperty.LDAP_PASSWORD_REPLICA_CHECK_CYCLE_DELAY_MS);
         final TimeDuration initialReplicaDelay = new TimeDuration(initDelayMs);
         final TimeDuration cycleReplicaDelay = new TimeDuration(cycleDelayMs);
 
@@ -0,0 +1,110 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://code.google.com/p/pwm/
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2015 The PWM Project
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package password.pwm.ldap;
+
+import password.pwm.config.Configuration;
+import password.pwm.config.FormConfiguration;
+import password.pwm.config.PwmSetting;
+import password.pwm.config.profile.LdapProfile;
+import password.pwm.config.profile.UpdateAttributesProfile;
+
+import java.util.*;
+
+/**
+ * The union of the plain string attributes {@link UserStatusReader} reads while populating a {@link password.pwm.bean.UserInfoBean},
+ * worked out from the configuration once per ldap profile.  Reading the plan through a {@link LdapUserDataReader} fetches all of
+ * the attributes with a single ldap read, and later reads of any of them are then served from the reader's cache.
+ * <p>
+ * Values read by chai through vendor specific logic (password expiration, last login, account expiration) and ldap permission
+ * tests are not plain attribute reads, so they are not part of the plan.
+ */
+class UserAttributePrefetchPlan {
+
+    private static final Map<Configuration, UserAttributePrefetchPlan> PLANS = Collections.synchronizedMap(
+            new WeakHashMap<Configuration, UserAttributePrefetchPlan>());
+
+    private final Map<String, Set<String>> profileAttributes;
+
+    private UserAttributePrefetchPlan(final Map<String, Set<String>> profileAttributes) {
+        this.profileAttributes = profileAttributes;
+    }
+
+    static UserAttributePrefetchPlan forConfiguration(final Configuration configuration) {
+        UserAttributePrefetchPlan plan = PLANS.get(configuration);
+        if (plan == null) {
+            plan = makePlan(configuration);
+            PLANS.put(configuration, plan);
+        }
+        return plan;
+    }
+
+    Set<String> attributesForProfile(final String ldapProfileID) {
+        final Set<String> attributes = profileAttributes.get(ldapProfileID);
+        return attributes == null ? Collections.<String>emptySet() : attributes;
+    }
+
+    private static UserAttributePrefetchPlan makePlan(final Configuration configuration) {
+        final Set<String> commonAttributes = new HashSet<>();
+        addAttribute(commonAttributes, configuration.readSettingAsString(PwmSetting.EMAIL_USER_MAIL_ATTRIBUTE));
+        addAttribute(commonAttributes, configuration.readSettingAsString(PwmSetting.SMS_USER_PHONE_ATTRIBUTE));
+        final List<String> cachedAttributeNames = configuration.readSettingAsStringArray(PwmSetting.CACHED_USER_ATTRIBUTES);
+        if (cachedAttributeNames != null) {
+            for (final String attribute : cachedAttributeNames) {
+                addAttribute(commonAttributes, attribute);
+            }
+        }
+        if (configuration.readSettingAsBoolean(PwmSetting.UPDATE_PROFILE_ENABLE)) {
+            for (final UpdateAttributesProfile updateAttributesProfile : configuration.getUpdateAttributesProfile().values()) {
+                for (final FormConfiguration formItem : updateAttributesProfile.readSettingAsForm(PwmSetting.UPDATE_PROFILE_FORM)) {
+                    addAttribute(commonAttributes, formItem.getName());
+                }
+            }
+        }
+
+        final Map<String, Set<String>> profileAttributes = new HashMap<>();
+        for (final Map.Entry<String, LdapProfile> entry : configuration.getLdapProfiles().entrySet()) {
+            final LdapProfile ldapProfile = entry.getValue();
+            final Set<String> attributes = new HashSet<>(commonAttributes);
+            addAttribute(attributes, ldapProfile.getUsernameAttribute());
+            final String guidAttributeName = ldapProfile.readSettingAsString(PwmSetting.LDAP_GUID_ATTRIBUTE);
+            if (isPlainGuidAttribute(guidAttributeName)) {
+                addAttribute(attributes, guidAttributeName);
+            }
+            profileAttributes.put(entry.getKey(), Collections.unmodifiableSet(attributes));
+        }
+        return new UserAttributePrefetchPlan(Collections.unmodifiableMap(profileAttributes));
+    }
+
+    static boolean isPlainGuidAttribute(final String guidAttributeName) {
+        return guidAttributeName != null
+                && !guidAttributeName.isEmpty()
+                && !"DN".equalsIgnoreCase(guidAttributeName)
+                && !"VENDORGUID".equalsIgnoreCase(guidAttributeName);
+    }
+
+    private static void addAttribute(final Set<String> attributes, final String attribute) {
+        if (attribute != null && !attribute.isEmpty()) {
+            attributes.add(attribute);
+        }
+    }
+}
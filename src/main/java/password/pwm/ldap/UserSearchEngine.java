@@ -27,6 +27,7 @@ import com.novell.ldapchai.ChaiUser;
 import com.novell.ldapchai.exception.ChaiOperationException;
 import com.novell.ldapchai.exception.ChaiUnavailableException;
 import com.novell.ldapchai.provider.ChaiProvider;
+import com.novell.ldapchai.provider.ChaiProviderImplementor;
 import com.novell.ldapchai.util.SearchHelper;
 import password.pwm.AppProperty;
 import password.pwm.PwmApplication;
@@ -40,20 +41,44 @@ import password.pwm.config.profile.LdapProfile;
 import password.pwm.error.*;
 import password.pwm.http.PwmRequest;
 import password.pwm.svc.PwmService;
+import password.pwm.svc.cache.CacheKey;
+import password.pwm.svc.cache.CachePolicy;
 import password.pwm.svc.stats.Statistic;
 import password.pwm.util.JsonUtil;
 import password.pwm.util.StringUtil;
 import password.pwm.util.TimeDuration;
 import password.pwm.util.logging.PwmLogger;
 
+import javax.naming.NamingEnumeration;
+import javax.naming.NamingException;
+import javax.naming.directory.SearchControls;
+import javax.naming.directory.SearchResult;
+import javax.naming.ldap.Control;
+import javax.naming.ldap.LdapContext;
+import javax.naming.ldap.LdapName;
+import javax.naming.ldap.PagedResultsControl;
+import javax.naming.ldap.PagedResultsResponseControl;
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class UserSearchEngine {
 
     private static final PwmLogger LOGGER = PwmLogger.forClass(UserSearchEngine.class);
 
-    private static int searchCounter = 0;
+    private static final long SEARCH_DEADLINE_GRACE_MS = 1000;
+
+    private static final AtomicInteger searchCounter = new AtomicInteger();
+
+    private static final AtomicLong resolutionCacheEpoch = new AtomicLong();
 
     private PwmApplication pwmApplication;
     private SessionLabel sessionLabel;
@@ -143,27 +168,37 @@ public class UserSearchEngine {
             throws PwmUnrecoverableException, PwmOperationalException
     {
         final long startTime = System.currentTimeMillis();
+        final CacheKey resolutionCacheKey = makeResolutionCacheKey(searchConfiguration);
+        if (resolutionCacheKey != null) {
+            final CachedResolution cachedResolution = pwmApplication.getCacheService().get(resolutionCacheKey, CachedResolution.class);
+            if (cachedResolution != null) {
+                if (cachedResolution.userIdentity == null) {
+                    LOGGER.trace(sessionLabel, "username '" + searchConfiguration.getUsername() + "' not found (cached)");
+                    throw new PwmOperationalException(makeUserNotFoundError(searchConfiguration));
+                }
+                LOGGER.debug(sessionLabel, "found userDN: " + cachedResolution.userIdentity.getUserDN() + " (cached)");
+                return cachedResolution.userIdentity;
+            }
+        }
+
         final DuplicateMode dupeMode = pwmApplication.getConfig().readSettingAsEnum(PwmSetting.LDAP_DUPLICATE_MODE, DuplicateMode.class);
         final int searchCount = (dupeMode == DuplicateMode.FIRST_ALL) ? 1 : 2;
         final Map<UserIdentity,Map<String,String>> searchResults = performMultiUserSearch(searchConfiguration, searchCount, Collections.<String>emptyList());
         final List<UserIdentity> results = searchResults == null ? Collections.<UserIdentity>emptyList() : new ArrayList<>(searchResults.keySet());
         if (results.isEmpty()) {
-            final String errorMessage;
-            if (searchConfiguration.getUsername() != null && searchConfiguration.getUsername().length() > 0) {
-                errorMessage = "an ldap user for username value '" + searchConfiguration.getUsername() + "' was not found";
-            } else {
-                errorMessage = "an ldap user was not found";
-            }
-            throw new PwmOperationalException(new ErrorInformation(PwmError.ERROR_CANT_MATCH_USER,errorMessage));
+            storeResolution(resolutionCacheKey, null);
+            throw new PwmOperationalException(makeUserNotFoundError(searchConfiguration));
         } else if (results.size() == 1) {
             final String userDN = results.get(0).getUserDN();
             LOGGER.debug(sessionLabel, "found userDN: " + userDN + " (" + TimeDuration.fromCurrent(startTime).asCompactString() + ")");
+            storeResolution(resolutionCacheKey, results.get(0));
             return results.get(0);
         }
         if (dupeMode == DuplicateMode.FIRST_PROFILE) {
             final String profile1 = results.get(0).getLdapProfileID();
             final String profile2 = results.get(1).getLdapProfileID();
             if (profile1 == null && profile2 == null || (profile1 != null && profile1.equals(profile2))) {
+                storeResolution(resolutionCacheKey, results.get(0));
                 return results.get(0);
             } else {
                 final String errorMessage = "multiple user matches in single profile";
@@ -175,6 +210,80 @@ public class UserSearchEngine {
         throw new PwmOperationalException(new ErrorInformation(PwmError.ERROR_CANT_MATCH_USER, errorMessage));
     }
 
+    private static ErrorInformation makeUserNotFoundError(final SearchConfiguration searchConfiguration) {
+        final String errorMessage;
+        if (searchConfiguration.getUsername() != null && searchConfiguration.getUsername().length() > 0) {
+            errorMessage = "an ldap user for username value '" + searchConfiguration.getUsername() + "' was not found";
+        } else {
+            errorMessage = "an ldap user was not found";
+        }
+        return new ErrorInformation(PwmError.ERROR_CANT_MATCH_USER, errorMessage);
+    }
+
+    /**
+     * Discard all cached username resolutions.  Called after pwm creates, deletes or modifies an ldap entry, as any of
+     * these may change which entry a username resolves to.
+     */
+    public static void invalidateResolutionCache() {
+        resolutionCacheEpoch.incrementAndGet();
+    }
+
+    /**
+     * @return a key for the username resolution cache, or null if the search is not a plain username search or the
+     * cache is disabled.
+     */
+    private CacheKey makeResolutionCacheKey(final SearchConfiguration searchConfiguration) {
+        if (searchConfiguration.getUsername() == null || searchConfiguration.getUsername().trim().isEmpty()) {
+            return null;
+        }
+        if (searchConfiguration.getFilter() != null || searchConfiguration.getGroupDN() != null
+                || searchConfiguration.getFormValues() != null || searchConfiguration.getChaiProvider() != null) {
+            return null;
+        }
+        if (pwmApplication.getCacheService() == null || pwmApplication.getCacheService().status() != PwmService.STATUS.OPEN) {
+            return null;
+        }
+        if (!pwmApplication.getConfig().readAppPropertyAsBoolean(AppProperty.LDAP_USERNAME_CACHE_ENABLE)) {
+            return null;
+        }
+
+        final StringBuilder valueID = new StringBuilder();
+        valueID.append(resolutionCacheEpoch.get());
+        valueID.append('|').append(searchConfiguration.getLdapProfile() == null ? "" : searchConfiguration.getLdapProfile());
+        valueID.append('|').append(searchConfiguration.getContexts() == null ? "" : JsonUtil.serializeCollection(searchConfiguration.getContexts()));
+        valueID.append('|').append(searchConfiguration.isEnableContextValidation());
+        valueID.append('|').append(searchConfiguration.getUsername().trim().toLowerCase());
+        return CacheKey.makeCacheKey(UserSearchEngine.class, null, valueID.toString());
+    }
+
+    private void storeResolution(final CacheKey resolutionCacheKey, final UserIdentity userIdentity)
+            throws PwmUnrecoverableException
+    {
+        if (resolutionCacheKey == null) {
+            return;
+        }
+        final AppProperty lifetimeProperty = userIdentity == null
+                ? AppProperty.LDAP_USERNAME_CACHE_NEGATIVE_LIFETIME_MS
+                : AppProperty.LDAP_USERNAME_CACHE_LIFETIME_MS;
+        final long lifetimeMS = pwmApplication.getConfig().readAppPropertyAsLong(lifetimeProperty);
+        if (lifetimeMS > 0) {
+            final CachePolicy cachePolicy = CachePolicy.makePolicyWithExpirationMS(lifetimeMS);
+            pwmApplication.getCacheService().put(resolutionCacheKey, cachePolicy, new CachedResolution(userIdentity));
+        }
+    }
+
+    /**
+     * Outcome of a username search held in the {@link password.pwm.svc.cache.CacheService}, a null identity records
+     * that no user was found.
+     */
+    private static class CachedResolution implements Serializable {
+        private UserIdentity userIdentity;
+
+        private CachedResolution(final UserIdentity userIdentity) {
+            this.userIdentity = userIdentity;
+        }
+    }
+
     public UserSearchResults performMultiUserSearchFromForm(
             final Locale locale,
             final SearchConfiguration searchConfiguration,
@@ -219,47 +328,268 @@ public class UserSearchEngine {
         }
 
         final boolean ignoreUnreachableProfiles = pwmApplication.getConfig().readSettingAsBoolean(PwmSetting.LDAP_IGNORE_UNREACHABLE_PROFILES);
-        final Map<UserIdentity,Map<String,String>> returnMap = new LinkedHashMap<>();
+        final long profileRetryDelayMS = pwmApplication.getConfig().readAppPropertyAsLong(AppProperty.LDAP_PROFILE_RETRY_DELAY);
+        final List<LdapProfile> searchProfiles = new ArrayList<>();
+        for (final LdapProfile ldapProfile : ldapProfiles) {
+            final Date lastLdapFailure = pwmApplication.getLdapConnectionService().getLastLdapFailureTime(ldapProfile);
+            if (ldapProfiles.size() > 1 && lastLdapFailure != null && TimeDuration.fromCurrent(lastLdapFailure).isShorterThan(profileRetryDelayMS)) {
+                LOGGER.info("skipping user search on ldap profile " + ldapProfile.getIdentifier() + " due to recent unreachable status (" + TimeDuration.fromCurrent(lastLdapFailure).asCompactString() + ")");
+            } else {
+                searchProfiles.add(ldapProfile);
+            }
+        }
+
+        final ExecutorService searchExecutor = pwmApplication.getLdapConnectionService().getSearchExecutor();
+        if (searchExecutor != null && searchConfiguration.getChaiProvider() == null && countContextSearches(searchProfiles, searchConfiguration) > 1) {
+            return performParallelUserSearch(searchExecutor, searchProfiles, ldapProfiles.size(), searchConfiguration, maxResults, returnAttributes, ignoreUnreachableProfiles);
+        }
 
+        final Map<UserIdentity,Map<String,String>> returnMap = new LinkedHashMap<>();
         final List<String> errors = new ArrayList<>();
+        for (final LdapProfile ldapProfile : searchProfiles) {
+            if (returnMap.size() < maxResults) {
+                try {
+                    returnMap.putAll(performMultiUserSearchImpl(
+                                    ldapProfile,
+                                    searchConfiguration,
+                                    maxResults - returnMap.size(),
+                                    returnAttributes)
+                    );
+                } catch (PwmUnrecoverableException e) {
+                    handleProfileSearchError(ldapProfile, e, errors, ldapProfiles.size(), ignoreUnreachableProfiles);
+                }
+            }
+        }
+        return returnMap;
+    }
 
-        final long profileRetryDelayMS = Long.valueOf(pwmApplication.getConfig().readAppProperty(AppProperty.LDAP_PROFILE_RETRY_DELAY));
+    private void handleProfileSearchError(
+            final LdapProfile ldapProfile,
+            final PwmUnrecoverableException e,
+            final List<String> errors,
+            final int profileCount,
+            final boolean ignoreUnreachableProfiles
+    )
+            throws PwmUnrecoverableException
+    {
+        if (e.getError() == PwmError.ERROR_DIRECTORY_UNAVAILABLE) {
+            pwmApplication.getLdapConnectionService().setLastLdapFailure(ldapProfile,e.getErrorInformation());
+            if (ignoreUnreachableProfiles) {
+                errors.add(e.getErrorInformation().getDetailedErrorMsg());
+                if (errors.size() >= profileCount) {
+                    final String errorMsg = "all ldap profiles are unreachable; errors: " + JsonUtil.serializeCollection(errors);
+                    throw new PwmUnrecoverableException(new ErrorInformation(PwmError.ERROR_DIRECTORY_UNAVAILABLE,errorMsg));
+                }
+            } else {
+                throw e;
+            }
+        }
+    }
+
+    private static int countContextSearches(final List<LdapProfile> ldapProfiles, final SearchConfiguration searchConfiguration)
+            throws PwmOperationalException
+    {
+        int count = 0;
         for (final LdapProfile ldapProfile : ldapProfiles) {
-            if (returnMap.size() < maxResults) {
-                boolean skipProfile = false;
-                final Date lastLdapFailure = pwmApplication.getLdapConnectionService().getLastLdapFailureTime(ldapProfile);
-                if (ldapProfiles.size() > 1 && lastLdapFailure != null && TimeDuration.fromCurrent(lastLdapFailure).isShorterThan(profileRetryDelayMS)) {
-                    LOGGER.info("skipping user search on ldap profile " + ldapProfile.getIdentifier() + " due to recent unreachable status (" + TimeDuration.fromCurrent(lastLdapFailure).asCompactString() + ")");
-                    skipProfile = true;
+            count += figureSearchContexts(ldapProfile, searchConfiguration).size();
+        }
+        return count;
+    }
+
+    /**
+     * Runs the search of every profile and context concurrently, with a deadline shared by all of them.  Results are
+     * assembled in the order the sequential search would have produced them, so the maxResults cutoff, duplicate
+     * handling and unreachable profile handling behave the same.  Waiting stops as soon as the searches that precede
+     * any still running one have already produced maxResults users.
+     */
+    private Map<UserIdentity,Map<String,String>> performParallelUserSearch(
+            final ExecutorService searchExecutor,
+            final List<LdapProfile> searchProfiles,
+            final int profileCount,
+            final SearchConfiguration searchConfiguration,
+            final int maxResults,
+            final Collection<String> returnAttributes,
+            final boolean ignoreUnreachableProfiles
+    )
+            throws PwmUnrecoverableException, PwmOperationalException
+    {
+        final long startTime = System.currentTimeMillis();
+        searchConfiguration.validate();
+
+        final List<String> errors = new ArrayList<>();
+        final List<ContextSearch> contextSearches = new ArrayList<>();
+        long timeLimitMS = 0;
+        for (final LdapProfile ldapProfile : searchProfiles) {
+            final ChaiProvider chaiProvider;
+            try {
+                chaiProvider = figureChaiProvider(ldapProfile, searchConfiguration);
+            } catch (PwmUnrecoverableException e) {
+                handleProfileSearchError(ldapProfile, e, errors, profileCount, ignoreUnreachableProfiles);
+                continue;
+            }
+            final String searchFilter = figureSearchFilter(ldapProfile, searchConfiguration);
+            final long profileTimeLimitMS = figureSearchTimeout(ldapProfile, searchConfiguration);
+            timeLimitMS = Math.max(timeLimitMS, profileTimeLimitMS);
+            for (final String loopContext : figureSearchContexts(ldapProfile, searchConfiguration)) {
+                contextSearches.add(new ContextSearch(ldapProfile, searchFilter, loopContext, returnAttributes, maxResults, chaiProvider, profileTimeLimitMS));
+            }
+        }
+
+        LOGGER.debug(sessionLabel, "beginning parallel user search of " + contextSearches.size() + " contexts");
+        final CompletionService<ContextSearch> completionService = new ExecutorCompletionService<>(searchExecutor);
+        final List<Future<ContextSearch>> futures = new ArrayList<>();
+        final long deadline = startTime + timeLimitMS + SEARCH_DEADLINE_GRACE_MS;
+        try {
+            for (final ContextSearch contextSearch : contextSearches) {
+                futures.add(completionService.submit(contextSearch));
+            }
+            int completedCount = 0;
+            while (completedCount < contextSearches.size() && !isSearchResultCertain(contextSearches, maxResults)) {
+                final Future<ContextSearch> completedFuture;
+                if (timeLimitMS > 0) {
+                    final long remainingMS = deadline - System.currentTimeMillis();
+                    completedFuture = remainingMS > 0 ? completionService.poll(remainingMS, TimeUnit.MILLISECONDS) : null;
+                } else {
+                    completedFuture = completionService.take();
                 }
-                if (!skipProfile) {
-                    try {
-                        returnMap.putAll(performMultiUserSearchImpl(
-                                        ldapProfile,
-                                        searchConfiguration,
-                                        maxResults - returnMap.size(),
-                                        returnAttributes)
-                        );
-                    } catch (PwmUnrecoverableException e) {
-                        if (e.getError() == PwmError.ERROR_DIRECTORY_UNAVAILABLE) {
-                            pwmApplication.getLdapConnectionService().setLastLdapFailure(ldapProfile,e.getErrorInformation());
-                            if (ignoreUnreachableProfiles) {
-                                errors.add(e.getErrorInformation().getDetailedErrorMsg());
-                                if (errors.size() >= ldapProfiles.size()) {
-                                    final String errorMsg = "all ldap profiles are unreachable; errors: " + JsonUtil.serializeCollection(errors);
-                                    throw new PwmUnrecoverableException(new ErrorInformation(PwmError.ERROR_DIRECTORY_UNAVAILABLE,errorMsg));
-                                }
-                            } else {
-                                throw e;
-                            }
-                        }
+                if (completedFuture == null) {
+                    LOGGER.debug(sessionLabel, "parallel user search deadline of " + TimeDuration.asCompactString(timeLimitMS) + " reached with "
+                            + (contextSearches.size() - completedCount) + " searches incomplete");
+                    break;
+                }
+                completedCount++;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            // searches that are already running finish in the background and their results are discarded
+            for (final Future<ContextSearch> future : futures) {
+                future.cancel(false);
+            }
+        }
+
+        final Map<UserIdentity,Map<String,String>> returnMap = new LinkedHashMap<>();
+        final Set<LdapProfile> failedProfiles = new HashSet<>();
+        for (final ContextSearch contextSearch : contextSearches) {
+            if (returnMap.size() >= maxResults) {
+                break;
+            }
+            final LdapProfile ldapProfile = contextSearch.ldapProfile;
+            if (failedProfiles.contains(ldapProfile)) {
+                continue;
+            }
+            final PwmUnrecoverableException profileError;
+            if (!contextSearch.complete) {
+                profileError = new PwmUnrecoverableException(new ErrorInformation(PwmError.ERROR_DIRECTORY_UNAVAILABLE,
+                        "user search of context " + contextSearch.context + " did not complete within " + TimeDuration.asCompactString(timeLimitMS)));
+            } else if (contextSearch.operationalException != null) {
+                throw contextSearch.operationalException;
+            } else {
+                profileError = contextSearch.unrecoverableException;
+            }
+            if (profileError != null) {
+                // as with a sequential search, a failed profile contributes no results
+                failedProfiles.add(ldapProfile);
+                for (final Iterator<UserIdentity> iterator = returnMap.keySet().iterator(); iterator.hasNext(); ) {
+                    if (ldapProfile.getIdentifier().equals(iterator.next().getLdapProfileID())) {
+                        iterator.remove();
                     }
                 }
+                handleProfileSearchError(ldapProfile, profileError, errors, profileCount, ignoreUnreachableProfiles);
+                continue;
+            }
+            for (final Map.Entry<UserIdentity,Map<String,String>> entry : contextSearch.results.entrySet()) {
+                if (returnMap.size() >= maxResults) {
+                    break;
+                }
+                returnMap.put(entry.getKey(), entry.getValue());
             }
         }
+
+        LOGGER.debug(sessionLabel, "completed parallel user search process in " + TimeDuration.fromCurrent(startTime).asCompactString() + ", resultSize=" + returnMap.size());
         return returnMap;
     }
 
+    /**
+     * @return true if every search has completed, or if the completed searches preceding the first incomplete one
+     * already hold maxResults users without error, in which case the sequential search would have stopped there.
+     */
+    private static boolean isSearchResultCertain(final List<ContextSearch> contextSearches, final int maxResults) {
+        int resultCount = 0;
+        for (final ContextSearch contextSearch : contextSearches) {
+            if (!contextSearch.complete) {
+                return false;
+            }
+            if (contextSearch.operationalException != null || contextSearch.unrecoverableException != null) {
+                continue;
+            }
+            resultCount += contextSearch.results.size();
+            if (resultCount >= maxResults) {
+                return !hasErrors(contextSearches);
+            }
+        }
+        return true;
+    }
+
+    private static boolean hasErrors(final List<ContextSearch> contextSearches) {
+        for (final ContextSearch contextSearch : contextSearches) {
+            if (contextSearch.complete && (contextSearch.operationalException != null || contextSearch.unrecoverableException != null)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private class ContextSearch implements Callable<ContextSearch> {
+        private final LdapProfile ldapProfile;
+        private final String searchFilter;
+        private final String context;
+        private final Collection<String> returnAttributes;
+        private final int maxResults;
+        private final ChaiProvider chaiProvider;
+        private final long timeLimitMS;
+
+        private volatile boolean complete;
+        private Map<UserIdentity,Map<String,String>> results = Collections.emptyMap();
+        private PwmOperationalException operationalException;
+        private PwmUnrecoverableException unrecoverableException;
+
+        private ContextSearch(
+                final LdapProfile ldapProfile,
+                final String searchFilter,
+                final String context,
+                final Collection<String> returnAttributes,
+                final int maxResults,
+                final ChaiProvider chaiProvider,
+                final long timeLimitMS
+        ) {
+            this.ldapProfile = ldapProfile;
+            this.searchFilter = searchFilter;
+            this.context = context;
+            this.returnAttributes = returnAttributes;
+            this.maxResults = maxResults;
+            this.chaiProvider = chaiProvider;
+            this.timeLimitMS = timeLimitMS;
+        }
+
+        @Override
+        public ContextSearch call() {
+            try {
+                results = doSingleContextSearch(ldapProfile, searchFilter, context, returnAttributes, maxResults, chaiProvider, timeLimitMS);
+            } catch (PwmOperationalException e) {
+                operationalException = e;
+            } catch (PwmUnrecoverableException e) {
+                unrecoverableException = e;
+            } catch (Exception e) {
+                unrecoverableException = new PwmUnrecoverableException(new ErrorInformation(PwmError.ERROR_UNKNOWN,
+                        "unexpected error during user search of context " + context + ": " + e.getMessage()));
+            } finally {
+                complete = true;
+            }
+            return this;
+        }
+    }
+
 
     protected Map<UserIdentity,Map<String,String>> performMultiUserSearchImpl(
             final LdapProfile ldapProfile,
@@ -274,6 +604,321 @@ public class UserSearchEngine {
         // check the search configuration data params
         searchConfiguration.validate();
 
+        final String searchFilter = figureSearchFilter(ldapProfile, searchConfiguration);
+        final List<String> searchContexts = figureSearchContexts(ldapProfile, searchConfiguration);
+        final long timeLimitMS = figureSearchTimeout(ldapProfile, searchConfiguration);
+        final ChaiProvider chaiProvider = figureChaiProvider(ldapProfile, searchConfiguration);
+
+        final Map<UserIdentity,Map<String,String>> returnMap;
+        returnMap = new LinkedHashMap<>();
+        for (final String loopContext : searchContexts) {
+            final Map<UserIdentity,Map<String,String>> singleContextResults;
+            singleContextResults = doSingleContextSearch(
+                    ldapProfile,
+                    searchFilter,
+                    loopContext,
+                    returnAttributes,
+                    maxResults - returnMap.size(),
+                    chaiProvider,
+                    timeLimitMS
+            );
+            returnMap.putAll(singleContextResults);
+            if (returnMap.size() >= maxResults) {
+                break;
+            }
+        }
+
+        LOGGER.debug(sessionLabel, "completed user search process in " + TimeDuration.fromCurrent(startTime).asCompactString() + ", resultSize=" + returnMap.size());
+        return returnMap;
+    }
+
+    /**
+     * Start a search that returns users one page at a time, so callers enumerating a large directory never hold the
+     * entire result set.  Each search context is read with the ldap simple paged results control over a dedicated
+     * proxy connection, one page per request.  If the ldap provider does not expose a jndi context, each search
+     * context is read with a single search and returned in slices of {@code pageSize}.
+     * <p/>
+     * Paged result cookies do not survive the connection, so a search resumed from a stored cursor restarts the
+     * current search context and skips the users already returned from it.
+     *
+     * @param pageSize maximum number of users returned in a single page
+     * @param startCursor cursor returned by {@link PagedUserSearch#getCursor()} of an earlier search with the same
+     *                    configuration, or null to start at the beginning
+     */
+    public PagedUserSearch performPagedUserSearch(
+            final SearchConfiguration searchConfiguration,
+            final int maxResults,
+            final int pageSize,
+            final SearchCursor startCursor
+    )
+            throws PwmOperationalException
+    {
+        searchConfiguration.validate();
+        final List<LdapProfile> ldapProfiles = new ArrayList<>();
+        if (searchConfiguration.getLdapProfile() != null && !searchConfiguration.getLdapProfile().isEmpty()) {
+            final LdapProfile ldapProfile = pwmApplication.getConfig().getLdapProfiles().get(searchConfiguration.getLdapProfile());
+            if (ldapProfile != null) {
+                ldapProfiles.add(ldapProfile);
+            } else {
+                LOGGER.debug(sessionLabel, "attempt to search for users in unknown ldap profile '" + searchConfiguration.getLdapProfile() + "', skipping search");
+            }
+        } else {
+            ldapProfiles.addAll(pwmApplication.getConfig().getLdapProfiles().values());
+        }
+        return new PagedUserSearch(searchConfiguration, ldapProfiles, maxResults, Math.max(1, pageSize), startCursor);
+    }
+
+    /**
+     * Position of a {@link PagedUserSearch}, pointing at the next page to be read.
+     */
+    public static class SearchCursor implements Serializable {
+        private int profileIndex;
+        private int contextIndex;
+        private int contextResultCount;
+        private int resultCount;
+
+        public int getResultCount() {
+            return resultCount;
+        }
+    }
+
+    public class PagedUserSearch {
+        private final SearchConfiguration searchConfiguration;
+        private final List<LdapProfile> ldapProfiles;
+        private final int maxResults;
+        private final int pageSize;
+        private final SearchCursor cursor;
+
+        // state of the search context being read, not part of the cursor
+        private boolean contextOpen;
+        private boolean contextExhausted;
+        private ChaiProvider pagingProvider;
+        private LdapContext pagingContext;
+        private byte[] pagingCookie;
+        private Iterator<UserIdentity> singleSearchResults;
+
+        private PagedUserSearch(
+                final SearchConfiguration searchConfiguration,
+                final List<LdapProfile> ldapProfiles,
+                final int maxResults,
+                final int pageSize,
+                final SearchCursor startCursor
+        ) {
+            this.searchConfiguration = searchConfiguration;
+            this.ldapProfiles = ldapProfiles;
+            this.maxResults = maxResults;
+            this.pageSize = pageSize;
+            this.cursor = startCursor == null ? new SearchCursor() : startCursor;
+        }
+
+        /**
+         * @return the next page of users, or null once all pages have been read.  Pages may be empty.
+         */
+        public List<UserIdentity> nextPage()
+                throws PwmUnrecoverableException, PwmOperationalException
+        {
+            while (cursor.profileIndex < ldapProfiles.size()) {
+                if (cursor.resultCount >= maxResults) {
+                    close();
+                    return null;
+                }
+
+                final LdapProfile ldapProfile = ldapProfiles.get(cursor.profileIndex);
+                final List<String> searchContexts = figureSearchContexts(ldapProfile, searchConfiguration);
+                if (cursor.contextIndex >= searchContexts.size()) {
+                    close();
+                    cursor.profileIndex++;
+                    cursor.contextIndex = 0;
+                    cursor.contextResultCount = 0;
+                    continue;
+                }
+
+                final List<UserIdentity> page = readContextPage(ldapProfile, searchContexts.get(cursor.contextIndex));
+                if (page == null) {
+                    closeContext();
+                    cursor.contextIndex++;
+                    cursor.contextResultCount = 0;
+                    continue;
+                }
+
+                final List<UserIdentity> returnPage = page.size() > maxResults - cursor.resultCount
+                        ? new ArrayList<>(page.subList(0, maxResults - cursor.resultCount))
+                        : page;
+                cursor.contextResultCount += returnPage.size();
+                cursor.resultCount += returnPage.size();
+                return returnPage;
+            }
+            close();
+            return null;
+        }
+
+        /**
+         * @return a copy of the current position, suitable for resuming with {@link #performPagedUserSearch}
+         */
+        public SearchCursor getCursor() {
+            final SearchCursor copy = new SearchCursor();
+            copy.profileIndex = cursor.profileIndex;
+            copy.contextIndex = cursor.contextIndex;
+            copy.contextResultCount = cursor.contextResultCount;
+            copy.resultCount = cursor.resultCount;
+            return copy;
+        }
+
+        /**
+         * Release the ldap connection used for paging.  Called automatically once all pages have been read.
+         */
+        public void close() {
+            closeContext();
+            if (pagingProvider != null) {
+                pagingProvider.close();
+                pagingProvider = null;
+            }
+        }
+
+        private List<UserIdentity> readContextPage(final LdapProfile ldapProfile, final String context)
+                throws PwmUnrecoverableException, PwmOperationalException
+        {
+            if (contextOpen) {
+                return fetchPage(ldapProfile, context);
+            }
+
+            openContext(ldapProfile, context);
+            int skipCount = cursor.contextResultCount;
+            while (skipCount > 0) {
+                final List<UserIdentity> skippedPage = fetchPage(ldapProfile, context);
+                if (skippedPage == null) {
+                    return null;
+                }
+                if (skippedPage.size() > skipCount) {
+                    return new ArrayList<>(skippedPage.subList(skipCount, skippedPage.size()));
+                }
+                skipCount -= skippedPage.size();
+            }
+            return fetchPage(ldapProfile, context);
+        }
+
+        private void openContext(final LdapProfile ldapProfile, final String context)
+                throws PwmUnrecoverableException, PwmOperationalException
+        {
+            contextOpen = true;
+            contextExhausted = false;
+            pagingCookie = null;
+
+            // paging changes the request controls of the connection, so it is not done on the shared proxy connection
+            final ChaiProvider chaiProvider;
+            if (searchConfiguration.getChaiProvider() != null) {
+                chaiProvider = searchConfiguration.getChaiProvider();
+            } else {
+                if (pagingProvider == null) {
+                    pagingProvider = LdapOperationsHelper.openProxyChaiProvider(sessionLabel, ldapProfile, pwmApplication.getConfig(), pwmApplication.getStatisticsManager());
+                }
+                chaiProvider = pagingProvider;
+            }
+
+            Object connectionObject = null;
+            if (chaiProvider instanceof ChaiProviderImplementor) {
+                try {
+                    connectionObject = ((ChaiProviderImplementor) chaiProvider).getConnectionObject();
+                } catch (Exception e) {
+                    LOGGER.debug(sessionLabel, "unable to read ldap connection for paged search: " + e.getMessage());
+                }
+            }
+
+            if (connectionObject instanceof LdapContext) {
+                try {
+                    pagingContext = ((LdapContext) connectionObject).newInstance(null);
+                    return;
+                } catch (NamingException e) {
+                    LOGGER.debug(sessionLabel, "unable to create ldap context for paged search: " + e.getMessage());
+                }
+            }
+
+            LOGGER.debug(sessionLabel, "ldap paged results are not available, reading context " + context + " with a single search");
+            final Map<UserIdentity,Map<String,String>> results = doSingleContextSearch(
+                    ldapProfile,
+                    figureSearchFilter(ldapProfile, searchConfiguration),
+                    context,
+                    Collections.<String>emptyList(),
+                    maxResults - cursor.resultCount + cursor.contextResultCount,
+                    figureChaiProvider(ldapProfile, searchConfiguration),
+                    figureSearchTimeout(ldapProfile, searchConfiguration)
+            );
+            singleSearchResults = new ArrayList<>(results.keySet()).iterator();
+        }
+
+        private List<UserIdentity> fetchPage(final LdapProfile ldapProfile, final String context)
+                throws PwmOperationalException
+        {
+            if (singleSearchResults != null) {
+                if (!singleSearchResults.hasNext()) {
+                    return null;
+                }
+                final List<UserIdentity> page = new ArrayList<>();
+                while (singleSearchResults.hasNext() && page.size() < pageSize) {
+                    page.add(singleSearchResults.next());
+                }
+                return page;
+            }
+
+            if (contextExhausted) {
+                return null;
+            }
+
+            final SearchControls searchControls = new SearchControls();
+            searchControls.setSearchScope(SearchControls.SUBTREE_SCOPE);
+            searchControls.setReturningAttributes(new String[0]);
+            searchControls.setTimeLimit((int) figureSearchTimeout(ldapProfile, searchConfiguration));
+
+            final String searchFilter = figureSearchFilter(ldapProfile, searchConfiguration);
+            final Date startTime = new Date();
+            final List<UserIdentity> page = new ArrayList<>();
+            try {
+                pagingContext.setRequestControls(new Control[]{new PagedResultsControl(pageSize, pagingCookie, Control.CRITICAL)});
+                final NamingEnumeration<SearchResult> results = pagingContext.search(new LdapName(context), searchFilter, searchControls);
+                try {
+                    while (results.hasMore()) {
+                        page.add(new UserIdentity(results.next().getNameInNamespace(), ldapProfile.getIdentifier()));
+                    }
+                } finally {
+                    results.close();
+                }
+
+                pagingCookie = null;
+                final Control[] responseControls = pagingContext.getResponseControls();
+                if (responseControls != null) {
+                    for (final Control responseControl : responseControls) {
+                        if (responseControl instanceof PagedResultsResponseControl) {
+                            pagingCookie = ((PagedResultsResponseControl) responseControl).getCookie();
+                        }
+                    }
+                }
+            } catch (NamingException | IOException e) {
+                throw new PwmOperationalException(PwmError.ERROR_UNKNOWN, "ldap error during paged search of context "
+                        + context + ", error=" + e.getMessage());
+            }
+            contextExhausted = pagingCookie == null || pagingCookie.length == 0;
+
+            LOGGER.trace(sessionLabel, "read page of " + page.size() + " users from " + context + " in "
+                    + TimeDuration.fromCurrent(startTime).asCompactString());
+            return page;
+        }
+
+        private void closeContext() {
+            if (pagingContext != null) {
+                try {
+                    pagingContext.close();
+                } catch (NamingException e) {
+                    LOGGER.debug(sessionLabel, "error closing paged search ldap context: " + e.getMessage());
+                }
+                pagingContext = null;
+            }
+            singleSearchResults = null;
+            pagingCookie = null;
+            contextOpen = false;
+        }
+    }
+
+    private static String figureSearchFilter(final LdapProfile ldapProfile, final SearchConfiguration searchConfiguration) {
         final String input_searchFilter = searchConfiguration.getFilter() != null && searchConfiguration.getFilter().length() > 1 ?
                 searchConfiguration.getFilter() :
                 ldapProfile.readSettingAsString(PwmSetting.LDAP_USERNAME_SEARCH_FILTER);
@@ -305,7 +950,12 @@ public class UserSearchEngine {
         } else {
             searchFilter = input_searchFilter;
         }
+        return searchFilter;
+    }
 
+    private static List<String> figureSearchContexts(final LdapProfile ldapProfile, final SearchConfiguration searchConfiguration)
+            throws PwmOperationalException
+    {
         final List<String> searchContexts;
         if (searchConfiguration.getContexts() != null &&
                 !searchConfiguration.getContexts().isEmpty() &&
@@ -323,37 +973,21 @@ public class UserSearchEngine {
         } else {
             searchContexts = ldapProfile.readSettingAsStringArray(PwmSetting.LDAP_CONTEXTLESS_ROOT);
         }
+        return searchContexts;
+    }
 
-        final long timeLimitMS = searchConfiguration.getSearchTimeout() != 0
+    private static long figureSearchTimeout(final LdapProfile ldapProfile, final SearchConfiguration searchConfiguration) {
+        return searchConfiguration.getSearchTimeout() != 0
                 ? searchConfiguration.getSearchTimeout()
                 : (ldapProfile.readSettingAsLong(PwmSetting.LDAP_SEARCH_TIMEOUT) * 1000);
+    }
 
-
-        final ChaiProvider chaiProvider = searchConfiguration.getChaiProvider() == null ?
+    private ChaiProvider figureChaiProvider(final LdapProfile ldapProfile, final SearchConfiguration searchConfiguration)
+            throws PwmUnrecoverableException
+    {
+        return searchConfiguration.getChaiProvider() == null ?
                 pwmApplication.getProxyChaiProvider(ldapProfile.getIdentifier()) :
                 searchConfiguration.getChaiProvider();
-
-        final Map<UserIdentity,Map<String,String>> returnMap;
-        returnMap = new LinkedHashMap<>();
-        for (final String loopContext : searchContexts) {
-            final Map<UserIdentity,Map<String,String>> singleContextResults;
-            singleContextResults = doSingleContextSearch(
-                    ldapProfile,
-                    searchFilter,
-                    loopContext,
-                    returnAttributes,
-                    maxResults - returnMap.size(),
-                    chaiProvider,
-                    timeLimitMS
-            );
-            returnMap.putAll(singleContextResults);
-            if (returnMap.size() >= maxResults) {
-                break;
-            }
-        }
-
-        LOGGER.debug(sessionLabel, "completed user search process in " + TimeDuration.fromCurrent(startTime).asCompactString() + ", resultSize=" + returnMap.size());
-        return returnMap;
     }
 
     private Map<UserIdentity,Map<String,String>> doSingleContextSearch(
@@ -372,7 +1006,7 @@ public class UserSearchEngine {
         searchHelper.setFilter(searchFilter);
         searchHelper.setAttributes(returnAttributes);
         searchHelper.setTimeLimit((int)timeoutMs);
-        final int searchID = searchCounter++;
+        final int searchID = searchCounter.getAndIncrement();
 
         final String debugInfo = "searchID=" + searchID + " profile=" + ldapProfile.getIdentifier() + " base=" + context
                 + " filter=" + searchHelper.toString() + " maxCount=" + searchHelper.getMaxResults();
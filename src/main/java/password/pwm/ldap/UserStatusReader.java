@@ -271,10 +271,20 @@ public class UserStatusReader {
             uiBean.setRequiresOtpConfig(checkIfOtpUpdateNeeded(uiBean, otpUserRecord));
         }
 
+        final Set<String> passwordRuleAttributes = figurePasswordRuleAttributes(uiBean);
+
+        // read every plain attribute used below with a single ldap read, later reads are served from the reader's cache
+        try {
+            final Set<String> prefetchAttributes = new HashSet<>(UserAttributePrefetchPlan.forConfiguration(config).attributesForProfile(userIdentity.getLdapProfileID()));
+            prefetchAttributes.addAll(passwordRuleAttributes);
+            userDataReader.readStringAttributes(prefetchAttributes);
+        } catch (ChaiOperationException e) {
+            LOGGER.warn(sessionLabel, "error prefetching user attributes, attributes will be read individually: " + e.getMessage());
+        }
+
         //populate cached password rule attributes
         try {
-            final Set<String> interestingUserAttributes = figurePasswordRuleAttributes(uiBean);
-            final Map<String, String> allUserAttrs = userDataReader.readStringAttributes(interestingUserAttributes);
+            final Map<String, String> allUserAttrs = userDataReader.readStringAttributes(passwordRuleAttributes);
             uiBean.setCachedPasswordRuleAttributes(allUserAttrs);
         } catch (ChaiOperationException e) {
             LOGGER.warn(sessionLabel, "error retrieving user cached password rule attributes " + e);
@@ -306,7 +316,19 @@ public class UserStatusReader {
         }
 
         { // set guid
-            final String userGuid = LdapOperationsHelper.readLdapGuidValue(pwmApplication, sessionLabel, userIdentity, false);
+            final LdapProfile ldapProfile = config.getLdapProfiles().get(userIdentity.getLdapProfileID());
+            final String guidAttributeName = ldapProfile.readSettingAsString(PwmSetting.LDAP_GUID_ATTRIBUTE);
+            String userGuid = null;
+            if (UserAttributePrefetchPlan.isPlainGuidAttribute(guidAttributeName)) {
+                try {
+                    userGuid = userDataReader.readStringAttribute(guidAttributeName);
+                } catch (ChaiOperationException e) {
+                    LOGGER.debug(sessionLabel, "error reading guid attribute from prefetched values: " + e.getMessage());
+                }
+            }
+            if (userGuid == null || userGuid.isEmpty()) {
+                userGuid = LdapOperationsHelper.readLdapGuidValue(pwmApplication, sessionLabel, userIdentity, false);
+            }
             uiBean.setUserGuid(userGuid);
         }
 
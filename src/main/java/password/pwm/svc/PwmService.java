@@ -29,7 +29,9 @@ import password.pwm.health.HealthRecord;
 
 import java.io.Serializable;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 /**
  * An interface for daemon/background services.  Services are initialized, shutdown and accessed via {@link PwmApplication}.  Some services
@@ -56,15 +58,27 @@ public interface PwmService {
 
     class ServiceInfo implements Serializable {
         public Collection<DataStorageMethod> usedStorageMethods;
+        public Map<String,String> debugProperties;
 
         public ServiceInfo(Collection<DataStorageMethod> usedStorageMethods)
+        {
+            this(usedStorageMethods, Collections.<String,String>emptyMap());
+        }
+
+        public ServiceInfo(Collection<DataStorageMethod> usedStorageMethods, Map<String,String> debugProperties)
         {
             this.usedStorageMethods = usedStorageMethods;
+            this.debugProperties = debugProperties;
         }
 
         public Collection<DataStorageMethod> getUsedStorageMethods()
         {
             return usedStorageMethods;
         }
+
+        public Map<String,String> getDebugProperties()
+        {
+            return debugProperties;
+        }
     }
 }
@@ -7,6 +7,7 @@ import password.pwm.error.PwmError;
 import password.pwm.error.PwmException;
 import password.pwm.error.PwmUnrecoverableException;
 import password.pwm.health.HealthMonitor;
+import password.pwm.http.client.HttpClientService;
 import password.pwm.http.servlet.resource.ResourceServletService;
 import password.pwm.http.state.SessionStateService;
 import password.pwm.ldap.LdapConnectionService;
@@ -45,6 +46,7 @@ public class PwmServiceManager {
         SecureService(          SecureService.class,             true),
         LdapConnectionService(  LdapConnectionService.class,     true),
         DatabaseAccessorImpl(   DatabaseAccessorImpl.class,      true),
+        HttpClientService(      HttpClientService.class,         false),
         SharedHistoryManager(   SharedHistoryManager.class,      false),
         HealthMonitor(          HealthMonitor.class,             false),
         AuditService(           AuditService.class,              false),
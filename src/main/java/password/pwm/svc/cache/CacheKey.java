@@ -28,6 +28,8 @@ import password.pwm.util.secure.PwmHashAlgorithm;
 import password.pwm.util.secure.SecureEngine;
 
 public class CacheKey {
+    private static final char NAMESPACE_DELIMITER = '!';
+
     private final String cacheKey;
     private String hash;
 
@@ -39,6 +41,14 @@ public class CacheKey {
         this.cacheKey = cacheKey;
     }
 
+    /**
+     * @return the name of the class that created the key, used to keep separate memory limits and statistics per caller.
+     */
+    String getNamespace() {
+        final int delimiterIndex = cacheKey.indexOf(NAMESPACE_DELIMITER);
+        return delimiterIndex < 0 ? cacheKey : cacheKey.substring(0, delimiterIndex);
+    }
+
     String getHash()
             throws PwmUnrecoverableException
     {
@@ -72,7 +82,7 @@ public class CacheKey {
         if (valueID.isEmpty()) {
             throw new IllegalArgumentException("valueID can not be empty");
         }
-        return new CacheKey(srcClass.getName() + "!" + (userIdentity == null ? "null" : userIdentity.toDelimitedKey()) + "!" + valueID);
+        return new CacheKey(srcClass.getName() + NAMESPACE_DELIMITER + (userIdentity == null ? "null" : userIdentity.toDelimitedKey()) + NAMESPACE_DELIMITER + valueID);
     }
 
     @Override
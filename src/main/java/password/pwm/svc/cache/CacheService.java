@@ -34,9 +34,12 @@ import password.pwm.util.TimeDuration;
 import password.pwm.util.localdb.LocalDB;
 import password.pwm.util.logging.PwmLogger;
 
+import java.io.Serializable;
 import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class CacheService implements PwmService {
     private static PwmLogger LOGGER = PwmLogger.forClass(CacheService.class);
@@ -57,7 +60,7 @@ public class CacheService implements PwmService {
     public void init(PwmApplication pwmApplication)
             throws PwmException
     {
-        final boolean enabled = Boolean.parseBoolean(pwmApplication.getConfig().readAppProperty(AppProperty.CACHE_ENABLE));
+        final boolean enabled = pwmApplication.getConfig().readAppPropertyAsBoolean(AppProperty.CACHE_ENABLE);
         if (!enabled) {
             LOGGER.debug("skipping cache service init due to app property setting");
             status = STATUS.CLOSED;
@@ -77,11 +80,11 @@ public class CacheService implements PwmService {
         }
 
         status = STATUS.OPENING;
-        final int maxMemItems = Integer.parseInt(pwmApplication.getConfig().readAppProperty(AppProperty.CACHE_MEMORY_MAX_ITEMS));
+        final int maxMemItems = pwmApplication.getConfig().readAppPropertyAsInt(AppProperty.CACHE_MEMORY_MAX_ITEMS);
         if (pwmApplication.getLocalDB() != null && pwmApplication.getLocalDB().status() == LocalDB.Status.OPEN) {
             localDBCacheStore = new LocalDBCacheStore(pwmApplication);
         }
-        memoryCacheStore = new MemoryCacheStore(maxMemItems);
+        memoryCacheStore = new MemoryCacheStore(maxMemItems, localDBCacheStore);
         status = STATUS.OPEN;
     }
 
@@ -98,10 +101,26 @@ public class CacheService implements PwmService {
 
     @Override
     public ServiceInfo serviceInfo() {
-        return new ServiceInfo(Collections.<DataStorageMethod>emptyList());
+        final Map<String, String> debugProperties = new LinkedHashMap<>();
+        if (status == STATUS.OPEN && memoryCacheStore != null) {
+            final CacheStoreInfo memoryInfo = memoryCacheStore.getCacheStoreInfo();
+            debugProperties.put("memoryItems", String.valueOf(memoryInfo.getItemCount()));
+            debugProperties.put("memoryHitRatio", String.valueOf(memoryInfo.getHitRatio()));
+            debugProperties.put("memoryEvictions", String.valueOf(memoryInfo.getEvictionCount()));
+            for (final Map.Entry<String, CacheStoreInfo> entry : memoryInfo.getNamespaces().entrySet()) {
+                debugProperties.put("memoryItems." + entry.getKey(), String.valueOf(entry.getValue().getItemCount()));
+                debugProperties.put("memoryHitRatio." + entry.getKey(), String.valueOf(entry.getValue().getHitRatio()));
+                debugProperties.put("memoryEvictions." + entry.getKey(), String.valueOf(entry.getValue().getEvictionCount()));
+            }
+        }
+        return new ServiceInfo(Collections.<DataStorageMethod>emptyList(), debugProperties);
     }
 
-    public void put(final CacheKey cacheKey, final CachePolicy cachePolicy, final String payload)
+    /**
+     * Cache a value.  Values are held as-is in the memory tier and are only serialized if they are later evicted to
+     * the LocalDB tier, so the payload must be immutable and serializable to json.
+     */
+    public <T extends Serializable> void put(final CacheKey cacheKey, final CachePolicy cachePolicy, final T payload)
             throws PwmUnrecoverableException {
         if (status != STATUS.OPEN) {
             return;
@@ -118,12 +137,21 @@ public class CacheService implements PwmService {
         final Date expirationDate = cachePolicy.getExpiration();
         memoryCacheStore.store(cacheKey, expirationDate, payload);
         if (localDBCacheStore != null) {
-            localDBCacheStore.store(cacheKey, expirationDate, payload);
+            // drop any older value spilled by a previous eviction so it can not be read after the new value expires
+            localDBCacheStore.remove(cacheKey);
         }
         outputTraceInfo();
     }
 
-    public String get(CacheKey cacheKey)
+    public String get(final CacheKey cacheKey)
+            throws PwmUnrecoverableException {
+        return get(cacheKey, String.class);
+    }
+
+    /**
+     * @return the cached value, or null if there is no unexpired value of the requested type.
+     */
+    public <T> T get(final CacheKey cacheKey, final Class<T> classOfT)
             throws PwmUnrecoverableException {
         if (cacheKey == null) {
             return null;
@@ -133,13 +161,13 @@ public class CacheService implements PwmService {
             return null;
         }
 
-        String payload = null;
+        T payload = null;
         if (memoryCacheStore != null) {
-            payload = memoryCacheStore.read(cacheKey);
+            payload = memoryCacheStore.read(cacheKey, classOfT);
         }
 
         if (payload == null && localDBCacheStore != null) {
-            payload = localDBCacheStore.read(cacheKey);
+            payload = localDBCacheStore.read(cacheKey, classOfT);
         }
 
         outputTraceInfo();
@@ -24,12 +24,13 @@ package password.pwm.svc.cache;
 
 import password.pwm.error.PwmUnrecoverableException;
 
+import java.io.Serializable;
 import java.util.Date;
 
 public interface CacheStore {
-    void store(CacheKey cacheKey, Date expirationDate, String data) throws PwmUnrecoverableException;
+    void store(CacheKey cacheKey, Date expirationDate, Serializable data) throws PwmUnrecoverableException;
     
-    String read(CacheKey cacheKey) throws PwmUnrecoverableException;
+    <T> T read(CacheKey cacheKey, Class<T> classOfT) throws PwmUnrecoverableException;
     
     public CacheStoreInfo getCacheStoreInfo();
 }
@@ -23,46 +23,57 @@
 package password.pwm.svc.cache;
 
 import java.io.Serializable;
+import java.util.Map;
 
 public class CacheStoreInfo implements Serializable {
-    private int storeCount;
-    private int readCount;
-    private int hitCount;
-    private int missCount;
+    private long storeCount;
+    private long readCount;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
     private int itemCount;
+    private Map<String, CacheStoreInfo> namespaces;
 
-    public int getStoreCount() {
+    public long getStoreCount() {
         return storeCount;
     }
 
-    public void setStoreCount(int storeCount) {
+    public void setStoreCount(long storeCount) {
         this.storeCount = storeCount;
     }
 
-    public int getReadCount() {
+    public long getReadCount() {
         return readCount;
     }
 
-    public void setReadCount(int readCount) {
+    public void setReadCount(long readCount) {
         this.readCount = readCount;
     }
 
-    public int getHitCount() {
+    public long getHitCount() {
         return hitCount;
     }
 
-    public void setHitCount(int hitCount) {
+    public void setHitCount(long hitCount) {
         this.hitCount = hitCount;
     }
 
-    public int getMissCount() {
+    public long getMissCount() {
         return missCount;
     }
 
-    public void setMissCount(int missCount) {
+    public void setMissCount(long missCount) {
         this.missCount = missCount;
     }
 
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public void setEvictionCount(long evictionCount) {
+        this.evictionCount = evictionCount;
+    }
+
     public int getItemCount() {
         return itemCount;
     }
@@ -70,4 +81,23 @@ public class CacheStoreInfo implements Serializable {
     public void setItemCount(int itemCount) {
         this.itemCount = itemCount;
     }
+
+    /**
+     * @return per-namespace statistics keyed by namespace, or null if the store does not track namespaces.
+     */
+    public Map<String, CacheStoreInfo> getNamespaces() {
+        return namespaces;
+    }
+
+    public void setNamespaces(Map<String, CacheStoreInfo> namespaces) {
+        this.namespaces = namespaces;
+    }
+
+    /**
+     * @return hits as a fraction of reads, or 0 if there have been no reads.
+     */
+    public float getHitRatio() {
+        final long reads = hitCount + missCount;
+        return reads == 0 ? 0 : (float) hitCount / reads;
+    }
 }
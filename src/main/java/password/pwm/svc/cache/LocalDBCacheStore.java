@@ -32,6 +32,8 @@ import password.pwm.util.logging.PwmLogger;
 
 import java.io.Serializable;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class LocalDBCacheStore implements CacheStore {
     private static final PwmLogger LOGGER = PwmLogger.forClass(LocalDBCacheStore.class);
@@ -44,10 +46,13 @@ public class LocalDBCacheStore implements CacheStore {
     private final Timer timer;
     private int ticks = 0;
 
-    private int readCount;
-    private int storeCount;
-    private int hitCount;
-    private int missCount;
+    private final AtomicLong readCount = new AtomicLong();
+    private final AtomicLong storeCount = new AtomicLong();
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    // hashes of the records currently held in the CACHE db, which is truncated at startup
+    private final Set<String> storedHashes = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
 
     LocalDBCacheStore(final PwmApplication pwmApplication) {
         this.localDB = pwmApplication.getLocalDB();
@@ -60,13 +65,15 @@ public class LocalDBCacheStore implements CacheStore {
     }
 
     @Override
-    public void store(final CacheKey cacheKey, final Date expirationDate, final String data)
+    public void store(final CacheKey cacheKey, final Date expirationDate, final Serializable data)
             throws PwmUnrecoverableException
     {
         ticks++;
-        storeCount++;
+        storeCount.incrementAndGet();
         try {
-            localDB.put(DB,cacheKey.getHash(),JsonUtil.serialize(new ValueWrapper(cacheKey, expirationDate, data)));
+            final String payload = JsonUtil.serialize(data);
+            localDB.put(DB,cacheKey.getHash(),JsonUtil.serialize(new ValueWrapper(cacheKey, expirationDate, payload)));
+            storedHashes.add(cacheKey.getHash());
         } catch (LocalDBException e) {
             LOGGER.error("error while writing cache: " + e.getMessage());
         }
@@ -77,10 +84,10 @@ public class LocalDBCacheStore implements CacheStore {
     }
 
     @Override
-    public String read(CacheKey cacheKey)
+    public <T> T read(final CacheKey cacheKey, final Class<T> classOfT)
             throws PwmUnrecoverableException 
     {
-        readCount++;
+        readCount.incrementAndGet();
         final String hashKey = cacheKey.getHash();
         final String storedValue; 
         try {
@@ -94,8 +101,8 @@ public class LocalDBCacheStore implements CacheStore {
                 final ValueWrapper valueWrapper = JsonUtil.deserialize(storedValue, ValueWrapper.class);
                 if (cacheKey.equals(valueWrapper.getCacheKey())) {
                     if (valueWrapper.getExpirationDate().after(new Date())) {
-                        hitCount++;
-                        return valueWrapper.getPayload();
+                        hitCount.incrementAndGet();
+                        return JsonUtil.deserialize(valueWrapper.getPayload(), classOfT);
                     }
                 }
             } catch (Exception e) {
@@ -103,21 +110,39 @@ public class LocalDBCacheStore implements CacheStore {
             }
             try {
                 localDB.remove(DB,hashKey);
+                storedHashes.remove(hashKey);
             } catch (LocalDBException e) {
                 LOGGER.error("error while purging record from cache: " + e.getMessage());
             }
         }
-        missCount++;
+        missCount.incrementAndGet();
         return null;
     }
 
+    /**
+     * Remove a previously stored value.  Only keys known to be stored are removed from LocalDB, so callers may
+     * invoke this for every key without a LocalDB write.
+     */
+    void remove(final CacheKey cacheKey)
+            throws PwmUnrecoverableException
+    {
+        if (!storedHashes.remove(cacheKey.getHash())) {
+            return;
+        }
+        try {
+            localDB.remove(DB, cacheKey.getHash());
+        } catch (LocalDBException e) {
+            LOGGER.error("error while removing record from cache: " + e.getMessage());
+        }
+    }
+
     @Override
     public CacheStoreInfo getCacheStoreInfo() {
         final CacheStoreInfo cacheStoreInfo = new CacheStoreInfo();
-        cacheStoreInfo.setReadCount(readCount);
-        cacheStoreInfo.setStoreCount(storeCount);
-        cacheStoreInfo.setHitCount(hitCount);
-        cacheStoreInfo.setMissCount(missCount);
+        cacheStoreInfo.setReadCount(readCount.get());
+        cacheStoreInfo.setStoreCount(storeCount.get());
+        cacheStoreInfo.setHitCount(hitCount.get());
+        cacheStoreInfo.setMissCount(missCount.get());
         try {
             cacheStoreInfo.setItemCount(localDB.size(DB));
         } catch (LocalDBException e) {
@@ -172,7 +197,7 @@ public class LocalDBCacheStore implements CacheStore {
                         final String strValue = localDB.get(DB, key);
                         if (strValue != null) {
                             final ValueWrapper valueWrapper = JsonUtil.deserialize(strValue, ValueWrapper.class);
-                            if (valueWrapper.expirationDate.before(new Date())) {
+                            if (valueWrapper.expirationDate.after(new Date())) {
                                 keep = true;
                             }
                         }
@@ -193,6 +218,7 @@ public class LocalDBCacheStore implements CacheStore {
         if (!removalKeys.isEmpty()) {
             LOGGER.debug("purging " + removalKeys.size() + " expired cache records");
             localDB.removeAll(DB, removalKeys);
+            storedHashes.removeAll(removalKeys);
         } else {
             LOGGER.trace("purger examined " + counter + " records and did not discover any expired cache records");
         }
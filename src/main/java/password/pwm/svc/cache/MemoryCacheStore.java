@@ -23,89 +23,155 @@
 package password.pwm.svc.cache;
 
 import com.googlecode.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
+import com.googlecode.concurrentlinkedhashmap.EvictionListener;
 import password.pwm.error.PwmUnrecoverableException;
+import password.pwm.util.logging.PwmLogger;
 
 import java.io.Serializable;
 import java.util.Date;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Memory tier holding cached values as the stored objects themselves, so values must be immutable.  Each namespace
+ * (see {@link CacheKey#getNamespace()}) has its own LRU limit, so a busy caller can not evict the entries of another;
+ * the configured maximum is shared evenly between the namespaces, so the tier as a whole stays within that bound.
+ * Entries evicted before they expire are passed to the overflow store, which is the only place values are serialized.
+ */
 class MemoryCacheStore implements CacheStore {
-    private final Map<String,ValueWrapper> memoryStore;
-    private int readCount;
-    private int storeCount;
-    private int hitCount;
-    private int missCount;
-
-    MemoryCacheStore(int maxItems) {
-        memoryStore = new ConcurrentLinkedHashMap.Builder<String, ValueWrapper>()
-            .maximumWeightedCapacity(maxItems)
-            .build();
+    private static final PwmLogger LOGGER = PwmLogger.forClass(MemoryCacheStore.class);
+
+    private final int maxItems;
+    private final CacheStore overflowStore;
+    private final ConcurrentMap<String, NamespaceStore> namespaceStores = new ConcurrentHashMap<>();
+
+    MemoryCacheStore(final int maxItems, final CacheStore overflowStore) {
+        this.maxItems = maxItems;
+        this.overflowStore = overflowStore;
     }
 
     @Override
-    public void store(final CacheKey cacheKey, final Date expirationDate, final String data)
+    public void store(final CacheKey cacheKey, final Date expirationDate, final Serializable data)
             throws PwmUnrecoverableException {
-        storeCount++;
-        memoryStore.put(cacheKey.getHash(), new ValueWrapper(cacheKey, expirationDate, data));
+        final NamespaceStore namespaceStore = namespaceStore(cacheKey);
+        namespaceStore.storeCount.incrementAndGet();
+        namespaceStore.memoryStore.put(cacheKey, new ValueWrapper(expirationDate.getTime(), data));
     }
 
     @Override
-    public String read(CacheKey cacheKey)
-            throws PwmUnrecoverableException 
+    public <T> T read(final CacheKey cacheKey, final Class<T> classOfT)
+            throws PwmUnrecoverableException
     {
-        readCount++;
-        final ValueWrapper valueWrapper = memoryStore.get(cacheKey.getHash());
+        final NamespaceStore namespaceStore = namespaceStore(cacheKey);
+        namespaceStore.readCount.incrementAndGet();
+        final ValueWrapper valueWrapper = namespaceStore.memoryStore.get(cacheKey);
         if (valueWrapper != null) {
-            if (cacheKey.equals(valueWrapper.getCacheKey())) {
-                if (valueWrapper.getExpirationDate().after(new Date())) {
-                    hitCount++;
-                    return valueWrapper.payload;
+            if (valueWrapper.expirationTime > System.currentTimeMillis()) {
+                if (classOfT.isInstance(valueWrapper.payload)) {
+                    namespaceStore.hitCount.incrementAndGet();
+                    return classOfT.cast(valueWrapper.payload);
                 }
+            } else {
+                namespaceStore.memoryStore.remove(cacheKey, valueWrapper);
             }
         }
-        missCount++;
+        namespaceStore.missCount.incrementAndGet();
         return null;
     }
 
     @Override
     public CacheStoreInfo getCacheStoreInfo() {
         final CacheStoreInfo cacheStoreInfo = new CacheStoreInfo();
-        cacheStoreInfo.setReadCount(readCount);
-        cacheStoreInfo.setStoreCount(storeCount);
-        cacheStoreInfo.setHitCount(hitCount);
-        cacheStoreInfo.setMissCount(missCount);
-        cacheStoreInfo.setItemCount(memoryStore.size());
+        final Map<String, CacheStoreInfo> namespaceInfos = new TreeMap<>();
+        for (final Map.Entry<String, NamespaceStore> entry : namespaceStores.entrySet()) {
+            final CacheStoreInfo namespaceInfo = entry.getValue().getCacheStoreInfo();
+            namespaceInfos.put(entry.getKey(), namespaceInfo);
+            cacheStoreInfo.setReadCount(cacheStoreInfo.getReadCount() + namespaceInfo.getReadCount());
+            cacheStoreInfo.setStoreCount(cacheStoreInfo.getStoreCount() + namespaceInfo.getStoreCount());
+            cacheStoreInfo.setHitCount(cacheStoreInfo.getHitCount() + namespaceInfo.getHitCount());
+            cacheStoreInfo.setMissCount(cacheStoreInfo.getMissCount() + namespaceInfo.getMissCount());
+            cacheStoreInfo.setEvictionCount(cacheStoreInfo.getEvictionCount() + namespaceInfo.getEvictionCount());
+            cacheStoreInfo.setItemCount(cacheStoreInfo.getItemCount() + namespaceInfo.getItemCount());
+        }
+        cacheStoreInfo.setNamespaces(namespaceInfos);
         return cacheStoreInfo;
     }
 
-    private static class ValueWrapper implements Serializable {
-        final CacheKey cacheKey;
-        final Date expirationDate;
-        final String payload;
+    private NamespaceStore namespaceStore(final CacheKey cacheKey) {
+        final String namespace = cacheKey.getNamespace();
+        final NamespaceStore existingStore = namespaceStores.get(namespace);
+        if (existingStore != null) {
+            return existingStore;
+        }
+        final NamespaceStore newStore = new NamespaceStore();
+        final NamespaceStore racedStore = namespaceStores.putIfAbsent(namespace, newStore);
+        if (racedStore != null) {
+            return racedStore;
+        }
+        resizeNamespaceStores();
+        return newStore;
+    }
 
-        private ValueWrapper(
-                CacheKey cacheKey,
-                Date expirationDate,
-                String payload
-        )
-        {
-            this.cacheKey = cacheKey;
-            this.expirationDate = expirationDate;
-            this.payload = payload;
+    private synchronized void resizeNamespaceStores() {
+        final long namespaceCapacity = Math.max(1, maxItems / Math.max(1, namespaceStores.size()));
+        for (final NamespaceStore namespaceStore : namespaceStores.values()) {
+            namespaceStore.memoryStore.setCapacity(namespaceCapacity);
         }
+    }
 
-        public CacheKey getCacheKey()
-        {
-            return cacheKey;
+    private class NamespaceStore implements EvictionListener<CacheKey, ValueWrapper> {
+        private final ConcurrentLinkedHashMap<CacheKey, ValueWrapper> memoryStore;
+        private final AtomicLong readCount = new AtomicLong();
+        private final AtomicLong storeCount = new AtomicLong();
+        private final AtomicLong hitCount = new AtomicLong();
+        private final AtomicLong missCount = new AtomicLong();
+        private final AtomicLong evictionCount = new AtomicLong();
+
+        private NamespaceStore() {
+            memoryStore = new ConcurrentLinkedHashMap.Builder<CacheKey, ValueWrapper>()
+                    .maximumWeightedCapacity(Math.max(1, maxItems))
+                    .listener(this)
+                    .build();
         }
 
-        public Date getExpirationDate() {
-            return expirationDate;
+        @Override
+        public void onEviction(final CacheKey cacheKey, final ValueWrapper valueWrapper) {
+            evictionCount.incrementAndGet();
+            if (overflowStore != null && valueWrapper.expirationTime > System.currentTimeMillis()) {
+                try {
+                    overflowStore.store(cacheKey, new Date(valueWrapper.expirationTime), valueWrapper.payload);
+                } catch (PwmUnrecoverableException e) {
+                    LOGGER.error("error while moving evicted cache entry to overflow store: " + e.getMessage());
+                }
+            }
         }
 
-        public String getPayload()
+        private CacheStoreInfo getCacheStoreInfo() {
+            final CacheStoreInfo cacheStoreInfo = new CacheStoreInfo();
+            cacheStoreInfo.setReadCount(readCount.get());
+            cacheStoreInfo.setStoreCount(storeCount.get());
+            cacheStoreInfo.setHitCount(hitCount.get());
+            cacheStoreInfo.setMissCount(missCount.get());
+            cacheStoreInfo.setEvictionCount(evictionCount.get());
+            cacheStoreInfo.setItemCount(memoryStore.size());
+            return cacheStoreInfo;
+        }
+    }
+
+    private static class ValueWrapper {
+        final long expirationTime;
+        final Serializable payload;
+
+        private ValueWrapper(
+                long expirationTime,
+                Serializable payload
+        )
         {
-            return payload;
+            this.expirationTime = expirationTime;
+            this.payload = payload;
         }
     }
 
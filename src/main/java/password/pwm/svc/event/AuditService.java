@@ -250,7 +250,7 @@ public class AuditService implements PwmService {
         }
         {
             final TimeDuration maxRecordAge = new TimeDuration(pwmApplication.getConfig().readSettingAsLong(PwmSetting.EVENTS_AUDIT_MAX_AGE) * 1000);
-            final int maxRecords = Integer.parseInt(pwmApplication.getConfig().readAppProperty(AppProperty.AUDIT_VAULT_MAX_RECORDS));
+            final int maxRecords = pwmApplication.getConfig().readAppPropertyAsInt(AppProperty.AUDIT_VAULT_MAX_RECORDS);
             final AuditVault.Settings settings = new AuditVault.Settings(
                     maxRecords,
                     maxRecordAge
@@ -0,0 +1,289 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://code.google.com/p/pwm/
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2015 The PWM Project
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package password.pwm.svc.intruder;
+
+import password.pwm.error.PwmOperationalException;
+import password.pwm.error.PwmUnrecoverableException;
+import password.pwm.util.ClosableIterator;
+import password.pwm.util.TimeDuration;
+import password.pwm.util.localdb.LocalDBException;
+import password.pwm.util.logging.PwmLogger;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory tier in front of a {@link RecordStore}.  Updates to the same key are serialized by a striped lock so
+ * concurrent marks of a subject are never lost.
+ * <p/>
+ * When write-back is enabled, records are held in memory and dirty records are written to the backing store by
+ * {@link #flush()}, so marking a subject only touches storage on the first read of that subject.  When write-back
+ * is disabled (the backing store is shared with other application instances) nothing is cached and each update is a
+ * locked read-modify-write against the backing store.
+ */
+class CachedRecordStore implements RecordStore {
+    private static final PwmLogger LOGGER = PwmLogger.forClass(CachedRecordStore.class);
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final RecordStore backingStore;
+    private final boolean writeBack;
+    private final int maxCachedRecords;
+
+    private final Lock[] locks = new Lock[LOCK_STRIPES];
+    private final Map<String, CachedRecord> cache = new ConcurrentHashMap<>();
+
+    private final AtomicLong cacheHits = new AtomicLong(0);
+    private final AtomicLong cacheMisses = new AtomicLong(0);
+    private final AtomicLong recordsWritten = new AtomicLong(0);
+
+    CachedRecordStore(final RecordStore backingStore, final boolean writeBack, final int maxCachedRecords) {
+        this.backingStore = backingStore;
+        this.writeBack = writeBack;
+        this.maxCachedRecords = maxCachedRecords;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public IntruderRecord read(final String key) throws PwmUnrecoverableException {
+        if (!writeBack) {
+            return backingStore.read(key);
+        }
+
+        final CachedRecord cachedRecord = cache.get(key);
+        if (cachedRecord != null) {
+            cacheHits.incrementAndGet();
+            final Lock lock = lockForKey(key);
+            lock.lock();
+            try {
+                return cachedRecord.record == null ? null : cachedRecord.record.copy();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        final Lock lock = lockForKey(key);
+        lock.lock();
+        try {
+            final CachedRecord loadedRecord = loadRecord(key);
+            return loadedRecord.record == null ? null : loadedRecord.record.copy();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void write(final String key, final IntruderRecord record) throws PwmOperationalException {
+        if (!writeBack) {
+            backingStore.write(key, record);
+            return;
+        }
+
+        final Lock lock = lockForKey(key);
+        lock.lock();
+        try {
+            cache.put(key, new CachedRecord(record.copy(), true));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public IntruderRecord update(final String key, final RecordUpdater updater)
+            throws PwmUnrecoverableException, PwmOperationalException
+    {
+        final Lock lock = lockForKey(key);
+        lock.lock();
+        try {
+            if (!writeBack) {
+                return backingStore.update(key, updater);
+            }
+
+            final CachedRecord cachedRecord = loadRecord(key);
+            final IntruderRecord updatedRecord = updater.update(cachedRecord.record == null ? null : cachedRecord.record.copy());
+            if (updatedRecord == null) {
+                return cachedRecord.record == null ? null : cachedRecord.record.copy();
+            }
+            cachedRecord.record = updatedRecord.copy();
+            cachedRecord.dirty = true;
+            return updatedRecord;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public ClosableIterator<IntruderRecord> iterator() throws PwmOperationalException {
+        flush();
+        return backingStore.iterator();
+    }
+
+    @Override
+    public void cleanup(final TimeDuration maxRecordAge) throws LocalDBException {
+        backingStore.cleanup(maxRecordAge);
+
+        for (final Iterator<Map.Entry<String, CachedRecord>> iterator = cache.entrySet().iterator(); iterator.hasNext(); ) {
+            final Map.Entry<String, CachedRecord> entry = iterator.next();
+            final Lock lock = lockForKey(entry.getKey());
+            lock.lock();
+            try {
+                final CachedRecord cachedRecord = entry.getValue();
+                if (!cachedRecord.dirty && (cachedRecord.record == null || TimeDuration.fromCurrent(cachedRecord.record.getTimeStamp()).isLongerThan(maxRecordAge))) {
+                    iterator.remove();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Write all dirty records to the backing store, then trim the cache back to its maximum size.  Records are
+     * copied under their key's lock but written outside of it, so updates are never blocked by storage writes.
+     */
+    synchronized void flush() {
+        if (!writeBack) {
+            return;
+        }
+
+        final List<String> keysToWrite = new ArrayList<>();
+        for (final Map.Entry<String, CachedRecord> entry : cache.entrySet()) {
+            if (entry.getValue().dirty) {
+                keysToWrite.add(entry.getKey());
+            }
+        }
+
+        for (final String key : keysToWrite) {
+            final IntruderRecord recordToWrite;
+            final Lock lock = lockForKey(key);
+            lock.lock();
+            try {
+                final CachedRecord cachedRecord = cache.get(key);
+                if (cachedRecord == null || !cachedRecord.dirty || cachedRecord.record == null) {
+                    continue;
+                }
+                recordToWrite = cachedRecord.record.copy();
+                cachedRecord.dirty = false;
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                backingStore.write(key, recordToWrite);
+                recordsWritten.incrementAndGet();
+            } catch (PwmOperationalException e) {
+                LOGGER.warn("unable to write intruder record to storage, will retry: " + e.getMessage());
+                markDirty(key);
+            }
+        }
+
+        trimCache();
+    }
+
+    int cacheSize() {
+        return cache.size();
+    }
+
+    long getCacheHits() {
+        return cacheHits.get();
+    }
+
+    long getCacheMisses() {
+        return cacheMisses.get();
+    }
+
+    long getRecordsWritten() {
+        return recordsWritten.get();
+    }
+
+    private void markDirty(final String key) {
+        final Lock lock = lockForKey(key);
+        lock.lock();
+        try {
+            final CachedRecord cachedRecord = cache.get(key);
+            if (cachedRecord != null) {
+                cachedRecord.dirty = true;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void trimCache() {
+        if (cache.size() <= maxCachedRecords) {
+            return;
+        }
+
+        final int startSize = cache.size();
+        for (final Iterator<Map.Entry<String, CachedRecord>> iterator = cache.entrySet().iterator(); iterator.hasNext() && cache.size() > maxCachedRecords; ) {
+            final Map.Entry<String, CachedRecord> entry = iterator.next();
+            final Lock lock = lockForKey(entry.getKey());
+            lock.lock();
+            try {
+                if (!entry.getValue().dirty) {
+                    iterator.remove();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        LOGGER.trace("trimmed intruder record cache from " + startSize + " to " + cache.size() + " records");
+    }
+
+    /**
+     * Must be called while holding the key's lock.
+     */
+    private CachedRecord loadRecord(final String key) throws PwmUnrecoverableException {
+        CachedRecord cachedRecord = cache.get(key);
+        if (cachedRecord == null) {
+            cacheMisses.incrementAndGet();
+            cachedRecord = new CachedRecord(backingStore.read(key), false);
+            cache.put(key, cachedRecord);
+        }
+        return cachedRecord;
+    }
+
+    private Lock lockForKey(final String key) {
+        int hash = key.hashCode();
+        hash ^= (hash >>> 16);
+        return locks[(hash & 0x7fffffff) % LOCK_STRIPES];
+    }
+
+    private static class CachedRecord {
+        private IntruderRecord record;
+        private volatile boolean dirty;
+
+        private CachedRecord(final IntruderRecord record, final boolean dirty) {
+            this.record = record;
+            this.dirty = dirty;
+        }
+    }
+}
@@ -28,6 +28,7 @@ import password.pwm.util.ClosableIterator;
 import password.pwm.util.DataStore;
 import password.pwm.util.JsonUtil;
 import password.pwm.util.TimeDuration;
+import password.pwm.util.db.DatabaseDataStore;
 import password.pwm.util.logging.PwmLogger;
 
 import java.util.ArrayList;
@@ -91,6 +92,22 @@ class DataStoreRecordStore implements RecordStore {
         }
     }
 
+    /**
+     * Plain read-modify-write; callers needing atomic updates should go through {@link CachedRecordStore}.
+     */
+    @Override
+    public IntruderRecord update(final String key, final RecordUpdater updater)
+            throws PwmUnrecoverableException, PwmOperationalException
+    {
+        final IntruderRecord existingRecord = read(key);
+        final IntruderRecord updatedRecord = updater.update(existingRecord);
+        if (updatedRecord == null) {
+            return existingRecord;
+        }
+        write(key, updatedRecord);
+        return updatedRecord;
+    }
+
     @Override
     public ClosableIterator<IntruderRecord> iterator() throws PwmOperationalException {
         try {
@@ -135,6 +152,11 @@ class DataStoreRecordStore implements RecordStore {
 
     @Override
     public void cleanup(final TimeDuration maxRecordAge) {
+        if (dataStore instanceof DatabaseDataStore && ((DatabaseDataStore) dataStore).supportsRemoveOlderThan()) {
+            cleanupByTimestamp(maxRecordAge);
+            return;
+        }
+
         if (TimeDuration.fromCurrent(eldestRecord).isShorterThan(maxRecordAge)) {
             return;
         }
@@ -153,9 +175,7 @@ class DataStoreRecordStore implements RecordStore {
                 complete = true;
             }
             try {
-                for (final String key : recordsToRemove) {
-                    dataStore.remove(key);
-                }
+                dataStore.removeAll(recordsToRemove);
             } catch (PwmDataStoreException e) {
                 LOGGER.error("unable to perform removal of identified stale records: " + e.getMessage());
             }
@@ -166,6 +186,21 @@ class DataStoreRecordStore implements RecordStore {
         LOGGER.trace("completed cleanup of intruder table in " + totalDuration.asCompactString() + ", recordsExamined=" + recordsExamined + ", recordsRemoved=" + recordsRemoved);
     }
 
+    /**
+     * Records are rewritten on every update, so the row write time kept by the database is never earlier than the
+     * record's own timestamp and stale rows can be removed by one indexed delete without reading them.
+     */
+    private void cleanupByTimestamp(final TimeDuration maxRecordAge) {
+        final long startTime = System.currentTimeMillis();
+        final Date cutoffDate = new Date(startTime - maxRecordAge.getTotalMilliseconds());
+        try {
+            final int recordsRemoved = ((DatabaseDataStore) dataStore).removeOlderThan(cutoffDate);
+            LOGGER.trace("completed cleanup of intruder table in " + TimeDuration.fromCurrent(startTime).asCompactString() + ", recordsRemoved=" + recordsRemoved);
+        } catch (PwmDataStoreException e) {
+            LOGGER.error("unable to perform intruder table cleanup: " + e.getMessage());
+        }
+    }
+
     private List<String> discoverPurgableKeys(final TimeDuration maxRecordAge) {
         final List<String> recordsToRemove = new ArrayList<>();
         ClosableIterator<String> dbIterator = null;
@@ -69,6 +69,7 @@ public class IntruderManager implements Serializable, PwmService {
     private STATUS status = STATUS.NEW;
     private ErrorInformation startupError;
     private Timer timer;
+    private CachedRecordStore cachedRecordStore;
 
     private final Map<RecordType, RecordManager> recordManagers = new HashMap<>();
 
@@ -106,10 +107,10 @@ public class IntruderManager implements Serializable, PwmService {
             return;
         }
         final DataStore dataStore;
+        final DataStorageMethod storageMethodUsed;
         {
             final IntruderStorageMethod intruderStorageMethod = pwmApplication.getConfig().readSettingAsEnum(PwmSetting.INTRUDER_STORAGE_METHOD, IntruderStorageMethod.class);
             final String debugMsg;
-            final DataStorageMethod storageMethodUsed;
             switch (intruderStorageMethod) {
                 case AUTO:
                     dataStore = DataStoreFactory.autoDbOrLocalDBstore(pwmApplication, DatabaseTable.INTRUDER, LocalDB.DB.INTRUDER);
@@ -144,11 +145,15 @@ public class IntruderManager implements Serializable, PwmService {
         }
         final RecordStore recordStore;
         {
-            recordStore = new DataStoreRecordStore(dataStore, this);
+            // write-back is only safe when no other application instance shares the storage
+            final boolean writeBack = storageMethodUsed == DataStorageMethod.LOCALDB;
+            final int maxCachedRecords = config.readAppPropertyAsInt(AppProperty.INTRUDER_WRITE_BACK_MAX_CACHED_RECORDS);
+            cachedRecordStore = new CachedRecordStore(new DataStoreRecordStore(dataStore, this), writeBack, maxCachedRecords);
+            recordStore = cachedRecordStore;
             final String threadName = Helper.makeThreadName(pwmApplication, this.getClass()) + " timer";
             timer = new Timer(threadName, true);
-            final long maxRecordAge = Long.parseLong(pwmApplication.getConfig().readAppProperty(AppProperty.INTRUDER_RETENTION_TIME_MS));
-            final long cleanerRunFrequency = Long.parseLong(pwmApplication.getConfig().readAppProperty(AppProperty.INTRUDER_CLEANUP_FREQUENCY_MS));
+            final long maxRecordAge = pwmApplication.getConfig().readAppPropertyAsLong(AppProperty.INTRUDER_RETENTION_TIME_MS);
+            final long cleanerRunFrequency = pwmApplication.getConfig().readAppPropertyAsLong(AppProperty.INTRUDER_CLEANUP_FREQUENCY_MS);
             timer.schedule(new TimerTask() {
                 @Override
                 public void run() {
@@ -159,6 +164,19 @@ public class IntruderManager implements Serializable, PwmService {
                     }
                 }
             },1000,cleanerRunFrequency);
+            if (writeBack) {
+                final long writeBackFrequency = config.readAppPropertyAsLong(AppProperty.INTRUDER_WRITE_BACK_INTERVAL_MS);
+                timer.schedule(new TimerTask() {
+                    @Override
+                    public void run() {
+                        try {
+                            cachedRecordStore.flush();
+                        } catch (Exception e) {
+                            LOGGER.error("error writing cached intruder records: " + e.getMessage(),e);
+                        }
+                    }
+                },writeBackFrequency,writeBackFrequency);
+            }
         }
 
         try {
@@ -227,6 +245,10 @@ public class IntruderManager implements Serializable, PwmService {
             timer.cancel();
             timer = null;
         }
+        if (cachedRecordStore != null) {
+            cachedRecordStore.flush();
+            cachedRecordStore = null;
+        }
     }
 
     @Override
@@ -359,10 +381,10 @@ public class IntruderManager implements Serializable, PwmService {
         int points = 0;
         if (intruderRecord != null) {
             points += intruderRecord.getAttemptCount();
-            long delayPenalty = Long.parseLong(pwmApplication.getConfig().readAppProperty(AppProperty.INTRUDER_MIN_DELAY_PENALTY_MS)); // minimum
-            delayPenalty += points * Long.parseLong(pwmApplication.getConfig().readAppProperty(AppProperty.INTRUDER_DELAY_PER_COUNT_MS));
-            delayPenalty += PwmRandom.getInstance().nextInt((int)Long.parseLong(pwmApplication.getConfig().readAppProperty(AppProperty.INTRUDER_DELAY_MAX_JITTER_MS))); // add some randomness;
-            delayPenalty = delayPenalty > Long.parseLong(pwmApplication.getConfig().readAppProperty(AppProperty.INTRUDER_MAX_DELAY_PENALTY_MS)) ? Long.parseLong(pwmApplication.getConfig().readAppProperty(AppProperty.INTRUDER_MAX_DELAY_PENALTY_MS)) : delayPenalty;
+            long delayPenalty = pwmApplication.getConfig().readAppPropertyAsLong(AppProperty.INTRUDER_MIN_DELAY_PENALTY_MS); // minimum
+            delayPenalty += points * pwmApplication.getConfig().readAppPropertyAsLong(AppProperty.INTRUDER_DELAY_PER_COUNT_MS);
+            delayPenalty += PwmRandom.getInstance().nextInt((int)pwmApplication.getConfig().readAppPropertyAsLong(AppProperty.INTRUDER_DELAY_MAX_JITTER_MS)); // add some randomness;
+            delayPenalty = delayPenalty > pwmApplication.getConfig().readAppPropertyAsLong(AppProperty.INTRUDER_MAX_DELAY_PENALTY_MS) ? pwmApplication.getConfig().readAppPropertyAsLong(AppProperty.INTRUDER_MAX_DELAY_PENALTY_MS) : delayPenalty;
             LOGGER.trace(sessionLabel, "delaying response " + delayPenalty + "ms due to intruder record: " + JsonUtil.serialize(intruderRecord));
             Helper.pause(delayPenalty);
         }
@@ -571,6 +593,15 @@ public class IntruderManager implements Serializable, PwmService {
 
     public ServiceInfo serviceInfo()
     {
-        return serviceInfo;
+        final CachedRecordStore recordStore = cachedRecordStore;
+        if (recordStore == null) {
+            return serviceInfo;
+        }
+        final Map<String,String> debugProperties = new LinkedHashMap<>();
+        debugProperties.put("cachedRecords", String.valueOf(recordStore.cacheSize()));
+        debugProperties.put("cacheHits", String.valueOf(recordStore.getCacheHits()));
+        debugProperties.put("cacheMisses", String.valueOf(recordStore.getCacheMisses()));
+        debugProperties.put("recordsWritten", String.valueOf(recordStore.getRecordsWritten()));
+        return new ServiceInfo(serviceInfo.getUsedStorageMethods(), debugProperties);
     }
 }
\ No newline at end of file
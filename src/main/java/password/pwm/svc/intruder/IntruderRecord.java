@@ -46,6 +46,16 @@ public class IntruderRecord implements Serializable {
         this.subject = subject;
     }
 
+    IntruderRecord copy() {
+        final IntruderRecord copy = new IntruderRecord();
+        copy.type = type;
+        copy.subject = subject;
+        copy.timeStamp = timeStamp;
+        copy.attemptCount = attemptCount;
+        copy.alerted = alerted;
+        return copy;
+    }
+
     public RecordType getType() {
         return type;
     }
@@ -68,35 +68,37 @@ class RecordManagerImpl implements RecordManager {
             throw new IllegalArgumentException("subject is required value");
         }
 
-        IntruderRecord record = readIntruderRecord(subject);
-
-        if (record == null) {
-            record = new IntruderRecord(recordType, subject);
-        }
-
-        final TimeDuration age = TimeDuration.fromCurrent(record.getTimeStamp());
-        if (age.isLongerThan(settings.getCheckDuration())) {
-            LOGGER.debug("re-setting existing outdated record=" + JsonUtil.serialize(record) + " (" + age.asCompactString() + ")");
-            record = new IntruderRecord(recordType, subject);
-        }
-
-        record.incrementAttemptCount();
-
-        writeIntruderRecord(record);
+        updateIntruderRecord(subject, new RecordStore.RecordUpdater() {
+            @Override
+            public IntruderRecord update(final IntruderRecord existingRecord) {
+                IntruderRecord record = existingRecord;
+                if (record == null) {
+                    record = new IntruderRecord(recordType, subject);
+                }
+
+                final TimeDuration age = TimeDuration.fromCurrent(record.getTimeStamp());
+                if (age.isLongerThan(settings.getCheckDuration())) {
+                    LOGGER.debug("re-setting existing outdated record=" + JsonUtil.serialize(record) + " (" + age.asCompactString() + ")");
+                    record = new IntruderRecord(recordType, subject);
+                }
+
+                record.incrementAttemptCount();
+                return record;
+            }
+        });
     }
 
     public void clearSubject(final String subject) {
-        final IntruderRecord record = readIntruderRecord(subject);
-        if (record == null) {
-            return;
-        }
-
-        if (record.getAttemptCount() == 0) {
-            return;
-        }
-
-        record.clearAttemptCount();
-        writeIntruderRecord(record);
+        updateIntruderRecord(subject, new RecordStore.RecordUpdater() {
+            @Override
+            public IntruderRecord update(final IntruderRecord existingRecord) {
+                if (existingRecord == null || existingRecord.getAttemptCount() == 0) {
+                    return null;
+                }
+                existingRecord.clearAttemptCount();
+                return existingRecord;
+            }
+        });
     }
 
     public boolean isAlerted(final String subject) {
@@ -106,12 +108,16 @@ class RecordManagerImpl implements RecordManager {
 
     public void markAlerted(final String subject)
     {
-        final IntruderRecord record = readIntruderRecord(subject);
-        if (record == null || record.isAlerted()) {
-            return;
-        }
-        record.setAlerted();
-        writeIntruderRecord(record);
+        updateIntruderRecord(subject, new RecordStore.RecordUpdater() {
+            @Override
+            public IntruderRecord update(final IntruderRecord existingRecord) {
+                if (existingRecord == null || existingRecord.isAlerted()) {
+                    return null;
+                }
+                existingRecord.setAlerted();
+                return existingRecord;
+            }
+        });
     }
 
     @Override
@@ -124,11 +130,11 @@ class RecordManagerImpl implements RecordManager {
         return null;
     }
 
-    private void writeIntruderRecord(final IntruderRecord intruderRecord) {
+    private void updateIntruderRecord(final String subject, final RecordStore.RecordUpdater updater) {
         try {
-            recordStore.write(makeKey(intruderRecord.getSubject()),intruderRecord);
-        } catch (PwmOperationalException e) {
-            LOGGER.warn("unexpected error attempting to write intruder record " + JsonUtil.serialize(intruderRecord) + ", error: " + e.getMessage());
+            recordStore.update(makeKey(subject), updater);
+        } catch (PwmException e) {
+            LOGGER.warn("unexpected error attempting to update intruder record for subject " + subject + ", error: " + e.getMessage());
         }
     }
 
@@ -33,7 +33,19 @@ interface RecordStore {
 
     void write(String key, IntruderRecord record) throws PwmOperationalException;
 
+    /**
+     * Read the record for the key, apply the updater, and store the result.  The updater is given null if no record
+     * exists, and may return null to leave the stored record unchanged.
+     *
+     * @return the record as stored after the update
+     */
+    IntruderRecord update(String key, RecordUpdater updater) throws PwmUnrecoverableException, PwmOperationalException;
+
     ClosableIterator<IntruderRecord> iterator() throws PwmOperationalException;
 
     void cleanup(TimeDuration maxRecordAge) throws LocalDBException;
+
+    interface RecordUpdater {
+        IntruderRecord update(IntruderRecord existingRecord);
+    }
 }
@@ -0,0 +1,109 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://code.google.com/p/pwm/
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2015 The PWM Project
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package password.pwm.svc.report;
+
+/**
+ * Token bucket limiting the rate of user reads against a single ldap profile.  The rate adapts to the directory:
+ * each unavailable error halves the rate (at most once per second, so a burst of errors from concurrent workers
+ * counts once), and each success raises it by a small step until the configured maximum is reached again.
+ */
+class ReportRateLimiter {
+
+    private static final long BACKOFF_INTERVAL_NANOS = 1000L * 1000 * 1000;
+    private static final int RECOVERY_STEPS = 100;
+
+    private final double maxRate;
+    private final double minRate;
+
+    private double currentRate;
+    private double tokens;
+    private long lastRefillNanos = System.nanoTime();
+    private long lastBackoffNanos = 0;
+
+    /**
+     * @param maxRate maximum permits per second, 0 or less for no limit
+     * @param minRate floor the rate will not back off below
+     */
+    ReportRateLimiter(final double maxRate, final double minRate) {
+        this.maxRate = maxRate;
+        this.minRate = Math.max(0.1, Math.min(minRate, maxRate));
+        this.currentRate = maxRate;
+        this.tokens = 1;
+    }
+
+    /**
+     * Wait until a permit is available.
+     *
+     * @return false if the thread was interrupted while waiting
+     */
+    boolean acquire() {
+        if (maxRate <= 0) {
+            return true;
+        }
+
+        while (true) {
+            final long waitMs;
+            synchronized (this) {
+                refill();
+                if (tokens >= 1) {
+                    tokens -= 1;
+                    return true;
+                }
+                waitMs = Math.max(1, (long)Math.ceil((1 - tokens) * 1000 / currentRate));
+            }
+            try {
+                Thread.sleep(waitMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+
+    synchronized void markSuccess() {
+        if (maxRate > 0 && currentRate < maxRate) {
+            currentRate = Math.min(maxRate, currentRate + (maxRate / RECOVERY_STEPS));
+        }
+    }
+
+    synchronized void markUnavailable() {
+        final long now = System.nanoTime();
+        if (maxRate > 0 && now - lastBackoffNanos > BACKOFF_INTERVAL_NANOS) {
+            currentRate = Math.max(minRate, currentRate / 2);
+            tokens = Math.min(tokens, 0);
+            lastBackoffNanos = now;
+        }
+    }
+
+    synchronized double getCurrentRate() {
+        return maxRate <= 0 ? 0 : currentRate;
+    }
+
+    private void refill() {
+        final long now = System.nanoTime();
+        final double elapsedSeconds = (now - lastRefillNanos) / 1000000000.0;
+        lastRefillNanos = now;
+        // allow at most one second worth of burst
+        tokens = Math.min(Math.max(1, currentRate), tokens + elapsedSeconds * currentRate);
+    }
+}
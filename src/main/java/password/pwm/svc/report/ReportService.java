@@ -51,26 +51,38 @@ import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.math.MathContext;
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 public class ReportService implements PwmService {
     private static final PwmLogger LOGGER = PwmLogger.forClass(ReportService.class);
 
-    private final AvgTracker avgTracker = new AvgTracker(100);
+    private static final int RECORD_LOCK_STRIPES = 64;
 
     private PwmApplication pwmApplication;
     private STATUS status = STATUS.NEW;
-    private boolean cancelFlag = false;
-    private ReportStatusInfo reportStatus = new ReportStatusInfo("");
-    private ReportSummaryData summaryData = ReportSummaryData.newSummaryData(null);
+    private volatile boolean cancelFlag = false;
+    private volatile ReportStatusInfo reportStatus = new ReportStatusInfo("");
+    private volatile ReportSummaryData summaryData = ReportSummaryData.newSummaryData(null);
+    private volatile boolean summaryDataComplete = false;
+    private volatile ReportSummaryData rebuildSummaryData = null;
+    // guards the in-memory summaries only; storage i/o for a record is serialized by its record lock instead
+    private final Object summaryLock = new Object();
+    private final Object[] recordLocks = new Object[RECORD_LOCK_STRIPES];
     private ScheduledExecutorService executorService;
 
     private UserCacheService userCacheService;
     private ReportSettings settings = new ReportSettings();
 
     public ReportService() {
+        for (int i = 0; i < recordLocks.length; i++) {
+            recordLocks[i] = new Object();
+        }
     }
 
     public STATUS status()
@@ -87,6 +99,8 @@ public class ReportService implements PwmService {
             userCacheService.clear();
         }
         summaryData = ReportSummaryData.newSummaryData(settings.getTrackDays());
+        summaryDataComplete = true;
+        pwmApplication.writeAppAttribute(PwmApplication.AppAttribute.REPORT_SUMMARY_DATA, null);
         reportStatus = new ReportStatusInfo(settings.getSettingsHash());
         saveTempData();
         LOGGER.info(PwmConstants.REPORTING_SESSION_LABEL,"finished clearing report " + TimeDuration.fromCurrent(startTime).asCompactString());
@@ -129,6 +143,7 @@ public class ReportService implements PwmService {
 
         settings = ReportSettings.readSettingsFromConfig(pwmApplication.getConfig());
         summaryData = ReportSummaryData.newSummaryData(settings.getTrackDays());
+        summaryDataComplete = false;
 
         executorService = Executors.newSingleThreadScheduledExecutor(
                 Helper.makePwmThreadFactory(
@@ -150,6 +165,7 @@ public class ReportService implements PwmService {
     {
         status = STATUS.CLOSED;
         saveTempData();
+        saveSummaryData();
         pwmApplication.writeAppAttribute(PwmApplication.AppAttribute.REPORT_CLEAN_FLAG, "true");
         if (userCacheService != null) {
             userCacheService.close();
@@ -169,11 +185,29 @@ public class ReportService implements PwmService {
         }
     }
 
-    private void initTempData()
+    private void saveSummaryData() {
+        final ReportSummaryData summaryCopy;
+        synchronized (summaryLock) {
+            final ReportSummaryData currentSummary = summaryData;
+            // an incomplete summary (still being built after startup), or one whose records are being re-stamped by
+            // a rollover, must not replace the stored one
+            if (!summaryDataComplete || rebuildSummaryData != null || currentSummary == null || currentSummary.getEpoch() == null) {
+                return;
+            }
+            summaryCopy = currentSummary.copy();
+        }
+        pwmApplication.writeAppAttribute(PwmApplication.AppAttribute.REPORT_SUMMARY_DATA, summaryCopy);
+    }
+
+    /**
+     * @return true if the summary data was restored from the stored checkpoint and does not need to be rebuilt
+     */
+    private boolean initTempData()
             throws LocalDBException, PwmUnrecoverableException
     {
         final Boolean cleanFlag = pwmApplication.readAppAttribute(PwmApplication.AppAttribute.REPORT_CLEAN_FLAG, Boolean.class);
-        if (cleanFlag != null && cleanFlag) {
+        final boolean cleanShutdown = cleanFlag != null && cleanFlag;
+        if (!cleanShutdown) {
             LOGGER.error(PwmConstants.REPORTING_SESSION_LABEL, "did not shut down cleanly");
             reportStatus = new ReportStatusInfo(settings.getSettingsHash());
             reportStatus.setTotal(userCacheService.size());
@@ -191,11 +225,47 @@ public class ReportService implements PwmService {
         if (reportStatus.getSettingsHash() != null && !reportStatus.getSettingsHash().equals(currentSettingCache)) {
             LOGGER.error(PwmConstants.REPORTING_SESSION_LABEL,"configuration has changed, will clear cached report data");
             clear();
+            pwmApplication.writeAppAttribute(PwmApplication.AppAttribute.REPORT_SEARCH_CURSOR, null);
         }
 
         reportStatus.setInProgress(false);
 
+        final boolean summaryRestored = restoreSummaryData(cleanShutdown);
+
         pwmApplication.writeAppAttribute(PwmApplication.AppAttribute.REPORT_CLEAN_FLAG, false);
+        return summaryRestored;
+    }
+
+    private boolean restoreSummaryData(final boolean cleanShutdown) {
+        final ReportSummaryData storedSummary = pwmApplication.readAppAttribute(PwmApplication.AppAttribute.REPORT_SUMMARY_DATA, ReportSummaryData.class);
+        if (storedSummary == null || storedSummary.getEpoch() == null) {
+            return false;
+        }
+
+        if (!cleanShutdown) {
+            LOGGER.debug(PwmConstants.REPORTING_SESSION_LABEL, "stored summary data may not include the latest record changes, will rebuild");
+            return false;
+        }
+
+        if (storedSummary.getCreateTime() == null || storedSummary.getCreateTime().before(lastRolloverTime())) {
+            LOGGER.debug(PwmConstants.REPORTING_SESSION_LABEL, "stored summary data is from a previous rollover period, will rebuild");
+            return false;
+        }
+
+        summaryData = storedSummary;
+        summaryDataComplete = true;
+        LOGGER.debug(PwmConstants.REPORTING_SESSION_LABEL, "restored summary data of " + storedSummary.getTotalUsers() + " users, created "
+                + TimeDuration.fromCurrent(storedSummary.getCreateTime()).asCompactString() + " ago");
+        return true;
+    }
+
+    private Date lastRolloverTime() {
+        final long dayMs = TimeDuration.DAY.getTotalMilliseconds();
+        long rolloverTime = Helper.nextZuluZeroTime().getTime() + (settings.getJobOffsetSeconds() * 1000L) + 1000;
+        while (rolloverTime > System.currentTimeMillis()) {
+            rolloverTime -= dayMs;
+        }
+        return new Date(rolloverTime);
     }
 
     @Override
@@ -232,46 +302,101 @@ public class ReportService implements PwmService {
         reportStatus = new ReportStatusInfo(settings.getSettingsHash());
         reportStatus.setInProgress(true);
         reportStatus.setStartDate(new Date());
+        ExecutorService workerPool = null;
+        UserSearchEngine.PagedUserSearch pagedUserSearch = null;
         try {
-            final Queue<UserIdentity> allUsers = new LinkedList<>(getListOfUsers());
-            reportStatus.setTotal(allUsers.size());
-            while (status == STATUS.OPEN && !allUsers.isEmpty() && !cancelFlag) {
-                final Date startUpdateTime = new Date();
-                final UserIdentity userIdentity = allUsers.poll();
-                try {
-                    if (updateCachedRecordFromLdap(userIdentity)) {
-                        reportStatus.setUpdated(reportStatus.getUpdated() + 1);
-                    }
-                } catch (Exception e) {
-                    String errorMsg = "error while updating report cache for " + userIdentity.toString() + ", cause: ";
-                    errorMsg += e instanceof PwmException ? ((PwmException) e).getErrorInformation().toDebugStr() : e.getMessage();
-                    final ErrorInformation errorInformation;
-                    errorInformation = new ErrorInformation(PwmError.ERROR_REPORTING_ERROR,errorMsg);
-                    LOGGER.error(PwmConstants.REPORTING_SESSION_LABEL,errorInformation.toDebugStr());
-                    reportStatus.setLastError(errorInformation);
-                    reportStatus.setErrors(reportStatus.getErrors() + 1);
+            final Configuration config = pwmApplication.getConfig();
+            final int workerCount = Math.max(1, config.readAppPropertyAsInt(AppProperty.REPORTING_LDAP_WORKER_THREADS));
+            final double maxRate = Double.parseDouble(config.readAppProperty(AppProperty.REPORTING_LDAP_MAX_REQUESTS_PER_SECOND));
+            final double minRate = Double.parseDouble(config.readAppProperty(AppProperty.REPORTING_LDAP_MIN_REQUESTS_PER_SECOND));
+            final Map<String,ReportRateLimiter> rateLimiters = new HashMap<>();
+            for (final String profileID : config.getLdapProfiles().keySet()) {
+                rateLimiters.put(profileID, new ReportRateLimiter(maxRate, minRate));
+            }
+
+            final String threadName = Helper.makeThreadName(pwmApplication, this.getClass()) + "-worker-";
+            workerPool = Executors.newFixedThreadPool(workerCount, Helper.makePwmThreadFactory(threadName, true));
+            LOGGER.debug(PwmConstants.REPORTING_SESSION_LABEL, "started " + workerCount + " ldap report workers");
+
+            pagedUserSearch = startPagedUserSearch();
+            reportStatus.setTotal(estimateSearchTotal(pagedUserSearch.getCursor().getResultCount()));
+            List<UserIdentity> page = pagedUserSearch.nextPage();
+            while (page != null && status == STATUS.OPEN && !cancelFlag) {
+                Collections.shuffle(page);
+                final int searchedCount = reportStatus.getCount() + page.size();
+                if (searchedCount > reportStatus.getTotal()) {
+                    // the population has grown since it was last cached
+                    reportStatus.setTotal(searchedCount);
                 }
-                reportStatus.setCount(reportStatus.getCount() + 1);
-                reportStatus.getEventRateMeter().markEvents(1);
-                final TimeDuration totalUpdateTime = TimeDuration.fromCurrent(startUpdateTime);
-                if (settings.isAutoCalcRest()) {
-                    avgTracker.addSample(totalUpdateTime.getTotalMilliseconds());
-                    Helper.pause(avgTracker.avgAsLong());
-                } else {
-                    Helper.pause(settings.getRestTime().getTotalMilliseconds());
+                processUserPage(workerPool, workerCount, new ConcurrentLinkedQueue<>(page), rateLimiters);
+                if (status == STATUS.OPEN && !cancelFlag) {
+                    pwmApplication.writeAppAttribute(PwmApplication.AppAttribute.REPORT_SEARCH_CURSOR, pagedUserSearch.getCursor());
+                    saveSummaryData();
+                    page = pagedUserSearch.nextPage();
                 }
             }
+
+            if (status == STATUS.OPEN) {
+                // completed or cancelled, either way the next update starts from the beginning
+                pwmApplication.writeAppAttribute(PwmApplication.AppAttribute.REPORT_SEARCH_CURSOR, null);
+            }
             if (cancelFlag) {
                 reportStatus.setLastError(new ErrorInformation(PwmError.ERROR_SERVICE_NOT_AVAILABLE,"report cancelled by operator"));
             }
         } finally {
+            if (pagedUserSearch != null) {
+                pagedUserSearch.close();
+            }
+            if (workerPool != null) {
+                workerPool.shutdownNow();
+            }
             reportStatus.setFinishDate(new Date());
             reportStatus.setInProgress(false);
         }
         LOGGER.debug(PwmConstants.REPORTING_SESSION_LABEL,"update user cache process completed: " + JsonUtil.serialize(reportStatus));
     }
 
-    private void updateRestingCacheData() {
+    /**
+     * The directory is searched one page at a time, so the number of users is not known up front; estimate it once
+     * from the number of cached records, which is the population found by the previous search.
+     */
+    private int estimateSearchTotal(final int alreadySearched) {
+        final int cachedRecords = userCacheService.size();
+        final int estimate = Math.min(settings.getMaxSearchSize(), cachedRecords) - alreadySearched;
+        return Math.max(0, estimate);
+    }
+
+    private void processUserPage(
+            final ExecutorService workerPool,
+            final int workerCount,
+            final Queue<UserIdentity> userQueue,
+            final Map<String,ReportRateLimiter> rateLimiters
+    ) {
+        final List<Future<?>> workerFutures = new ArrayList<>();
+        for (int i = 0; i < workerCount; i++) {
+            workerFutures.add(workerPool.submit(new DredgeWorker("worker-" + (i + 1), userQueue, rateLimiters)));
+        }
+        for (final Future<?> workerFuture : workerFutures) {
+            try {
+                workerFuture.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                LOGGER.error(PwmConstants.REPORTING_SESSION_LABEL, "unexpected error in report worker: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Count every stored record into the supplied summary, stamping records with the summary's epoch.  Records
+     * already stamped with the summary's epoch were counted by a concurrent update and are skipped.
+     *
+     * @return false if the review was interrupted before all records were examined
+     */
+    private boolean updateRestingCacheData(final ReportSummaryData targetSummary)
+            throws LocalDBException, PwmUnrecoverableException
+    {
         final long startTime = System.currentTimeMillis();
         int examinedRecords = 0;
         ClosableIterator<UserCacheRecord> iterator = null;
@@ -284,8 +409,19 @@ public class ReportService implements PwmService {
             while (iterator.hasNext() && status == STATUS.OPEN) {
                 final UserCacheRecord record = iterator.next(); // (purge routine is embedded in next();
 
-                if (summaryData != null && record != null) {
-                    summaryData.update(record);
+                if (record != null) {
+                    final UserCacheService.StorageKey storageKey = UserCacheService.StorageKey.fromUserGUID(record.getUserGUID());
+                    synchronized (recordLock(storageKey)) {
+                        // re-read under the lock, a concurrent update may have replaced the record since it was iterated
+                        final UserCacheRecord currentRecord = userCacheService.readStorageKey(storageKey);
+                        if (currentRecord != null && !targetSummary.getEpoch().equals(currentRecord.getSummaryEpoch())) {
+                            synchronized (summaryLock) {
+                                currentRecord.setSummaryEpoch(targetSummary.getEpoch());
+                                targetSummary.update(currentRecord);
+                            }
+                            userCacheService.store(currentRecord);
+                        }
+                    }
                 }
 
                 examinedRecords++;
@@ -297,9 +433,13 @@ public class ReportService implements PwmService {
                     lastLogOutputTime = new Date();
                 }
             }
+            if (status != STATUS.OPEN) {
+                return false;
+            }
             final TimeDuration totalTime = TimeDuration.fromCurrent(startTime);
             LOGGER.debug(PwmConstants.REPORTING_SESSION_LABEL,
                     "completed cache review process of " + examinedRecords + " cached report records in " + totalTime.asCompactString());
+            return true;
         } finally {
             if (iterator != null) {
                 iterator.close();
@@ -357,11 +497,6 @@ public class ReportService implements PwmService {
         }
 
         if (updateCache) {
-            if (userCacheRecord != null) {
-                if (summaryData != null && summaryData.getEpoch() != null && summaryData.getEpoch().equals(userCacheRecord.getSummaryEpoch())) {
-                    summaryData.remove(userCacheRecord);
-                }
-            }
             final UserInfoBean newUserBean;
             if (userInfoBean != null) {
                 newUserBean = userInfoBean;
@@ -378,57 +513,95 @@ public class ReportService implements PwmService {
                         chaiProvider
                 );
             }
+            updateSummaryData(storageKey, newUserBean);
+        }
+
+        return updateCache;
+    }
+
+
+    /**
+     * Replace the stored record and move its counts in the current summary and, while a rollover is in progress,
+     * in the summary being rebuilt.  The record is stamped with the epoch of the rebuilt summary so the rollover
+     * scan does not count it a second time.
+     */
+    private void updateSummaryData(final UserCacheService.StorageKey storageKey, final UserInfoBean newUserBean)
+            throws LocalDBException, PwmUnrecoverableException
+    {
+        synchronized (recordLock(storageKey)) {
+            final UserCacheRecord oldUserCacheRecord = userCacheService.readStorageKey(storageKey);
             final UserCacheRecord newUserCacheRecord = userCacheService.updateUserCache(newUserBean);
 
-            if (summaryData != null && summaryData.getEpoch() != null && newUserCacheRecord != null) {
-                if (!summaryData.getEpoch().equals(newUserCacheRecord.getSummaryEpoch())) {
-                    newUserCacheRecord.setSummaryEpoch(summaryData.getEpoch());
-                    userCacheService.store(newUserCacheRecord);
+            boolean epochChanged = false;
+            synchronized (summaryLock) {
+                final ReportSummaryData currentSummary = summaryData;
+                final ReportSummaryData rebuildSummary = rebuildSummaryData;
+
+                if (oldUserCacheRecord != null && oldUserCacheRecord.getSummaryEpoch() != null) {
+                    if (currentSummary != null && oldUserCacheRecord.getSummaryEpoch().equals(currentSummary.getEpoch())) {
+                        currentSummary.remove(oldUserCacheRecord);
+                    }
+                    if (rebuildSummary != null && oldUserCacheRecord.getSummaryEpoch().equals(rebuildSummary.getEpoch())) {
+                        rebuildSummary.remove(oldUserCacheRecord);
+                    }
+                }
+
+                if (newUserCacheRecord == null) {
+                    return;
+                }
+
+                final ReportSummaryData targetSummary = rebuildSummary != null ? rebuildSummary : currentSummary;
+                if (targetSummary != null && targetSummary.getEpoch() != null) {
+                    if (!targetSummary.getEpoch().equals(newUserCacheRecord.getSummaryEpoch())) {
+                        newUserCacheRecord.setSummaryEpoch(targetSummary.getEpoch());
+                        epochChanged = true;
+                    }
+                    targetSummary.update(newUserCacheRecord);
+                }
+
+                if (rebuildSummary != null && currentSummary != null) {
+                    // keep the displayed summary moving until the rebuilt one replaces it
+                    currentSummary.update(newUserCacheRecord);
                 }
-                summaryData.update(newUserCacheRecord);
             }
-        }
 
-        return updateCache;
+            if (epochChanged) {
+                userCacheService.store(newUserCacheRecord);
+            }
+        }
     }
 
+    private Object recordLock(final UserCacheService.StorageKey storageKey) {
+        return recordLocks[(storageKey.getKey().hashCode() & Integer.MAX_VALUE) % RECORD_LOCK_STRIPES];
+    }
 
     public ReportStatusInfo getReportStatusInfo()
     {
         return reportStatus;
     }
 
-    private List<UserIdentity> getListOfUsers()
-            throws ChaiUnavailableException, ChaiOperationException, PwmUnrecoverableException, PwmOperationalException
-    {
-        return readAllUsersFromLdap(pwmApplication, settings.getSearchFilter(), settings.getMaxSearchSize());
-    }
-
-    private static List<UserIdentity> readAllUsersFromLdap(
-            final PwmApplication pwmApplication,
-            final String searchFilter,
-            final int maxResults
-    )
-            throws ChaiUnavailableException, ChaiOperationException, PwmUnrecoverableException, PwmOperationalException
+    private UserSearchEngine.PagedUserSearch startPagedUserSearch()
+            throws PwmOperationalException
     {
         final UserSearchEngine userSearchEngine = new UserSearchEngine(pwmApplication,null);
         final UserSearchEngine.SearchConfiguration searchConfiguration = new UserSearchEngine.SearchConfiguration();
         searchConfiguration.setEnableValueEscaping(false);
-        searchConfiguration.setSearchTimeout(Long.parseLong(pwmApplication.getConfig().readAppProperty(AppProperty.REPORTING_LDAP_SEARCH_TIMEOUT)));
+        searchConfiguration.setSearchTimeout(pwmApplication.getConfig().readAppPropertyAsLong(AppProperty.REPORTING_LDAP_SEARCH_TIMEOUT));
 
-        if (searchFilter == null) {
+        if (settings.getSearchFilter() == null) {
             searchConfiguration.setUsername("*");
         } else {
-            searchConfiguration.setFilter(searchFilter);
+            searchConfiguration.setFilter(settings.getSearchFilter());
         }
 
-        LOGGER.debug(PwmConstants.REPORTING_SESSION_LABEL,"beginning UserReportService user search using parameters: " + (JsonUtil.serialize(searchConfiguration)));
+        final UserSearchEngine.SearchCursor storedCursor = pwmApplication.readAppAttribute(PwmApplication.AppAttribute.REPORT_SEARCH_CURSOR, UserSearchEngine.SearchCursor.class);
+        if (storedCursor != null) {
+            LOGGER.debug(PwmConstants.REPORTING_SESSION_LABEL,"resuming interrupted UserReportService user search after " + storedCursor.getResultCount() + " users");
+        }
 
-        final Map<UserIdentity,Map<String,String>> searchResults = userSearchEngine.performMultiUserSearch(searchConfiguration, maxResults, Collections.<String>emptyList());
-        LOGGER.debug(PwmConstants.REPORTING_SESSION_LABEL,"user search found " + searchResults.size() + " users for reporting");
-        final List<UserIdentity> returnList = new ArrayList<>(searchResults.keySet());
-        Collections.shuffle(returnList);
-        return returnList;
+        LOGGER.debug(PwmConstants.REPORTING_SESSION_LABEL,"beginning UserReportService user search using parameters: " + (JsonUtil.serialize(searchConfiguration)));
+        final int pageSize = pwmApplication.getConfig().readAppPropertyAsInt(AppProperty.REPORTING_LDAP_SEARCH_PAGE_SIZE);
+        return userSearchEngine.performPagedUserSearch(searchConfiguration, settings.getMaxSearchSize(), pageSize, storedCursor);
     }
 
     public RecordIterator<UserCacheRecord> iterator() {
@@ -626,6 +799,70 @@ public class ReportService implements PwmService {
         }
     }
 
+    /**
+     * Pulls users from the shared queue until it is empty or the update is cancelled.  Reads against each ldap
+     * profile are throttled by that profile's {@link ReportRateLimiter}.
+     */
+    private class DredgeWorker implements Runnable {
+        private final String workerName;
+        private final Queue<UserIdentity> userQueue;
+        private final Map<String,ReportRateLimiter> rateLimiters;
+
+        private DredgeWorker(final String workerName, final Queue<UserIdentity> userQueue, final Map<String,ReportRateLimiter> rateLimiters) {
+            this.workerName = workerName;
+            this.userQueue = userQueue;
+            this.rateLimiters = rateLimiters;
+        }
+
+        @Override
+        public void run() {
+            while (status == STATUS.OPEN && !cancelFlag && !Thread.currentThread().isInterrupted()) {
+                final UserIdentity userIdentity = userQueue.poll();
+                if (userIdentity == null) {
+                    return;
+                }
+
+                final ReportRateLimiter rateLimiter = rateLimiters.get(userIdentity.getLdapProfileID());
+                if (rateLimiter != null && !rateLimiter.acquire()) {
+                    return;
+                }
+
+                boolean updated = false;
+                ErrorInformation errorInformation = null;
+                try {
+                    updated = updateCachedRecordFromLdap(userIdentity);
+                    if (rateLimiter != null) {
+                        rateLimiter.markSuccess();
+                    }
+                } catch (Exception e) {
+                    if (rateLimiter != null && isUnavailableError(e)) {
+                        rateLimiter.markUnavailable();
+                    }
+                    String errorMsg = "error while updating report cache for " + userIdentity.toString() + ", cause: ";
+                    errorMsg += e instanceof PwmException ? ((PwmException) e).getErrorInformation().toDebugStr() : e.getMessage();
+                    errorInformation = new ErrorInformation(PwmError.ERROR_REPORTING_ERROR,errorMsg);
+                    LOGGER.error(PwmConstants.REPORTING_SESSION_LABEL,errorInformation.toDebugStr());
+                }
+                reportStatus.markUserProcessed(workerName, updated, errorInformation);
+                if (rateLimiter != null) {
+                    reportStatus.setProfileRateLimit(userIdentity.getLdapProfileID(), rateLimiter.getCurrentRate());
+                }
+
+                // with auto-calculated rest time the adaptive rate limiter does the pacing
+                if (!settings.isAutoCalcRest()) {
+                    Helper.pause(settings.getRestTime().getTotalMilliseconds());
+                }
+            }
+        }
+
+        private boolean isUnavailableError(final Exception e) {
+            if (e instanceof ChaiUnavailableException) {
+                return true;
+            }
+            return e instanceof PwmException && ((PwmException) e).getError() == PwmError.ERROR_DIRECTORY_UNAVAILABLE;
+        }
+    }
+
     private class DredgeTask implements Runnable {
         @Override
         public void run()
@@ -656,8 +893,30 @@ public class ReportService implements PwmService {
         {
             reportStatus.setCurrentProcess(ReportStatusInfo.ReportEngineProcess.RollOver);
             try {
-                summaryData = ReportSummaryData.newSummaryData(settings.getTrackDays());
-                updateRestingCacheData();
+                // build the new summary aside under a fresh epoch and keep serving the current one until it is
+                // complete; concurrent record updates are applied to both summaries
+                final ReportSummaryData newSummary = ReportSummaryData.newSummaryData(settings.getTrackDays());
+                rebuildSummaryData = newSummary;
+                boolean rebuilt = false;
+                try {
+                    rebuilt = updateRestingCacheData(newSummary);
+                } finally {
+                    synchronized (summaryLock) {
+                        rebuildSummaryData = null;
+                        if (rebuilt) {
+                            summaryData = newSummary;
+                            summaryDataComplete = true;
+                        } else {
+                            // records stamped for the abandoned summary are no longer counted by the current one
+                            summaryDataComplete = false;
+                        }
+                    }
+                }
+                if (rebuilt) {
+                    saveSummaryData();
+                }
+            } catch (LocalDBException | PwmUnrecoverableException e) {
+                LOGGER.error(PwmConstants.REPORTING_SESSION_LABEL, "error during summary rollover: " + e.getMessage());
             } finally {
                 reportStatus.setCurrentProcess(ReportStatusInfo.ReportEngineProcess.None);
             }
@@ -667,8 +926,9 @@ public class ReportService implements PwmService {
     private class InitializationTask implements Runnable {
         @Override
         public void run() {
+            final boolean summaryRestored;
             try {
-                initTempData();
+                summaryRestored = initTempData();
             } catch (LocalDBException | PwmUnrecoverableException e) {
                 LOGGER.error(PwmConstants.REPORTING_SESSION_LABEL, "error during initialization: " + e.getMessage());
                 status = STATUS.CLOSED;
@@ -677,7 +937,13 @@ public class ReportService implements PwmService {
             final long secondsUntilNextDredge = settings.getJobOffsetSeconds() + TimeDuration.fromCurrent(Helper.nextZuluZeroTime()).getTotalSeconds();
             executorService.scheduleAtFixedRate(new DredgeTask(), secondsUntilNextDredge, TimeDuration.DAY.getTotalSeconds(), TimeUnit.SECONDS);
             executorService.scheduleAtFixedRate(new RolloverTask(), secondsUntilNextDredge + 1, TimeDuration.DAY.getTotalSeconds(), TimeUnit.SECONDS);
-            executorService.submit(new RolloverTask());
+            if (!summaryRestored) {
+                executorService.submit(new RolloverTask());
+            }
+            if (pwmApplication.readAppAttribute(PwmApplication.AppAttribute.REPORT_SEARCH_CURSOR, UserSearchEngine.SearchCursor.class) != null) {
+                LOGGER.debug(PwmConstants.REPORTING_SESSION_LABEL, "previous ldap dredge did not complete, will resume");
+                executorService.submit(new DredgeTask());
+            }
         }
     }
 }
@@ -28,6 +28,9 @@ import password.pwm.util.TimeDuration;
 
 import java.io.Serializable;
 import java.util.Date;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class ReportStatusInfo implements Serializable {
     private Date startDate;
@@ -41,6 +44,8 @@ public class ReportStatusInfo implements Serializable {
     private ErrorInformation lastError;
     private String settingsHash;
     private ReportEngineProcess currentProcess = ReportEngineProcess.None;
+    private Map<String,WorkerStatus> workerStatus = new ConcurrentHashMap<>();
+    private Map<String,Double> profileRateLimits = new ConcurrentHashMap<>();
 
     public enum ReportEngineProcess {
         RollOver,
@@ -136,4 +141,64 @@ public class ReportStatusInfo implements Serializable {
     public void setCurrentProcess(ReportEngineProcess currentProcess) {
         this.currentProcess = currentProcess;
     }
+
+    public Map<String, WorkerStatus> getWorkerStatus() {
+        return new TreeMap<>(workerStatus);
+    }
+
+    public Map<String, Double> getProfileRateLimits() {
+        return new TreeMap<>(profileRateLimits);
+    }
+
+    void setProfileRateLimit(final String profileID, final double rateLimit) {
+        profileRateLimits.put(profileID, rateLimit);
+    }
+
+    /**
+     * Record the outcome of one processed user.  Called concurrently by the crawler workers.
+     */
+    synchronized void markUserProcessed(final String workerName, final boolean wasUpdated, final ErrorInformation errorInformation) {
+        WorkerStatus worker = workerStatus.get(workerName);
+        if (worker == null) {
+            worker = new WorkerStatus();
+            workerStatus.put(workerName, worker);
+        }
+
+        count++;
+        worker.count++;
+        if (wasUpdated) {
+            updated++;
+        }
+        if (errorInformation != null) {
+            errors++;
+            worker.errors++;
+            lastError = errorInformation;
+        }
+        worker.lastActivity = new Date();
+        eventRateMeter.markEvents(1);
+        worker.eventRateMeter.markEvents(1);
+    }
+
+    public static class WorkerStatus implements Serializable {
+        private int count;
+        private int errors;
+        private Date lastActivity;
+        private EventRateMeter eventRateMeter = new EventRateMeter(TimeDuration.MINUTE);
+
+        public int getCount() {
+            return count;
+        }
+
+        public int getErrors() {
+            return errors;
+        }
+
+        public Date getLastActivity() {
+            return lastActivity;
+        }
+
+        public EventRateMeter getEventRateMeter() {
+            return eventRateMeter;
+        }
+    }
 }
@@ -30,17 +30,26 @@ import password.pwm.util.LocaleHelper;
 import password.pwm.util.Percent;
 import password.pwm.util.TimeDuration;
 import password.pwm.util.logging.PwmLogger;
+import password.pwm.util.secure.PwmRandom;
 
+import java.io.Serializable;
 import java.math.BigInteger;
 import java.text.NumberFormat;
 import java.util.*;
 
-public class ReportSummaryData {
+/**
+ * Aggregate counts of the cached user records.  Each record is stamped with the epoch of the summary it has been
+ * counted in, so the summary can be checkpointed and restored along with that epoch and kept current incrementally,
+ * without a scan of the user cache.  The day window counts are relative to the creation time of the summary, which is
+ * why a new summary is built once a day.
+ */
+public class ReportSummaryData implements Serializable {
     private static final PwmLogger LOGGER = PwmLogger.forClass(ReportSummaryData.class);
 
     private static final long MS_DAY = 24 * 60 * 60 * 1000;
 
     private String epoch;
+    private Date createTime;
 
     private Date meanCacheTime;
     private int totalUsers;
@@ -74,9 +83,15 @@ public class ReportSummaryData {
         return epoch;
     }
 
+    public Date getCreateTime()
+    {
+        return createTime;
+    }
+
     public static ReportSummaryData newSummaryData(final List<Integer> trackedDays) {
         final ReportSummaryData reportSummaryData = new ReportSummaryData();
-        reportSummaryData.epoch = Long.toHexString(System.currentTimeMillis());
+        reportSummaryData.epoch = Long.toHexString(System.currentTimeMillis()) + PwmRandom.getInstance().alphaNumericString(4);
+        reportSummaryData.createTime = new Date();
         
         if (trackedDays != null) {
             for (final int day : trackedDays) {
@@ -122,6 +137,39 @@ public class ReportSummaryData {
         return meanCacheTime;
     }
 
+    /**
+     * @return a copy of this summary, consistent with respect to concurrent updates
+     */
+    synchronized ReportSummaryData copy() {
+        final ReportSummaryData copy = new ReportSummaryData();
+        copy.epoch = epoch;
+        copy.createTime = createTime;
+        copy.meanCacheTime = meanCacheTime;
+        copy.totalUsers = totalUsers;
+        copy.hasResponses = hasResponses;
+        copy.hasResponseSetTime = hasResponseSetTime;
+        copy.hasHelpdeskResponses = hasHelpdeskResponses;
+        copy.hasPasswordExpirationTime = hasPasswordExpirationTime;
+        copy.hasAccountExpirationTime = hasAccountExpirationTime;
+        copy.hasLoginTime = hasLoginTime;
+        copy.hasChangePwTime = hasChangePwTime;
+        copy.hasOtpSecret = hasOtpSecret;
+        copy.hasOtpSecretSetTime = hasOtpSecretSetTime;
+        copy.responseStorage = new HashMap<>(responseStorage);
+        copy.responseFormatType = new HashMap<>(responseFormatType);
+        copy.ldapProfile = new HashMap<>(ldapProfile);
+        copy.pwExpired = pwExpired;
+        copy.pwPreExpired = pwPreExpired;
+        copy.pwWarnPeriod = pwWarnPeriod;
+        copy.pwExpireDays = new TreeMap<>(pwExpireDays);
+        copy.accountExpireDays = new TreeMap<>(accountExpireDays);
+        copy.changePwDays = new TreeMap<>(changePwDays);
+        copy.responseSetDays = new TreeMap<>(responseSetDays);
+        copy.otpSetDays = new TreeMap<>(otpSetDays);
+        copy.loginDays = new TreeMap<>(loginDays);
+        return copy;
+    }
+
     void update(UserCacheRecord userCacheRecord) {
         update(userCacheRecord, true);
     }
@@ -241,7 +289,7 @@ public class ReportSummaryData {
             if (adding) {
                 responseFormatType.put(type, responseFormatType.get(type) + 1);
             } else {
-                responseFormatType.put(type, responseFormatType.get(type) + 1);
+                responseFormatType.put(type, responseFormatType.get(type) - 1);
             }
         }
 
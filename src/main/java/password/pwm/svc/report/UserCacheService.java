@@ -190,7 +190,7 @@ public class UserCacheService implements PwmService {
             return fromUserGUID(userGUID);
         }
 
-        private static StorageKey fromUserGUID(final String userGUID)
+        static StorageKey fromUserGUID(final String userGUID)
                 throws PwmUnrecoverableException
         {
             return new StorageKey(SecureEngine.md5sum(userGUID));
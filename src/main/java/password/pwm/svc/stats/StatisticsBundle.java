@@ -31,7 +31,13 @@ import java.text.SimpleDateFormat;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.TimeZone;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
+/**
+ * Set of statistic values.  Values loaded from storage are kept as the bundle's base, and updates since then are
+ * accumulated in {@link StripedCounter} cells so that concurrent updates do not contend on a lock.  The base and
+ * the cells are combined when the bundle is read or output.
+ */
 public class StatisticsBundle {
 
     private static final PwmLogger LOGGER = PwmLogger.forClass(StatisticsBundle.class);
@@ -45,11 +51,21 @@ public class StatisticsBundle {
 
     private final Map<Statistic, String> valueMap = new HashMap<>();
 
+    // indexed by Statistic ordinal, created on first update of each statistic
+    private final AtomicReferenceArray<StatisticCells> cells = new AtomicReferenceArray<>(Statistic.values().length);
+
     public StatisticsBundle() {
     }
 
     public String output() {
-        return JsonUtil.serializeMap(valueMap);
+        final Map<Statistic, String> outputMap = new HashMap<>();
+        for (final Statistic statistic : Statistic.values()) {
+            final String value = outputValue(statistic);
+            if (value != null) {
+                outputMap.put(statistic, value);
+            }
+        }
+        return JsonUtil.serializeMap(outputMap);
     }
 
     public static StatisticsBundle input(final String inputString) {
@@ -74,32 +90,77 @@ public class StatisticsBundle {
         return bundle;
     }
 
-    public synchronized void incrementValue(final Statistic statistic) {
+    public void incrementValue(final Statistic statistic) {
         if (Statistic.Type.INCREMENTOR != statistic.getType()) {
             LOGGER.error("attempt to increment non-counter/incremental stat " + statistic);
             return;
         }
 
+        cellsForStatistic(statistic).count.increment();
+    }
+
+    public void updateAverageValue(final Statistic statistic, final long timeDuration) {
+        if (Statistic.Type.AVERAGE != statistic.getType()) {
+            LOGGER.error("attempt to update average value of non-average stat " + statistic);
+            return;
+        }
+
+        final StatisticCells statisticCells = cellsForStatistic(statistic);
+        statisticCells.total.add(timeDuration);
+        statisticCells.count.increment();
+    }
+
+    public String getStatistic(final Statistic statistic) {
+        switch (statistic.getType()) {
+            case INCREMENTOR:
+                return readIncrementorValue(statistic).toString();
+
+            case AVERAGE:
+                return readAverageValue(statistic).getAverage().toString();
+
+            default:
+                return "";
+        }
+    }
+
+    /**
+     * @return the value in the stored format, or null if the statistic has never had a value.
+     */
+    private String outputValue(final Statistic statistic) {
+        if (!valueMap.containsKey(statistic) && cells.get(statistic.ordinal()) == null) {
+            return null;
+        }
+
+        switch (statistic.getType()) {
+            case INCREMENTOR:
+                return readIncrementorValue(statistic).toString();
+
+            case AVERAGE:
+                return JsonUtil.serialize(readAverageValue(statistic));
+
+            default:
+                return valueMap.get(statistic);
+        }
+    }
+
+    private BigInteger readIncrementorValue(final Statistic statistic) {
         BigInteger currentValue = BigInteger.ZERO;
         try {
             if (valueMap.containsKey(statistic)) {
                 currentValue = new BigInteger(valueMap.get(statistic));
-            } else {
-                currentValue = BigInteger.ZERO;
             }
         } catch (NumberFormatException e) {
             LOGGER.error("error reading counter/incremental stat " + statistic);
         }
-        final BigInteger newValue = currentValue.add(BigInteger.ONE);
-        valueMap.put(statistic, newValue.toString());
-    }
 
-    public synchronized void updateAverageValue(final Statistic statistic, final long timeDuration) {
-        if (Statistic.Type.AVERAGE != statistic.getType()) {
-            LOGGER.error("attempt to update average value of non-average stat " + statistic);
-            return;
+        final StatisticCells statisticCells = cells.get(statistic.ordinal());
+        if (statisticCells != null) {
+            currentValue = currentValue.add(BigInteger.valueOf(statisticCells.count.sum()));
         }
+        return currentValue;
+    }
 
+    private AverageBean readAverageValue(final Statistic statistic) {
         final String avgStrValue = valueMap.get(statistic);
 
         AverageBean avgBean = new AverageBean();
@@ -111,30 +172,32 @@ public class StatisticsBundle {
             }
         }
 
-        avgBean.appendValue(timeDuration);
-        valueMap.put(statistic, JsonUtil.serialize(avgBean));
+        final StatisticCells statisticCells = cells.get(statistic.ordinal());
+        if (statisticCells != null) {
+            // a concurrent update may land in total but not count, which only skews the running average slightly
+            final long count = statisticCells.count.sum();
+            final long total = statisticCells.total.sum();
+            avgBean.appendValues(total, count);
+        }
+        return avgBean;
     }
 
-    public String getStatistic(final Statistic statistic) {
-        switch (statistic.getType()) {
-            case INCREMENTOR:
-                return valueMap.containsKey(statistic) ? valueMap.get(statistic) : "0";
+    private StatisticCells cellsForStatistic(final Statistic statistic) {
+        final int index = statistic.ordinal();
+        StatisticCells statisticCells = cells.get(index);
+        if (statisticCells == null) {
+            cells.compareAndSet(index, null, new StatisticCells(statistic.getType() == Statistic.Type.AVERAGE));
+            statisticCells = cells.get(index);
+        }
+        return statisticCells;
+    }
 
-            case AVERAGE:
-                final String avgStrValue = valueMap.get(statistic);
-
-                AverageBean avgBean = new AverageBean();
-                if (avgStrValue != null && avgStrValue.length() > 0) {
-                    try {
-                        avgBean = JsonUtil.deserialize(avgStrValue, AverageBean.class);
-                    } catch (Exception e) {
-                        LOGGER.trace("unable to parse statistics value for stat " + statistic.toString() + ", value=" + avgStrValue);
-                    }
-                }
-                return avgBean.getAverage().toString();
+    private static class StatisticCells {
+        private final StripedCounter count = new StripedCounter();
+        private final StripedCounter total;
 
-            default:
-                return "";
+        private StatisticCells(final boolean average) {
+            total = average ? new StripedCounter() : null;
         }
     }
 
@@ -153,9 +216,9 @@ public class StatisticsBundle {
             return total.divide(count);
         }
 
-        void appendValue(final long value) {
-            count = count.add(BigInteger.ONE);
-            total = total.add(BigInteger.valueOf(value));
+        void appendValues(final long valueTotal, final long valueCount) {
+            count = count.add(BigInteger.valueOf(valueCount));
+            total = total.add(BigInteger.valueOf(valueTotal));
         }
     }
 }
@@ -83,8 +83,8 @@ public class StatisticsManager implements PwmService {
     private Timer daemonTimer;
 
     private final StatisticsBundle statsCurrent = new StatisticsBundle();
-    private StatisticsBundle statsDaily = new StatisticsBundle();
-    private StatisticsBundle statsCummulative = new StatisticsBundle();
+    private volatile StatisticsBundle statsDaily = new StatisticsBundle();
+    private volatile StatisticsBundle statsCummulative = new StatisticsBundle();
     private Map<String, EventRateMeter> epsMeterMap = new HashMap<>();
 
     private PwmApplication pwmApplication;
@@ -103,13 +103,13 @@ public class StatisticsManager implements PwmService {
     public StatisticsManager() {
     }
 
-    public synchronized void incrementValue(final Statistic statistic) {
+    public void incrementValue(final Statistic statistic) {
         statsCurrent.incrementValue(statistic);
         statsDaily.incrementValue(statistic);
         statsCummulative.incrementValue(statistic);
     }
 
-    public synchronized void updateAverageValue(final Statistic statistic, final long value) {
+    public void updateAverageValue(final Statistic statistic, final long value) {
         statsCurrent.updateAverageValue(statistic,value);
         statsDaily.updateAverageValue(statistic,value);
         statsCummulative.updateAverageValue(statistic, value);
@@ -0,0 +1,72 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://code.google.com/p/pwm/
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2015 The PWM Project
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package password.pwm.svc.stats;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counter spread over several cells so that threads incrementing concurrently rarely touch the same cache line.
+ * Each thread is mapped to a cell by its id, and reads sum all cells.  A read taken while increments are in
+ * progress is not a point-in-time snapshot, but no increment is ever lost.
+ */
+class StripedCounter {
+
+    // cells are spaced one cache line (8 longs) apart to avoid false sharing
+    private static final int CELL_SPACING = 8;
+    private static final int MAX_CELLS = 32;
+    private static final int CELL_COUNT = cellCount();
+
+    private final AtomicLongArray cells = new AtomicLongArray(CELL_COUNT * CELL_SPACING);
+
+    void add(final long value) {
+        cells.addAndGet(cellIndex(), value);
+    }
+
+    void increment() {
+        add(1);
+    }
+
+    long sum() {
+        long sum = 0;
+        for (int i = 0; i < CELL_COUNT; i++) {
+            sum += cells.get(i * CELL_SPACING);
+        }
+        return sum;
+    }
+
+    private static int cellIndex() {
+        long threadId = Thread.currentThread().getId();
+        threadId ^= (threadId >>> 16);
+        threadId *= 0x9E3779B97F4A7C15L;
+        return (int)((threadId >>> 32) & (CELL_COUNT - 1)) * CELL_SPACING;
+    }
+
+    private static int cellCount() {
+        final int wanted = Math.min(MAX_CELLS, Runtime.getRuntime().availableProcessors() * 2);
+        int cells = 1;
+        while (cells < wanted) {
+            cells <<= 1;
+        }
+        return cells;
+    }
+}
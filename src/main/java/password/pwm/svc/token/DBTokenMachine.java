@@ -28,6 +28,7 @@ import password.pwm.error.PwmUnrecoverableException;
 import password.pwm.util.db.DatabaseAccessorImpl;
 import password.pwm.util.db.DatabaseTable;
 
+import java.util.Date;
 import java.util.Iterator;
 
 class DBTokenMachine implements TokenMachine {
@@ -81,8 +82,14 @@ class DBTokenMachine implements TokenMachine {
         return databaseAccessor.iterator(DatabaseTable.TOKENS);
     }
 
+    /**
+     * Expired tokens are removed by a single delete against the indexed write time of the token rows, rather than
+     * reading and decoding every stored token.  A token row is written when the token is issued, so its write time
+     * is never earlier than the token's issue date.
+     */
     public void cleanup() throws PwmUnrecoverableException, PwmOperationalException {
-        tokenService.purgeOutdatedTokens();
+        final Date cutoffDate = new Date(System.currentTimeMillis() - tokenService.getMaxTokenPurgeAgeMS());
+        databaseAccessor.removeOlderThan(DatabaseTable.TOKENS, cutoffDate);
     }
 
     public boolean supportsName() {
@@ -25,18 +25,34 @@ package password.pwm.svc.token;
 import password.pwm.bean.SessionLabel;
 import password.pwm.error.PwmOperationalException;
 import password.pwm.error.PwmUnrecoverableException;
+import password.pwm.svc.PwmService;
+import password.pwm.util.TimeDuration;
 import password.pwm.util.localdb.LocalDB;
+import password.pwm.util.localdb.LocalDBException;
+import password.pwm.util.logging.PwmLogger;
+
+import java.util.Date;
 
 class LocalDBTokenMachine implements TokenMachine {
+    private static final PwmLogger LOGGER = PwmLogger.forClass(LocalDBTokenMachine.class);
+
     private LocalDB localDB;
     private TokenService tokenService;
+    private final TokenExpiryIndex expiryIndex;
+    private volatile boolean indexComplete;
 
     LocalDBTokenMachine(
             TokenService tokenService,
-            LocalDB localDB
-    ) {
+            LocalDB localDB,
+            int purgeBatchSize
+    )
+            throws LocalDBException
+    {
         this.tokenService = tokenService;
         this.localDB = localDB;
+        this.expiryIndex = new TokenExpiryIndex(localDB, LocalDB.DB.TOKENS, LocalDB.DB.TOKEN_EXPIRY_INDEX, purgeBatchSize);
+        expiryIndex.load();
+        indexComplete = expiryIndex.isIndexComplete();
     }
 
     public String generateToken(
@@ -65,6 +81,7 @@ class LocalDBTokenMachine implements TokenMachine {
         final String rawValue = tokenService.toEncryptedString(tokenPayload);
         final String md5sumToken = TokenService.makeTokenHash(tokenKey);
         localDB.put(LocalDB.DB.TOKENS, md5sumToken, rawValue);
+        expiryIndex.add(md5sumToken, tokenPayload.getDate());
     }
 
     public void removeToken(String tokenKey)
@@ -83,8 +100,54 @@ class LocalDBTokenMachine implements TokenMachine {
         return localDB.iterator(LocalDB.DB.TOKENS);
     }
 
+    /**
+     * Purge tokens using the expiry index, so only expired tokens are read.  Tokens stored before the index existed
+     * are indexed once by a full scan.
+     */
     public void cleanup() throws PwmUnrecoverableException, PwmOperationalException {
-        tokenService.purgeOutdatedTokens();
+        if (!indexComplete) {
+            indexStoredTokens();
+        }
+
+        final long startTime = System.currentTimeMillis();
+        final Date cutoffDate = new Date(startTime - tokenService.getMaxTokenPurgeAgeMS());
+        final int purgedCount = expiryIndex.purge(cutoffDate);
+        if (purgedCount > 0) {
+            LOGGER.trace("cleaner thread removed " + purgedCount + " tokens in " + TimeDuration.fromCurrent(startTime).asCompactString());
+        }
+    }
+
+    private void indexStoredTokens() throws PwmUnrecoverableException, PwmOperationalException {
+        final long startTime = System.currentTimeMillis();
+        int indexedCount = 0;
+        LocalDB.LocalDBIterator<String> iterator = null;
+        try {
+            iterator = localDB.iterator(LocalDB.DB.TOKENS);
+            while (tokenService.status() == PwmService.STATUS.OPEN && iterator.hasNext()) {
+                final String storedKey = iterator.next();
+                Date issueDate = null;
+                try {
+                    final String storedRawValue = localDB.get(LocalDB.DB.TOKENS, storedKey);
+                    if (storedRawValue != null && storedRawValue.length() > 0) {
+                        issueDate = tokenService.fromEncryptedString(storedRawValue).getDate();
+                    }
+                } catch (PwmOperationalException e) {
+                    LOGGER.debug("unable to decode stored token while building expiry index, token will be purged after the maximum token age: " + e.getMessage());
+                }
+                expiryIndex.add(storedKey, issueDate);
+                indexedCount++;
+            }
+        } finally {
+            if (iterator != null) {
+                iterator.close();
+            }
+        }
+
+        if (tokenService.status() == PwmService.STATUS.OPEN) {
+            expiryIndex.markIndexComplete();
+            indexComplete = true;
+            LOGGER.debug("indexed " + indexedCount + " previously stored tokens in " + TimeDuration.fromCurrent(startTime).asCompactString());
+        }
     }
 
     public boolean supportsName() {
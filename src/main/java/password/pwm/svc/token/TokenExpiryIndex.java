@@ -0,0 +1,189 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://code.google.com/p/pwm/
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2015 The PWM Project
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package password.pwm.svc.token;
+
+import password.pwm.util.JsonUtil;
+import password.pwm.util.localdb.LocalDB;
+import password.pwm.util.localdb.LocalDBException;
+import password.pwm.util.logging.PwmLogger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Secondary index of stored token keys grouped by issue time, so the cleaner can remove expired tokens without
+ * reading and decrypting every stored token.
+ * <p/>
+ * Token keys are grouped into fixed width time buckets.  Each bucket is stored in the index table as chunks keyed by
+ * the bucket end time and chunk number, each holding a json list of token keys.  Chunks are append only: every added
+ * token is written to a new chunk, so concurrent token creation never rewrites a shared row and only contends on the
+ * in-memory chunk counter.  Only the chunk counts are held in memory.  Entries are not removed when a token is
+ * claimed; a bucket's entries are dropped when the whole bucket is purged, and removing an already removed token is
+ * harmless.
+ */
+class TokenExpiryIndex {
+    private static final PwmLogger LOGGER = PwmLogger.forClass(TokenExpiryIndex.class);
+
+    static final long BUCKET_WIDTH_MS = 5 * 60 * 1000;
+
+    // marks that tokens stored before the index existed have been indexed
+    private static final String KEY_INDEXED_MARKER = "indexComplete";
+    private static final String KEY_SEPARATOR = "_";
+
+    private final LocalDB localDB;
+    private final LocalDB.DB tokenDB;
+    private final LocalDB.DB indexDB;
+    private final int purgeBatchSize;
+
+    // bucket end time -> number of chunks stored for the bucket
+    private final ConcurrentSkipListMap<Long, AtomicInteger> chunkCounts = new ConcurrentSkipListMap<>();
+
+    TokenExpiryIndex(final LocalDB localDB, final LocalDB.DB tokenDB, final LocalDB.DB indexDB, final int purgeBatchSize) {
+        this.localDB = localDB;
+        this.tokenDB = tokenDB;
+        this.indexDB = indexDB;
+        this.purgeBatchSize = Math.max(1, purgeBatchSize);
+    }
+
+    /**
+     * Read the bucket chunk counts from the index table.  Only keys are read.
+     */
+    synchronized void load() throws LocalDBException {
+        chunkCounts.clear();
+        LocalDB.LocalDBIterator<String> iterator = null;
+        try {
+            iterator = localDB.iterator(indexDB);
+            while (iterator.hasNext()) {
+                final String key = iterator.next();
+                final int separatorIndex = key.indexOf(KEY_SEPARATOR);
+                if (separatorIndex < 1) {
+                    continue;
+                }
+                try {
+                    final long bucketEnd = Long.parseLong(key.substring(0, separatorIndex));
+                    final int chunkNumber = Integer.parseInt(key.substring(separatorIndex + 1));
+                    final AtomicInteger existingCount = chunkCounts.get(bucketEnd);
+                    if (existingCount == null) {
+                        chunkCounts.put(bucketEnd, new AtomicInteger(chunkNumber + 1));
+                    } else if (existingCount.get() <= chunkNumber) {
+                        existingCount.set(chunkNumber + 1);
+                    }
+                } catch (NumberFormatException e) {
+                    LOGGER.warn("ignoring unrecognized token expiry index key: " + key);
+                }
+            }
+        } finally {
+            if (iterator != null) {
+                iterator.close();
+            }
+        }
+        LOGGER.trace("loaded token expiry index with " + chunkCounts.size() + " buckets");
+    }
+
+    boolean isIndexComplete() throws LocalDBException {
+        return localDB.contains(indexDB, KEY_INDEXED_MARKER);
+    }
+
+    void markIndexComplete() throws LocalDBException {
+        localDB.put(indexDB, KEY_INDEXED_MARKER, String.valueOf(System.currentTimeMillis()));
+    }
+
+    void add(final String tokenKey, final Date issueDate) throws LocalDBException {
+        final long bucketEnd = bucketEnd(issueDate);
+        AtomicInteger chunkCount = chunkCounts.get(bucketEnd);
+        if (chunkCount == null) {
+            final AtomicInteger newChunkCount = new AtomicInteger(0);
+            chunkCount = chunkCounts.putIfAbsent(bucketEnd, newChunkCount);
+            if (chunkCount == null) {
+                chunkCount = newChunkCount;
+            }
+        }
+
+        final int chunkNumber = chunkCount.getAndIncrement();
+        localDB.put(indexDB, chunkKey(bucketEnd, chunkNumber), JsonUtil.serializeCollection(Collections.singletonList(tokenKey)));
+    }
+
+    /**
+     * Remove all tokens of buckets ending at or before the cutoff date, then the buckets themselves.  Tokens are
+     * removed in batches of at most the purge batch size.
+     *
+     * @return number of index entries purged
+     */
+    synchronized int purge(final Date cutoffDate) throws LocalDBException {
+        int purgedCount = 0;
+        final List<Long> expiredBuckets = new ArrayList<>(chunkCounts.headMap(cutoffDate.getTime(), true).keySet());
+        for (final long bucketEnd : expiredBuckets) {
+            final AtomicInteger chunkCount = chunkCounts.remove(bucketEnd);
+            if (chunkCount == null) {
+                continue;
+            }
+
+            final List<String> chunkKeys = new ArrayList<>();
+            final List<String> tokenKeys = new ArrayList<>();
+            for (int chunkNumber = 0; chunkNumber < chunkCount.get(); chunkNumber++) {
+                final String chunkKey = chunkKey(bucketEnd, chunkNumber);
+                chunkKeys.add(chunkKey);
+                tokenKeys.addAll(readChunk(chunkKey));
+                if (tokenKeys.size() >= purgeBatchSize || chunkNumber == chunkCount.get() - 1) {
+                    // tokens first, so an interrupted purge leaves index entries for removed tokens rather than the reverse
+                    localDB.removeAll(tokenDB, tokenKeys);
+                    localDB.removeAll(indexDB, chunkKeys);
+                    purgedCount += tokenKeys.size();
+                    tokenKeys.clear();
+                    chunkKeys.clear();
+                }
+            }
+        }
+        return purgedCount;
+    }
+
+    int bucketCount() {
+        return chunkCounts.size();
+    }
+
+    private List<String> readChunk(final String chunkKey) throws LocalDBException {
+        final String value = localDB.get(indexDB, chunkKey);
+        if (value == null || value.isEmpty()) {
+            return new ArrayList<>();
+        }
+        try {
+            return new ArrayList<>(JsonUtil.deserializeStringList(value));
+        } catch (Exception e) {
+            LOGGER.error("unable to decode token expiry index chunk " + chunkKey + ": " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    private static long bucketEnd(final Date issueDate) {
+        final long issueTime = issueDate == null ? System.currentTimeMillis() : issueDate.getTime();
+        return (issueTime / BUCKET_WIDTH_MS + 1) * BUCKET_WIDTH_MS;
+    }
+
+    private static String chunkKey(final long bucketEnd, final int chunkNumber) {
+        return bucketEnd + KEY_SEPARATOR + chunkNumber;
+    }
+}
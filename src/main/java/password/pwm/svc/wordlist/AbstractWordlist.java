@@ -24,6 +24,7 @@ package password.pwm.svc.wordlist;
 
 import password.pwm.AppProperty;
 import password.pwm.PwmApplication;
+import password.pwm.config.Configuration;
 import password.pwm.config.option.DataStorageMethod;
 import password.pwm.error.ErrorInformation;
 import password.pwm.error.PwmError;
@@ -42,10 +43,13 @@ import password.pwm.util.logging.PwmLogger;
 import password.pwm.util.secure.PwmHashAlgorithm;
 import password.pwm.util.secure.SecureEngine;
 
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 abstract class AbstractWordlist implements Wordlist, PwmService {
 
@@ -67,6 +71,13 @@ abstract class AbstractWordlist implements Wordlist, PwmService {
     private PwmApplication pwmApplication;
     protected Populator populator;
 
+    private volatile WordlistBloomFilter bloomFilter;
+    // incremented whenever the wordlist is repopulated, so a background build of the previous contents is discarded
+    private int bloomFilterGeneration;
+    private final Object bloomFilterLock = new Object();
+    private ExecutorService backgroundExecutor;
+    private volatile SortedWordlistFile sortedWordlistFile;
+
 
 
 // --------------------------- CONSTRUCTORS ---------------------------
@@ -112,6 +123,19 @@ abstract class AbstractWordlist implements Wordlist, PwmService {
 
         //read stored size
         storedSize = readMetadata().getSize();
+        if (getStorageMode() == WordlistConfiguration.StorageMode.MAPPED_FILE) {
+            try {
+                openSortedWordlistFile();
+            } catch (IOException e) {
+                final String errorMsg = "unable to open " + DEBUG_LABEL + " file: " + e.getMessage();
+                LOGGER.warn(errorMsg);
+                lastError = new ErrorInformation(PwmError.ERROR_SERVICE_NOT_AVAILABLE,errorMsg);
+                close();
+                return;
+            }
+        } else {
+            loadBloomFilter();
+        }
         wlStatus = STATUS.OPEN;
     }
 
@@ -137,6 +161,10 @@ abstract class AbstractWordlist implements Wordlist, PwmService {
         if (!storedWordlistDataBean.isCompleted()) {
             needsBuiltinPopulating = true;
             LOGGER.debug("wordlist stored in database does not have a completed load status, will load built-in wordlist");
+        } else if (storedWordlistDataBean.getStorageMode() != getStorageMode()) {
+            needsBuiltinPopulating = true;
+            LOGGER.debug("wordlist was stored using " + storedWordlistDataBean.getStorageMode() + " storage mode, but "
+                    + getStorageMode() + " is configured, will load built-in wordlist");
         } else if (storedWordlistDataBean.isBuiltin()) {
             final String builtInWordlistHash = getBuiltInWordlistHash();
             if (!builtInWordlistHash.equals(storedWordlistDataBean.getSha1hash())) {
@@ -145,6 +173,14 @@ abstract class AbstractWordlist implements Wordlist, PwmService {
             }
         }
 
+        if (!needsBuiltinPopulating && getStorageMode() == WordlistConfiguration.StorageMode.MAPPED_FILE) {
+            final String fileHash = SortedWordlistFile.readWordlistHash(sortedWordlistFileLocation());
+            if (fileHash == null || !fileHash.equals(storedWordlistDataBean.getSha1hash())) {
+                LOGGER.debug("wordlist file is missing or does not match stored wordlist checksum, will load built-in wordlist");
+                needsBuiltinPopulating = true;
+            }
+        }
+
         if (!needsBuiltinPopulating) {
             return;
         }
@@ -169,9 +205,18 @@ abstract class AbstractWordlist implements Wordlist, PwmService {
 
         final Date startTime = new Date();
         try {
+            final WordlistBloomFilter filter = bloomFilter;
+            final SortedWordlistFile wordlistFile = sortedWordlistFile;
             boolean result = false;
             for (final String t : testWords) {
                 if (!result) { // stop checking once found
+                    if (wordlistFile != null) {
+                        result = wordlistFile.contains(t);
+                        continue;
+                    }
+                    if (filter != null && !filter.mightContain(t)) {
+                        continue;
+                    }
                     if (localDB.contains(getWordlistDB(), t)) {
                         result = true;
                     }
@@ -212,7 +257,12 @@ abstract class AbstractWordlist implements Wordlist, PwmService {
         }
 
         wlStatus = STATUS.CLOSED;
+        if (backgroundExecutor != null) {
+            backgroundExecutor.shutdownNow();
+            backgroundExecutor = null;
+        }
         localDB = null;
+        sortedWordlistFile = null;
     }
 
     public STATUS status() {
@@ -223,6 +273,12 @@ abstract class AbstractWordlist implements Wordlist, PwmService {
         if (wlStatus == STATUS.OPENING && populator != null) {
             return populator.makeStatString();
         } else {
+            final WordlistBloomFilter filter = bloomFilter;
+            if (wlStatus == STATUS.OPEN && filter != null) {
+                return wlStatus.toString()
+                        + ", bloomFilter size=" + Helper.formatDiskSize(filter.getSizeInBytes())
+                        + ", expectedFalsePositiveRate=" + String.format("%.5f", filter.expectedFalsePositiveRate());
+            }
             return wlStatus.toString();
         }
     }
@@ -252,7 +308,28 @@ abstract class AbstractWordlist implements Wordlist, PwmService {
     public ServiceInfo serviceInfo()
     {
         if (status() == STATUS.OPEN) {
-            return new ServiceInfo(Collections.singletonList(DataStorageMethod.LOCALDB));
+            final Map<String,String> debugProperties = new LinkedHashMap<>();
+            final WordlistBloomFilter filter = bloomFilter;
+            final SortedWordlistFile wordlistFile = sortedWordlistFile;
+            debugProperties.put("storageMode", String.valueOf(getStorageMode()));
+            if (wordlistFile != null) {
+                debugProperties.put("wordlistFileSizeBytes", String.valueOf(wordlistFile.fileSize()));
+                debugProperties.put("wordlistFileWords", String.valueOf(wordlistFile.size()));
+            }
+            debugProperties.put("bloomFilterEnabled", String.valueOf(filter != null));
+            if (filter != null) {
+                debugProperties.put("bloomFilterSizeBytes", String.valueOf(filter.getSizeInBytes()));
+                debugProperties.put("bloomFilterElements", String.valueOf(filter.getElementCount()));
+                debugProperties.put("bloomFilterHashFunctions", String.valueOf(filter.getHashCount()));
+                debugProperties.put("bloomFilterExpectedFalsePositiveRate", String.valueOf(filter.expectedFalsePositiveRate()));
+                debugProperties.put("bloomFilterNegativeLookups", String.valueOf(filter.getNegativeCount()));
+                debugProperties.put("bloomFilterPositiveLookups", String.valueOf(filter.getPositiveCount()));
+            }
+            // in mapped file mode the words are read from the file, and only the metadata is kept in the LocalDB
+            final List<DataStorageMethod> storageMethods = getStorageMode() == WordlistConfiguration.StorageMode.MAPPED_FILE
+                    ? Arrays.asList(DataStorageMethod.FILE, DataStorageMethod.LOCALDB)
+                    : Collections.singletonList(DataStorageMethod.LOCALDB);
+            return new ServiceInfo(storageMethods, Collections.unmodifiableMap(debugProperties));
         } else {
             return new ServiceInfo(Collections.<DataStorageMethod>emptyList());
         }
@@ -333,6 +410,11 @@ abstract class AbstractWordlist implements Wordlist, PwmService {
         }
 
         wlStatus = STATUS.OPENING;
+        synchronized (bloomFilterLock) {
+            bloomFilterGeneration++;
+            bloomFilter = null;
+        }
+        sortedWordlistFile = null;
 
         try {
             if (populator != null) {
@@ -355,6 +437,10 @@ abstract class AbstractWordlist implements Wordlist, PwmService {
 
             populator = new Populator(inputStream, this, pwmApplication);
             populator.populate();
+
+            if (getStorageMode() == WordlistConfiguration.StorageMode.MAPPED_FILE && readMetadata().isCompleted()) {
+                openSortedWordlistFile();
+            }
         } catch (Exception e) {
             final ErrorInformation populationError;
             populationError = e instanceof PwmException
@@ -370,6 +456,151 @@ abstract class AbstractWordlist implements Wordlist, PwmService {
         wlStatus = STATUS.OPEN;
     }
 
+    WordlistConfiguration.StorageMode getStorageMode() {
+        return wordlistConfiguration == null
+                ? WordlistConfiguration.StorageMode.LOCALDB
+                : wordlistConfiguration.getStorageMode();
+    }
+
+    File sortedWordlistFileLocation() {
+        final File localDBLocation = localDB == null ? null : localDB.getFileLocation();
+        if (localDBLocation == null) {
+            return null;
+        }
+        return new File(localDBLocation, getWordlistDB().toString() + ".sorted");
+    }
+
+    private void openSortedWordlistFile() throws IOException {
+        final File wordlistFile = sortedWordlistFileLocation();
+        if (wordlistFile == null) {
+            throw new IOException("LocalDB does not have a file location to store the wordlist file");
+        }
+        final Date startTime = new Date();
+        sortedWordlistFile = SortedWordlistFile.open(wordlistFile);
+        LOGGER.debug(DEBUG_LABEL + " opened wordlist file " + wordlistFile.getAbsolutePath() + " with "
+                + sortedWordlistFile.size() + " words (" + Helper.formatDiskSize(sortedWordlistFile.fileSize()) + ") in "
+                + TimeDuration.fromCurrent(startTime).asCompactString());
+    }
+
+    protected boolean isBloomFilterEnabled() {
+        return pwmApplication.getConfig().readAppPropertyAsBoolean(AppProperty.WORDLIST_BLOOM_FILTER_ENABLE);
+    }
+
+    private File bloomFilterFile() {
+        final File localDBLocation = localDB == null ? null : localDB.getFileLocation();
+        if (localDBLocation == null) {
+            return null;
+        }
+        return new File(localDBLocation, getWordlistDB().toString() + ".bloom");
+    }
+
+    private void loadBloomFilter() {
+        if (!isBloomFilterEnabled()) {
+            return;
+        }
+
+        final StoredWordlistDataBean storedWordlistDataBean = readMetadata();
+        if (!storedWordlistDataBean.isCompleted()) {
+            return;
+        }
+
+        try {
+            final WordlistBloomFilter storedFilter = WordlistBloomFilter.read(bloomFilterFile(), storedWordlistDataBean.getSha1hash());
+            if (storedFilter != null) {
+                bloomFilter = storedFilter;
+                LOGGER.debug(DEBUG_LABEL + " loaded stored bloom filter, " + getDebugStatus());
+                return;
+            }
+        } catch (IOException e) {
+            LOGGER.warn(DEBUG_LABEL + " unable to read stored bloom filter, will rebuild: " + e.getMessage());
+        }
+
+        // reading the whole wordlist db can take minutes, so build in the background and use LocalDB lookups until ready
+        final int generation;
+        synchronized (bloomFilterLock) {
+            generation = bloomFilterGeneration;
+        }
+        final String threadName = Helper.makeThreadName(pwmApplication, this.getClass()) + "-bloomfilter";
+        backgroundExecutor = Executors.newSingleThreadExecutor(Helper.makePwmThreadFactory(threadName, true));
+        backgroundExecutor.submit(new Runnable() {
+            public void run() {
+                try {
+                    final WordlistBloomFilter newFilter = createBloomFilter(storedWordlistDataBean.getSha1hash(), storedWordlistDataBean.getSize());
+                    if (newFilter != null) {
+                        synchronized (bloomFilterLock) {
+                            if (generation == bloomFilterGeneration && wlStatus != STATUS.CLOSED) {
+                                bloomFilter = newFilter;
+                            }
+                        }
+                    }
+                } catch (Exception e) {
+                    LOGGER.warn(DEBUG_LABEL + " unable to build bloom filter, lookups will use LocalDB only: " + e.getMessage());
+                }
+            }
+        });
+    }
+
+    /**
+     * Builds the bloom filter from the current contents of the wordlist db, and saves it to disk alongside the LocalDB.
+     * Called by the {@link Populator} once population completes.
+     */
+    void buildBloomFilter(final String wordlistHash, final int size)
+            throws LocalDBException
+    {
+        bloomFilter = null;
+        final WordlistBloomFilter newFilter = createBloomFilter(wordlistHash, size);
+        if (newFilter != null) {
+            bloomFilter = newFilter;
+        }
+    }
+
+    /**
+     * @return the new filter, or null if bloom filters are disabled or the wordlist was closed while building
+     */
+    private WordlistBloomFilter createBloomFilter(final String wordlistHash, final int size)
+            throws LocalDBException
+    {
+        if (!isBloomFilterEnabled()) {
+            return null;
+        }
+
+        final Date startTime = new Date();
+        final Configuration config = pwmApplication.getConfig();
+        final double falsePositiveRate = Double.parseDouble(config.readAppProperty(AppProperty.WORDLIST_BLOOM_FILTER_FALSE_POSITIVE_RATE));
+        final long maxSizeBytes = config.readAppPropertyAsLong(AppProperty.WORDLIST_BLOOM_FILTER_MAX_BYTES);
+        final WordlistBloomFilter newFilter = WordlistBloomFilter.create(size, falsePositiveRate, maxSizeBytes, wordlistHash);
+
+        LocalDB.LocalDBIterator<String> iterator = null;
+        try {
+            iterator = localDB.iterator(getWordlistDB());
+            while (iterator.hasNext()) {
+                if (wlStatus == STATUS.CLOSED || Thread.currentThread().isInterrupted()) {
+                    return null;
+                }
+                newFilter.add(iterator.next());
+            }
+        } finally {
+            if (iterator != null) {
+                iterator.close();
+            }
+        }
+
+        final File filterFile = bloomFilterFile();
+        if (filterFile != null) {
+            try {
+                newFilter.write(filterFile);
+            } catch (IOException e) {
+                LOGGER.warn(DEBUG_LABEL + " unable to save bloom filter to " + filterFile.getAbsolutePath() + ", error: " + e.getMessage());
+            }
+        }
+
+        LOGGER.debug(DEBUG_LABEL + " built bloom filter with " + newFilter.getElementCount() + " elements in "
+                + TimeDuration.fromCurrent(startTime).asCompactString()
+                + ", size=" + Helper.formatDiskSize(newFilter.getSizeInBytes())
+                + ", expectedFalsePositiveRate=" + String.format("%.5f", newFilter.expectedFalsePositiveRate()));
+        return newFilter;
+    }
+
     protected InputStream getBuiltInWordlist() throws FileNotFoundException, PwmUnrecoverableException {
         final ContextManager contextManager = pwmApplication.getPwmEnvironment().getContextManager();
         if (contextManager != null) {
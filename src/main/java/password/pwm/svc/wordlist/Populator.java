@@ -22,6 +22,7 @@
 
 package password.pwm.svc.wordlist;
 
+import password.pwm.AppProperty;
 import password.pwm.PwmApplication;
 import password.pwm.error.ErrorInformation;
 import password.pwm.error.PwmError;
@@ -34,13 +35,14 @@ import password.pwm.util.localdb.LocalDBException;
 import password.pwm.util.logging.PwmLogger;
 import password.pwm.util.secure.ChecksumInputStream;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.text.DecimalFormat;
 import java.text.NumberFormat;
-import java.util.Date;
-import java.util.Map;
-import java.util.TreeMap;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * @author Jason D. Rivard
@@ -58,6 +60,12 @@ class Populator {
     private static final String COMMENT_PREFIX = "!#comment:"; // words tarting with this prefix are ignored.
     private static final NumberFormat PERCENT_FORMAT = DecimalFormat.getPercentInstance();
 
+    private static final int PIPELINE_BATCH_LINES = 1000; // lines handed to each worker per queue item
+    private static final int MAX_COMPILER_BUFFERED_WORDS = 1000 * 1000; // words held in memory before spilling a sorted run
+    private static final long PIPELINE_POLL_MS = 100;
+    private static final List<String> END_OF_LINES = Collections.emptyList();
+    private static final WordBatch END_OF_WORDS = new WordBatch(0, Collections.<String,String>emptyMap());
+
     private final ZipReader zipFileReader;
 
     private volatile boolean running;
@@ -76,6 +84,11 @@ class Populator {
 
     private final AbstractWordlist rootWordlist;
 
+    private final int workerThreads;
+    private final String threadNamePrefix;
+
+    private final SortedWordlistFile.Compiler fileCompiler;
+
 
     static {
         PERCENT_FORMAT.setMinimumFractionDigits(2);
@@ -92,6 +105,35 @@ class Populator {
         this.zipFileReader = new ZipReader(checksumInputStream);
         this.localDB = pwmApplication.getLocalDB();
         this.rootWordlist = rootWordlist;
+        this.workerThreads = readWorkerThreads(pwmApplication);
+        this.threadNamePrefix = Helper.makeThreadName(pwmApplication, Populator.class);
+        this.fileCompiler = rootWordlist.getStorageMode() == WordlistConfiguration.StorageMode.MAPPED_FILE
+                ? makeFileCompiler(rootWordlist)
+                : null;
+    }
+
+    private static SortedWordlistFile.Compiler makeFileCompiler(final AbstractWordlist rootWordlist)
+            throws PwmUnrecoverableException
+    {
+        final File targetFile = rootWordlist.sortedWordlistFileLocation();
+        if (targetFile == null) {
+            throw new PwmUnrecoverableException(new ErrorInformation(PwmError.ERROR_SERVICE_NOT_AVAILABLE,
+                    "LocalDB does not have a file location to store the wordlist file"));
+        }
+        return new SortedWordlistFile.Compiler(targetFile, MAX_COMPILER_BUFFERED_WORDS);
+    }
+
+    private static int readWorkerThreads(final PwmApplication pwmApplication) {
+        final String configuredValue = pwmApplication.getConfig() == null
+                ? null
+                : pwmApplication.getConfig().readAppProperty(AppProperty.WORDLIST_POPULATE_THREADS);
+        try {
+            final int threads = configuredValue == null ? 0 : Integer.parseInt(configuredValue);
+            return threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        } catch (NumberFormatException e) {
+            LOGGER.warn("invalid value for " + AppProperty.WORDLIST_POPULATE_THREADS.getKey() + ": " + configuredValue);
+            return 1;
+        }
     }
 
     private void init() throws LocalDBException, IOException {
@@ -120,7 +162,8 @@ class Populator {
         perReportStats = new PopulationStats();
         return rootWordlist.DEBUG_LABEL + ", lines/second="
                 + lps + ", line=" + overallStats.getLines() + ")"
-                + " current zipEntry=" + zipFileReader.currentZipName();
+                + " current zipEntry=" + zipFileReader.currentZipName()
+                + (workerThreads > 1 ? ", workerThreads=" + workerThreads : "");
     }
 
     void populate() throws IOException, LocalDBException, PwmUnrecoverableException {
@@ -129,41 +172,225 @@ class Populator {
             running = true;
             init();
 
+            if (workerThreads > 1) {
+                populatePipelined();
+            } else {
+                populateSingleThreaded();
+            }
+
+            if (abortFlag) {
+                LOGGER.warn("pausing " + rootWordlist.DEBUG_LABEL + " population");
+            } else {
+                populationComplete();
+            }
+        } finally {
+            if (fileCompiler != null) {
+                fileCompiler.abort(); // removes any leftover temporary run files
+            }
+
+            running = false;
+            checksumInputStream.close();
+        }
+    }
+
+    private void populateSingleThreaded() throws IOException, LocalDBException {
+        long lastReportTime = System.currentTimeMillis() - (long) (DEBUG_OUTPUT_FREQUENCY * 0.33);
+
+        String line;
+        while (!abortFlag && (line = zipFileReader.nextLine()) != null) {
+
+            overallStats.incrementLines();
+            perReportStats.incrementLines();
+
+            addLine(line, bufferedWords);
+            loopLines++;
+
+            if (TimeDuration.fromCurrent(lastReportTime).isLongerThan(DEBUG_OUTPUT_FREQUENCY)) {
+                LOGGER.info(makeStatString());
+                lastReportTime = System.currentTimeMillis();
+            }
+
+            if (bufferedWords.size() > transactionCalculator.getTransactionSize()) {
+                flushBuffer();
+            }
+        }
+    }
+
+    /**
+     * Pipelined population.  The calling thread reads lines from the zip (so the checksum is still computed over the
+     * whole stream in order), a pool of worker threads normalize and chunk the lines, and a single writer thread
+     * batches the results into LocalDB transactions.  Stages are connected by bounded queues so a slow LocalDB
+     * applies back pressure to the reader rather than buffering the wordlist in memory.
+     */
+    private void populatePipelined() throws IOException, LocalDBException, PwmUnrecoverableException {
+        final BlockingQueue<List<String>> lineQueue = new ArrayBlockingQueue<>(workerThreads * 4);
+        final BlockingQueue<WordBatch> wordQueue = new ArrayBlockingQueue<>(workerThreads * 4);
+        final AtomicReference<Exception> pipelineError = new AtomicReference<>();
+        final CountDownLatch workersComplete = new CountDownLatch(workerThreads);
+
+        final ExecutorService workerPool = Executors.newFixedThreadPool(
+                workerThreads,
+                Helper.makePwmThreadFactory(threadNamePrefix + "-worker-", true)
+        );
+        for (int i = 0; i < workerThreads; i++) {
+            workerPool.submit(new NormalizeWorker(lineQueue, wordQueue, pipelineError, workersComplete));
+        }
+
+        final Thread writerThread = new Thread(new BatchWriter(wordQueue, pipelineError), threadNamePrefix + "-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+
+        try {
             long lastReportTime = System.currentTimeMillis() - (long) (DEBUG_OUTPUT_FREQUENCY * 0.33);
+            List<String> lineBatch = new ArrayList<>(PIPELINE_BATCH_LINES);
 
             String line;
-            while (!abortFlag && (line = zipFileReader.nextLine()) != null) {
-
+            while (!abortFlag && pipelineError.get() == null && (line = zipFileReader.nextLine()) != null) {
                 overallStats.incrementLines();
                 perReportStats.incrementLines();
+                lineBatch.add(line);
 
-                addLine(line);
-                loopLines++;
+                if (lineBatch.size() >= PIPELINE_BATCH_LINES) {
+                    offerToQueue(lineQueue, lineBatch, pipelineError);
+                    lineBatch = new ArrayList<>(PIPELINE_BATCH_LINES);
+                }
 
                 if (TimeDuration.fromCurrent(lastReportTime).isLongerThan(DEBUG_OUTPUT_FREQUENCY)) {
                     LOGGER.info(makeStatString());
                     lastReportTime = System.currentTimeMillis();
                 }
+            }
 
-                if (bufferedWords.size() > transactionCalculator.getTransactionSize()) {
-                    flushBuffer();
-                }
+            if (!lineBatch.isEmpty()) {
+                offerToQueue(lineQueue, lineBatch, pipelineError);
             }
 
-            if (abortFlag) {
-                LOGGER.warn("pausing " + rootWordlist.DEBUG_LABEL + " population");
-            } else {
-                populationComplete();
+            for (int i = 0; i < workerThreads; i++) {
+                offerToQueue(lineQueue, END_OF_LINES, pipelineError);
+            }
+
+            while (!workersComplete.await(PIPELINE_POLL_MS, TimeUnit.MILLISECONDS) && !isPipelineStopped(pipelineError)) {
+                // waiting for workers to drain the line queue
             }
+
+            offerToQueue(wordQueue, END_OF_WORDS, pipelineError);
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abortFlag = true;
         } finally {
+            workerPool.shutdownNow();
+        }
 
-            running = false;
-            checksumInputStream.close();
+        final Exception error = pipelineError.get();
+        if (error != null) {
+            if (error instanceof LocalDBException) {
+                throw (LocalDBException) error;
+            }
+            throw new PwmUnrecoverableException(new ErrorInformation(PwmError.ERROR_UNKNOWN, "error during pipelined wordlist population: " + error.getMessage()));
+        }
+    }
+
+    private boolean isPipelineStopped(final AtomicReference<Exception> pipelineError) {
+        return abortFlag || pipelineError.get() != null;
+    }
+
+    private <T> void offerToQueue(final BlockingQueue<T> queue, final T item, final AtomicReference<Exception> pipelineError)
+            throws InterruptedException
+    {
+        while (!isPipelineStopped(pipelineError)) {
+            if (queue.offer(item, PIPELINE_POLL_MS, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        }
+    }
+
+    private class NormalizeWorker implements Runnable {
+        private final BlockingQueue<List<String>> lineQueue;
+        private final BlockingQueue<WordBatch> wordQueue;
+        private final AtomicReference<Exception> pipelineError;
+        private final CountDownLatch workersComplete;
+
+        private NormalizeWorker(
+                final BlockingQueue<List<String>> lineQueue,
+                final BlockingQueue<WordBatch> wordQueue,
+                final AtomicReference<Exception> pipelineError,
+                final CountDownLatch workersComplete
+        ) {
+            this.lineQueue = lineQueue;
+            this.wordQueue = wordQueue;
+            this.pipelineError = pipelineError;
+            this.workersComplete = workersComplete;
+        }
+
+        public void run() {
+            try {
+                while (!isPipelineStopped(pipelineError)) {
+                    final List<String> lines = lineQueue.poll(PIPELINE_POLL_MS, TimeUnit.MILLISECONDS);
+                    if (lines == END_OF_LINES) {
+                        return;
+                    }
+                    if (lines != null) {
+                        final Map<String,String> words = new TreeMap<>();
+                        for (final String line : lines) {
+                            addLine(line, words);
+                        }
+                        offerToQueue(wordQueue, new WordBatch(lines.size(), words), pipelineError);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                pipelineError.compareAndSet(null, e);
+            } finally {
+                workersComplete.countDown();
+            }
+        }
+    }
+
+    private class BatchWriter implements Runnable {
+        private final BlockingQueue<WordBatch> wordQueue;
+        private final AtomicReference<Exception> pipelineError;
+
+        private BatchWriter(final BlockingQueue<WordBatch> wordQueue, final AtomicReference<Exception> pipelineError) {
+            this.wordQueue = wordQueue;
+            this.pipelineError = pipelineError;
+        }
+
+        public void run() {
+            try {
+                while (!isPipelineStopped(pipelineError)) {
+                    final WordBatch wordBatch = wordQueue.poll(PIPELINE_POLL_MS, TimeUnit.MILLISECONDS);
+                    if (wordBatch == END_OF_WORDS) {
+                        return;
+                    }
+                    if (wordBatch != null) {
+                        bufferedWords.putAll(wordBatch.words);
+                        loopLines += wordBatch.lines;
+                        if (bufferedWords.size() > transactionCalculator.getTransactionSize()) {
+                            flushBuffer();
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                pipelineError.compareAndSet(null, e);
+            }
         }
     }
 
-    private void addLine(String line)
-            throws IOException
+    private static class WordBatch {
+        private final int lines;
+        private final Map<String,String> words;
+
+        private WordBatch(final int lines, final Map<String, String> words) {
+            this.lines = lines;
+            this.words = words;
+        }
+    }
+
+    private void addLine(String line, final Map<String,String> outputBuffer)
     {
         // check for word suitability
         line = rootWordlist.normalizeWord(line);
@@ -177,16 +404,20 @@ class Populator {
         }
 
         final Map<String,String> wordTxn = rootWordlist.getWriteTxnForValue(line);
-        bufferedWords.putAll(wordTxn);
+        outputBuffer.putAll(wordTxn);
     }
 
     private void flushBuffer()
-            throws LocalDBException
+            throws LocalDBException, IOException
     {
         final long startTime = System.currentTimeMillis();
 
         //add the elements
-        localDB.putAll(rootWordlist.getWordlistDB(), bufferedWords);
+        if (fileCompiler != null) {
+            fileCompiler.addAll(bufferedWords.keySet());
+        } else {
+            localDB.putAll(rootWordlist.getWordlistDB(), bufferedWords);
+        }
 
         if (abortFlag) {
             return;
@@ -216,8 +447,17 @@ class Populator {
             throws LocalDBException, PwmUnrecoverableException, IOException {
         flushBuffer();
         LOGGER.info(makeStatString());
-        LOGGER.trace("beginning wordlist size query");
-        final int wordlistSize = localDB.size(rootWordlist.getWordlistDB());
+
+        final String wordlistHash = Helper.binaryArrayToHex(checksumInputStream.closeAndFinalChecksum());
+
+        final int wordlistSize;
+        if (fileCompiler != null) {
+            LOGGER.trace("beginning wordlist file compilation");
+            wordlistSize = fileCompiler.finish(wordlistHash);
+        } else {
+            LOGGER.trace("beginning wordlist size query");
+            wordlistSize = localDB.size(rootWordlist.getWordlistDB());
+        }
         if (wordlistSize < 1) {
             throw new PwmUnrecoverableException(new ErrorInformation(PwmError.ERROR_UNKNOWN, rootWordlist.DEBUG_LABEL + " population completed, but no words stored"));
         }
@@ -226,9 +466,15 @@ class Populator {
         sb.append(rootWordlist.DEBUG_LABEL);
         sb.append(" population complete, added ").append(wordlistSize);
         sb.append(" total words in ").append(new TimeDuration(overallStats.getElapsedSeconds() * 1000).asCompactString());
+
+        if (fileCompiler == null) {
+            rootWordlist.buildBloomFilter(wordlistHash, wordlistSize);
+        }
+
         {
             StoredWordlistDataBean storedWordlistDataBean = new StoredWordlistDataBean();
-            storedWordlistDataBean.setSha1hash(Helper.binaryArrayToHex(checksumInputStream.closeAndFinalChecksum()));
+            storedWordlistDataBean.setSha1hash(wordlistHash);
+            storedWordlistDataBean.setStorageMode(rootWordlist.getStorageMode());
             storedWordlistDataBean.setSize(wordlistSize);
             storedWordlistDataBean.setStoreDate(new Date());
             if (!abortFlag) {
@@ -34,12 +34,13 @@ import password.pwm.util.secure.PwmRandom;
 
 import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class SeedlistManager extends AbstractWordlist implements Wordlist {
 
     private static final PwmLogger LOGGER = PwmLogger.forClass(SeedlistManager.class);
 
-    private int initialPopulationCounter = 0;
+    private final AtomicInteger initialPopulationCounter = new AtomicInteger(0);
 
     public SeedlistManager() {
     }
@@ -70,9 +71,7 @@ public class SeedlistManager extends AbstractWordlist implements Wordlist {
     }
 
     protected Map<String, String> getWriteTxnForValue(final String value) {
-        final Map<String, String> txItem = Collections.singletonMap(String.valueOf(initialPopulationCounter), value);
-        initialPopulationCounter++;
-        return txItem;
+        return Collections.singletonMap(String.valueOf(initialPopulationCounter.getAndIncrement()), value);
     }
 
     public void init(final PwmApplication pwmApplication) throws PwmException {
@@ -91,6 +90,12 @@ public class SeedlistManager extends AbstractWordlist implements Wordlist {
         t.start();
     }
 
+    @Override
+    protected boolean isBloomFilterEnabled() {
+        // seedlist is only read by random index, never by containsWord()
+        return false;
+    }
+
     @Override
     protected PwmApplication.AppAttribute getMetaDataAppAttribute() {
         return PwmApplication.AppAttribute.SEEDLIST_METADATA;
@@ -368,12 +368,12 @@ public class SharedHistoryManager implements PwmService {
             throws PwmException
     {
         settings.maxAgeMs = 1000 *  pwmApplication.getConfig().readSettingAsLong(PwmSetting.PASSWORD_SHAREDHISTORY_MAX_AGE); // convert to MS;
-        settings.caseInsensitive = Boolean.parseBoolean(pwmApplication.getConfig().readAppProperty(AppProperty.SECURITY_SHAREDHISTORY_CASE_INSENSITIVE));
+        settings.caseInsensitive = pwmApplication.getConfig().readAppPropertyAsBoolean(AppProperty.SECURITY_SHAREDHISTORY_CASE_INSENSITIVE);
         settings.hashName = pwmApplication.getConfig().readAppProperty(AppProperty.SECURITY_SHAREDHISTORY_HASH_NAME);
-        settings.hashIterations = Integer.parseInt(pwmApplication.getConfig().readAppProperty(AppProperty.SECURITY_SHAREDHISTORY_HASH_ITERATIONS));
+        settings.hashIterations = pwmApplication.getConfig().readAppPropertyAsInt(AppProperty.SECURITY_SHAREDHISTORY_HASH_ITERATIONS);
         settings.version = "2" + "_" + settings.hashName + "_" + settings.hashIterations + "_" + settings.caseInsensitive;
 
-        final int SALT_LENGTH = Integer.parseInt(pwmApplication.getConfig().readAppProperty(AppProperty.SECURITY_SHAREDHISTORY_SALT_LENGTH));
+        final int SALT_LENGTH = pwmApplication.getConfig().readAppPropertyAsInt(AppProperty.SECURITY_SHAREDHISTORY_SALT_LENGTH);
         this.localDB = pwmApplication.getLocalDB();
 
         boolean needsClearing = false;
@@ -0,0 +1,449 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://code.google.com/p/pwm/
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2015 The PWM Project
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package password.pwm.svc.wordlist;
+
+import password.pwm.PwmConstants;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.util.*;
+
+/**
+ * Immutable, memory-mapped wordlist file.  Words are stored sorted and prefix-compressed in fixed size blocks, with a
+ * sparse index of the first word of each block held in memory.  A lookup is a binary search of the index followed by
+ * a scan of a single block.
+ * <p/>
+ * File layout: a fixed size header, the data blocks, then the block index.  Blocks never span a mapped segment
+ * boundary, so files larger than a single {@link MappedByteBuffer} can be mapped in several segments.
+ */
+class SortedWordlistFile {
+
+    private static final int MAGIC = 0x50574d57;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 128;
+    private static final int WORDS_PER_BLOCK = 64;
+    private static final long SEGMENT_SIZE = 1L << 30;
+    private static final int MAX_HASH_LENGTH = 96;
+
+    private final File file;
+    private final String wordlistHash;
+    private final int wordCount;
+    private final String[] blockFirstWords;
+    private final long[] blockOffsets;
+    private final MappedByteBuffer[] segments;
+
+    private SortedWordlistFile(
+            final File file,
+            final String wordlistHash,
+            final int wordCount,
+            final String[] blockFirstWords,
+            final long[] blockOffsets,
+            final MappedByteBuffer[] segments
+    ) {
+        this.file = file;
+        this.wordlistHash = wordlistHash;
+        this.wordCount = wordCount;
+        this.blockFirstWords = blockFirstWords;
+        this.blockOffsets = blockOffsets;
+        this.segments = segments;
+    }
+
+    static SortedWordlistFile open(final File file) throws IOException {
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r")) {
+            if (randomAccessFile.readInt() != MAGIC) {
+                throw new IOException("file " + file.getAbsolutePath() + " is not a wordlist file");
+            }
+            if (randomAccessFile.readInt() != FORMAT_VERSION) {
+                throw new IOException("file " + file.getAbsolutePath() + " has an unsupported wordlist file version");
+            }
+            final long indexOffset = randomAccessFile.readLong();
+            final int wordCount = randomAccessFile.readInt();
+            final int blockCount = randomAccessFile.readInt();
+            final String wordlistHash = randomAccessFile.readUTF();
+
+            final FileChannel channel = randomAccessFile.getChannel();
+            final int segmentCount = (int)((indexOffset + SEGMENT_SIZE - 1) / SEGMENT_SIZE);
+            final MappedByteBuffer[] segments = new MappedByteBuffer[segmentCount];
+            for (int i = 0; i < segmentCount; i++) {
+                final long segmentStart = i * SEGMENT_SIZE;
+                final long segmentLength = Math.min(SEGMENT_SIZE, indexOffset - segmentStart);
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, segmentStart, segmentLength);
+            }
+
+            final String[] blockFirstWords = new String[blockCount];
+            final long[] blockOffsets = new long[blockCount];
+            channel.position(indexOffset);
+            final DataInputStream indexStream = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+            for (int i = 0; i < blockCount; i++) {
+                blockOffsets[i] = indexStream.readLong();
+                blockFirstWords[i] = indexStream.readUTF();
+            }
+
+            return new SortedWordlistFile(file, wordlistHash, wordCount, blockFirstWords, blockOffsets, segments);
+        }
+    }
+
+    /**
+     * @return the wordlist checksum recorded when the file was compiled, or null if the file is missing or unreadable.
+     */
+    static String readWordlistHash(final File file) {
+        if (file == null || !file.exists()) {
+            return null;
+        }
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r")) {
+            if (randomAccessFile.readInt() != MAGIC || randomAccessFile.readInt() != FORMAT_VERSION) {
+                return null;
+            }
+            randomAccessFile.readLong();
+            randomAccessFile.readInt();
+            randomAccessFile.readInt();
+            return randomAccessFile.readUTF();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    boolean contains(final String word) {
+        int low = 0;
+        int high = blockFirstWords.length - 1;
+        int block = -1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final int result = blockFirstWords[mid].compareTo(word);
+            if (result == 0) {
+                return true;
+            } else if (result < 0) {
+                block = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+
+        if (block < 0) {
+            return false;
+        }
+
+        final long offset = blockOffsets[block];
+        final ByteBuffer buffer = segments[(int)(offset / SEGMENT_SIZE)].duplicate();
+        buffer.position((int)(offset % SEGMENT_SIZE));
+
+        final int remainingWords = readVarInt(buffer);
+        String previousWord = blockFirstWords[block];
+        for (int i = 0; i < remainingWords; i++) {
+            final int prefixLength = readVarInt(buffer);
+            final int suffixLength = readVarInt(buffer);
+            final byte[] suffixBytes = new byte[suffixLength];
+            buffer.get(suffixBytes);
+            final String currentWord = previousWord.substring(0, prefixLength) + new String(suffixBytes, PwmConstants.DEFAULT_CHARSET);
+            final int result = currentWord.compareTo(word);
+            if (result == 0) {
+                return true;
+            } else if (result > 0) {
+                return false;
+            }
+            previousWord = currentWord;
+        }
+        return false;
+    }
+
+    String getWordlistHash() {
+        return wordlistHash;
+    }
+
+    int size() {
+        return wordCount;
+    }
+
+    long fileSize() {
+        return file.length();
+    }
+
+    private static int readVarInt(final ByteBuffer buffer) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (b & 0x7f) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private static void writeVarInt(final OutputStream outputStream, int value) throws IOException {
+        while ((value & ~0x7f) != 0) {
+            outputStream.write((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        outputStream.write(value);
+    }
+
+    /**
+     * Compiles an unsorted stream of words into a {@link SortedWordlistFile}.  Words are buffered in memory up to a
+     * limit and then spilled to sorted temporary run files, which are merged (and de-duplicated) when
+     * {@link #finish(String)} is called, so the wordlist never needs to fit in memory.
+     */
+    static class Compiler {
+        private final File targetFile;
+        private final int maxBufferedWords;
+
+        private final TreeSet<String> buffer = new TreeSet<>();
+        private final List<File> runFiles = new ArrayList<>();
+
+        Compiler(final File targetFile, final int maxBufferedWords) {
+            this.targetFile = targetFile;
+            this.maxBufferedWords = maxBufferedWords;
+        }
+
+        void addAll(final Collection<String> words) throws IOException {
+            buffer.addAll(words);
+            if (buffer.size() >= maxBufferedWords) {
+                spillBuffer();
+            }
+        }
+
+        /**
+         * @return the number of distinct words written to the file.
+         */
+        int finish(final String wordlistHash) throws IOException {
+            if (wordlistHash != null && wordlistHash.length() > MAX_HASH_LENGTH) {
+                throw new IllegalArgumentException("wordlist hash is too long to store in the file header");
+            }
+            spillBuffer();
+
+            final File tempFile = new File(targetFile.getAbsolutePath() + ".tmp");
+            final int wordCount;
+            try {
+                wordCount = mergeRuns(tempFile, wordlistHash);
+            } finally {
+                deleteRunFiles();
+            }
+
+            if (targetFile.exists() && !targetFile.delete()) {
+                throw new IOException("unable to remove existing wordlist file " + targetFile.getAbsolutePath());
+            }
+            if (!tempFile.renameTo(targetFile)) {
+                throw new IOException("unable to rename wordlist file " + tempFile.getAbsolutePath() + " to " + targetFile.getAbsolutePath());
+            }
+            return wordCount;
+        }
+
+        void abort() {
+            buffer.clear();
+            deleteRunFiles();
+        }
+
+        private void spillBuffer() throws IOException {
+            if (buffer.isEmpty()) {
+                return;
+            }
+            final File runFile = new File(targetFile.getAbsolutePath() + ".run" + runFiles.size());
+            runFiles.add(runFile);
+            try (DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(runFile)))) {
+                outputStream.writeInt(buffer.size());
+                for (final String word : buffer) {
+                    outputStream.writeUTF(word);
+                }
+            }
+            buffer.clear();
+        }
+
+        private void deleteRunFiles() {
+            for (final File runFile : runFiles) {
+                if (runFile.exists() && !runFile.delete()) {
+                    runFile.deleteOnExit();
+                }
+            }
+            runFiles.clear();
+        }
+
+        private int mergeRuns(final File outputFile, final String wordlistHash) throws IOException {
+            final PriorityQueue<RunReader> queue = new PriorityQueue<>();
+            final List<RunReader> readers = new ArrayList<>();
+            try {
+                for (final File runFile : runFiles) {
+                    final RunReader runReader = new RunReader(runFile);
+                    readers.add(runReader);
+                    if (runReader.advance()) {
+                        queue.add(runReader);
+                    }
+                }
+
+                try (BlockWriter blockWriter = new BlockWriter(outputFile)) {
+                    String lastWord = null;
+                    while (!queue.isEmpty()) {
+                        final RunReader runReader = queue.poll();
+                        final String word = runReader.current;
+                        if (!word.equals(lastWord)) {
+                            blockWriter.addWord(word);
+                            lastWord = word;
+                        }
+                        if (runReader.advance()) {
+                            queue.add(runReader);
+                        }
+                    }
+                    return blockWriter.finish(wordlistHash);
+                }
+            } finally {
+                for (final RunReader runReader : readers) {
+                    runReader.close();
+                }
+            }
+        }
+    }
+
+    private static class RunReader implements Comparable<RunReader> {
+        private final DataInputStream inputStream;
+        private int remaining;
+        private String current;
+
+        private RunReader(final File runFile) throws IOException {
+            inputStream = new DataInputStream(new BufferedInputStream(new FileInputStream(runFile)));
+            remaining = inputStream.readInt();
+        }
+
+        private boolean advance() throws IOException {
+            if (remaining <= 0) {
+                current = null;
+                return false;
+            }
+            current = inputStream.readUTF();
+            remaining--;
+            return true;
+        }
+
+        private void close() {
+            try {
+                inputStream.close();
+            } catch (IOException e) { /* do nothing */ }
+        }
+
+        @Override
+        public int compareTo(final RunReader o) {
+            return current.compareTo(o.current);
+        }
+    }
+
+    private static class BlockWriter implements Closeable {
+        private final File outputFile;
+        private final OutputStream outputStream;
+        private final List<String> blockWords = new ArrayList<>(WORDS_PER_BLOCK);
+        private final List<String> blockFirstWords = new ArrayList<>();
+        private final List<Long> blockOffsets = new ArrayList<>();
+
+        private long position;
+        private int wordCount;
+
+        private BlockWriter(final File outputFile) throws IOException {
+            this.outputFile = outputFile;
+            this.outputStream = new BufferedOutputStream(new FileOutputStream(outputFile));
+            outputStream.write(new byte[HEADER_SIZE]);
+            position = HEADER_SIZE;
+        }
+
+        private void addWord(final String word) throws IOException {
+            blockWords.add(word);
+            wordCount++;
+            if (blockWords.size() >= WORDS_PER_BLOCK) {
+                writeBlock();
+            }
+        }
+
+        private void writeBlock() throws IOException {
+            if (blockWords.isEmpty()) {
+                return;
+            }
+
+            final ByteArrayOutputStream blockBytes = new ByteArrayOutputStream();
+            writeVarInt(blockBytes, blockWords.size() - 1);
+            String previousWord = blockWords.get(0);
+            for (int i = 1; i < blockWords.size(); i++) {
+                final String word = blockWords.get(i);
+                final int prefixLength = commonPrefixLength(previousWord, word);
+                final byte[] suffixBytes = word.substring(prefixLength).getBytes(PwmConstants.DEFAULT_CHARSET);
+                writeVarInt(blockBytes, prefixLength);
+                writeVarInt(blockBytes, suffixBytes.length);
+                blockBytes.write(suffixBytes);
+                previousWord = word;
+            }
+
+            // never let a block straddle a mapped segment boundary
+            final long segmentRemaining = SEGMENT_SIZE - (position % SEGMENT_SIZE);
+            if (blockBytes.size() > segmentRemaining) {
+                outputStream.write(new byte[(int)segmentRemaining]);
+                position += segmentRemaining;
+            }
+
+            blockFirstWords.add(blockWords.get(0));
+            blockOffsets.add(position);
+            blockBytes.writeTo(outputStream);
+            position += blockBytes.size();
+            blockWords.clear();
+        }
+
+        private int finish(final String wordlistHash) throws IOException {
+            writeBlock();
+
+            final long indexOffset = position;
+            final DataOutputStream indexStream = new DataOutputStream(outputStream);
+            for (int i = 0; i < blockFirstWords.size(); i++) {
+                indexStream.writeLong(blockOffsets.get(i));
+                indexStream.writeUTF(blockFirstWords.get(i));
+            }
+            indexStream.flush();
+            outputStream.close();
+
+            try (RandomAccessFile randomAccessFile = new RandomAccessFile(outputFile, "rw")) {
+                randomAccessFile.writeInt(MAGIC);
+                randomAccessFile.writeInt(FORMAT_VERSION);
+                randomAccessFile.writeLong(indexOffset);
+                randomAccessFile.writeInt(wordCount);
+                randomAccessFile.writeInt(blockFirstWords.size());
+                randomAccessFile.writeUTF(wordlistHash == null ? "" : wordlistHash);
+            }
+            return wordCount;
+        }
+
+        @Override
+        public void close() throws IOException {
+            outputStream.close();
+        }
+
+        private static int commonPrefixLength(final String word1, final String word2) {
+            final int maxLength = Math.min(word1.length(), word2.length());
+            int length = 0;
+            while (length < maxLength && word1.charAt(length) == word2.charAt(length)) {
+                length++;
+            }
+            // don't split a surrogate pair between the prefix and the encoded suffix
+            if (length > 0 && Character.isHighSurrogate(word1.charAt(length - 1))) {
+                length--;
+            }
+            return length;
+        }
+    }
+}
@@ -9,6 +9,7 @@ public class StoredWordlistDataBean implements Serializable {
     private Date storeDate;
     private String sha1hash;
     private int size;
+    private WordlistConfiguration.StorageMode storageMode;
 
     public boolean isCompleted() {
         return completed;
@@ -49,4 +50,12 @@ public class StoredWordlistDataBean implements Serializable {
     public void setSize(int size) {
         this.size = size;
     }
+
+    public WordlistConfiguration.StorageMode getStorageMode() {
+        return storageMode == null ? WordlistConfiguration.StorageMode.LOCALDB : storageMode;
+    }
+
+    public void setStorageMode(WordlistConfiguration.StorageMode storageMode) {
+        this.storageMode = storageMode;
+    }
 }
@@ -0,0 +1,219 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://code.google.com/p/pwm/
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2015 The PWM Project
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package password.pwm.svc.wordlist;
+
+import java.io.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory bloom filter placed in front of the LocalDB wordlist lookups.  A negative answer from
+ * {@link #mightContain(String)} is authoritative, so the LocalDB read can be skipped entirely.  A positive
+ * answer must still be confirmed against the LocalDB.
+ * <p/>
+ * The filter is persisted to a file alongside the LocalDB, and is tagged with the checksum of the wordlist
+ * it was built from so a stale filter is never loaded.
+ */
+class WordlistBloomFilter {
+
+    // version 2 computes bit indexes with 64 bit arithmetic, so version 1 files are rebuilt
+    private static final int FILE_FORMAT_VERSION = 2;
+    private static final int MAX_HASH_FUNCTIONS = 16;
+
+    private final long[] bits;
+    private final long bitCount;
+    private final int hashCount;
+    private final String wordlistHash;
+
+    private long elementCount;
+
+    private final AtomicLong negativeCount = new AtomicLong(0);
+    private final AtomicLong positiveCount = new AtomicLong(0);
+
+    private WordlistBloomFilter(
+            final long[] bits,
+            final int hashCount,
+            final long elementCount,
+            final String wordlistHash
+    ) {
+        this.bits = bits;
+        this.bitCount = (long)bits.length * 64;
+        this.hashCount = hashCount;
+        this.elementCount = elementCount;
+        this.wordlistHash = wordlistHash;
+    }
+
+    /**
+     * @param expectedElements number of distinct values that will be added
+     * @param falsePositiveRate desired false positive rate, used to size the filter
+     * @param maxSizeBytes upper bound on the filter's memory use; if the desired rate requires more, the filter is
+     *                     capped and the effective false positive rate will be higher
+     * @param wordlistHash checksum of the wordlist the filter is built from
+     */
+    static WordlistBloomFilter create(
+            final long expectedElements,
+            final double falsePositiveRate,
+            final long maxSizeBytes,
+            final String wordlistHash
+    ) {
+        final long elements = Math.max(1, expectedElements);
+        final double fpp = falsePositiveRate <= 0 || falsePositiveRate >= 1 ? 0.01 : falsePositiveRate;
+
+        final long optimalBits = (long)Math.ceil(-elements * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        final long maxLongs = Math.max(1, Math.min(Integer.MAX_VALUE - 8, maxSizeBytes / 8));
+        final int longCount = (int)Math.min(maxLongs, Math.max(1, (optimalBits + 63) / 64));
+        final int optimalHashes = (int)Math.round(((double)longCount * 64 / elements) * Math.log(2));
+        final int hashCount = Math.max(1, Math.min(MAX_HASH_FUNCTIONS, optimalHashes));
+
+        return new WordlistBloomFilter(new long[longCount], hashCount, 0, wordlistHash);
+    }
+
+    void add(final String value) {
+        final long hash64 = hash64(value);
+        final int hash2 = (int)(hash64 >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            final long bitIndex = bitIndex(hash64, hash2, i);
+            bits[(int)(bitIndex >>> 6)] |= 1L << bitIndex;
+        }
+        elementCount++;
+    }
+
+    boolean mightContain(final String value) {
+        final long hash64 = hash64(value);
+        final int hash2 = (int)(hash64 >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            final long bitIndex = bitIndex(hash64, hash2, i);
+            if ((bits[(int)(bitIndex >>> 6)] & (1L << bitIndex)) == 0) {
+                negativeCount.incrementAndGet();
+                return false;
+            }
+        }
+        positiveCount.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Combined in 64 bits so indexes reach the whole filter when it holds more than 2^31 bits.
+     */
+    private long bitIndex(final long hash64, final int hash2, final int i) {
+        return ((hash64 + (long)i * hash2) & Long.MAX_VALUE) % bitCount;
+    }
+
+    String getWordlistHash() {
+        return wordlistHash;
+    }
+
+    long getElementCount() {
+        return elementCount;
+    }
+
+    long getSizeInBytes() {
+        return (long)bits.length * 8;
+    }
+
+    int getHashCount() {
+        return hashCount;
+    }
+
+    long getNegativeCount() {
+        return negativeCount.get();
+    }
+
+    long getPositiveCount() {
+        return positiveCount.get();
+    }
+
+    /**
+     * @return the theoretical false positive rate, based on the actual number of elements added to the filter.
+     */
+    double expectedFalsePositiveRate() {
+        return Math.pow(1 - Math.exp(-hashCount * (double)elementCount / bitCount), hashCount);
+    }
+
+    void write(final File file) throws IOException {
+        final File tempFile = new File(file.getAbsolutePath() + ".tmp");
+        try (DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+            outputStream.writeInt(FILE_FORMAT_VERSION);
+            outputStream.writeUTF(wordlistHash == null ? "" : wordlistHash);
+            outputStream.writeInt(hashCount);
+            outputStream.writeLong(elementCount);
+            outputStream.writeInt(bits.length);
+            for (final long value : bits) {
+                outputStream.writeLong(value);
+            }
+        }
+        if (file.exists() && !file.delete()) {
+            throw new IOException("unable to remove existing bloom filter file " + file.getAbsolutePath());
+        }
+        if (!tempFile.renameTo(file)) {
+            throw new IOException("unable to rename bloom filter file " + tempFile.getAbsolutePath() + " to " + file.getAbsolutePath());
+        }
+    }
+
+    /**
+     * @return the stored filter, or null if the file does not exist or was built from a different wordlist.
+     */
+    static WordlistBloomFilter read(final File file, final String expectedWordlistHash) throws IOException {
+        if (file == null || !file.exists()) {
+            return null;
+        }
+
+        try (DataInputStream inputStream = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (inputStream.readInt() != FILE_FORMAT_VERSION) {
+                return null;
+            }
+            final String storedHash = inputStream.readUTF();
+            if (expectedWordlistHash == null || !expectedWordlistHash.equals(storedHash)) {
+                return null;
+            }
+            final int hashCount = inputStream.readInt();
+            final long elementCount = inputStream.readLong();
+            final int longCount = inputStream.readInt();
+            if (hashCount < 1 || hashCount > MAX_HASH_FUNCTIONS || longCount < 1) {
+                return null;
+            }
+            final long[] bits = new long[longCount];
+            for (int i = 0; i < longCount; i++) {
+                bits[i] = inputStream.readLong();
+            }
+            return new WordlistBloomFilter(bits, hashCount, elementCount, storedHash);
+        }
+    }
+
+    /**
+     * 64 bit FNV-1a over the string's chars, followed by the murmur3 finalizer to spread the bits.  Must remain
+     * stable across releases since the resulting bit positions are persisted.
+     */
+    private static long hash64(final String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -25,15 +25,33 @@ package password.pwm.svc.wordlist;
 import java.io.Serializable;
 
 public class WordlistConfiguration implements Serializable {
+
+    public enum StorageMode {
+        /** words are stored as individual LocalDB records */
+        LOCALDB,
+        /** words are compiled into an immutable, memory-mapped sorted file */
+        MAPPED_FILE,
+    }
+
     final private boolean caseSensitive;
     final private int checkSize;
+    final private StorageMode storageMode;
 
     public WordlistConfiguration(
             final boolean caseSensitive,
             final int checkSize
+    ) {
+        this(caseSensitive, checkSize, StorageMode.LOCALDB);
+    }
+
+    public WordlistConfiguration(
+            final boolean caseSensitive,
+            final int checkSize,
+            final StorageMode storageMode
     ) {
         this.caseSensitive = caseSensitive;
         this.checkSize = checkSize;
+        this.storageMode = storageMode == null ? StorageMode.LOCALDB : storageMode;
     }
 
     public boolean isCaseSensitive() {
@@ -43,4 +61,8 @@ public class WordlistConfiguration implements Serializable {
     public int getCheckSize() {
         return checkSize;
     }
+
+    public StorageMode getStorageMode() {
+        return storageMode;
+    }
 }
@@ -60,7 +60,12 @@ public class WordlistManager extends AbstractWordlist implements Wordlist {
         super.init(pwmApplication);
         final boolean caseSensitive = pwmApplication.getConfig().readSettingAsBoolean(PwmSetting.WORDLIST_CASE_SENSITIVE);
         final int checkSize = (int)pwmApplication.getConfig().readSettingAsLong(PwmSetting.PASSWORD_WORDLIST_WORDSIZE);
-        final WordlistConfiguration wordlistConfiguration = new WordlistConfiguration(caseSensitive, checkSize);
+        final WordlistConfiguration.StorageMode storageMode = Helper.readEnumFromString(
+                WordlistConfiguration.StorageMode.class,
+                WordlistConfiguration.StorageMode.LOCALDB,
+                pwmApplication.getConfig().readAppProperty(AppProperty.WORDLIST_STORAGE_MODE)
+        );
+        final WordlistConfiguration wordlistConfiguration = new WordlistConfiguration(caseSensitive, checkSize, storageMode);
 
         this.DEBUG_LABEL = PwmConstants.PWM_APP_NAME + "-Wordlist";
 
@@ -24,6 +24,8 @@ package password.pwm.util;
 
 import password.pwm.error.PwmDataStoreException;
 
+import java.util.Collection;
+
 public interface DataStore {
     public static enum Status {
         NEW, OPEN, CLOSED
@@ -49,6 +51,9 @@ public interface DataStore {
     boolean remove(String key)
             throws PwmDataStoreException;
 
+    void removeAll(Collection<String> keys)
+            throws PwmDataStoreException;
+
     int size()
             throws PwmDataStoreException;
 }
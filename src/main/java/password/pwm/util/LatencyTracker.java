@@ -0,0 +1,65 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://code.google.com/p/pwm/
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2015 The PWM Project
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package password.pwm.util;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the most recent operation durations to report latency percentiles.
+ */
+public class LatencyTracker {
+    private final long[] samples;
+    private int position = 0;
+    private int count = 0;
+
+    public LatencyTracker(final int maxSamples) {
+        samples = new long[maxSamples];
+    }
+
+    public synchronized void recordLatency(final long latencyMs) {
+        samples[position] = latencyMs;
+        position = (position + 1) % samples.length;
+        count = Math.min(count + 1, samples.length);
+    }
+
+    /**
+     * @param percentile percentile between 0 and 100
+     * @return latency in ms at the given percentile, or -1 if no samples have been recorded
+     */
+    public long percentile(final int percentile) {
+        final long[] sortedSamples;
+        synchronized (this) {
+            if (count == 0) {
+                return -1;
+            }
+            sortedSamples = Arrays.copyOf(samples, count);
+        }
+        Arrays.sort(sortedSamples);
+        final int index = (int)Math.ceil(percentile / 100.0 * sortedSamples.length) - 1;
+        return sortedSamples[Math.max(0, Math.min(index, sortedSamples.length - 1))];
+    }
+
+    public String debugString() {
+        return "p50=" + percentile(50) + "ms p95=" + percentile(95) + "ms p99=" + percentile(99) + "ms";
+    }
+}
@@ -175,8 +175,8 @@ public class RandomPasswordGenerator {
         final PwmPasswordRuleValidator pwmPasswordRuleValidator = new PwmPasswordRuleValidator(pwmApplication, randomGenPolicy);
 
         // modify until it passes all the rules
-        final int MAX_TRY_COUNT = Integer.parseInt(pwmApplication.getConfig().readAppProperty(AppProperty.PASSWORD_RANDOMGEN_MAX_ATTEMPTS));
-        final int JITTER_COUNT = Integer.parseInt(pwmApplication.getConfig().readAppProperty(AppProperty.PASSWORD_RANDOMGEN_JITTER_COUNT));
+        final int MAX_TRY_COUNT = pwmApplication.getConfig().readAppPropertyAsInt(AppProperty.PASSWORD_RANDOMGEN_MAX_ATTEMPTS);
+        final int JITTER_COUNT = pwmApplication.getConfig().readAppPropertyAsInt(AppProperty.PASSWORD_RANDOMGEN_JITTER_COUNT);
         boolean validPassword = false;
         while (!validPassword && tryCount < MAX_TRY_COUNT) {
             tryCount++;
@@ -603,8 +603,7 @@ public class RandomPasswordGenerator {
     public static void validateSettings(final PwmApplication pwmApplication, final RandomGeneratorConfig randomGeneratorConfig)
             throws PwmUnrecoverableException
     {
-        final int maxLength = Integer.parseInt(
-                pwmApplication.getConfig().readAppProperty(AppProperty.PASSWORD_RANDOMGEN_MAX_LENGTH));
+        final int maxLength = pwmApplication.getConfig().readAppPropertyAsInt(AppProperty.PASSWORD_RANDOMGEN_MAX_LENGTH);
         if (randomGeneratorConfig.getMinimumLength() > maxLength) {
             throw new PwmUnrecoverableException(new ErrorInformation(
                     PwmError.ERROR_UNKNOWN,
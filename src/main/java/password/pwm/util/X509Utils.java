@@ -161,7 +161,7 @@ public abstract class X509Utils {
 
         public CertMatchingTrustManager(final Configuration config, final X509Certificate[] certificates) {
             this.certificates = certificates;
-            validateTimestamps = config != null && Boolean.parseBoolean(config.readAppProperty(AppProperty.SECURITY_CERTIFICATES_VALIDATE_TIMESTAMPS));
+            validateTimestamps = config != null && config.readAppPropertyAsBoolean(AppProperty.SECURITY_CERTIFICATES_VALIDATE_TIMESTAMPS);
         }
 
         @Override
@@ -143,7 +143,7 @@ public class ResponseStatsCommand extends AbstractCliCommand {
             final UserSearchEngine userSearchEngine = new UserSearchEngine(pwmApplication,null);
             final UserSearchEngine.SearchConfiguration searchConfiguration = new UserSearchEngine.SearchConfiguration();
             searchConfiguration.setEnableValueEscaping(false);
-            searchConfiguration.setSearchTimeout(Long.parseLong(pwmApplication.getConfig().readAppProperty(AppProperty.REPORTING_LDAP_SEARCH_TIMEOUT)));
+            searchConfiguration.setSearchTimeout(pwmApplication.getConfig().readAppPropertyAsLong(AppProperty.REPORTING_LDAP_SEARCH_TIMEOUT));
 
             searchConfiguration.setUsername("*");
             searchConfiguration.setEnableValueEscaping(false);
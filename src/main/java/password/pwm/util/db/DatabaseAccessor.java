@@ -27,6 +27,8 @@ import password.pwm.util.ClosableIterator;
 
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
+import java.util.Collection;
+import java.util.Date;
 import java.util.Map;
 
 public interface DatabaseAccessor {
@@ -86,4 +88,50 @@ public interface DatabaseAccessor {
     @DbOperation
     int size(DatabaseTable table) throws
             DatabaseException;
+
+    /**
+     * Write all entries in a single transaction using jdbc batches.
+     */
+    @DbOperation
+    @DbModifyOperation
+    void putAll(
+            DatabaseTable table,
+            Map<String,String> keyValueMap
+    )
+            throws DatabaseException;
+
+    /**
+     * @return values of the keys that exist in the table; missing keys are absent from the returned map.
+     */
+    @DbOperation
+    Map<String,String> getAll(
+            DatabaseTable table,
+            Collection<String> keys
+    )
+            throws DatabaseException;
+
+    /**
+     * @return number of rows removed
+     */
+    @DbOperation
+    @DbModifyOperation
+    int removeAll(
+            DatabaseTable table,
+            Collection<String> keys
+    )
+            throws DatabaseException;
+
+    /**
+     * Remove rows last written before the cutoff date with a single statement.  Only valid for tables where
+     * {@link DatabaseTable#isTimestamped()} is true.
+     *
+     * @return number of rows removed
+     */
+    @DbOperation
+    @DbModifyOperation
+    int removeOlderThan(
+            DatabaseTable table,
+            Date cutoffDate
+    )
+            throws DatabaseException;
 }
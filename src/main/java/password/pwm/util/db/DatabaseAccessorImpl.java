@@ -24,6 +24,7 @@ package password.pwm.util.db;
 
 import org.xeustechnologies.jcl.JarClassLoader;
 import org.xeustechnologies.jcl.JclObjectFactory;
+import password.pwm.AppProperty;
 import password.pwm.PwmAboutProperty;
 import password.pwm.PwmApplication;
 import password.pwm.PwmConstants;
@@ -47,11 +48,14 @@ import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.Serializable;
-import java.lang.reflect.Method;
 import java.sql.*;
 import java.util.*;
 
 /**
+ * Stores key/value pairs in a remote database.  Operations borrow a connection from a bounded
+ * {@link DatabaseConnectionPool} and use prepared statements cached on that connection.  Writes use a single
+ * upsert statement where the database vendor supports one.
+ *
  * @author Jason D. Rivard
  */
 public class DatabaseAccessorImpl implements PwmService, DatabaseAccessor {
@@ -60,9 +64,18 @@ public class DatabaseAccessorImpl implements PwmService, DatabaseAccessor {
     private static final PwmLogger LOGGER = PwmLogger.forClass(DatabaseAccessorImpl.class, true);
     private static final String KEY_COLUMN = "id";
     private static final String VALUE_COLUMN = "value";
+    private static final String TIMESTAMP_COLUMN = "record_time";
+    private static final String TIMESTAMP_COLUMN_TYPE = "NUMERIC(19)";
+
+    // rows per jdbc batch, and keys per IN clause of multi-key selects and deletes
+    private static final int MAX_BATCH_SIZE = 500;
+    private static final int MAX_IN_CLAUSE_KEYS = 50;
 
     private static final int KEY_COLUMN_LENGTH = PwmConstants.DATABASE_ACCESSOR_KEY_LENGTH;
 
+    // after the database rejects an upsert statement, separate update and insert statements are used for this long
+    private static final long UPSERT_SUSPEND_MS = 10 * 60 * 1000;
+
     private static final String KEY_TEST = "write-test-key";
     private static final String KEY_ENGINE_START_PREFIX = "engine-start-";
 
@@ -70,10 +83,29 @@ public class DatabaseAccessorImpl implements PwmService, DatabaseAccessor {
     private Driver driver;
     private String instanceID;
     private boolean traceLogging;
-    private volatile Connection connection;
+    private int maxConnections;
+    private long maxConnectionWaitMs;
+    private long connectionValidationIntervalMs;
+    private volatile DatabaseConnectionPool connectionPool;
+    private volatile UpsertMethod upsertMethod = UpsertMethod.UPDATE_THEN_INSERT;
+    private volatile long upsertSuspendedUntil = 0;
+    private final Map<DatabaseTable, TableSql> tableSql = new EnumMap<>(DatabaseTable.class);
+    private volatile Map<PwmAboutProperty,String> connectionDebugProperties = Collections.emptyMap();
     private volatile PwmService.STATUS status = PwmService.STATUS.NEW;
-    private ErrorInformation lastError;
+    private volatile ErrorInformation lastError;
     private PwmApplication pwmApplication;
+    private final LatencyTracker queryLatency = new LatencyTracker(1000);
+
+    /**
+     * Single statement insert-or-update forms, by database vendor.
+     */
+    private enum UpsertMethod {
+        MYSQL,
+        POSTGRESQL,
+        ORACLE,
+        MSSQL,
+        UPDATE_THEN_INSERT,
+    }
 
 // --------------------------- CONSTRUCTORS ---------------------------
 
@@ -120,6 +152,9 @@ public class DatabaseAccessorImpl implements PwmService, DatabaseAccessor {
 
         this.instanceID = pwmApplication == null ? null : pwmApplication.getInstanceID();
         this.traceLogging = config.readSettingAsBoolean(PwmSetting.DATABASE_DEBUG_TRACE);
+        this.maxConnections = config.readAppPropertyAsInt(AppProperty.DB_CONNECTION_POOL_MAX_SIZE);
+        this.maxConnectionWaitMs = config.readAppPropertyAsLong(AppProperty.DB_CONNECTION_POOL_MAX_WAIT_MS);
+        this.connectionValidationIntervalMs = config.readAppPropertyAsLong(AppProperty.DB_CONNECTION_POOL_VALIDATION_INTERVAL_MS);
 
         if (this.dbConfiguration.isEmpty()) {
             status = PwmService.STATUS.CLOSED;
@@ -130,9 +165,9 @@ public class DatabaseAccessorImpl implements PwmService, DatabaseAccessor {
     public void close()
     {
         status = PwmService.STATUS.CLOSED;
-        if (connection != null) {
+        if (connectionPool != null) {
             try {
-                connection.close();
+                connectionPool.close();
             } catch (Exception e) {
                 LOGGER.debug("error while closing DB: " + e.getMessage());
             }
@@ -144,7 +179,7 @@ public class DatabaseAccessorImpl implements PwmService, DatabaseAccessor {
             LOGGER.debug("error while de-registering driver: " + e.getMessage());
         }
 
-        connection = null;
+        connectionPool = null;
     }
 
     public List<HealthRecord> healthCheck() {
@@ -180,8 +215,17 @@ public class DatabaseAccessorImpl implements PwmService, DatabaseAccessor {
             }
         }
 
+        final DatabaseConnectionPool pool = connectionPool;
+        if (pool != null && pool.getLastBorrowTimeoutTimestamp() > 0) {
+            final TimeDuration timeoutAge = TimeDuration.fromCurrent(pool.getLastBorrowTimeoutTimestamp());
+            if (timeoutAge.isShorterThan(TimeDuration.HOUR)) {
+                returnRecords.add(new HealthRecord(HealthStatus.CAUTION, HealthTopic.Database, "Database connection pool was recently exhausted ("
+                        + timeoutAge.asLongString(PwmConstants.DEFAULT_LOCALE) + " ago), " + performanceDebugString()));
+            }
+        }
+
         if (returnRecords.isEmpty()) {
-            returnRecords.add(new HealthRecord(HealthStatus.GOOD, HealthTopic.Database, "Database connection to " + this.dbConfiguration.getConnectionString() + " okay"));
+            returnRecords.add(new HealthRecord(HealthStatus.GOOD, HealthTopic.Database, "Database connection to " + this.dbConfiguration.getConnectionString() + " okay, " + performanceDebugString()));
         }
 
         return returnRecords;
@@ -192,14 +236,48 @@ public class DatabaseAccessorImpl implements PwmService, DatabaseAccessor {
     private synchronized void init()
             throws DatabaseException
     {
-        status = PwmService.STATUS.OPENING;
+        if (status != PwmService.STATUS.NEW) {
+            return;
+        }
+
         LOGGER.debug("opening connection to database " + this.dbConfiguration.getConnectionString());
 
-        connection = openDB(dbConfiguration);
+        final DatabaseConnectionPool newPool = new DatabaseConnectionPool(
+                new DatabaseConnectionPool.ConnectionFactory() {
+                    @Override
+                    public Connection openConnection() throws DatabaseException {
+                        return openDB(dbConfiguration);
+                    }
+                },
+                maxConnections,
+                maxConnectionWaitMs,
+                connectionValidationIntervalMs
+        );
+
+        final DatabaseConnectionPool.PooledConnection pooledConnection = newPool.borrow();
+        boolean initialized = false;
+        try {
+            final Connection connection = pooledConnection.getConnection();
+            for (final DatabaseTable table : DatabaseTable.values()) {
+                initTable(connection, table, dbConfiguration);
+            }
+            connectionDebugProperties = getConnectionDebugProperties(connection);
+            upsertMethod = determineUpsertMethod(connection);
+            upsertSuspendedUntil = 0;
+            initialized = true;
+        } finally {
+            newPool.release(pooledConnection, false);
+            if (!initialized) {
+                newPool.close();
+            }
+        }
+
         for (final DatabaseTable table : DatabaseTable.values()) {
-            initTable(connection, table, dbConfiguration);
+            tableSql.put(table, new TableSql(table));
         }
+        LOGGER.debug("using " + upsertMethod + " statements for database writes, connection pool maximum size is " + newPool.getMaxConnections());
 
+        connectionPool = newPool;
         status = PwmService.STATUS.OPEN;
 
         try {
@@ -210,8 +288,11 @@ public class DatabaseAccessorImpl implements PwmService, DatabaseAccessor {
         }
     }
 
-    private Connection openDB(final DBConfiguration dbConfiguration) throws DatabaseException {
-        final String connectionURL = dbConfiguration.getConnectionString();
+    private synchronized void loadDriver(final DBConfiguration dbConfiguration) throws DatabaseException {
+        if (driver != null) {
+            return;
+        }
+
         final String jdbcClassName = dbConfiguration.getDriverClassname();
 
         try {
@@ -246,6 +327,13 @@ public class DatabaseAccessorImpl implements PwmService, DatabaseAccessor {
                 throw new DatabaseException(errorInformation);
             }
         }
+    }
+
+    private Connection openDB(final DBConfiguration dbConfiguration) throws DatabaseException {
+        final String connectionURL = dbConfiguration.getConnectionString();
+        final String jdbcClassName = dbConfiguration.getDriverClassname();
+
+        loadDriver(dbConfiguration);
 
         try {
             LOGGER.debug("opening connection to database " + connectionURL);
@@ -257,9 +345,11 @@ public class DatabaseAccessorImpl implements PwmService, DatabaseAccessor {
                 connectionProperties.setProperty("password", dbConfiguration.getPassword().getStringValue());
             }
             final Connection connection = driver.connect(connectionURL, connectionProperties);
+            if (connection == null) {
+                throw new SQLException("driver " + jdbcClassName + " does not accept url " + connectionURL);
+            }
 
-
-            final Map<PwmAboutProperty,String> debugProps = getConnectionDebugProperties(connection);;
+            final Map<PwmAboutProperty,String> debugProps = getConnectionDebugProperties(connection);
             LOGGER.debug("successfully opened connection to database " + connectionURL + ", properties: " + JsonUtil.serializeMap(debugProps));
 
             connection.setAutoCommit(true);
@@ -325,6 +415,73 @@ public class DatabaseAccessorImpl implements PwmService, DatabaseAccessor {
                 }
             }
         }
+
+        if (table.isTimestamped()) {
+            initTimestampColumn(connection, table);
+        }
+    }
+
+    /**
+     * Add the timestamp column and its index to a table created by an older version, then stamp any rows without a
+     * timestamp with the current time, so they are purged one retention period later.  Rows are stamped on every
+     * start, which also covers an interrupted upgrade and rows written by an older version sharing the database.
+     */
+    private static void initTimestampColumn(final Connection connection, final DatabaseTable table) throws DatabaseException {
+        boolean columnExists = false;
+        try {
+            executeStatement(connection, "SELECT " + TIMESTAMP_COLUMN + " FROM " + table + " WHERE " + KEY_COLUMN + " = '0'");
+            columnExists = true;
+        } catch (SQLException e) { // assume error was due to column missing
+            LOGGER.debug("adding " + TIMESTAMP_COLUMN + " column to table " + table);
+        }
+
+        if (!columnExists) {
+            try {
+                try {
+                    executeStatement(connection, "ALTER TABLE " + table + " ADD " + TIMESTAMP_COLUMN + " " + TIMESTAMP_COLUMN_TYPE);
+                } catch (SQLException e) {
+                    // some databases require the optional COLUMN keyword
+                    executeStatement(connection, "ALTER TABLE " + table + " ADD COLUMN " + TIMESTAMP_COLUMN + " " + TIMESTAMP_COLUMN_TYPE);
+                }
+            } catch (SQLException e) {
+                final String errorMsg = "error adding " + TIMESTAMP_COLUMN + " column to table " + table + ": " + e.getMessage();
+                throw new DatabaseException(new ErrorInformation(PwmError.ERROR_DB_UNAVAILABLE, errorMsg));
+            }
+
+            final String indexName = table.toString() + "_TS_IDX";
+            try {
+                executeStatement(connection, "CREATE index " + indexName + " ON " + table + " (" + TIMESTAMP_COLUMN + ")");
+                LOGGER.debug("created index " + indexName);
+            } catch (SQLException e) {
+                LOGGER.error("error creating new index " + indexName + ": " + e.getMessage());
+            }
+        }
+
+        PreparedStatement statement = null;
+        try {
+            statement = connection.prepareStatement("UPDATE " + table + " SET " + TIMESTAMP_COLUMN + " = ? WHERE " + TIMESTAMP_COLUMN + " IS NULL");
+            statement.setLong(1, System.currentTimeMillis());
+            final int stampedCount = statement.executeUpdate();
+            if (stampedCount > 0) {
+                LOGGER.debug("stamped " + stampedCount + " rows without a " + TIMESTAMP_COLUMN + " value in table " + table);
+            }
+        } catch (SQLException e) {
+            final String errorMsg = "error stamping rows without a " + TIMESTAMP_COLUMN + " value in table " + table + ": " + e.getMessage();
+            throw new DatabaseException(new ErrorInformation(PwmError.ERROR_DB_UNAVAILABLE, errorMsg));
+        } finally {
+            close(statement);
+        }
+    }
+
+    private static void executeStatement(final Connection connection, final String sqlText) throws SQLException {
+        LOGGER.trace("attempting to execute the following sql statement:\n " + sqlText);
+        Statement statement = null;
+        try {
+            statement = connection.createStatement();
+            statement.execute(sqlText);
+        } finally {
+            close(statement);
+        }
     }
 
     private static void checkIfTableExists(final Connection connection, final DatabaseTable table) throws SQLException {
@@ -349,43 +506,21 @@ public class DatabaseAccessorImpl implements PwmService, DatabaseAccessor {
     )
             throws DatabaseException {
 
-        preOperationCheck();
         if (traceLogging) {
             LOGGER.trace("attempting put operation for table=" + table + ", key=" + key);
         }
-        if (!contains(table, key)) {
-            final String sqlText = "INSERT INTO " + table.toString() + "(" + KEY_COLUMN + ", " + VALUE_COLUMN + ") VALUES(?,?)";
-            PreparedStatement statement = null;
-
-            try {
-                statement = connection.prepareStatement(sqlText);
-                statement.setString(1, key);
-                statement.setString(2, value);
-                statement.executeUpdate();
-            } catch (SQLException e) {
-                final ErrorInformation errorInformation = new ErrorInformation(PwmError.ERROR_DB_UNAVAILABLE,"put operation failed: " + e.getMessage());
-                lastError = errorInformation;
-                throw new DatabaseException(errorInformation);
-            } finally {
-                close(statement);
-            }
-            return false;
-        }
-
-        final String sqlText = "UPDATE " + table.toString() + " SET " + VALUE_COLUMN + "=? WHERE " + KEY_COLUMN + "=?";
-        PreparedStatement statement = null;
 
+        final DatabaseConnectionPool.PooledConnection pooledConnection = borrowConnection();
+        final long startTime = System.currentTimeMillis();
+        boolean discardConnection = false;
+        final boolean existed;
         try {
-            statement = connection.prepareStatement(sqlText);
-            statement.setString(1, value);
-            statement.setString(2, key);
-            statement.executeUpdate();
+            existed = executePut(pooledConnection, table, key, value);
         } catch (SQLException e) {
-            final ErrorInformation errorInformation = new ErrorInformation(PwmError.ERROR_DB_UNAVAILABLE,"put operation failed: " + e.getMessage());
-            lastError = errorInformation;
-            throw new DatabaseException(errorInformation);
+            discardConnection = true;
+            throw makeOperationError("put", e);
         } finally {
-            close(statement);
+            releaseConnection(pooledConnection, discardConnection, startTime);
         }
 
         if (traceLogging) {
@@ -393,14 +528,174 @@ public class DatabaseAccessorImpl implements PwmService, DatabaseAccessor {
             debugOutput.put("table",table);
             debugOutput.put("key",key);
             debugOutput.put("value",value);
+            debugOutput.put("existed",existed);
             LOGGER.trace("put operation result: " + JsonUtil.serializeMap(debugOutput, JsonUtil.Flag.PrettyPrint));
         }
 
         updateStats(false,true);
-        return true;
+        return existed;
     }
 
-    private synchronized void preOperationCheck() throws DatabaseException {
+    /**
+     * @return true if the key existed before the put.  Only the MySQL upsert reports whether it inserted or updated a
+     * row, so with other vendors an update is tried first and the upsert is used only when no row was updated.
+     */
+    private boolean executePut(
+            final DatabaseConnectionPool.PooledConnection pooledConnection,
+            final DatabaseTable table,
+            final String key,
+            final String value
+    )
+            throws SQLException
+    {
+        final TableSql sql = tableSql.get(table);
+        final UpsertMethod method = currentUpsertMethod();
+        final long timestamp = System.currentTimeMillis();
+
+        if (method != UpsertMethod.UPDATE_THEN_INSERT) {
+            if (method != UpsertMethod.MYSQL && executeUpdate(pooledConnection, sql, key, value, timestamp)) {
+                return true;
+            }
+            try {
+                final PreparedStatement statement = pooledConnection.prepareStatement(sql.upsert(method));
+                bindInsertParameters(statement, sql, key, value, timestamp);
+                final int rowCount = statement.executeUpdate();
+                // mysql reports 1 for an inserted row, 2 for an updated row and 0 for an unchanged row
+                return method == UpsertMethod.MYSQL && rowCount != 1;
+            } catch (SQLException e) {
+                if (!isSyntaxError(method, e)) {
+                    throw e;
+                }
+                suspendUpsert(method, e);
+            }
+        }
+
+        return executeUpdateThenInsert(pooledConnection, sql, key, value, timestamp);
+    }
+
+    private static boolean executeUpdateThenInsert(
+            final DatabaseConnectionPool.PooledConnection pooledConnection,
+            final TableSql sql,
+            final String key,
+            final String value,
+            final long timestamp
+    )
+            throws SQLException
+    {
+        if (executeUpdate(pooledConnection, sql, key, value, timestamp)) {
+            return true;
+        }
+
+        try {
+            final PreparedStatement statement = pooledConnection.prepareStatement(sql.insert);
+            bindInsertParameters(statement, sql, key, value, timestamp);
+            statement.executeUpdate();
+            return false;
+        } catch (SQLException e) {
+            // another writer inserted the key since the update was attempted
+            if (isDuplicateKeyError(e) && executeUpdate(pooledConnection, sql, key, value, timestamp)) {
+                return true;
+            }
+            throw e;
+        }
+    }
+
+    private static boolean executeUpdate(
+            final DatabaseConnectionPool.PooledConnection pooledConnection,
+            final TableSql sql,
+            final String key,
+            final String value,
+            final long timestamp
+    )
+            throws SQLException
+    {
+        final PreparedStatement statement = pooledConnection.prepareStatement(sql.update);
+        bindUpdateParameters(statement, sql, key, value, timestamp);
+        return statement.executeUpdate() > 0;
+    }
+
+    /**
+     * Bind parameters of the insert and upsert statements: key, value and, for timestamped tables, the write time.
+     */
+    private static void bindInsertParameters(
+            final PreparedStatement statement,
+            final TableSql sql,
+            final String key,
+            final String value,
+            final long timestamp
+    )
+            throws SQLException
+    {
+        statement.setString(1, key);
+        statement.setString(2, value);
+        if (sql.timestamped) {
+            statement.setLong(3, timestamp);
+        }
+    }
+
+    /**
+     * Bind parameters of the update statement: value, the write time for timestamped tables, then key.
+     */
+    private static void bindUpdateParameters(
+            final PreparedStatement statement,
+            final TableSql sql,
+            final String key,
+            final String value,
+            final long timestamp
+    )
+            throws SQLException
+    {
+        statement.setString(1, value);
+        if (sql.timestamped) {
+            statement.setLong(2, timestamp);
+            statement.setString(3, key);
+        } else {
+            statement.setString(2, key);
+        }
+    }
+
+    private UpsertMethod currentUpsertMethod() {
+        return System.currentTimeMillis() < upsertSuspendedUntil ? UpsertMethod.UPDATE_THEN_INSERT : upsertMethod;
+    }
+
+    /**
+     * Use separate update and insert statements for a while, then try the upsert statement again, so a transient
+     * rejection does not disable the upsert for the life of the connection pool.
+     */
+    private void suspendUpsert(final UpsertMethod method, final SQLException e) {
+        upsertSuspendedUntil = System.currentTimeMillis() + UPSERT_SUSPEND_MS;
+        LOGGER.warn("database rejected " + method + " upsert statement, will use separate update and insert statements for "
+                + new TimeDuration(UPSERT_SUSPEND_MS).asCompactString() + ": " + e.getMessage());
+    }
+
+    /**
+     * Only errors reporting that the upsert statement itself could not be parsed are treated as unsupported syntax.
+     * Other class 42 states, such as missing privileges, are passed to the caller.
+     */
+    private static boolean isSyntaxError(final UpsertMethod method, final SQLException e) {
+        if ("42601".equals(e.getSQLState())) {
+            return true;
+        }
+        switch (method) {
+            case MYSQL:
+                // ER_PARSE_ERROR
+                return e.getErrorCode() == 1064;
+            case ORACLE:
+                // ORA-00900 invalid statement, ORA-00905 missing keyword, ORA-00933 not properly ended
+                return e.getErrorCode() == 900 || e.getErrorCode() == 905 || e.getErrorCode() == 933;
+            case MSSQL:
+                // incorrect syntax near a token or keyword
+                return e.getErrorCode() == 102 || e.getErrorCode() == 156;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isDuplicateKeyError(final SQLException e) {
+        return e instanceof SQLIntegrityConstraintViolationException || (e.getSQLState() != null && e.getSQLState().startsWith("23"));
+    }
+
+    private void preOperationCheck() throws DatabaseException {
         if (status == PwmService.STATUS.CLOSED) {
             throw new DatabaseException(new ErrorInformation(PwmError.ERROR_DB_UNAVAILABLE,"database connection is not open"));
         }
@@ -408,53 +703,72 @@ public class DatabaseAccessorImpl implements PwmService, DatabaseAccessor {
         if (status == PwmService.STATUS.NEW) {
             init();
         }
+    }
 
-        if (!isValid(connection)) {
-            init();
+    private DatabaseConnectionPool.PooledConnection borrowConnection() throws DatabaseException {
+        preOperationCheck();
+        final DatabaseConnectionPool pool = connectionPool;
+        if (pool == null) {
+            throw new DatabaseException(new ErrorInformation(PwmError.ERROR_DB_UNAVAILABLE,"database connection is not open"));
+        }
+        try {
+            return pool.borrow();
+        } catch (DatabaseException e) {
+            lastError = e.getErrorInformation();
+            throw e;
         }
     }
 
-    private boolean isValid(final Connection connection) {
-        if (connection == null) {
-            return false;
+    private void releaseConnection(
+            final DatabaseConnectionPool.PooledConnection pooledConnection,
+            final boolean discardConnection,
+            final long startTime
+    ) {
+        queryLatency.recordLatency(System.currentTimeMillis() - startTime);
+        final DatabaseConnectionPool pool = connectionPool;
+        if (pool != null) {
+            pool.release(pooledConnection, discardConnection);
         }
+    }
 
-        if (status != PwmService.STATUS.OPEN) {
-            return false;
-        }
+    private DatabaseException makeOperationError(final String operation, final SQLException e) {
+        final ErrorInformation errorInformation = new ErrorInformation(PwmError.ERROR_DB_UNAVAILABLE, operation + " operation failed: " + e.getMessage());
+        lastError = errorInformation;
+        return new DatabaseException(errorInformation);
+    }
 
-        try {
-            final Method getFreeSpaceMethod = File.class.getMethod("isValid");
-            final Object rawResult = getFreeSpaceMethod.invoke(connection,10);
-            return (Boolean) rawResult;
-        } catch (NoSuchMethodException e) {
-            /* no error, pre java 1.6 doesn't have this method */
-        } catch (Exception e) {
-            LOGGER.debug("error checking for isValid for " + connection.toString() + ",: " + e.getMessage());
-        }
+    private String performanceDebugString() {
+        final DatabaseConnectionPool pool = connectionPool;
+        return (pool == null ? "" : pool.debugString() + ", ") + "queryLatency " + queryLatency.debugString();
+    }
 
-        final StringBuilder sb = new StringBuilder();
-        sb.append("SELECT * FROM ").append(DatabaseTable.PWM_META.toString()).append(" WHERE " + KEY_COLUMN + " = ?");
-        PreparedStatement statement = null;
-        ResultSet resultSet = null;
+    private static UpsertMethod determineUpsertMethod(final Connection connection) {
         try {
-            statement = connection.prepareStatement(sb.toString());
-            statement.setString(1, KEY_ENGINE_START_PREFIX + instanceID);
-            statement.setMaxRows(1);
-            resultSet = statement.executeQuery();
-            if (resultSet.next()) {
-                resultSet.getString(VALUE_COLUMN);
+            final DatabaseMetaData databaseMetaData = connection.getMetaData();
+            final String productName = databaseMetaData.getDatabaseProductName() == null
+                    ? ""
+                    : databaseMetaData.getDatabaseProductName().toLowerCase();
+            if (productName.contains("mysql") || productName.contains("mariadb")) {
+                return UpsertMethod.MYSQL;
+            }
+            if (productName.contains("postgresql")) {
+                // insert ... on conflict is available from 9.5
+                final int majorVersion = databaseMetaData.getDatabaseMajorVersion();
+                final int minorVersion = databaseMetaData.getDatabaseMinorVersion();
+                if (majorVersion > 9 || (majorVersion == 9 && minorVersion >= 5)) {
+                    return UpsertMethod.POSTGRESQL;
+                }
+            }
+            if (productName.contains("oracle")) {
+                return UpsertMethod.ORACLE;
+            }
+            if (productName.contains("microsoft sql server")) {
+                return UpsertMethod.MSSQL;
             }
         } catch (SQLException e) {
-            final ErrorInformation errorInformation = new ErrorInformation(PwmError.ERROR_DB_UNAVAILABLE,"isValid operation failed: " + e.getMessage());
-            lastError = errorInformation;
-            LOGGER.error(errorInformation.toDebugStr());
-            return false;
-        } finally {
-            close(statement);
-            close(resultSet);
+            LOGGER.debug("unable to read database product information, will use separate update and insert statements: " + e.getMessage());
         }
-        return true;
+        return UpsertMethod.UPDATE_THEN_INSERT;
     }
 
     private static void close(final Statement statement) {
@@ -484,7 +798,29 @@ public class DatabaseAccessorImpl implements PwmService, DatabaseAccessor {
     )
             throws DatabaseException
     {
-        final boolean result = get(table, key) != null;
+        if (traceLogging) {
+            LOGGER.trace("attempting contains operation for table=" + table + ", key=" + key);
+        }
+
+        final DatabaseConnectionPool.PooledConnection pooledConnection = borrowConnection();
+        final long startTime = System.currentTimeMillis();
+        boolean discardConnection = false;
+        ResultSet resultSet = null;
+        final boolean result;
+        try {
+            final PreparedStatement statement = pooledConnection.prepareStatement(tableSql.get(table).selectKey);
+            statement.setString(1, key);
+            statement.setMaxRows(1);
+            resultSet = statement.executeQuery();
+            result = resultSet.next();
+        } catch (SQLException e) {
+            discardConnection = true;
+            throw makeOperationError("contains", e);
+        } finally {
+            close(resultSet);
+            releaseConnection(pooledConnection, discardConnection, startTime);
+        }
+
         if (traceLogging) {
             final Map<String,Object> debugOutput = new LinkedHashMap<>();
             debugOutput.put("table",table);
@@ -506,15 +842,14 @@ public class DatabaseAccessorImpl implements PwmService, DatabaseAccessor {
         if (traceLogging) {
             LOGGER.trace("attempting get operation for table=" + table + ", key=" + key);
         }
-        preOperationCheck();
-        final StringBuilder sb = new StringBuilder();
-        sb.append("SELECT * FROM ").append(table.toString()).append(" WHERE " + KEY_COLUMN + " = ?");
 
-        PreparedStatement statement = null;
+        final DatabaseConnectionPool.PooledConnection pooledConnection = borrowConnection();
+        final long startTime = System.currentTimeMillis();
+        boolean discardConnection = false;
         ResultSet resultSet = null;
         String returnValue = null;
         try {
-            statement = connection.prepareStatement(sb.toString());
+            final PreparedStatement statement = pooledConnection.prepareStatement(tableSql.get(table).select);
             statement.setString(1, key);
             statement.setMaxRows(1);
             resultSet = statement.executeQuery();
@@ -523,12 +858,11 @@ public class DatabaseAccessorImpl implements PwmService, DatabaseAccessor {
                 returnValue = resultSet.getString(VALUE_COLUMN);
             }
         } catch (SQLException e) {
-            final ErrorInformation errorInformation = new ErrorInformation(PwmError.ERROR_DB_UNAVAILABLE,"get operation failed: " + e.getMessage());
-            lastError = errorInformation;
-            throw new DatabaseException(errorInformation);
+            discardConnection = true;
+            throw makeOperationError("get", e);
         } finally {
-            close(statement);
             close(resultSet);
+            releaseConnection(pooledConnection, discardConnection, startTime);
         }
 
         if (traceLogging) {
@@ -547,7 +881,6 @@ public class DatabaseAccessorImpl implements PwmService, DatabaseAccessor {
     public ClosableIterator<String> iterator(final DatabaseTable table)
             throws DatabaseException
     {
-        preOperationCheck();
         return new DBIterator(table);
     }
 
@@ -562,24 +895,19 @@ public class DatabaseAccessorImpl implements PwmService, DatabaseAccessor {
             LOGGER.trace("attempting remove operation for table=" + table + ", key=" + key);
         }
 
-        boolean result = contains(table, key);
-        if (result) {
-            final StringBuilder sqlText = new StringBuilder();
-            sqlText.append("DELETE FROM ").append(table.toString()).append(" WHERE " + KEY_COLUMN + "=?");
-
-            PreparedStatement statement = null;
-            try {
-                statement = connection.prepareStatement(sqlText.toString());
-                statement.setString(1, key);
-                statement.executeUpdate();
-                LOGGER.trace("remove operation succeeded for table=" + table + ", key=" + key);
-            } catch (SQLException e) {
-                final ErrorInformation errorInformation = new ErrorInformation(PwmError.ERROR_DB_UNAVAILABLE,"remove operation failed: " + e.getMessage());
-                lastError = errorInformation;
-                throw new DatabaseException(errorInformation);
-            } finally {
-                close(statement);
-            }
+        final DatabaseConnectionPool.PooledConnection pooledConnection = borrowConnection();
+        final long startTime = System.currentTimeMillis();
+        boolean discardConnection = false;
+        final boolean result;
+        try {
+            final PreparedStatement statement = pooledConnection.prepareStatement(tableSql.get(table).delete);
+            statement.setString(1, key);
+            result = statement.executeUpdate() > 0;
+        } catch (SQLException e) {
+            discardConnection = true;
+            throw makeOperationError("remove", e);
+        } finally {
+            releaseConnection(pooledConnection, discardConnection, startTime);
         }
 
         if (traceLogging) {
@@ -597,39 +925,398 @@ public class DatabaseAccessorImpl implements PwmService, DatabaseAccessor {
     @Override
     public int size(final DatabaseTable table) throws
             DatabaseException {
-        preOperationCheck();
-
-        final StringBuilder sb = new StringBuilder();
-        sb.append("SELECT COUNT(" + KEY_COLUMN + ") FROM ").append(table.toString());
-
-        PreparedStatement statement = null;
+        final DatabaseConnectionPool.PooledConnection pooledConnection = borrowConnection();
+        final long startTime = System.currentTimeMillis();
+        boolean discardConnection = false;
         ResultSet resultSet = null;
+        int returnValue = 0;
         try {
-            statement = connection.prepareStatement(sb.toString());
+            final PreparedStatement statement = pooledConnection.prepareStatement(tableSql.get(table).count);
             resultSet = statement.executeQuery();
             if (resultSet.next()) {
-                return resultSet.getInt(1);
+                returnValue = resultSet.getInt(1);
             }
         } catch (SQLException e) {
-            final ErrorInformation errorInformation = new ErrorInformation(PwmError.ERROR_DB_UNAVAILABLE,"size operation failed: " + e.getMessage());
-            lastError = errorInformation;
-            throw new DatabaseException(errorInformation);
+            discardConnection = true;
+            throw makeOperationError("size", e);
         } finally {
-            close(statement);
             close(resultSet);
+            releaseConnection(pooledConnection, discardConnection, startTime);
         }
 
         updateStats(true,false);
-        return 0;
+        return returnValue;
+    }
+
+    @Override
+    public void putAll(
+            final DatabaseTable table,
+            final Map<String,String> keyValueMap
+    )
+            throws DatabaseException
+    {
+        if (keyValueMap == null || keyValueMap.isEmpty()) {
+            return;
+        }
+
+        if (traceLogging) {
+            LOGGER.trace("attempting putAll operation for table=" + table + ", keys=" + keyValueMap.size());
+        }
+
+        final List<Map.Entry<String,String>> entries = new ArrayList<>(keyValueMap.entrySet());
+        final DatabaseConnectionPool.PooledConnection pooledConnection = borrowConnection();
+        final long startTime = System.currentTimeMillis();
+        boolean discardConnection = false;
+        try {
+            try {
+                executePutAll(pooledConnection, table, entries);
+            } catch (SQLException e) {
+                final UpsertMethod method = currentUpsertMethod();
+                if (method == UpsertMethod.UPDATE_THEN_INSERT || !isSyntaxError(method, e)) {
+                    throw e;
+                }
+                suspendUpsert(method, e);
+                executePutAll(pooledConnection, table, entries);
+            }
+        } catch (SQLException e) {
+            discardConnection = true;
+            throw makeOperationError("putAll", e);
+        } finally {
+            releaseConnection(pooledConnection, discardConnection, startTime);
+        }
+
+        if (traceLogging) {
+            LOGGER.trace("putAll operation for table=" + table + " wrote " + entries.size() + " rows in " + TimeDuration.fromCurrent(startTime).asCompactString());
+        }
+
+        updateStats(false,true);
+    }
+
+    /**
+     * Write all entries in a single transaction, sending the statements in jdbc batches.  The transaction is
+     * rolled back if any batch fails.
+     */
+    private void executePutAll(
+            final DatabaseConnectionPool.PooledConnection pooledConnection,
+            final DatabaseTable table,
+            final List<Map.Entry<String,String>> entries
+    )
+            throws SQLException
+    {
+        final TableSql sql = tableSql.get(table);
+        final UpsertMethod method = currentUpsertMethod();
+        final long timestamp = System.currentTimeMillis();
+        final Connection connection = pooledConnection.getConnection();
+
+        connection.setAutoCommit(false);
+        try {
+            for (int i = 0; i < entries.size(); i += MAX_BATCH_SIZE) {
+                final List<Map.Entry<String,String>> batch = entries.subList(i, Math.min(entries.size(), i + MAX_BATCH_SIZE));
+                if (method == UpsertMethod.UPDATE_THEN_INSERT) {
+                    executeUpdateThenInsertBatch(pooledConnection, sql, batch, timestamp);
+                } else {
+                    final PreparedStatement statement = pooledConnection.prepareStatement(sql.upsert(method));
+                    for (final Map.Entry<String,String> entry : batch) {
+                        bindInsertParameters(statement, sql, entry.getKey(), entry.getValue(), timestamp);
+                        statement.addBatch();
+                    }
+                    statement.executeBatch();
+                }
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            try {
+                connection.rollback();
+            } catch (SQLException rollbackError) {
+                LOGGER.error("unable to roll back failed putAll transaction: " + rollbackError.getMessage());
+            }
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private static void executeUpdateThenInsertBatch(
+            final DatabaseConnectionPool.PooledConnection pooledConnection,
+            final TableSql sql,
+            final List<Map.Entry<String,String>> batch,
+            final long timestamp
+    )
+            throws SQLException
+    {
+        final PreparedStatement updateStatement = pooledConnection.prepareStatement(sql.update);
+        for (final Map.Entry<String,String> entry : batch) {
+            bindUpdateParameters(updateStatement, sql, entry.getKey(), entry.getValue(), timestamp);
+            updateStatement.addBatch();
+        }
+        final int[] updateCounts = updateStatement.executeBatch();
+
+        final List<Map.Entry<String,String>> inserts = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            final Map.Entry<String,String> entry = batch.get(i);
+            if (i >= updateCounts.length || updateCounts[i] < 0) {
+                // driver did not report a row count for this statement
+                executeUpdateThenInsert(pooledConnection, sql, entry.getKey(), entry.getValue(), timestamp);
+            } else if (updateCounts[i] == 0) {
+                inserts.add(entry);
+            }
+        }
+
+        if (!inserts.isEmpty()) {
+            final PreparedStatement insertStatement = pooledConnection.prepareStatement(sql.insert);
+            for (final Map.Entry<String,String> entry : inserts) {
+                bindInsertParameters(insertStatement, sql, entry.getKey(), entry.getValue(), timestamp);
+                insertStatement.addBatch();
+            }
+            insertStatement.executeBatch();
+        }
+    }
+
+    @Override
+    public Map<String,String> getAll(
+            final DatabaseTable table,
+            final Collection<String> keys
+    )
+            throws DatabaseException
+    {
+        final Map<String,String> results = new LinkedHashMap<>();
+        if (keys == null || keys.isEmpty()) {
+            return results;
+        }
+
+        if (traceLogging) {
+            LOGGER.trace("attempting getAll operation for table=" + table + ", keys=" + keys.size());
+        }
+
+        final List<String> keyList = new ArrayList<>(new LinkedHashSet<>(keys));
+        final DatabaseConnectionPool.PooledConnection pooledConnection = borrowConnection();
+        final long startTime = System.currentTimeMillis();
+        boolean discardConnection = false;
+        ResultSet resultSet = null;
+        try {
+            final PreparedStatement statement = pooledConnection.prepareStatement(tableSql.get(table).selectIn);
+            for (int i = 0; i < keyList.size(); i += MAX_IN_CLAUSE_KEYS) {
+                bindInClauseParameters(statement, keyList, i);
+                resultSet = statement.executeQuery();
+                while (resultSet.next()) {
+                    results.put(resultSet.getString(KEY_COLUMN), resultSet.getString(VALUE_COLUMN));
+                }
+                close(resultSet);
+                resultSet = null;
+            }
+        } catch (SQLException e) {
+            discardConnection = true;
+            throw makeOperationError("getAll", e);
+        } finally {
+            close(resultSet);
+            releaseConnection(pooledConnection, discardConnection, startTime);
+        }
+
+        if (traceLogging) {
+            LOGGER.trace("getAll operation for table=" + table + " found " + results.size() + " of " + keyList.size() + " keys");
+        }
+
+        updateStats(true,false);
+        return results;
+    }
+
+    @Override
+    public int removeAll(
+            final DatabaseTable table,
+            final Collection<String> keys
+    )
+            throws DatabaseException
+    {
+        if (keys == null || keys.isEmpty()) {
+            return 0;
+        }
+
+        if (traceLogging) {
+            LOGGER.trace("attempting removeAll operation for table=" + table + ", keys=" + keys.size());
+        }
+
+        final List<String> keyList = new ArrayList<>(new LinkedHashSet<>(keys));
+        final DatabaseConnectionPool.PooledConnection pooledConnection = borrowConnection();
+        final long startTime = System.currentTimeMillis();
+        boolean discardConnection = false;
+        int removedCount = 0;
+        try {
+            final PreparedStatement statement = pooledConnection.prepareStatement(tableSql.get(table).deleteIn);
+            for (int i = 0; i < keyList.size(); i += MAX_IN_CLAUSE_KEYS) {
+                bindInClauseParameters(statement, keyList, i);
+                removedCount += statement.executeUpdate();
+            }
+        } catch (SQLException e) {
+            discardConnection = true;
+            throw makeOperationError("removeAll", e);
+        } finally {
+            releaseConnection(pooledConnection, discardConnection, startTime);
+        }
+
+        if (traceLogging) {
+            LOGGER.trace("removeAll operation for table=" + table + " removed " + removedCount + " rows");
+        }
+
+        updateStats(false,true);
+        return removedCount;
+    }
+
+    @Override
+    public int removeOlderThan(
+            final DatabaseTable table,
+            final java.util.Date cutoffDate
+    )
+            throws DatabaseException
+    {
+        if (!table.isTimestamped()) {
+            throw new IllegalArgumentException("table " + table + " does not record row timestamps");
+        }
+
+        final DatabaseConnectionPool.PooledConnection pooledConnection = borrowConnection();
+        final long startTime = System.currentTimeMillis();
+        boolean discardConnection = false;
+        final int removedCount;
+        try {
+            final PreparedStatement statement = pooledConnection.prepareStatement(tableSql.get(table).deleteOlderThan);
+            statement.setLong(1, cutoffDate.getTime());
+            removedCount = statement.executeUpdate();
+        } catch (SQLException e) {
+            discardConnection = true;
+            throw makeOperationError("removeOlderThan", e);
+        } finally {
+            releaseConnection(pooledConnection, discardConnection, startTime);
+        }
+
+        LOGGER.trace("removed " + removedCount + " rows older than " + PwmConstants.DEFAULT_DATETIME_FORMAT.format(cutoffDate)
+                + " from table " + table + " in " + TimeDuration.fromCurrent(startTime).asCompactString());
+        updateStats(false,true);
+        return removedCount;
+    }
+
+    /**
+     * Bind the keys starting at offset to the in clause, repeating the last key to fill any remaining parameters.
+     */
+    private static void bindInClauseParameters(
+            final PreparedStatement statement,
+            final List<String> keyList,
+            final int offset
+    )
+            throws SQLException
+    {
+        final int lastIndex = Math.min(keyList.size(), offset + MAX_IN_CLAUSE_KEYS) - 1;
+        for (int i = 0; i < MAX_IN_CLAUSE_KEYS; i++) {
+            statement.setString(i + 1, keyList.get(Math.min(offset + i, lastIndex)));
+        }
     }
 
 // -------------------------- ENUMERATIONS --------------------------
 
     // -------------------------- INNER CLASSES --------------------------
 
+    /**
+     * Sql text for each operation against a table, built once so the text can be used as the prepared statement
+     * cache key.
+     */
+    private static class TableSql {
+        private final DatabaseTable table;
+        private final boolean timestamped;
+        private final String select;
+        private final String selectKey;
+        private final String insert;
+        private final String update;
+        private final String delete;
+        private final String count;
+        private final String iterate;
+        private final String selectIn;
+        private final String deleteIn;
+        private final String deleteOlderThan;
+        private final Map<UpsertMethod, String> upsertStatements = new EnumMap<>(UpsertMethod.class);
+
+        private TableSql(final DatabaseTable table) {
+            this.table = table;
+            this.timestamped = table.isTimestamped();
+            select = "SELECT " + VALUE_COLUMN + " FROM " + table + " WHERE " + KEY_COLUMN + " = ?";
+            selectKey = "SELECT " + KEY_COLUMN + " FROM " + table + " WHERE " + KEY_COLUMN + " = ?";
+            insert = "INSERT INTO " + table + "(" + columnList("") + ") VALUES(" + (timestamped ? "?,?,?" : "?,?") + ")";
+            update = "UPDATE " + table + " SET " + VALUE_COLUMN + "=?" + (timestamped ? ", " + TIMESTAMP_COLUMN + "=?" : "") + " WHERE " + KEY_COLUMN + "=?";
+            delete = "DELETE FROM " + table + " WHERE " + KEY_COLUMN + "=?";
+            count = "SELECT COUNT(" + KEY_COLUMN + ") FROM " + table;
+            iterate = "SELECT " + KEY_COLUMN + " FROM " + table;
+            selectIn = "SELECT " + KEY_COLUMN + ", " + VALUE_COLUMN + " FROM " + table + " WHERE " + KEY_COLUMN + " IN (" + inClauseParameters() + ")";
+            deleteIn = "DELETE FROM " + table + " WHERE " + KEY_COLUMN + " IN (" + inClauseParameters() + ")";
+            deleteOlderThan = timestamped ? "DELETE FROM " + table + " WHERE " + TIMESTAMP_COLUMN + " < ?" : null;
+            for (final UpsertMethod method : UpsertMethod.values()) {
+                if (method != UpsertMethod.UPDATE_THEN_INSERT) {
+                    upsertStatements.put(method, makeUpsert(method));
+                }
+            }
+        }
+
+        /**
+         * @return upsert statement taking the same parameters as the insert statement
+         */
+        private String upsert(final UpsertMethod method) {
+            return upsertStatements.get(method);
+        }
+
+        private String makeUpsert(final UpsertMethod method) {
+            switch (method) {
+                case MYSQL:
+                    return insert + " ON DUPLICATE KEY UPDATE " + VALUE_COLUMN + "=VALUES(" + VALUE_COLUMN + ")"
+                            + (timestamped ? ", " + TIMESTAMP_COLUMN + "=VALUES(" + TIMESTAMP_COLUMN + ")" : "");
+
+                case POSTGRESQL:
+                    return insert + " ON CONFLICT (" + KEY_COLUMN + ") DO UPDATE SET " + VALUE_COLUMN + "=EXCLUDED." + VALUE_COLUMN
+                            + (timestamped ? ", " + TIMESTAMP_COLUMN + "=EXCLUDED." + TIMESTAMP_COLUMN : "");
+
+                case ORACLE:
+                    return "MERGE INTO " + table + " t USING (SELECT ? " + KEY_COLUMN + ", ? " + VALUE_COLUMN
+                            + (timestamped ? ", ? " + TIMESTAMP_COLUMN : "") + " FROM dual) s"
+                            + " ON (t." + KEY_COLUMN + " = s." + KEY_COLUMN + ")"
+                            + " WHEN MATCHED THEN UPDATE SET " + matchedAssignments("t.")
+                            + " WHEN NOT MATCHED THEN INSERT (" + columnList("") + ") VALUES (" + columnList("s.") + ")";
+
+                case MSSQL:
+                    return "MERGE INTO " + table + " WITH (HOLDLOCK) AS t USING (VALUES (" + (timestamped ? "?, ?, ?" : "?, ?") + ")) AS s (" + columnList("") + ")"
+                            + " ON t." + KEY_COLUMN + " = s." + KEY_COLUMN
+                            + " WHEN MATCHED THEN UPDATE SET " + matchedAssignments("")
+                            + " WHEN NOT MATCHED THEN INSERT (" + columnList("") + ") VALUES (" + columnList("s.") + ");";
+
+                default:
+                    throw new IllegalArgumentException("no upsert statement for " + method);
+            }
+        }
+
+        private String columnList(final String prefix) {
+            return prefix + KEY_COLUMN + ", " + prefix + VALUE_COLUMN + (timestamped ? ", " + prefix + TIMESTAMP_COLUMN : "");
+        }
+
+        private String matchedAssignments(final String targetPrefix) {
+            return targetPrefix + VALUE_COLUMN + " = s." + VALUE_COLUMN
+                    + (timestamped ? ", " + targetPrefix + TIMESTAMP_COLUMN + " = s." + TIMESTAMP_COLUMN : "");
+        }
+
+        /**
+         * The parameter count is fixed so the statement text, and so the cached prepared statement, is the same for
+         * every call; shorter key lists are padded by repeating a key.
+         */
+        private static String inClauseParameters() {
+            final StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < MAX_IN_CLAUSE_KEYS; i++) {
+                sb.append(i == 0 ? "?" : ",?");
+            }
+            return sb.toString();
+        }
+    }
+
+    /**
+     * Iterates the keys of a table.  The iterator holds a pooled connection until it is exhausted or closed.
+     */
     public class DBIterator implements ClosableIterator<String> {
         private final DatabaseTable table;
-        private final ResultSet resultSet;
+        private final DatabaseConnectionPool.PooledConnection pooledConnection;
+        private PreparedStatement statement;
+        private ResultSet resultSet;
         private java.lang.String nextValue;
         private boolean finished;
 
@@ -637,21 +1324,21 @@ public class DatabaseAccessorImpl implements PwmService, DatabaseAccessor {
                 throws DatabaseException
         {
             this.table = table;
-            this.resultSet = init();
+            this.pooledConnection = borrowConnection();
+            init();
             getNextItem();
         }
 
-        private ResultSet init() throws DatabaseException {
-            final StringBuilder sb = new StringBuilder();
-            sb.append("SELECT " + KEY_COLUMN + " FROM ").append(table.toString());
-
+        private void init() throws DatabaseException {
             try {
-                final PreparedStatement statement = connection.prepareStatement(sb.toString());
-                return statement.executeQuery();
+                // not taken from the statement cache, the result set stays open while the iterator is in use
+                statement = pooledConnection.getConnection().prepareStatement(tableSql.get(table).iterate);
+                resultSet = statement.executeQuery();
             } catch (SQLException e) {
-                final ErrorInformation errorInformation = new ErrorInformation(PwmError.ERROR_DB_UNAVAILABLE,"get iterator failed: " + e.getMessage());
-                lastError = errorInformation;
-                throw new DatabaseException(errorInformation);
+                DatabaseAccessorImpl.close(statement);
+                finished = true;
+                connectionPool.release(pooledConnection, true);
+                throw makeOperationError("get iterator", e);
             }
         }
 
@@ -680,21 +1367,23 @@ public class DatabaseAccessorImpl implements PwmService, DatabaseAccessor {
                     close();
                 }
             } catch (SQLException e) {
-                finished = true;
                 LOGGER.warn("unexpected error during result set iteration: " + e.getMessage());
+                close();
             }
             updateStats(true,false);
         }
 
         public void close() {
-            if (resultSet != null) {
-                try {
-                    resultSet.close();
-                } catch (SQLException e) {
-                    LOGGER.error("error closing inner resultset in iterator: " + e.getMessage());
-                }
+            if (finished) {
+                return;
             }
             finished = true;
+            DatabaseAccessorImpl.close(resultSet);
+            DatabaseAccessorImpl.close(statement);
+            final DatabaseConnectionPool pool = connectionPool;
+            if (pool != null) {
+                pool.release(pooledConnection, false);
+            }
         }
     }
 
@@ -772,7 +1461,20 @@ public class DatabaseAccessorImpl implements PwmService, DatabaseAccessor {
     public ServiceInfo serviceInfo()
     {
         if (status() == STATUS.OPEN) {
-            return new ServiceInfo(Collections.singletonList(DataStorageMethod.DB));
+            final Map<String,String> debugProperties = new LinkedHashMap<>();
+            final DatabaseConnectionPool pool = connectionPool;
+            if (pool != null) {
+                debugProperties.put("activeConnections", String.valueOf(pool.getActiveConnections()));
+                debugProperties.put("openConnections", String.valueOf(pool.getOpenConnections()));
+                debugProperties.put("connectionWaitAvgMs", String.valueOf(pool.getAverageBorrowWaitMs()));
+                debugProperties.put("connectionWaitMaxMs", String.valueOf(pool.getMaxBorrowWaitMs()));
+                debugProperties.put("connectionWaitTimeouts", String.valueOf(pool.getBorrowTimeouts()));
+            }
+            debugProperties.put("upsertMethod", currentUpsertMethod().toString());
+            debugProperties.put("queryLatencyP50", String.valueOf(queryLatency.percentile(50)));
+            debugProperties.put("queryLatencyP95", String.valueOf(queryLatency.percentile(95)));
+            debugProperties.put("queryLatencyP99", String.valueOf(queryLatency.percentile(99)));
+            return new ServiceInfo(Collections.singletonList(DataStorageMethod.DB), debugProperties);
         } else {
             return new ServiceInfo(Collections.<DataStorageMethod>emptyList());
         }
@@ -794,7 +1496,7 @@ public class DatabaseAccessorImpl implements PwmService, DatabaseAccessor {
 
     @Override
     public Map<PwmAboutProperty,String> getConnectionDebugProperties() {
-        return getConnectionDebugProperties(connection);
+        return connectionDebugProperties;
     }
 
     private static Map<PwmAboutProperty,String> getConnectionDebugProperties(final Connection connection) {
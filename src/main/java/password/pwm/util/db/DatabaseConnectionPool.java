@@ -0,0 +1,291 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://code.google.com/p/pwm/
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2015 The PWM Project
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package password.pwm.util.db;
+
+import password.pwm.error.ErrorInformation;
+import password.pwm.error.PwmError;
+import password.pwm.util.logging.PwmLogger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded pool of JDBC connections.  Connections are opened on demand up to the maximum size, and an idle connection
+ * is validated before it is handed out if it has not been validated within the validation interval.  Each pooled
+ * connection keeps its own prepared statement cache, which is safe because a connection is only used by the thread
+ * that borrowed it.
+ */
+class DatabaseConnectionPool {
+    private static final PwmLogger LOGGER = PwmLogger.forClass(DatabaseConnectionPool.class, true);
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 5;
+
+    interface ConnectionFactory {
+        Connection openConnection() throws DatabaseException;
+    }
+
+    private final ConnectionFactory connectionFactory;
+    private final int maxConnections;
+    private final long maxWaitMs;
+    private final long validationIntervalMs;
+
+    private final Semaphore permits;
+    private final Deque<PooledConnection> idleConnections = new ArrayDeque<>();
+    private final Set<PooledConnection> openConnections = Collections.newSetFromMap(new ConcurrentHashMap<PooledConnection, Boolean>());
+    private volatile boolean closed = false;
+
+    private final AtomicLong borrowCount = new AtomicLong(0);
+    private final AtomicLong borrowWaitNanos = new AtomicLong(0);
+    private final AtomicLong maxBorrowWaitNanos = new AtomicLong(0);
+    private final AtomicLong borrowTimeouts = new AtomicLong(0);
+    private volatile long lastBorrowTimeoutTimestamp = -1L;
+
+    DatabaseConnectionPool(
+            final ConnectionFactory connectionFactory,
+            final int maxConnections,
+            final long maxWaitMs,
+            final long validationIntervalMs
+    ) {
+        this.connectionFactory = connectionFactory;
+        this.maxConnections = Math.max(1, maxConnections);
+        this.maxWaitMs = maxWaitMs;
+        this.validationIntervalMs = validationIntervalMs;
+        this.permits = new Semaphore(this.maxConnections, true);
+    }
+
+    /**
+     * Borrow a connection, waiting up to the maximum wait time if all connections are in use.  The connection must
+     * be returned with {@link #release(PooledConnection, boolean)}.
+     */
+    PooledConnection borrow() throws DatabaseException {
+        if (closed) {
+            throw new DatabaseException(new ErrorInformation(PwmError.ERROR_DB_UNAVAILABLE, "database connection pool is closed"));
+        }
+
+        final long startTime = System.nanoTime();
+        final boolean acquired;
+        try {
+            acquired = permits.tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DatabaseException(new ErrorInformation(PwmError.ERROR_DB_UNAVAILABLE, "interrupted while waiting for a database connection"));
+        }
+        recordBorrowWait(System.nanoTime() - startTime);
+
+        if (!acquired) {
+            borrowTimeouts.incrementAndGet();
+            lastBorrowTimeoutTimestamp = System.currentTimeMillis();
+            final String errorMsg = "timed out after " + maxWaitMs + "ms waiting for a database connection, all " + maxConnections + " connections are in use";
+            throw new DatabaseException(new ErrorInformation(PwmError.ERROR_DB_UNAVAILABLE, errorMsg));
+        }
+
+        try {
+            while (true) {
+                final PooledConnection idleConnection;
+                synchronized (idleConnections) {
+                    idleConnection = idleConnections.pollFirst();
+                }
+                if (idleConnection == null) {
+                    final PooledConnection newConnection = new PooledConnection(connectionFactory.openConnection());
+                    openConnections.add(newConnection);
+                    return newConnection;
+                }
+                if (validate(idleConnection)) {
+                    return idleConnection;
+                }
+                discard(idleConnection);
+            }
+        } catch (DatabaseException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Return a borrowed connection to the pool.
+     *
+     * @param discardConnection true if the connection may be broken and should be closed instead of reused
+     */
+    void release(final PooledConnection pooledConnection, final boolean discardConnection) {
+        if (pooledConnection == null) {
+            return;
+        }
+
+        try {
+            if (discardConnection || closed) {
+                discard(pooledConnection);
+            } else {
+                synchronized (idleConnections) {
+                    // most recently used first, so surplus connections age out of use
+                    idleConnections.addFirst(pooledConnection);
+                }
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    void close() {
+        closed = true;
+        synchronized (idleConnections) {
+            for (final PooledConnection pooledConnection : idleConnections) {
+                discard(pooledConnection);
+            }
+            idleConnections.clear();
+        }
+    }
+
+    int getMaxConnections() {
+        return maxConnections;
+    }
+
+    int getOpenConnections() {
+        return openConnections.size();
+    }
+
+    int getActiveConnections() {
+        return maxConnections - permits.availablePermits();
+    }
+
+    long getBorrowCount() {
+        return borrowCount.get();
+    }
+
+    long getAverageBorrowWaitMs() {
+        final long count = borrowCount.get();
+        return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(borrowWaitNanos.get() / count);
+    }
+
+    long getMaxBorrowWaitMs() {
+        return TimeUnit.NANOSECONDS.toMillis(maxBorrowWaitNanos.get());
+    }
+
+    long getBorrowTimeouts() {
+        return borrowTimeouts.get();
+    }
+
+    long getLastBorrowTimeoutTimestamp() {
+        return lastBorrowTimeoutTimestamp;
+    }
+
+    String debugString() {
+        return "connections=" + getActiveConnections() + " active/" + getOpenConnections() + " open/" + maxConnections + " max"
+                + ", avgWait=" + getAverageBorrowWaitMs() + "ms"
+                + ", maxWait=" + getMaxBorrowWaitMs() + "ms"
+                + ", timeouts=" + getBorrowTimeouts();
+    }
+
+    private void recordBorrowWait(final long waitNanos) {
+        borrowCount.incrementAndGet();
+        borrowWaitNanos.addAndGet(waitNanos);
+        long currentMax = maxBorrowWaitNanos.get();
+        while (waitNanos > currentMax && !maxBorrowWaitNanos.compareAndSet(currentMax, waitNanos)) {
+            currentMax = maxBorrowWaitNanos.get();
+        }
+    }
+
+    private boolean validate(final PooledConnection pooledConnection) {
+        final long now = System.currentTimeMillis();
+        if (now - pooledConnection.lastValidatedTimestamp < validationIntervalMs) {
+            return true;
+        }
+
+        try {
+            boolean valid;
+            try {
+                valid = pooledConnection.connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+            } catch (AbstractMethodError e) {
+                // drivers older than jdbc 4 do not implement isValid()
+                valid = !pooledConnection.connection.isClosed();
+            }
+            if (valid) {
+                pooledConnection.lastValidatedTimestamp = now;
+            } else {
+                LOGGER.debug("discarding database connection that failed validation");
+            }
+            return valid;
+        } catch (SQLException e) {
+            LOGGER.debug("error validating database connection: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void discard(final PooledConnection pooledConnection) {
+        openConnections.remove(pooledConnection);
+        pooledConnection.close();
+    }
+
+    static class PooledConnection {
+        private final Connection connection;
+        private final Map<String, PreparedStatement> statementCache = new HashMap<>();
+        private long lastValidatedTimestamp = System.currentTimeMillis();
+
+        private PooledConnection(final Connection connection) {
+            this.connection = connection;
+        }
+
+        Connection getConnection() {
+            return connection;
+        }
+
+        /**
+         * @return a prepared statement for the sql text, created on first use and reused afterwards.  The caller
+         * must not close the returned statement.
+         */
+        PreparedStatement prepareStatement(final String sqlText) throws SQLException {
+            PreparedStatement statement = statementCache.get(sqlText);
+            if (statement == null) {
+                statement = connection.prepareStatement(sqlText);
+                statementCache.put(sqlText, statement);
+            }
+            return statement;
+        }
+
+        private void close() {
+            for (final PreparedStatement statement : statementCache.values()) {
+                try {
+                    statement.close();
+                } catch (SQLException e) {
+                    LOGGER.debug("error closing cached statement: " + e.getMessage());
+                }
+            }
+            statementCache.clear();
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                LOGGER.debug("error closing database connection: " + e.getMessage());
+            }
+        }
+    }
+}
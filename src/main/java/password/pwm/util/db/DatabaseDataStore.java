@@ -27,6 +27,10 @@ import password.pwm.svc.PwmService;
 import password.pwm.util.ClosableIterator;
 import password.pwm.util.DataStore;
 
+import java.util.Collection;
+import java.util.Date;
+import java.util.Map;
+
 public class DatabaseDataStore implements DataStore {
     private final DatabaseAccessorImpl databaseAccessor;
     private final DatabaseTable table;
@@ -81,6 +85,29 @@ public class DatabaseDataStore implements DataStore {
         return databaseAccessor.remove(table, key);
     }
 
+    public void putAll(Map<String, String> keyValueMap) throws PwmDataStoreException {
+        databaseAccessor.putAll(table, keyValueMap);
+    }
+
+    public Map<String, String> getAll(Collection<String> keys) throws PwmDataStoreException {
+        return databaseAccessor.getAll(table, keys);
+    }
+
+    public void removeAll(Collection<String> keys) throws PwmDataStoreException {
+        databaseAccessor.removeAll(table, keys);
+    }
+
+    public boolean supportsRemoveOlderThan() {
+        return table.isTimestamped();
+    }
+
+    /**
+     * @return number of records removed
+     */
+    public int removeOlderThan(Date cutoffDate) throws PwmDataStoreException {
+        return databaseAccessor.removeOlderThan(table, cutoffDate);
+    }
+
     public int size() throws PwmDataStoreException {
         return databaseAccessor.size(table);
     }
@@ -23,10 +23,25 @@
 package password.pwm.util.db;
 
 public enum DatabaseTable {
-    PWM_META,
-    PWM_RESPONSES,
-    USER_AUDIT,
-    INTRUDER,
-    TOKENS,
-    OTP
+    PWM_META(false),
+    PWM_RESPONSES(false),
+    USER_AUDIT(false),
+    INTRUDER(true),
+    TOKENS(true),
+    OTP(false),
+    ;
+
+    private final boolean timestamped;
+
+    DatabaseTable(final boolean timestamped) {
+        this.timestamped = timestamped;
+    }
+
+    /**
+     * @return true if rows of the table carry an indexed last write time, so stale rows can be purged on the
+     * database server with {@link DatabaseAccessor#removeOlderThan(DatabaseTable, java.util.Date)}.
+     */
+    public boolean isTimestamped() {
+        return timestamped;
+    }
 }
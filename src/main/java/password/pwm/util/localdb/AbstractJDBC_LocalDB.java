@@ -30,7 +30,9 @@ import java.io.File;
 import java.sql.*;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 public abstract class AbstractJDBC_LocalDB implements LocalDBProvider {
@@ -49,11 +51,17 @@ public abstract class AbstractJDBC_LocalDB implements LocalDBProvider {
     private final Set<LocalDB.LocalDBIterator<String>> dbIterators = Collections.newSetFromMap(
             new ConcurrentHashMap<LocalDB.LocalDBIterator<String>, Boolean>());
 
-    // sql db connection
+    // sql db connection, used for all mutations
     protected Connection dbConnection;
 
-    // operation lock
-    protected final ReadWriteLock LOCK = new ReentrantReadWriteLock();
+    // auto-commit sql db connection used for single key reads, so reads are not queued behind the write transaction
+    private Connection readConnection;
+
+    // per-db operation locks, so a long write to one db does not block reads of the others
+    private final Map<LocalDB.DB, ReadWriteLock> lockMap = new ConcurrentHashMap<>();
+
+    // the write connection has a single transaction, so mutations of all dbs are serialized through this lock
+    private final Lock transactionLock = new ReentrantLock();
 
     protected LocalDB.Status status = LocalDB.Status.NEW;
     protected boolean readOnly = false;
@@ -150,6 +158,9 @@ public abstract class AbstractJDBC_LocalDB implements LocalDBProvider {
 
     AbstractJDBC_LocalDB()
             throws Exception {
+        for (final LocalDB.DB db : LocalDB.DB.values()) {
+            lockMap.put(db, new ReentrantReadWriteLock());
+        }
     }
 
 // ------------------------ INTERFACE METHODS ------------------------
@@ -159,7 +170,14 @@ public abstract class AbstractJDBC_LocalDB implements LocalDBProvider {
             throws LocalDBException {
         status = LocalDB.Status.CLOSED;
         try {
-            LOCK.writeLock().lock();
+            lockAllForWrite();
+            if (readConnection != null) {
+                try {
+                    readConnection.close();
+                } catch (Exception e) {
+                    LOGGER.debug("error while closing DB read connection: " + e.getMessage());
+                }
+            }
             if (dbConnection != null) {
                 try {
                     closeConnection(dbConnection);
@@ -168,17 +186,17 @@ public abstract class AbstractJDBC_LocalDB implements LocalDBProvider {
                 }
             }
         } finally {
-            LOCK.writeLock().unlock();
+            unlockAllForWrite();
         }
 
         try {
-            LOCK.writeLock().lock();
+            lockAllForWrite();
             DriverManager.deregisterDriver(driver);
             driver = null;
         } catch (SQLException e) {
             LOGGER.error("unable to de-register sql driver: " + e.getMessage());
         } finally {
-            LOCK.writeLock().unlock();
+            unlockAllForWrite();
         }
 
         LOGGER.debug("closed");
@@ -206,8 +224,8 @@ public abstract class AbstractJDBC_LocalDB implements LocalDBProvider {
         PreparedStatement statement = null;
         ResultSet resultSet = null;
         try {
-            LOCK.readLock().lock();
-            statement = dbConnection.prepareStatement(sb.toString());
+            lockMap.get(db).readLock().lock();
+            statement = readConnection.prepareStatement(sb.toString());
             statement.setString(1, key);
             statement.setMaxRows(1);
             resultSet = statement.executeQuery();
@@ -219,7 +237,7 @@ public abstract class AbstractJDBC_LocalDB implements LocalDBProvider {
         } finally {
             close(statement);
             close(resultSet);
-            LOCK.readLock().unlock();
+            lockMap.get(db).readLock().unlock();
         }
         return null;
     }
@@ -234,6 +252,13 @@ public abstract class AbstractJDBC_LocalDB implements LocalDBProvider {
             initTable(dbConnection, db);
         }
 
+        this.readConnection = openConnection(dbDirectory, getDriverClasspath(), null);
+        try {
+            readConnection.setAutoCommit(true);
+        } catch (SQLException e) {
+            throw new LocalDBException(new ErrorInformation(PwmError.ERROR_LOCALDB_UNAVAILABLE,"unable to configure read connection: " + e.getMessage()));
+        }
+
         this.readOnly = readOnly;
         this.status = LocalDB.Status.OPEN;
     }
@@ -262,7 +287,7 @@ public abstract class AbstractJDBC_LocalDB implements LocalDBProvider {
         final String insertSqlString = "INSERT INTO " + db.toString() + "(" + KEY_COLUMN + ", " + VALUE_COLUMN + ") VALUES(?,?)";
 
         try {
-            LOCK.writeLock().lock();
+            lockForWrite(db);
             // just in case anyone was unclear: sql does indeed suck.
             removeStatement = dbConnection.prepareStatement(removeSqlString);
             insertStatement = dbConnection.prepareStatement(insertSqlString);
@@ -286,7 +311,7 @@ public abstract class AbstractJDBC_LocalDB implements LocalDBProvider {
         } finally {
             close(removeStatement);
             close(insertStatement);
-            LOCK.writeLock().unlock();
+            unlockForWrite(db);
         }
     }
 
@@ -294,71 +319,51 @@ public abstract class AbstractJDBC_LocalDB implements LocalDBProvider {
     public boolean put(final LocalDB.DB db, final String key, final String value)
             throws LocalDBException {
         preCheck(true);
-        if (!contains(db, key)) {
-            final String sqlText = "INSERT INTO " + db.toString() + "(" + KEY_COLUMN + ", " + VALUE_COLUMN + ") VALUES(?,?)";
+        lockForWrite(db);
+        try {
+            final boolean preExists = contains(db, key);
+            final String sqlText = preExists
+                    ? "UPDATE " + db.toString() + " SET " + VALUE_COLUMN + "=? WHERE " + KEY_COLUMN + "=?"
+                    : "INSERT INTO " + db.toString() + "(" + VALUE_COLUMN + ", " + KEY_COLUMN + ") VALUES(?,?)";
             PreparedStatement statement = null;
 
             try {
-                LOCK.writeLock().lock();
                 statement = dbConnection.prepareStatement(sqlText);
-                statement.setString(1, key);
-                statement.setString(2, value);
+                statement.setString(1, value);
+                statement.setString(2, key);
                 statement.executeUpdate();
                 dbConnection.commit();
             } catch (SQLException ex) {
                 throw new LocalDBException(new ErrorInformation(PwmError.ERROR_LOCALDB_UNAVAILABLE,ex.getMessage()));
             } finally {
                 close(statement);
-                LOCK.writeLock().unlock();
             }
-            return false;
-        }
-
-        final String sqlText = "UPDATE " + db.toString() + " SET " + VALUE_COLUMN + "=? WHERE " + KEY_COLUMN + "=?";
-        PreparedStatement statement = null;
-
-        try {
-            LOCK.writeLock().lock();
-            statement = dbConnection.prepareStatement(sqlText);
-            statement.setString(1, value);
-            statement.setString(2, key);
-            statement.executeUpdate();
-            dbConnection.commit();
-        } catch (SQLException ex) {
-            throw new LocalDBException(new ErrorInformation(PwmError.ERROR_LOCALDB_UNAVAILABLE,ex.getMessage()));
+            return preExists;
         } finally {
-            close(statement);
-            LOCK.writeLock().unlock();
+            unlockForWrite(db);
         }
-
-        return true;
     }
 
     public boolean remove(final LocalDB.DB db, final String key)
             throws LocalDBException {
         preCheck(true);
-        if (!contains(db, key)) {
-            return false;
-        }
-
         final StringBuilder sqlText = new StringBuilder();
         sqlText.append("DELETE FROM ").append(db.toString()).append(" WHERE " + KEY_COLUMN + "=?");
 
         PreparedStatement statement = null;
         try {
-            LOCK.writeLock().lock();
+            lockForWrite(db);
             statement = dbConnection.prepareStatement(sqlText.toString());
             statement.setString(1, key);
-            statement.executeUpdate();
+            final int removedRows = statement.executeUpdate();
             dbConnection.commit();
+            return removedRows > 0;
         } catch (SQLException ex) {
             throw new LocalDBException(new ErrorInformation(PwmError.ERROR_LOCALDB_UNAVAILABLE,ex.getMessage()));
         } finally {
             close(statement);
-            LOCK.writeLock().unlock();
+            unlockForWrite(db);
         }
-
-        return true;
     }
 
     public int size(final LocalDB.DB db)
@@ -371,8 +376,8 @@ public abstract class AbstractJDBC_LocalDB implements LocalDBProvider {
         PreparedStatement statement = null;
         ResultSet resultSet = null;
         try {
-            LOCK.readLock().lock();
-            statement = dbConnection.prepareStatement(sb.toString());
+            lockMap.get(db).readLock().lock();
+            statement = readConnection.prepareStatement(sb.toString());
             resultSet = statement.executeQuery();
             if (resultSet.next()) {
                 return resultSet.getInt(1);
@@ -382,7 +387,7 @@ public abstract class AbstractJDBC_LocalDB implements LocalDBProvider {
         } finally {
             close(statement);
             close(resultSet);
-            LOCK.readLock().unlock();
+            lockMap.get(db).readLock().unlock();
         }
 
         return 0;
@@ -397,7 +402,7 @@ public abstract class AbstractJDBC_LocalDB implements LocalDBProvider {
 
         PreparedStatement statement = null;
         try {
-            LOCK.writeLock().lock();
+            lockForWrite(db);
 
             final Set<LocalDB.LocalDBIterator<String>> copiedIterators = new HashSet<>();
             copiedIterators.addAll(dbIterators);
@@ -414,7 +419,7 @@ public abstract class AbstractJDBC_LocalDB implements LocalDBProvider {
             throw new LocalDBException(new ErrorInformation(PwmError.ERROR_LOCALDB_UNAVAILABLE,ex.getMessage()));
         } finally {
             close(statement);
-            LOCK.writeLock().unlock();
+            unlockForWrite(db);
         }
     }
 
@@ -425,7 +430,7 @@ public abstract class AbstractJDBC_LocalDB implements LocalDBProvider {
         final String sqlString = "DELETE FROM " + db.toString() + " WHERE " + KEY_COLUMN + "=?";
         PreparedStatement statement = null;
         try {
-            LOCK.writeLock().lock();
+            lockForWrite(db);
             statement = dbConnection.prepareStatement(sqlString);
 
             for (final String loopKey : keys) {
@@ -439,12 +444,36 @@ public abstract class AbstractJDBC_LocalDB implements LocalDBProvider {
             throw new LocalDBException(new ErrorInformation(PwmError.ERROR_LOCALDB_UNAVAILABLE,ex.getMessage()));
         } finally {
             close(statement);
-            LOCK.writeLock().unlock();
+            unlockForWrite(db);
         }
     }
 
 // -------------------------- OTHER METHODS --------------------------
 
+    protected void lockForWrite(final LocalDB.DB db) {
+        lockMap.get(db).writeLock().lock();
+        transactionLock.lock();
+    }
+
+    protected void unlockForWrite(final LocalDB.DB db) {
+        transactionLock.unlock();
+        lockMap.get(db).writeLock().unlock();
+    }
+
+    private void lockAllForWrite() {
+        for (final LocalDB.DB db : LocalDB.DB.values()) {
+            lockMap.get(db).writeLock().lock();
+        }
+        transactionLock.lock();
+    }
+
+    private void unlockAllForWrite() {
+        transactionLock.unlock();
+        for (final LocalDB.DB db : LocalDB.DB.values()) {
+            lockMap.get(db).writeLock().unlock();
+        }
+    }
+
     abstract Connection openConnection(
             final File databaseDirectory,
             final String driverClasspath,
@@ -153,7 +153,7 @@ public class Derby_LocalDB extends AbstractJDBC_LocalDB {
         final long startTime = System.currentTimeMillis();
         CallableStatement statement = null;
         try {
-            LOCK.writeLock().lock();
+            lockForWrite(db);
             LOGGER.debug("beginning reclaim space in table " + db.toString());
             statement = dbConnection.prepareCall("CALL SYSCS_UTIL.SYSCS_INPLACE_COMPRESS_TABLE(?, ?, ?, ?, ?)");
             statement.setString(1, DERBY_DEFAULT_SCHEMA);
@@ -166,7 +166,7 @@ public class Derby_LocalDB extends AbstractJDBC_LocalDB {
             LOGGER.error("error reclaiming space in table " + db.toString() + ": " + ex.getMessage());
         } finally {
             close(statement);
-            LOCK.writeLock().unlock();
+            unlockForWrite(db);
         }
         LOGGER.debug("completed reclaimed space in table " + db.toString() + " (" + TimeDuration.fromCurrent(startTime).asCompactString() + ")");
     }
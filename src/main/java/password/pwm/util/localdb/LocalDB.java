@@ -133,6 +133,7 @@ public interface LocalDB {
         TEMP(false),
         SYSLOG_QUEUE(true),
         CACHE(false),
+        TOKEN_EXPIRY_INDEX(true),
 
         ;
 
@@ -26,6 +26,7 @@ import password.pwm.error.PwmDataStoreException;
 import password.pwm.util.ClosableIterator;
 import password.pwm.util.DataStore;
 
+import java.util.Collection;
 import java.util.Map;
 
 public class LocalDBDataStore implements DataStore {
@@ -85,6 +86,10 @@ public class LocalDBDataStore implements DataStore {
         return localDB.remove(db, key);
     }
 
+    public void removeAll(Collection<String> keys) throws PwmDataStoreException {
+        localDB.removeAll(db, keys);
+    }
+
     public int size() throws PwmDataStoreException {
         return localDB.size(db);
     }
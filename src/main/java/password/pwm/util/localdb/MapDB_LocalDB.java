@@ -31,10 +31,12 @@ import password.pwm.util.logging.PwmLogger;
 import java.io.File;
 import java.io.IOException;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import static password.pwm.util.localdb.LocalDB.DB;
@@ -49,17 +51,23 @@ public class MapDB_LocalDB implements LocalDBProvider {
     private static final String FILE_NAME = "mapdb";
 
     private org.mapdb.DB recman;
-    private final Map<LocalDB.DB, Map<String, String>> treeMap = new HashMap<>();
+    private final Map<LocalDB.DB, Map<String, String>> treeMap = new ConcurrentHashMap<>();
     private File dbDirectory;
 
-    // operation lock
-    private final ReadWriteLock LOCK = new ReentrantReadWriteLock();
+    // per-db operation locks, so a long write to one db does not block reads of the others
+    private final Map<LocalDB.DB, ReadWriteLock> lockMap = new ConcurrentHashMap<>();
+
+    // mapdb commits are store-wide, so mutations are serialized to keep each commit limited to a single db's changes
+    private final Lock commitLock = new ReentrantLock();
 
     private LocalDB.Status status = LocalDB.Status.NEW;
 
 // --------------------------- CONSTRUCTORS ---------------------------
 
     MapDB_LocalDB() {
+        for (final DB db : DB.values()) {
+            lockMap.put(db, new ReentrantReadWriteLock());
+        }
     }
 
 // ------------------------ INTERFACE METHODS ------------------------
@@ -76,7 +84,7 @@ public class MapDB_LocalDB implements LocalDBProvider {
         }
 
         try {
-            LOCK.writeLock().lock();
+            lockAllForWrite();
             final long startTime = System.currentTimeMillis();
             LOGGER.debug("closing pwmDB");
             recman.commit();
@@ -87,7 +95,7 @@ public class MapDB_LocalDB implements LocalDBProvider {
             LOGGER.error("error while closing LocalDB: " + e.getMessage(), e);
             throw new LocalDBException(new ErrorInformation(PwmError.ERROR_LOCALDB_UNAVAILABLE,e.getMessage()));
         } finally {
-            LOCK.writeLock().unlock();
+            unlockAllForWrite();
         }
     }
 
@@ -97,25 +105,20 @@ public class MapDB_LocalDB implements LocalDBProvider {
 
     public boolean contains(final LocalDB.DB db, final String key)
             throws LocalDBException {
-        try {
-            LOCK.readLock().lock();
-            return get(db, key) != null;
-        } finally {
-            LOCK.readLock().unlock();
-        }
+        return get(db, key) != null;
     }
 
     public String get(final LocalDB.DB db, final String key)
             throws LocalDBException {
         try {
-            LOCK.readLock().lock();
+            lockMap.get(db).readLock().lock();
             final Map<String, String> tree = getHTree(db);
             final Object value = tree.get(key);
             return value == null ? null : value.toString();
         } catch (IOException e) {
             throw new LocalDBException(new ErrorInformation(PwmError.ERROR_LOCALDB_UNAVAILABLE,e.getMessage()));
         } finally {
-            LOCK.readLock().unlock();
+            lockMap.get(db).readLock().unlock();
         }
     }
 
@@ -131,10 +134,13 @@ public class MapDB_LocalDB implements LocalDBProvider {
 
         final long startTime = System.currentTimeMillis();
         try {
-            LOCK.writeLock().lock();
+            lockAllForWrite();
             this.dbDirectory = dbDirectory;
             final File dbFile = new File(dbDirectory.getAbsolutePath() + File.separator + FILE_NAME);
             recman = DBMaker.newFileDB(dbFile).make();
+            for (final DB db : DB.values()) {
+                getHTree(db);
+            }
 
             LOGGER.info("LocalDB opened in " + TimeDuration.fromCurrent(startTime).asCompactString());
             status = LocalDB.Status.OPEN;
@@ -142,7 +148,7 @@ public class MapDB_LocalDB implements LocalDBProvider {
             LOGGER.error("error while opening localDB: " + e.getMessage(), e);
             throw new LocalDBException(new ErrorInformation(PwmError.ERROR_LOCALDB_UNAVAILABLE,e.getMessage()));
         } finally {
-            LOCK.writeLock().unlock();
+            unlockAllForWrite();
         }
     }
 
@@ -158,14 +164,14 @@ public class MapDB_LocalDB implements LocalDBProvider {
     public void putAll(final DB db, final Map<String, String> keyValueMap)
             throws LocalDBException {
         try {
-            LOCK.writeLock().lock();
+            lockForWrite(db);
             final Map<String, String> tree = getHTree(db);
             tree.putAll(keyValueMap);
             recman.commit();
         } catch (IOException e) {
             recman.rollback();
         } finally {
-            LOCK.writeLock().unlock();
+            unlockForWrite(db);
         }
     }
 
@@ -173,7 +179,7 @@ public class MapDB_LocalDB implements LocalDBProvider {
             throws LocalDBException {
         final boolean preExists;
         try {
-            LOCK.writeLock().lock();
+            lockForWrite(db);
             preExists = remove(db, key);
             final Map<String, String> tree = getHTree(db);
             tree.put(key, value);
@@ -181,7 +187,7 @@ public class MapDB_LocalDB implements LocalDBProvider {
         } catch (IOException e) {
             throw new LocalDBException(new ErrorInformation(PwmError.ERROR_LOCALDB_UNAVAILABLE,e.getMessage()));
         } finally {
-            LOCK.writeLock().unlock();
+            unlockForWrite(db);
         }
 
         return preExists;
@@ -191,7 +197,7 @@ public class MapDB_LocalDB implements LocalDBProvider {
     public boolean remove(final LocalDB.DB db, final String key)
             throws LocalDBException {
         try {
-            LOCK.writeLock().lock();
+            lockForWrite(db);
             final Map<String, String> tree = getHTree(db);
             final String removedValue = tree.remove(key);
             recman.commit();
@@ -199,19 +205,19 @@ public class MapDB_LocalDB implements LocalDBProvider {
         } catch (IOException e) {
             throw new LocalDBException(new ErrorInformation(PwmError.ERROR_LOCALDB_UNAVAILABLE,e.getMessage()));
         } finally {
-            LOCK.writeLock().unlock();
+            unlockForWrite(db);
         }
     }
 
     public int size(final LocalDB.DB db)
             throws LocalDBException {
         try {
-            LOCK.readLock().lock();
+            lockMap.get(db).readLock().lock();
             return getHTree(db).size();
         } catch (IOException e) {
             throw new LocalDBException(new ErrorInformation(PwmError.ERROR_LOCALDB_UNAVAILABLE,e.getMessage()));
         } finally {
-            LOCK.readLock().unlock();
+            lockMap.get(db).readLock().unlock();
         }
     }
 
@@ -224,14 +230,14 @@ public class MapDB_LocalDB implements LocalDBProvider {
         final long startTime = System.currentTimeMillis();
 
         try {
-            LOCK.writeLock().lock();
+            lockForWrite(db);
             final Map<String, String> tree = getHTree(db);
             tree.keySet().clear();
             recman.commit();
         } catch (IOException e) {
             throw new LocalDBException(new ErrorInformation(PwmError.ERROR_LOCALDB_UNAVAILABLE,e.getMessage()));
         } finally {
-            LOCK.writeLock().unlock();
+            unlockForWrite(db);
         }
 
         LOGGER.debug("truncate complete of " + db.toString() + ", " + startSize + " records in " + new TimeDuration(System.currentTimeMillis(), startTime).asCompactString() + ", " + size(db) + " records in database");
@@ -244,25 +250,54 @@ public class MapDB_LocalDB implements LocalDBProvider {
     public void removeAll(final LocalDB.DB db, final Collection<String> keys)
             throws LocalDBException {
         try {
-            LOCK.writeLock().lock();
+            lockForWrite(db);
             final Map<String, String> tree = getHTree(db);
             tree.keySet().removeAll(keys);
             recman.commit();
         } catch (IOException e) {
             throw new LocalDBException(new ErrorInformation(PwmError.ERROR_LOCALDB_UNAVAILABLE,e.getMessage()));
         } finally {
-            LOCK.writeLock().unlock();
+            unlockForWrite(db);
         }
     }
 
 // -------------------------- OTHER METHODS --------------------------
 
+    private void lockForWrite(final DB db) {
+        lockMap.get(db).writeLock().lock();
+        commitLock.lock();
+    }
+
+    private void unlockForWrite(final DB db) {
+        commitLock.unlock();
+        lockMap.get(db).writeLock().unlock();
+    }
+
+    private void lockAllForWrite() {
+        for (final DB db : DB.values()) {
+            lockMap.get(db).writeLock().lock();
+        }
+        commitLock.lock();
+    }
+
+    private void unlockAllForWrite() {
+        commitLock.unlock();
+        for (final DB db : DB.values()) {
+            lockMap.get(db).writeLock().unlock();
+        }
+    }
+
     private Map<String, String> getHTree(final DB keyName)
             throws IOException {
         Map<String, String> tree = treeMap.get(keyName);
         if (tree == null) {
-            tree = openHTree(keyName.toString(), recman);
-            treeMap.put(keyName, tree);
+            synchronized (treeMap) {
+                tree = treeMap.get(keyName);
+                if (tree == null) {
+                    tree = openHTree(keyName.toString(), recman);
+                    treeMap.put(keyName, tree);
+                }
+            }
         }
         return tree;
     }
@@ -39,12 +39,22 @@ import java.io.Serializable;
 import java.text.NumberFormat;
 import java.util.*;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
 /**
  * Saves a recent copy of PWM events in the pwmDB.
+ * <p/>
+ * Events are queued in memory and written by a single writer thread using group commit: the writer waits for the
+ * first pending event, then gathers further events into the same transaction until the batch reaches a size
+ * derived from the recent arrival rate or the events have waited {@link Settings#getMaxDirtyQueueAgeMs()}.
+ * <p/>
+ * When the queue fills faster than it can be written, low level events are sampled and then dropped, while
+ * warning and higher events wait for space in the queue.  Dropped events are counted and reported through
+ * the health checks rather than discarded silently.
  *
  * @author Jason D. Rivard
  */
@@ -55,20 +65,46 @@ public class LocalDBLogger implements PwmService {
 
     private final static int MINIMUM_MAXIMUM_EVENTS = 100;
 
+    // queue fill percentage at which trace and debug events are sampled
+    private final static int SAMPLING_THRESHOLD_PERCENT = 50;
+
+    // queue fill percentage at which only warning and higher events are accepted
+    private final static int BACKPRESSURE_THRESHOLD_PERCENT = 90;
+
+    // while sampling, one of this many trace and debug events is kept
+    private final static int SAMPLE_RATE = 10;
+
+    // longest a request thread waits for queue space for a warning or error before the event is dropped and counted
+    private final static long BACKPRESSURE_MAX_WAIT_MS = 5;
+    private final static long DISCARD_REPORT_INTERVAL_MS = 60 * 1000;
+    private final static long DROPPED_EVENT_HEALTH_WINDOW_MS = 60 * 60 * 1000;
+
     private volatile long tailTimestampMs = -1L;
-    private long lastQueueFlushTimestamp = System.currentTimeMillis();
+    private volatile long lastQueueFlushTimestamp = System.currentTimeMillis();
 
     private final LocalDB localDB;
     private final Settings settings;
-    private final Queue<PwmLogEvent> eventQueue = new LinkedBlockingQueue<>(PwmConstants.LOCALDB_LOGGER_MAX_QUEUE_SIZE);
+    private final LinkedBlockingQueue<PwmLogEvent> eventQueue = new LinkedBlockingQueue<>(PwmConstants.LOCALDB_LOGGER_MAX_QUEUE_SIZE);
     private final LocalDBStoredQueue localDBListQueue;
 
+    private final AtomicLong eventsQueued = new AtomicLong(0);
+    private final AtomicLong eventsFlushed = new AtomicLong(0);
+    private final AtomicLong eventsSampled = new AtomicLong(0);
+    private final AtomicLong eventsDropped = new AtomicLong(0);
+    private final AtomicLong sampleCounter = new AtomicLong(0);
+    private final LatencyTracker writeLatencyTracker = new LatencyTracker(1000);
+    private volatile long lastDroppedEventTimestamp = -1L;
+    private volatile int currentBatchSize = 1;
+
     private volatile STATUS status = STATUS.NEW;
     private volatile boolean writerThreadActive = false;
+    private volatile Thread writerThread;
     private boolean hasShownReadError = false;
 
+    private final static long TRANSACTION_TIME_GOAL_MS = 2049;
+
     private final TransactionSizeCalculator transactionCalculator = new TransactionSizeCalculator(
-            2049, // transaction time goal
+            TRANSACTION_TIME_GOAL_MS,
             5,
             PwmConstants.LOCALDB_LOGGER_MAX_QUEUE_SIZE
     );
@@ -104,7 +140,7 @@ public class LocalDBLogger implements PwmService {
         status = STATUS.OPEN;
 
         { // start the writer thread
-            final Thread writerThread = new Thread(new WriterThread());
+            writerThread = new Thread(new WriterThread());
             writerThread.setName(Helper.makeThreadName(pwmApplication, LocalDBLogger.class));
             writerThread.setDaemon(true);
             writerThread.start();
@@ -140,6 +176,13 @@ public class LocalDBLogger implements PwmService {
         sb.append(", maxEvents=").append(settings.getMaxEvents());
         sb.append(", maxAge=").append(settings.getMaxAgeMs() > 1 ? new TimeDuration(settings.getMaxAgeMs()).asCompactString() : "none");
         sb.append(", localDBSize=").append(Helper.formatDiskSize(FileSystemUtility.getFileDirectorySize(localDB.getFileLocation())));
+        sb.append(", pending=").append(eventQueue.size());
+        sb.append(", queued=").append(eventsQueued.get());
+        sb.append(", flushed=").append(eventsFlushed.get());
+        sb.append(", sampled=").append(eventsSampled.get());
+        sb.append(", dropped=").append(eventsDropped.get());
+        sb.append(", batchSize=").append(currentBatchSize);
+        sb.append(", writeLatency=").append(writeLatencyTracker.debugString());
         return sb.toString();
     }
 
@@ -179,36 +222,42 @@ public class LocalDBLogger implements PwmService {
 
     private int flushQueue() {
         final List<PwmLogEvent> tempList = new ArrayList<>();
-        final int desiredTransactionSize = transactionCalculator.getTransactionSize();
-        PwmLogEvent nextEvent = eventQueue.poll();
-        while (nextEvent != null && tempList.size() < desiredTransactionSize) {
-            tempList.add(nextEvent);
-            nextEvent = eventQueue.poll();
-        }
+        eventQueue.drainTo(tempList, transactionCalculator.getTransactionSize());
 
         if (!tempList.isEmpty()) {
             doWrite(tempList);
-            lastQueueFlushTimestamp = System.currentTimeMillis();
-            //System.out.println("flush size: " + tempList.size());
         }
 
         return tempList.size();
     }
 
     private void doWrite(final Collection<PwmLogEvent> events) {
+        final long startTime = System.currentTimeMillis();
         final List<String> transactions = new ArrayList<>();
         try {
             for (final PwmLogEvent event : events) {
                 final String encodedString = event.toEncodedString();
                 if (encodedString.length() < LocalDB.MAX_VALUE_LENGTH) {
                     transactions.add(encodedString);
+                } else {
+                    markDropped();
                 }
             }
 
             localDBListQueue.addAll(transactions);
+            eventsFlushed.addAndGet(transactions.size());
         } catch (Exception e) {
+            eventsDropped.addAndGet(transactions.size());
+            lastDroppedEventTimestamp = System.currentTimeMillis();
             LOGGER.error("error writing to localDBLogger: " + e.getMessage(), e);
         }
+        writeLatencyTracker.recordLatency(System.currentTimeMillis() - startTime);
+        lastQueueFlushTimestamp = System.currentTimeMillis();
+    }
+
+    private void markDropped() {
+        eventsDropped.incrementAndGet();
+        lastDroppedEventTimestamp = System.currentTimeMillis();
     }
 
     public Date getTailDate() {
@@ -223,6 +272,10 @@ public class LocalDBLogger implements PwmService {
         return eventQueue.size();
     }
 
+    public long getDroppedEventCount() {
+        return eventsDropped.get();
+    }
+
     private int determineTailRemovalCount() {
         final int currentItemCount = localDBListQueue.size();
 
@@ -413,26 +466,53 @@ public class LocalDBLogger implements PwmService {
 
 
     public void writeEvent(final PwmLogEvent event) {
-        if (status == STATUS.OPEN) {
-            if (settings.getMaxEvents() > 0) {
-                boolean success = eventQueue.offer(event);
-                if (!success) { // if event queue isn't overflowed, simply add event to write queue
-                    final long startEventTime = System.currentTimeMillis();
-                    while (TimeDuration.fromCurrent(startEventTime).isShorterThan(30 * 1000) && !success) {
-                        Helper.pause(100);
-                        success = eventQueue.offer(event);
-                    }
-                    if (!success) {
-                        LOGGER.warn("discarding event due to full write queue: " + event.toString());
-                    }
+        if (status != STATUS.OPEN || settings.getMaxEvents() <= 0) {
+            return;
+        }
+
+        final int fillPercent = (eventQueue.size() * 100) / PwmConstants.LOCALDB_LOGGER_MAX_QUEUE_SIZE;
+        final PwmLogLevel level = event.getLevel() == null ? PwmLogLevel.TRACE : event.getLevel();
+        final boolean priorityEvent = level.compareTo(PwmLogLevel.WARN) >= 0;
+
+        if (!priorityEvent) {
+            if (fillPercent >= BACKPRESSURE_THRESHOLD_PERCENT) {
+                markDropped();
+                return;
+            }
+            if (fillPercent >= SAMPLING_THRESHOLD_PERCENT && level.compareTo(PwmLogLevel.INFO) < 0) {
+                if (sampleCounter.incrementAndGet() % SAMPLE_RATE != 0) {
+                    eventsSampled.incrementAndGet();
+                    return;
                 }
             }
         }
+
+        boolean success = eventQueue.offer(event);
+        if (!success && priorityEvent && Thread.currentThread() != writerThread) {
+            // give the writer a brief chance to make room for a warning or error, without stalling the caller
+            try {
+                success = eventQueue.offer(event, BACKPRESSURE_MAX_WAIT_MS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        if (success) {
+            eventsQueued.incrementAndGet();
+        } else {
+            markDropped();
+        }
     }
 
 // -------------------------- INNER CLASSES --------------------------
 
     private class WriterThread implements Runnable {
+        private double arrivalRate = 0;
+        private long lastRateTimestamp = System.currentTimeMillis();
+        private long lastRateQueuedCount = 0;
+        private long lastDiscardReportTimestamp = System.currentTimeMillis();
+        private long lastReportedDiscards = 0;
+
         public void run() {
             LOGGER.debug("writer thread open");
             writerThreadActive = true;
@@ -448,8 +528,18 @@ public class LocalDBLogger implements PwmService {
             LOGGER.debug("starting writer thread loop");
 
             while (status == STATUS.OPEN) {
-                long startLoopTime = System.currentTimeMillis();
-                final int writesDone = flushQueue();
+                final List<PwmLogEvent> batch;
+                try {
+                    batch = collectBatch();
+                } catch (InterruptedException e) {
+                    LOGGER.debug("writer thread interrupted");
+                    break;
+                }
+
+                final long startWriteTime = System.currentTimeMillis();
+                if (!batch.isEmpty()) {
+                    doWrite(batch);
+                }
 
                 final int purgeCount = determineTailRemovalCount();
                 int purgesDone = 0;
@@ -460,27 +550,84 @@ public class LocalDBLogger implements PwmService {
                     purgesDone = removalCount;
                 }
 
-                final int totalWork = writesDone + purgesDone;
-                if (totalWork == 0) {
-                    Helper.pause(settings.getMaxDirtyQueueAgeMs());
-                    if (settings.isDevDebug()) {
-                        LOGGER.trace("no work on last cycle, sleeping for " + new TimeDuration(settings.getMaxDirtyQueueAgeMs()).asCompactString() + " queue size=" + getPendingEventCount());
-                    }
-                } else if (totalWork < 5) {
-                    Helper.pause(settings.getMaxDirtyQueueAgeMs());
-                    if (settings.isDevDebug()) {
-                        LOGGER.trace("minor work on last cycle, sleeping for " + new TimeDuration(settings.getMaxDirtyQueueAgeMs()).asCompactString() + " queue size=" + getPendingEventCount());
-                    }
-                } else {
-                    final TimeDuration txnDuration = TimeDuration.fromCurrent(startLoopTime);
+                final int totalWork = batch.size() + purgesDone;
+                if (totalWork >= 5) {
+                    final TimeDuration txnDuration = TimeDuration.fromCurrent(startWriteTime);
                     transactionCalculator.recordLastTransactionDuration(txnDuration);
                     if (settings.isDevDebug()) {
-                        LOGGER.trace("tick writes=" + writesDone+ ", purges=" + purgesDone + ", queue=" + getPendingEventCount() + ", txnCalcSize=" + transactionCalculator.getTransactionSize() + ", txnDuration=" + txnDuration.getTotalMilliseconds());
+                        LOGGER.trace("tick writes=" + batch.size() + ", purges=" + purgesDone + ", queue=" + getPendingEventCount() + ", batchSize=" + currentBatchSize + ", txnCalcSize=" + transactionCalculator.getTransactionSize() + ", txnDuration=" + txnDuration.getTotalMilliseconds());
                     }
                 }
+
+                reportDiscards();
             }
             LOGGER.debug("writer thread exiting");
         }
+
+        /**
+         * Wait for the first pending event, then keep adding events to the batch until it reaches the target size
+         * for the current arrival rate, or until the first event has waited for the maximum dirty queue age.
+         */
+        private List<PwmLogEvent> collectBatch() throws InterruptedException {
+            final List<PwmLogEvent> batch = new ArrayList<>();
+            final long maxWaitMs = settings.getMaxDirtyQueueAgeMs();
+
+            final PwmLogEvent firstEvent = eventQueue.poll(maxWaitMs, TimeUnit.MILLISECONDS);
+            if (firstEvent == null) {
+                return batch;
+            }
+            batch.add(firstEvent);
+
+            final int targetSize = calculateBatchSize();
+            currentBatchSize = targetSize;
+            final long deadline = System.currentTimeMillis() + maxWaitMs;
+            while (batch.size() < targetSize && status == STATUS.OPEN) {
+                eventQueue.drainTo(batch, targetSize - batch.size());
+                final long remainingMs = deadline - System.currentTimeMillis();
+                if (batch.size() >= targetSize || remainingMs <= 0) {
+                    break;
+                }
+                final PwmLogEvent nextEvent = eventQueue.poll(remainingMs, TimeUnit.MILLISECONDS);
+                if (nextEvent == null) {
+                    break;
+                }
+                batch.add(nextEvent);
+            }
+            return batch;
+        }
+
+        /**
+         * The batch size is the number of events expected to arrive within the maximum dirty queue age, bounded by
+         * the transaction size that the local db can commit within the transaction time goal.
+         */
+        private int calculateBatchSize() {
+            final long now = System.currentTimeMillis();
+            final long elapsedMs = now - lastRateTimestamp;
+            if (elapsedMs >= 100) {
+                final long queuedCount = eventsQueued.get();
+                final double currentRate = (queuedCount - lastRateQueuedCount) * 1000.0 / elapsedMs;
+                arrivalRate = arrivalRate == 0 ? currentRate : (arrivalRate * 0.7) + (currentRate * 0.3);
+                lastRateQueuedCount = queuedCount;
+                lastRateTimestamp = now;
+            }
+
+            final int expectedArrivals = (int)Math.ceil(arrivalRate * settings.getMaxDirtyQueueAgeMs() / 1000);
+            final int maxSize = transactionCalculator.getTransactionSize();
+            return Math.max(1, Math.min(Math.max(expectedArrivals, eventQueue.size() + 1), maxSize));
+        }
+
+        private void reportDiscards() {
+            if (TimeDuration.fromCurrent(lastDiscardReportTimestamp).isShorterThan(DISCARD_REPORT_INTERVAL_MS)) {
+                return;
+            }
+            final long discards = eventsDropped.get() + eventsSampled.get();
+            if (discards > lastReportedDiscards) {
+                LOGGER.warn("write queue overloaded, discarded " + (discards - lastReportedDiscards) + " events in the last "
+                        + TimeDuration.fromCurrent(lastDiscardReportTimestamp).asCompactString() + " (" + debugStats() + ")");
+            }
+            lastReportedDiscards = discards;
+            lastDiscardReportTimestamp = System.currentTimeMillis();
+        }
     }
 
     public class SearchResults implements Serializable, Iterator<PwmLogEvent> {
@@ -590,6 +737,18 @@ public class LocalDBLogger implements PwmService {
             healthRecords.add(new HealthRecord(HealthStatus.CAUTION, HealthTopic.Application, "Oldest record is " + timeDuration.asCompactString() + ", configured maximum is " + new TimeDuration(settings.getMaxAgeMs()).asCompactString()));
         }
 
+        if (lastDroppedEventTimestamp > 0 && TimeDuration.fromCurrent(lastDroppedEventTimestamp).isShorterThan(DROPPED_EVENT_HEALTH_WINDOW_MS)) {
+            healthRecords.add(new HealthRecord(HealthStatus.CAUTION, HealthTopic.Application, "LocalDB log write queue is overloaded, "
+                    + NumberFormat.getInstance().format(eventsDropped.get()) + " events dropped and "
+                    + NumberFormat.getInstance().format(eventsSampled.get()) + " events sampled out since startup (" + debugStats() + ")"));
+        }
+
+        final long p99Latency = writeLatencyTracker.percentile(99);
+        if (p99Latency > TRANSACTION_TIME_GOAL_MS * 5) {
+            healthRecords.add(new HealthRecord(HealthStatus.CAUTION, HealthTopic.Application, "LocalDB log write latency is high, "
+                    + writeLatencyTracker.debugString()));
+        }
+
         return healthRecords;
     }
 
@@ -613,7 +772,17 @@ public class LocalDBLogger implements PwmService {
 
     public ServiceInfo serviceInfo()
     {
-        return new ServiceInfo(Collections.singletonList(DataStorageMethod.LOCALDB));
+        final Map<String,String> debugProperties = new LinkedHashMap<>();
+        debugProperties.put("pending", String.valueOf(eventQueue.size()));
+        debugProperties.put("queued", String.valueOf(eventsQueued.get()));
+        debugProperties.put("flushed", String.valueOf(eventsFlushed.get()));
+        debugProperties.put("sampled", String.valueOf(eventsSampled.get()));
+        debugProperties.put("dropped", String.valueOf(eventsDropped.get()));
+        debugProperties.put("batchSize", String.valueOf(currentBatchSize));
+        debugProperties.put("writeLatencyP50", String.valueOf(writeLatencyTracker.percentile(50)));
+        debugProperties.put("writeLatencyP95", String.valueOf(writeLatencyTracker.percentile(95)));
+        debugProperties.put("writeLatencyP99", String.valueOf(writeLatencyTracker.percentile(99)));
+        return new ServiceInfo(Collections.singletonList(DataStorageMethod.LOCALDB), debugProperties);
     }
 
     public static class Settings implements Serializable {
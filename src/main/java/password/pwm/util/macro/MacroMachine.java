@@ -22,6 +22,7 @@
 
 package password.pwm.util.macro;
 
+import com.googlecode.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
 import password.pwm.PwmApplication;
 import password.pwm.PwmConstants;
 import password.pwm.bean.SessionLabel;
@@ -49,7 +50,14 @@ public class MacroMachine {
     private final UserInfoBean userInfoBean;
     private final LoginInfoBean loginInfoBean;
     private final UserDataReader userDataReader;
-    private final Map<Pattern,MacroImplementation> macroImplementations;
+    private final MacroSet macroSet;
+
+    private static volatile MacroSet cachedMacroSet;
+
+    private static final int MAX_CACHED_TEMPLATES = 500;
+    private static final int MAX_CACHED_TEMPLATE_LENGTH = 64 * 1024;
+    private static final Pattern WRAPPER_PREFIX_PATTERN = Pattern.compile("^@Encode:[^:]+:\\[\\[");
+    private static final String WRAPPER_SUFFIX = "]]@";
 
     public MacroMachine(
             final PwmApplication pwmApplication,
@@ -64,42 +72,51 @@ public class MacroMachine {
         this.userInfoBean = userInfoBean;
         this.loginInfoBean = loginInfoBean;
         this.userDataReader = userDataReader;
-        this.macroImplementations = makeImplementations();
+        this.macroSet = macroSetFor(pwmApplication, sessionLabel);
+    }
+
+    /**
+     * Macro implementations are stateless, so a single set (along with its compiled templates) is shared by all
+     * instances until the configured external macro urls change.
+     */
+    private static MacroSet macroSetFor(final PwmApplication pwmApplication, final SessionLabel sessionLabel) {
+        final List<String> externalUrls = pwmApplication == null
+                ? Collections.<String>emptyList()
+                : pwmApplication.getConfig().readSettingAsStringArray(PwmSetting.EXTERNAL_MACROS_REST_URLS);
+
+        final MacroSet existingSet = cachedMacroSet;
+        if (existingSet != null && existingSet.externalUrls.equals(externalUrls)) {
+            return existingSet;
+        }
+
+        final MacroSet newSet = new MacroSet(externalUrls, makeImplementations(externalUrls, sessionLabel));
+        cachedMacroSet = newSet;
+        return newSet;
     }
 
-    private Map<Pattern,MacroImplementation> makeImplementations() {
-        final Set<Class<? extends MacroImplementation>> implementations = new HashSet<>();
+    private static List<MacroImplementation> makeImplementations(final List<String> externalUrls, final SessionLabel sessionLabel) {
+        final Set<Class<? extends MacroImplementation>> implementations = new LinkedHashSet<>();
         implementations.addAll(StandardMacros.STANDARD_MACROS);
         implementations.addAll(InternalMacros.INTERNAL_MACROS);
-        final LinkedHashMap<Pattern,MacroImplementation> map = new LinkedHashMap<>();
+        final List<MacroImplementation> list = new ArrayList<>();
 
         for (Class macroClass : implementations) {
             try {
                 final MacroImplementation macroImplementation = (MacroImplementation)macroClass.newInstance();
-                final Pattern pattern = macroImplementation.getRegExPattern();
-                map.put(pattern,macroImplementation);
+                list.add(macroImplementation);
             } catch (Exception e) {
                 LOGGER.error(sessionLabel, "unable to load macro class " + macroClass.getName() + ", error: " + e.getMessage());
             }
         }
 
-        final List<String> externalMethods = pwmApplication == null
-                ? Collections.<String>emptyList()
-                : pwmApplication.getConfig().readSettingAsStringArray(PwmSetting.EXTERNAL_MACROS_REST_URLS);
-
         int iteration = 0;
-        for (final String url : externalMethods) {
+        for (final String url : externalUrls) {
             iteration++;
-            final MacroImplementation macroImplementation = new ExternalRestMacro(iteration,url);
-            final Pattern pattern = macroImplementation.getRegExPattern();
-            map.put(pattern,macroImplementation);
+            list.add(new ExternalRestMacro(iteration,url));
         }
-        return map;
+        return Collections.unmodifiableList(list);
     }
 
-
-
-
     public String expandMacros(
             final String input
     ) {
@@ -115,7 +132,7 @@ public class MacroMachine {
             return null;
         }
 
-        if (input.length() < 1) {
+        if (input.length() < 1 || input.indexOf('@') < 0) {
             return input;
         }
 
@@ -145,51 +162,72 @@ public class MacroMachine {
             }
         };
 
+        final CompiledTemplate compiledTemplate = macroSet.compiledTemplate(input);
+        if (compiledTemplate.isLiteral()) {
+            return input;
+        }
 
-        String workingString = input;
+        final Map<String,String> ldapValueCache = new HashMap<>();
+        return expandTemplate(compiledTemplate, stringReplacer, macroRequestInfo, ldapValueCache);
+    }
 
-        for (final Pattern pattern : macroImplementations.keySet()) {
-            final MacroImplementation pwmMacro = macroImplementations.get(pattern);
-            boolean matched = true;
-            while (matched) {
-                final Matcher matcher = pattern.matcher(workingString);
-                if (matcher.find()) {
-                    workingString = doReplace(workingString, pwmMacro, matcher, stringReplacer, macroRequestInfo);
-                } else {
-                    matched = false;
-                }
+    private String expandTemplate(
+            final CompiledTemplate compiledTemplate,
+            final StringReplacer stringReplacer,
+            final MacroImplementation.MacroRequestInfo macroRequestInfo,
+            final Map<String,String> ldapValueCache
+    ) {
+        final StringBuilder output = new StringBuilder();
+        for (final TemplateSegment segment : compiledTemplate.segments) {
+            if (segment.macroImplementation == null) {
+                output.append(segment.text);
+                continue;
             }
-        }
 
-        return workingString;
+            // wrapper macros operate on the already expanded value of their inner template
+            final String matchedStr = segment.innerTemplate == null
+                    ? segment.text
+                    : segment.text.substring(0, segment.innerStart)
+                    + expandTemplate(segment.innerTemplate, null, macroRequestInfo, ldapValueCache)
+                    + WRAPPER_SUFFIX;
+
+            output.append(doReplace(matchedStr, segment.macroImplementation, stringReplacer, macroRequestInfo, ldapValueCache));
+        }
+        return output.toString();
     }
 
     private String doReplace(
-            final String input,
+            final String matchedStr,
             final MacroImplementation macroImplementation,
-            final Matcher matcher,
             final StringReplacer stringReplacer,
-            final MacroImplementation.MacroRequestInfo macroRequestInfo
+            final MacroImplementation.MacroRequestInfo macroRequestInfo,
+            final Map<String,String> ldapValueCache
     ) {
-        final String matchedStr = matcher.group();
-        final int startPos = matcher.start();
-        final int endPos = matcher.end();
+        // ldap values can not change during a single expansion, so repeated references are only read once
+        final boolean cacheable = macroImplementation instanceof StandardMacros.LdapMacro;
         String replaceStr = "";
-        try {
-            replaceStr = macroImplementation.replaceValue(matchedStr, macroRequestInfo);
-        } catch (MacroParseException e) {
-            LOGGER.debug(sessionLabel, "macro parse error replacing macro '" + matchedStr + "', error: " + e.getMessage());
-            if (pwmApplication != null) {
-                replaceStr = "[" + e.getErrorInformation().toUserStr(PwmConstants.DEFAULT_LOCALE, macroRequestInfo.getPwmApplication().getConfig()) + "]";
-            } else {
-                replaceStr = "[" + e.getErrorInformation().toUserStr(PwmConstants.DEFAULT_LOCALE, null) + "]";
+        if (cacheable && ldapValueCache.containsKey(matchedStr)) {
+            replaceStr = ldapValueCache.get(matchedStr);
+        } else {
+            try {
+                replaceStr = macroImplementation.replaceValue(matchedStr, macroRequestInfo);
+                if (cacheable) {
+                    ldapValueCache.put(matchedStr, replaceStr);
+                }
+            } catch (MacroParseException e) {
+                LOGGER.debug(sessionLabel, "macro parse error replacing macro '" + matchedStr + "', error: " + e.getMessage());
+                if (pwmApplication != null) {
+                    replaceStr = "[" + e.getErrorInformation().toUserStr(PwmConstants.DEFAULT_LOCALE, macroRequestInfo.getPwmApplication().getConfig()) + "]";
+                } else {
+                    replaceStr = "[" + e.getErrorInformation().toUserStr(PwmConstants.DEFAULT_LOCALE, null) + "]";
+                }
+            }  catch (Exception e) {
+                LOGGER.error(sessionLabel, "error while replacing macro '" + matchedStr + "', error: " + e.getMessage());
             }
-        }  catch (Exception e) {
-            LOGGER.error(sessionLabel, "error while replacing macro '" + matchedStr + "', error: " + e.getMessage());
         }
 
         if (replaceStr == null) {
-            return input;
+            return matchedStr;
         }
 
         if (stringReplacer != null) {
@@ -204,7 +242,125 @@ public class MacroMachine {
             LOGGER.trace(sessionLabel, "replaced macro " + matchedStr + " with value: "
                     + (macroImplementation.isSensitive() ? PwmConstants.LOG_REMOVED_VALUE_REPLACEMENT : replaceStr));
         }
-        return new StringBuilder(input).replace(startPos, endPos, replaceStr).toString();
+        return replaceStr == null ? "" : replaceStr;
+    }
+
+    private static class MacroSet {
+        private final List<String> externalUrls;
+        private final List<MacroImplementation> implementations;
+        private final Map<String,CompiledTemplate> templateCache = new ConcurrentLinkedHashMap.Builder<String, CompiledTemplate>()
+                .maximumWeightedCapacity(MAX_CACHED_TEMPLATES)
+                .build();
+
+        private MacroSet(final List<String> externalUrls, final List<MacroImplementation> implementations) {
+            this.externalUrls = new ArrayList<>(externalUrls);
+            this.implementations = implementations;
+        }
+
+        private CompiledTemplate compiledTemplate(final String input) {
+            final CompiledTemplate cachedTemplate = templateCache.get(input);
+            if (cachedTemplate != null) {
+                return cachedTemplate;
+            }
+
+            final CompiledTemplate compiledTemplate = compile(input);
+            if (input.length() <= MAX_CACHED_TEMPLATE_LENGTH) {
+                templateCache.put(input, compiledTemplate);
+            }
+            return compiledTemplate;
+        }
+
+        /**
+         * Splits the input into literal text and macro tokens in a single scan.  At each '@' the macro patterns are
+         * tried in registration order, and the first one matching at that position becomes a token.
+         */
+        private CompiledTemplate compile(final String input) {
+            final Matcher[] matchers = new Matcher[implementations.size()];
+            final List<TemplateSegment> segments = new ArrayList<>();
+            int literalStart = 0;
+            int pos = input.indexOf('@');
+            while (pos >= 0) {
+                int tokenEnd = -1;
+                MacroImplementation tokenImplementation = null;
+                for (int i = 0; i < matchers.length && tokenImplementation == null; i++) {
+                    if (matchers[i] == null) {
+                        matchers[i] = implementations.get(i).getRegExPattern().matcher(input);
+                    }
+                    final Matcher matcher = matchers[i];
+                    matcher.region(pos, input.length());
+                    if (matcher.lookingAt() && matcher.end() > pos) {
+                        tokenEnd = matcher.end();
+                        tokenImplementation = implementations.get(i);
+                    }
+                }
+
+                if (tokenImplementation == null) {
+                    pos = input.indexOf('@', pos + 1);
+                } else {
+                    if (pos > literalStart) {
+                        segments.add(new TemplateSegment(input.substring(literalStart, pos), null, null, 0));
+                    }
+                    segments.add(makeTokenSegment(input.substring(pos, tokenEnd), tokenImplementation));
+                    literalStart = tokenEnd;
+                    pos = input.indexOf('@', tokenEnd);
+                }
+            }
+            if (literalStart < input.length()) {
+                segments.add(new TemplateSegment(input.substring(literalStart), null, null, 0));
+            }
+            return new CompiledTemplate(segments);
+        }
+
+        private TemplateSegment makeTokenSegment(final String tokenText, final MacroImplementation macroImplementation) {
+            if (macroImplementation instanceof StandardMacros.EncodingMacro) {
+                final Matcher prefixMatcher = WRAPPER_PREFIX_PATTERN.matcher(tokenText);
+                if (prefixMatcher.find() && tokenText.endsWith(WRAPPER_SUFFIX) && prefixMatcher.end() <= tokenText.length() - WRAPPER_SUFFIX.length()) {
+                    final int innerStart = prefixMatcher.end();
+                    final String innerText = tokenText.substring(innerStart, tokenText.length() - WRAPPER_SUFFIX.length());
+                    return new TemplateSegment(tokenText, macroImplementation, compile(innerText), innerStart);
+                }
+            }
+            return new TemplateSegment(tokenText, macroImplementation, null, 0);
+        }
+    }
+
+    private static class CompiledTemplate {
+        private final List<TemplateSegment> segments;
+        private final boolean literal;
+
+        private CompiledTemplate(final List<TemplateSegment> segments) {
+            this.segments = Collections.unmodifiableList(segments);
+            boolean literal = true;
+            for (final TemplateSegment segment : segments) {
+                if (segment.macroImplementation != null) {
+                    literal = false;
+                }
+            }
+            this.literal = literal;
+        }
+
+        private boolean isLiteral() {
+            return literal;
+        }
+    }
+
+    private static class TemplateSegment {
+        private final String text;
+        private final MacroImplementation macroImplementation;
+        private final CompiledTemplate innerTemplate;
+        private final int innerStart;
+
+        private TemplateSegment(
+                final String text,
+                final MacroImplementation macroImplementation,
+                final CompiledTemplate innerTemplate,
+                final int innerStart
+        ) {
+            this.text = text;
+            this.macroImplementation = macroImplementation;
+            this.innerTemplate = innerTemplate;
+            this.innerStart = innerStart;
+        }
     }
 
     public static MacroMachine forStatic() {
@@ -173,7 +173,7 @@ public class OtpService implements PwmService {
             final OTPUserRecord.RecoveryInfo recoveryInfo = new OTPUserRecord.RecoveryInfo();
             if (settings.getOtpStorageFormat().supportsHashedRecoveryCodes()) {
                 LOGGER.trace(sessionLabel, "hashing the recovery codes");
-                final int saltCharLength = Integer.parseInt(pwmApplication.getConfig().readAppProperty(AppProperty.OTP_SALT_CHARLENGTH));
+                final int saltCharLength = pwmApplication.getConfig().readAppPropertyAsInt(AppProperty.OTP_SALT_CHARLENGTH);
                 recoveryInfo.setSalt(PwmRandom.getInstance().alphaNumericString(saltCharLength));
                 recoveryInfo.setHashCount(settings.getRecoveryHashIterations());
                 recoveryInfo.setHashMethod(settings.getRecoveryHashMethod());
@@ -467,12 +467,12 @@ public class OtpService implements PwmService {
             
             otpSettings.otpStorageFormat = config.readSettingAsEnum(PwmSetting.OTP_SECRET_STORAGEFORMAT,OTPStorageFormat.class);
             otpSettings.recoveryCodesCount = (int)config.readSettingAsLong(PwmSetting.OTP_RECOVERY_CODES);
-            otpSettings.totpPastIntervals = Integer.parseInt(config.readAppProperty(AppProperty.TOTP_PAST_INTERVALS));
-            otpSettings.totpFutureIntervals = Integer.parseInt(config.readAppProperty(AppProperty.TOTP_FUTURE_INTERVALS));
-            otpSettings.totpIntervalSeconds = Integer.parseInt(config.readAppProperty(AppProperty.TOTP_INTERVAL));
-            otpSettings.otpTokenLength = Integer.parseInt(config.readAppProperty(AppProperty.OTP_TOKEN_LENGTH));
+            otpSettings.totpPastIntervals = config.readAppPropertyAsInt(AppProperty.TOTP_PAST_INTERVALS);
+            otpSettings.totpFutureIntervals = config.readAppPropertyAsInt(AppProperty.TOTP_FUTURE_INTERVALS);
+            otpSettings.totpIntervalSeconds = config.readAppPropertyAsInt(AppProperty.TOTP_INTERVAL);
+            otpSettings.otpTokenLength = config.readAppPropertyAsInt(AppProperty.OTP_TOKEN_LENGTH);
             otpSettings.recoveryTokenMacro = config.readAppProperty(AppProperty.OTP_RECOVERY_TOKEN_MACRO);
-            otpSettings.recoveryHashIterations = Integer.parseInt(config.readAppProperty(AppProperty.OTP_RECOVERY_HASH_COUNT));
+            otpSettings.recoveryHashIterations = config.readAppPropertyAsInt(AppProperty.OTP_RECOVERY_HASH_COUNT);
             otpSettings.recoveryHashMethod = config.readAppProperty(AppProperty.OTP_RECOVERY_HASH_METHOD);
             return otpSettings;
         }
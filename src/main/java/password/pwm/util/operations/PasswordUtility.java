@@ -68,7 +68,7 @@ import java.util.*;
  */
 public class PasswordUtility {
     private static final PwmLogger LOGGER = PwmLogger.forClass(PasswordUtility.class);
-    private static final String NEGATIVE_CACHE_HIT = "NEGATIVE_CACHE_HIT";
+    private static final ErrorInformation PASSWORD_MEETS_RULES_RESULT = new ErrorInformation(PwmError.PASSWORD_MEETS_RULES);
 
     public static String sendNewPassword(
             final UserInfoBean userInfoBean,
@@ -819,7 +819,7 @@ public class PasswordUtility {
         final boolean passwordIsCaseSensitive = userInfoBean.getPasswordPolicy() == null || userInfoBean.getPasswordPolicy().getRuleHelper().readBooleanValue(PwmPasswordRule.CaseSensitive);
         final CachePolicy cachePolicy;
         {
-            final long cacheLifetimeMS = Long.parseLong(pwmApplication.getConfig().readAppProperty(AppProperty.CACHE_PWRULECHECK_LIFETIME_MS));
+            final long cacheLifetimeMS = pwmApplication.getConfig().readAppPropertyAsLong(AppProperty.CACHE_PWRULECHECK_LIFETIME_MS);
             cachePolicy = CachePolicy.makePolicyWithExpirationMS(cacheLifetimeMS);
         }
 
@@ -838,14 +838,13 @@ public class PasswordUtility {
             }
             try {
                 if (cacheService != null && cacheKey != null) {
-                    final String cachedValue = cacheService.get(cacheKey);
+                    final ErrorInformation cachedValue = cacheService.get(cacheKey, ErrorInformation.class);
                     if (cachedValue != null) {
-                        if (NEGATIVE_CACHE_HIT.equals(cachedValue)) {
+                        if (cachedValue.getError() == PwmError.PASSWORD_MEETS_RULES) {
                             pass = true;
                         } else {
                             LOGGER.trace("cache hit!");
-                            final ErrorInformation errorInformation = JsonUtil.deserialize(cachedValue, ErrorInformation.class);
-                            throw new PwmDataValidationException(errorInformation);
+                            throw new PwmDataValidationException(cachedValue);
                         }
                     }
                 }
@@ -855,7 +854,7 @@ public class PasswordUtility {
                     pwmPasswordRuleValidator.testPassword(password, oldPassword, userInfoBean, user);
                     pass = true;
                     if (cacheService != null && cacheKey != null) {
-                        cacheService.put(cacheKey, cachePolicy, NEGATIVE_CACHE_HIT);
+                        cacheService.put(cacheKey, cachePolicy, PASSWORD_MEETS_RULES_RESULT);
                     }
                 }
             } catch (PwmDataValidationException e) {
@@ -863,8 +862,7 @@ public class PasswordUtility {
                 userMessage = e.getErrorInformation().toUserStr(locale, pwmApplication.getConfig());
                 pass = false;
                 if (cacheService != null && cacheKey != null) {
-                    final String jsonPayload = JsonUtil.serialize(e.getErrorInformation());
-                    cacheService.put(cacheKey, cachePolicy, jsonPayload);
+                    cacheService.put(cacheKey, cachePolicy, e.getErrorInformation());
                 }
             }
         }
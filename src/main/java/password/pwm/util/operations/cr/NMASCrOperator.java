@@ -98,9 +98,9 @@ public class NMASCrOperator implements CrOperator {
 
     public NMASCrOperator(PwmApplication pwmApplication) {
         this.pwmApplication = pwmApplication;
-        maxThreadCount = Integer.parseInt(pwmApplication.getConfig().readAppProperty(AppProperty.NMAS_THREADS_MAX_COUNT));
-        final int MAX_SECONDS = Integer.parseInt(pwmApplication.getConfig().readAppProperty(AppProperty.NMAS_THREADS_MAX_SECONDS));
-        final int MIN_SECONDS = Integer.parseInt(pwmApplication.getConfig().readAppProperty(AppProperty.NMAS_THREADS_MIN_SECONDS));
+        maxThreadCount = pwmApplication.getConfig().readAppPropertyAsInt(AppProperty.NMAS_THREADS_MAX_COUNT);
+        final int MAX_SECONDS = pwmApplication.getConfig().readAppPropertyAsInt(AppProperty.NMAS_THREADS_MAX_SECONDS);
+        final int MIN_SECONDS = pwmApplication.getConfig().readAppPropertyAsInt(AppProperty.NMAS_THREADS_MIN_SECONDS);
 
         int maxNmasIdleSeconds = (int)pwmApplication.getConfig().readSettingAsLong(PwmSetting.IDLE_TIMEOUT_SECONDS);
         if (maxNmasIdleSeconds > MAX_SECONDS) {
@@ -124,7 +124,7 @@ public class NMASCrOperator implements CrOperator {
                 if (timer == null) {
                     LOGGER.debug("starting NMASCrOperator watchdog timer, maxIdleThreadTime=" + maxThreadIdleTime.asCompactString());
                     timer = new Timer(PwmConstants.PWM_APP_NAME + "-NMASCrOperator watchdog timer",true);
-                    final long frequency = Long.parseLong(pwmApplication.getConfig().readAppProperty(AppProperty.NMAS_THREADS_WATCHDOG_FREQUENCY));
+                    final long frequency = pwmApplication.getConfig().readAppPropertyAsLong(AppProperty.NMAS_THREADS_WATCHDOG_FREQUENCY);
                     timer.schedule(new ThreadWatchdogTask(),frequency,frequency);
                 }
             }
@@ -29,21 +29,36 @@ import password.pwm.error.*;
 import password.pwm.health.HealthMessage;
 import password.pwm.health.HealthRecord;
 import password.pwm.svc.PwmService;
+import password.pwm.svc.stats.EventRateMeter;
 import password.pwm.util.Helper;
 import password.pwm.util.JsonUtil;
 import password.pwm.util.TimeDuration;
 import password.pwm.util.localdb.LocalDB;
+import password.pwm.util.localdb.LocalDBException;
 import password.pwm.util.localdb.LocalDBStoredQueue;
 import password.pwm.util.logging.PwmLogger;
 
 import java.io.IOException;
 import java.io.Serializable;
+import java.math.RoundingMode;
 import java.util.*;
-
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends items from a durable LocalDB queue.  Items are removed from the head of the queue only once they have been
+ * sent or discarded, so items not yet sent survive a restart.
+ * <p/>
+ * With a single sender thread items are sent strictly in queue order.  With more sender threads, a window of items
+ * from the head of the queue is grouped by {@link #orderingKeys(QueueEvent)}; each group is sent in order by one
+ * thread while different groups are sent in parallel.  Items sent ahead of an earlier unsent item are marked as
+ * completed in LocalDB, so they are not sent again after a restart, and removed once they reach the head of the queue.
+ */
 public abstract class AbstractQueueManager implements PwmService {
     protected PwmLogger LOGGER = PwmLogger.forClass(AbstractQueueManager.class);
 
     private static final long QUEUE_POLL_INTERVAL = 30 * 1003;
+    private static final int WINDOW_ITEMS_PER_SENDER = 10;
 
     protected PwmApplication pwmApplication;
     protected STATUS status = PwmService.STATUS.NEW;
@@ -52,11 +67,19 @@ public abstract class AbstractQueueManager implements PwmService {
 
     protected Date lastSendTime = new Date();
     private LocalDBStoredQueue sendQueue;
+    private LocalDB.DB queueDB;
     protected int itemIDCounter;
     protected PwmApplication.AppAttribute itemCountAppAttribute;
     protected String serviceName = AbstractQueueManager.class.getSimpleName();
 
-    protected FailureInfo lastFailure;
+    protected volatile FailureInfo lastFailure;
+
+    private volatile ExecutorService senderExecutor;
+    private final Set<Integer> completedItemIDs = Collections.newSetFromMap(new ConcurrentHashMap<Integer, Boolean>());
+    // subset of completedItemIDs that also have a completion marker stored in LocalDB
+    private final Set<Integer> persistedItemIDs = Collections.newSetFromMap(new ConcurrentHashMap<Integer, Boolean>());
+    private final AtomicInteger inFlightCount = new AtomicInteger(0);
+    private final EventRateMeter sendRateMeter = new EventRateMeter(new TimeDuration(60 * 1000));
 
     static class FailureInfo {
         private Date time = new Date();
@@ -198,9 +221,17 @@ public abstract class AbstractQueueManager implements PwmService {
         }
 
         itemIDCounter = readItemIDCounter();
+        queueDB = DB;
         sendQueue = LocalDBStoredQueue.createLocalDBStoredQueue(pwmApplication, localDB, DB);
+        loadCompletionMarkers(localDB);
         final String threadName = Helper.makeThreadName(pwmApplication, this.getClass()) + " timer thread";
         timerThread = new Timer(threadName,true);
+        if (settings.getSenderThreads() > 1) {
+            senderExecutor = Executors.newFixedThreadPool(
+                    settings.getSenderThreads(),
+                    Helper.makePwmThreadFactory(Helper.makeThreadName(pwmApplication, this.getClass()) + "-sender-", true)
+            );
+        }
         status = PwmService.STATUS.OPEN;
         LOGGER.debug(settings.getDebugName() + " is now open, " + sendQueue.size() + " items in queue");
         timerThread.schedule(new QueueProcessorTask(),1,QUEUE_POLL_INTERVAL);
@@ -238,7 +269,7 @@ public abstract class AbstractQueueManager implements PwmService {
     public synchronized void close() {
         status = PwmService.STATUS.CLOSED;
         final Date startTime = new Date();
-        final int maxCloseWaitMs = Integer.parseInt(pwmApplication.getConfig().readAppProperty(AppProperty.QUEUE_MAX_CLOSE_TIMEOUT_MS));
+        final int maxCloseWaitMs = pwmApplication.getConfig().readAppPropertyAsInt(AppProperty.QUEUE_MAX_CLOSE_TIMEOUT_MS);
 
         if (sendQueue != null && !sendQueue.isEmpty()) {
             if (timerThread != null) {
@@ -257,6 +288,16 @@ public abstract class AbstractQueueManager implements PwmService {
             timerThread.cancel();
         }
         timerThread = null;
+
+        if (senderExecutor != null) {
+            senderExecutor.shutdown();
+            try {
+                senderExecutor.awaitTermination(maxCloseWaitMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            senderExecutor = null;
+        }
     }
 
     public List<HealthRecord> healthCheck() {
@@ -285,6 +326,12 @@ public abstract class AbstractQueueManager implements PwmService {
 
         lastSendTime = new Date();
 
+        final ExecutorService executor = senderExecutor;
+        if (executor != null) {
+            processQueueConcurrently(executor);
+            return;
+        }
+
         boolean sendFailure = false;
         while (sendQueue.peekFirst() != null && !sendFailure) {
             final String jsonEvent = sendQueue.peekFirst();
@@ -293,6 +340,10 @@ public abstract class AbstractQueueManager implements PwmService {
 
                 if (event == null || event.getTimestamp() == null) {
                     sendQueue.pollFirst();
+                } else if (isCompleted(event)) {
+                    // sent ahead of the queue head by concurrent senders before a restart
+                    sendQueue.pollFirst();
+                    clearCompleted(event);
                 } else if (TimeDuration.fromCurrent(event.getTimestamp()).isLongerThan(
                         settings.getMaxQueueItemAge())) {
                     LOGGER.debug("discarding event due to maximum retry age: " + queueItemToDebugString(event));
@@ -305,21 +356,236 @@ public abstract class AbstractQueueManager implements PwmService {
                             event) + ", queue size: " + sendQueue.size());
 
                     // execute operation
+                    inFlightCount.incrementAndGet();
                     try {
                         sendItem(item);
                         sendQueue.pollFirst();
+                        sendRateMeter.markEvents(1);
                         LOGGER.trace("queued item processed and removed from queue: " + queueItemToDebugString(event) + ", queue size: " + sendQueue.size());
                         lastFailure = null;
                     } catch (PwmOperationalException e) {
                         sendFailure = true;
                         lastFailure = new FailureInfo(e.getErrorInformation(),event);
                         LOGGER.debug("queued item was not successfully processed, will retry: " + queueItemToDebugString(event) + ", queue size: " + sendQueue.size());
+                    } finally {
+                        inFlightCount.decrementAndGet();
                     }
                 }
             }
         }
     }
 
+    private void processQueueConcurrently(final ExecutorService executor) {
+        final int windowSize = settings.getSenderThreads() * WINDOW_ITEMS_PER_SENDER;
+        boolean sendFailure = false;
+
+        while (!sendFailure && !sendQueue.isEmpty()) {
+            // groups of items keyed by queue position, so merged groups stay in queue order
+            final List<SortedMap<Integer, QueueEvent>> eventGroups = new ArrayList<>();
+            final Map<String, SortedMap<Integer, QueueEvent>> keyGroups = new HashMap<>();
+            final Iterator<String> iterator = sendQueue.iterator();
+            int windowCount = 0;
+            int headItemID = -1;
+            while (iterator.hasNext() && windowCount < windowSize) {
+                final String jsonEvent = iterator.next();
+                windowCount++;
+                final QueueEvent event = jsonEvent == null ? null : JsonUtil.deserialize(jsonEvent, QueueEvent.class);
+                if (event == null || event.getTimestamp() == null || isCompleted(event)) {
+                    continue;
+                }
+                if (windowCount == 1) {
+                    headItemID = event.getItemID();
+                }
+
+                if (TimeDuration.fromCurrent(event.getTimestamp()).isLongerThan(settings.getMaxQueueItemAge())) {
+                    LOGGER.debug("discarding event due to maximum retry age: " + queueItemToDebugString(event));
+                    noteDiscardedItem(event);
+                    markCompleted(event, windowCount > 1);
+                    continue;
+                }
+
+                final Collection<String> orderingKeys = orderingKeys(event);
+                final Collection<String> groupKeys = orderingKeys == null || orderingKeys.isEmpty()
+                        ? Collections.singletonList("")
+                        : orderingKeys;
+
+                // an item sharing a key with more than one group joins those groups into one
+                SortedMap<Integer, QueueEvent> eventGroup = null;
+                for (final String groupKey : groupKeys) {
+                    final SortedMap<Integer, QueueEvent> keyGroup = keyGroups.get(groupKey);
+                    if (keyGroup == null || keyGroup == eventGroup) {
+                        continue;
+                    }
+                    if (eventGroup == null) {
+                        eventGroup = keyGroup;
+                    } else {
+                        eventGroup.putAll(keyGroup);
+                        for (final Map.Entry<String, SortedMap<Integer, QueueEvent>> entry : keyGroups.entrySet()) {
+                            if (entry.getValue() == keyGroup) {
+                                entry.setValue(eventGroup);
+                            }
+                        }
+                        for (final Iterator<SortedMap<Integer, QueueEvent>> groupIterator = eventGroups.iterator(); groupIterator.hasNext(); ) {
+                            if (groupIterator.next() == keyGroup) {
+                                groupIterator.remove();
+                            }
+                        }
+                    }
+                }
+                if (eventGroup == null) {
+                    eventGroup = new TreeMap<>();
+                    eventGroups.add(eventGroup);
+                }
+                eventGroup.put(windowCount, event);
+                for (final String groupKey : groupKeys) {
+                    keyGroups.put(groupKey, eventGroup);
+                }
+            }
+
+            final List<Callable<Boolean>> sendTasks = new ArrayList<>();
+            for (final SortedMap<Integer, QueueEvent> eventGroup : eventGroups) {
+                sendTasks.add(new SendTask(new ArrayList<>(eventGroup.values()), headItemID));
+            }
+
+            try {
+                for (final Future<Boolean> result : executor.invokeAll(sendTasks)) {
+                    if (!result.get()) {
+                        sendFailure = true;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RejectedExecutionException e) {
+                LOGGER.debug("sender threads are closed, " + sendQueue.size() + " items remain in queue");
+                return;
+            } catch (ExecutionException e) {
+                LOGGER.error("unexpected error while sending " + settings.getDebugName() + " queue items: " + e.getMessage(), e);
+                sendFailure = true;
+            }
+
+            if (!sendFailure) {
+                lastFailure = null;
+            }
+
+            if (removeCompletedItems() == 0) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Remove sent, discarded and unreadable items from the head of the queue, stopping at the first item not yet sent.
+     *
+     * @return number of items removed
+     */
+    private int removeCompletedItems() {
+        int removedCount = 0;
+        String jsonEvent;
+        while ((jsonEvent = sendQueue.peekFirst()) != null) {
+            final QueueEvent event = JsonUtil.deserialize(jsonEvent, QueueEvent.class);
+            final boolean unreadable = event == null || event.getTimestamp() == null;
+            if (!unreadable && !isCompleted(event)) {
+                break;
+            }
+            sendQueue.pollFirst();
+            if (!unreadable) {
+                clearCompleted(event);
+            }
+            removedCount++;
+        }
+        if (removedCount > 0) {
+            LOGGER.trace("removed " + removedCount + " processed items from queue, queue size: " + sendQueue.size());
+        }
+        return removedCount;
+    }
+
+    private String completionMarkerPrefix() {
+        return "queue.completed." + queueDB + ".";
+    }
+
+    /**
+     * Read the completion markers stored by a previous run, so items sent ahead of the queue head before a restart
+     * are not sent again.
+     */
+    private void loadCompletionMarkers(final LocalDB localDB) {
+        final String markerPrefix = completionMarkerPrefix();
+        LocalDB.LocalDBIterator<String> iterator = null;
+        try {
+            iterator = localDB.iterator(LocalDB.DB.PWM_META);
+            while (iterator.hasNext()) {
+                final String key = iterator.next();
+                if (key != null && key.startsWith(markerPrefix)) {
+                    try {
+                        final int itemID = Integer.parseInt(key.substring(markerPrefix.length()));
+                        completedItemIDs.add(itemID);
+                        persistedItemIDs.add(itemID);
+                    } catch (NumberFormatException e) {
+                        LOGGER.warn("ignoring unrecognized queue completion marker: " + key);
+                    }
+                }
+            }
+        } catch (LocalDBException e) {
+            LOGGER.error("unable to read queue completion markers: " + e.getMessage());
+        } finally {
+            if (iterator != null) {
+                iterator.close();
+            }
+        }
+        if (!completedItemIDs.isEmpty()) {
+            LOGGER.debug("loaded " + completedItemIDs.size() + " completion markers of items sent ahead of the queue head");
+        }
+    }
+
+    /**
+     * Record a sent or discarded item.  Items ahead of the queue head are also marked in LocalDB so the record
+     * survives a restart; the head item is removed from the queue straight after, so it is only recorded in memory.
+     */
+    private void markCompleted(final QueueEvent event, final boolean aheadOfHead) {
+        completedItemIDs.add(event.getItemID());
+        if (!aheadOfHead) {
+            return;
+        }
+        try {
+            pwmApplication.getLocalDB().put(LocalDB.DB.PWM_META, completionMarkerPrefix() + event.getItemID(), String.valueOf(System.currentTimeMillis()));
+            persistedItemIDs.add(event.getItemID());
+        } catch (LocalDBException e) {
+            LOGGER.error("unable to store completion marker for queued item " + queueItemToDebugString(event) + ": " + e.getMessage());
+        }
+    }
+
+    private boolean isCompleted(final QueueEvent event) {
+        return completedItemIDs.contains(event.getItemID());
+    }
+
+    private void clearCompleted(final QueueEvent event) {
+        completedItemIDs.remove(event.getItemID());
+        if (persistedItemIDs.remove(event.getItemID())) {
+            try {
+                pwmApplication.getLocalDB().remove(LocalDB.DB.PWM_META, completionMarkerPrefix() + event.getItemID());
+            } catch (LocalDBException e) {
+                LOGGER.error("unable to remove completion marker for queued item " + queueItemToDebugString(event) + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Items sharing any ordering key are always sent in queue order.  Items with no key in common may be sent in
+     * parallel when more than one sender thread is configured.
+     *
+     * @return ordering keys of the item, or an empty collection to order the item with all other items that have no key
+     */
+    protected Collection<String> orderingKeys(final QueueEvent queueEvent) {
+        return Collections.emptyList();
+    }
+
+    /**
+     * @return additional service specific debug properties reported in the service info
+     */
+    protected Map<String, String> serviceDebugProperties() {
+        return Collections.emptyMap();
+    }
+
 
     abstract void sendItem(String item) throws PwmOperationalException;
 
@@ -328,6 +594,40 @@ public abstract class AbstractQueueManager implements PwmService {
 
     // -------------------------- INNER CLASSES --------------------------
 
+    /**
+     * Sends a group of items in order, stopping at the first item that fails so later items of the group are not
+     * sent ahead of it.
+     */
+    private class SendTask implements Callable<Boolean> {
+        private final List<QueueEvent> events;
+        private final int headItemID;
+
+        private SendTask(final List<QueueEvent> events, final int headItemID) {
+            this.events = events;
+            this.headItemID = headItemID;
+        }
+
+        public Boolean call() {
+            for (final QueueEvent event : events) {
+                LOGGER.trace("preparing to send item in queue: " + queueItemToDebugString(event));
+                inFlightCount.incrementAndGet();
+                try {
+                    sendItem(event.getItem());
+                    markCompleted(event, event.getItemID() != headItemID);
+                    sendRateMeter.markEvents(1);
+                    LOGGER.trace("queued item processed: " + queueItemToDebugString(event));
+                } catch (PwmOperationalException e) {
+                    lastFailure = new FailureInfo(e.getErrorInformation(), event);
+                    LOGGER.debug("queued item was not successfully processed, will retry: " + queueItemToDebugString(event));
+                    return false;
+                } finally {
+                    inFlightCount.decrementAndGet();
+                }
+            }
+            return true;
+        }
+    }
+
     protected class QueueProcessorTask extends TimerTask {
         public void run() {
             try {
@@ -343,12 +643,18 @@ public abstract class AbstractQueueManager implements PwmService {
         private TimeDuration errorRetryWaitTime;
         private int maxQueueItemCount;
         private String debugName;
+        private int senderThreads;
 
         public Settings(TimeDuration maxQueueItemAge, TimeDuration errorRetryWaitTime, int maxQueueItemCount, String debugName) {
+            this(maxQueueItemAge, errorRetryWaitTime, maxQueueItemCount, debugName, 1);
+        }
+
+        public Settings(TimeDuration maxQueueItemAge, TimeDuration errorRetryWaitTime, int maxQueueItemCount, String debugName, int senderThreads) {
             this.maxQueueItemAge = maxQueueItemAge;
             this.errorRetryWaitTime = errorRetryWaitTime;
             this.maxQueueItemCount = maxQueueItemCount;
             this.debugName = debugName;
+            this.senderThreads = senderThreads;
         }
 
         public TimeDuration getMaxQueueItemAge() {
@@ -366,12 +672,22 @@ public abstract class AbstractQueueManager implements PwmService {
         public String getDebugName() {
             return debugName;
         }
+
+        public int getSenderThreads() {
+            return senderThreads;
+        }
     }
 
     public ServiceInfo serviceInfo()
     {
         if (status() == STATUS.OPEN) {
-            return new ServiceInfo(Collections.singletonList(DataStorageMethod.LOCALDB));
+            final Map<String, String> debugProperties = new LinkedHashMap<>();
+            debugProperties.put("queueSize", String.valueOf(queueSize()));
+            debugProperties.put("senderThreads", String.valueOf(settings.getSenderThreads()));
+            debugProperties.put("inFlight", String.valueOf(inFlightCount.get()));
+            debugProperties.put("sentPerSecond", sendRateMeter.readEventRate().setScale(2, RoundingMode.HALF_UP).toString());
+            debugProperties.putAll(serviceDebugProperties());
+            return new ServiceInfo(Collections.singletonList(DataStorageMethod.LOCALDB), debugProperties);
         } else {
             return new ServiceInfo(Collections.<DataStorageMethod>emptyList());
         }
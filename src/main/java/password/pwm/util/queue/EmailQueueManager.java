@@ -38,7 +38,6 @@ import password.pwm.health.HealthRecord;
 import password.pwm.svc.stats.Statistic;
 import password.pwm.svc.stats.StatisticsManager;
 import password.pwm.util.JsonUtil;
-import password.pwm.util.PasswordData;
 import password.pwm.util.StringUtil;
 import password.pwm.util.TimeDuration;
 import password.pwm.util.localdb.LocalDB;
@@ -47,7 +46,6 @@ import password.pwm.util.macro.MacroMachine;
 
 import javax.mail.Message;
 import javax.mail.MessagingException;
-import javax.mail.Transport;
 import javax.mail.internet.*;
 
 import java.io.UnsupportedEncodingException;
@@ -61,6 +59,7 @@ public class
 // ------------------------------ FIELDS ------------------------------
 
     private Properties javaMailProps = new Properties();
+    private SmtpTransportPool transportPool;
 
 // --------------------------- CONSTRUCTORS ---------------------------
 
@@ -76,12 +75,23 @@ public class
             throws PwmException
     {
         LOGGER = PwmLogger.forClass(EmailQueueManager.class);
-        javaMailProps = makeJavaMailProps(pwmApplication.getConfig());
+        final Configuration config = pwmApplication.getConfig();
+        javaMailProps = makeJavaMailProps(config);
+        transportPool = new SmtpTransportPool(
+                javaMailProps,
+                config.readSettingAsString(PwmSetting.EMAIL_SERVER_ADDRESS),
+                (int)config.readSettingAsLong(PwmSetting.EMAIL_SERVER_PORT),
+                config.readSettingAsString(PwmSetting.EMAIL_USERNAME),
+                config.readSettingAsPassword(PwmSetting.EMAIL_PASSWORD),
+                config.readAppPropertyAsLong(AppProperty.SMTP_CONNECTION_MAX_IDLE_MS),
+                config.readAppPropertyAsInt(AppProperty.SMTP_CONNECTION_MAX_MESSAGES)
+        );
         final Settings settings = new Settings(
-                new TimeDuration(Long.parseLong(pwmApplication.getConfig().readAppProperty(AppProperty.QUEUE_EMAIL_MAX_AGE_MS))),
-                new TimeDuration(Long.parseLong(pwmApplication.getConfig().readAppProperty(AppProperty.QUEUE_EMAIL_RETRY_TIMEOUT_MS))),
-                Integer.parseInt(pwmApplication.getConfig().readAppProperty(AppProperty.QUEUE_EMAIL_MAX_COUNT)),
-                EmailQueueManager.class.getSimpleName()
+                new TimeDuration(config.readAppPropertyAsLong(AppProperty.QUEUE_EMAIL_MAX_AGE_MS)),
+                new TimeDuration(config.readAppPropertyAsLong(AppProperty.QUEUE_EMAIL_RETRY_TIMEOUT_MS)),
+                config.readAppPropertyAsInt(AppProperty.QUEUE_EMAIL_MAX_COUNT),
+                EmailQueueManager.class.getSimpleName(),
+                Math.max(1, config.readAppPropertyAsInt(AppProperty.QUEUE_EMAIL_SENDER_THREADS))
         );
         super.init(
                 pwmApplication,
@@ -92,6 +102,14 @@ public class
         );
     }
 
+    @Override
+    public synchronized void close() {
+        super.close();
+        if (transportPool != null) {
+            transportPool.close();
+        }
+    }
+
 // -------------------------- OTHER METHODS --------------------------
 
     protected boolean determineIfItemCanBeDelivered(final EmailItemBean emailItem) {
@@ -167,37 +185,9 @@ public class
         // create a new MimeMessage object (using the Session created above)
         try {
             final List<Message> messages = convertEmailItemToMessages(emailItemBean, this.pwmApplication.getConfig());
-            final String mailuser = this.pwmApplication.getConfig().readSettingAsString(PwmSetting.EMAIL_USERNAME);
-            final PasswordData mailpassword = this.pwmApplication.getConfig().readSettingAsPassword(PwmSetting.EMAIL_PASSWORD);
-
-            // Login to SMTP server first if both username and password is given
-            final String logText;
-            if (mailuser == null || mailuser.length() < 1 || mailpassword == null) {
-
-                logText = "plaintext";
-
-                for (Message message : messages) {
-                    Transport.send(message);
-                }
-            } else {
-                // create a new Session object for the message
-                final javax.mail.Session session = javax.mail.Session.getInstance(javaMailProps, null);
-
-                final String mailhost = this.pwmApplication.getConfig().readSettingAsString(PwmSetting.EMAIL_SERVER_ADDRESS);
-                final int mailport = (int)this.pwmApplication.getConfig().readSettingAsLong(PwmSetting.EMAIL_SERVER_PORT);
-
-                final Transport tr = session.getTransport("smtp");
-                tr.connect(mailhost, mailport, mailuser, mailpassword.getStringValue());
-
-                for (Message message : messages) {
-                    message.saveChanges();
-                    tr.sendMessage(message, message.getAllRecipients());
-                }
-
-                tr.close();
-                logText = "authenticated ";
-            }
+            sendMessages(messages);
 
+            final String logText = transportPool.isAuthenticated() ? "authenticated " : "plaintext ";
             LOGGER.debug("successfully sent " + logText + "email: " + emailItemBean.toString());
             StatisticsManager.incrementStat(pwmApplication, Statistic.EMAIL_SEND_SUCCESSES);
 
@@ -216,6 +206,69 @@ public class
         }
     }
 
+    /**
+     * Send the messages on a pooled connection.  If the first message fails on a connection that was used before,
+     * the relay may have closed it while idle, so the message is retried once on a new connection.
+     */
+    private void sendMessages(final List<Message> messages) throws MessagingException {
+        SmtpTransportPool.PooledTransport transport = transportPool.borrow();
+        boolean discardTransport = true;
+        try {
+            boolean firstMessage = true;
+            for (final Message message : messages) {
+                try {
+                    transport.send(message);
+                } catch (MessagingException e) {
+                    if (!firstMessage || !transport.isReused()) {
+                        throw e;
+                    }
+                    LOGGER.debug("error sending email on existing smtp connection, will retry on new connection: " + e.getMessage());
+                    transportPool.release(transport, true);
+                    transport = null;
+                    transport = transportPool.connect();
+                    transport.send(message);
+                }
+                firstMessage = false;
+            }
+            discardTransport = false;
+        } finally {
+            if (transport != null) {
+                transportPool.release(transport, discardTransport);
+            }
+        }
+    }
+
+    @Override
+    protected Collection<String> orderingKeys(final QueueEvent queueEvent) {
+        final EmailItemBean emailItemBean = JsonUtil.deserialize(queueEvent.getItem(), EmailItemBean.class);
+        if (emailItemBean == null || emailItemBean.getTo() == null) {
+            return Collections.emptyList();
+        }
+
+        // each recipient is sent a separate message, so order by recipient address rather than by the whole list
+        final Set<String> recipientAddresses = new LinkedHashSet<>();
+        try {
+            for (final InternetAddress recipient : InternetAddress.parse(emailItemBean.getTo())) {
+                if (recipient.getAddress() != null) {
+                    recipientAddresses.add(recipient.getAddress().trim().toLowerCase());
+                }
+            }
+        } catch (AddressException e) {
+            recipientAddresses.add(emailItemBean.getTo().trim().toLowerCase());
+        }
+        return recipientAddresses;
+    }
+
+    @Override
+    protected Map<String, String> serviceDebugProperties() {
+        final Map<String, String> debugProperties = new LinkedHashMap<>();
+        if (transportPool != null) {
+            debugProperties.put("smtpConnectionsOpen", String.valueOf(transportPool.getOpenConnections()));
+            debugProperties.put("smtpConnectionsCreated", String.valueOf(transportPool.getConnectionsCreated()));
+        }
+        return debugProperties;
+    }
+
     @Override
     List<HealthRecord> failureToHealthRecord(FailureInfo failureInfo) {
         return Collections.singletonList(HealthRecord.forMessage(HealthMessage.Email_SendFailure, failureInfo.getErrorInformation().toDebugStr()));
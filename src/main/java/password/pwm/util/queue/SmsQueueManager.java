@@ -39,6 +39,7 @@ import password.pwm.error.*;
 import password.pwm.health.HealthMessage;
 import password.pwm.health.HealthRecord;
 import password.pwm.http.client.PwmHttpClient;
+import password.pwm.http.client.PwmHttpClientConfiguration;
 import password.pwm.svc.stats.Statistic;
 import password.pwm.svc.stats.StatisticsManager;
 import password.pwm.util.*;
@@ -100,9 +101,9 @@ public class SmsQueueManager extends AbstractQueueManager {
     {
         super.LOGGER = PwmLogger.forClass(SmsQueueManager.class);
         final Settings settings = new Settings(
-                new TimeDuration(Long.parseLong(pwmApplication.getConfig().readAppProperty(AppProperty.QUEUE_SMS_MAX_AGE_MS))),
-                new TimeDuration(Long.parseLong(pwmApplication.getConfig().readAppProperty(AppProperty.QUEUE_SMS_RETRY_TIMEOUT_MS))),
-                Integer.parseInt(pwmApplication.getConfig().readAppProperty(AppProperty.QUEUE_SMS_MAX_COUNT)),
+                new TimeDuration(pwmApplication.getConfig().readAppPropertyAsLong(AppProperty.QUEUE_SMS_MAX_AGE_MS)),
+                new TimeDuration(pwmApplication.getConfig().readAppPropertyAsLong(AppProperty.QUEUE_SMS_RETRY_TIMEOUT_MS)),
+                pwmApplication.getConfig().readAppPropertyAsInt(AppProperty.QUEUE_SMS_MAX_COUNT),
                 EmailQueueManager.class.getSimpleName()
         );
         super.init(
@@ -112,7 +113,7 @@ public class SmsQueueManager extends AbstractQueueManager {
                 PwmApplication.AppAttribute.SMS_ITEM_COUNTER,
                 SmsQueueManager.class.getSimpleName()
         );
-        smsSendEngine = new SmsSendEngine(pwmApplication.getConfig());
+        smsSendEngine = new SmsSendEngine(pwmApplication, pwmApplication.getConfig());
     }
 
 
@@ -357,11 +358,13 @@ public class SmsQueueManager extends AbstractQueueManager {
 
     private static class SmsSendEngine {
         private static final PwmLogger LOGGER = PwmLogger.forClass(SmsSendEngine.class);
+        private final PwmApplication pwmApplication;
         private final Configuration config;
         private String lastResponseBody;
 
-        private SmsSendEngine(Configuration configuration)
+        private SmsSendEngine(final PwmApplication pwmApplication, Configuration configuration)
         {
+            this.pwmApplication = pwmApplication;
             this.config = configuration;
         }
 
@@ -453,7 +456,9 @@ public class SmsQueueManager extends AbstractQueueManager {
                     httpRequest.addHeader(PwmConstants.HttpHeader.Authorization.getHttpName(), ba.toAuthHeader());
                 }
 
-                final HttpClient httpClient = PwmHttpClient.getHttpClient(config);
+                final HttpClient httpClient = pwmApplication == null
+                        ? PwmHttpClient.getHttpClient(config)
+                        : PwmHttpClient.getHttpClient(pwmApplication, new PwmHttpClientConfiguration(null));
                 final HttpResponse httpResponse = httpClient.execute(httpRequest);
                 final String responseBody = EntityUtils.toString(httpResponse.getEntity());
                 final int resultCode = httpResponse.getStatusLine().getStatusCode();
@@ -490,7 +495,7 @@ public class SmsQueueManager extends AbstractQueueManager {
     )
             throws PwmUnrecoverableException, PwmOperationalException
     {
-        final SmsSendEngine smsSendEngine = new SmsSendEngine(configuration);
+        final SmsSendEngine smsSendEngine = new SmsSendEngine(null, configuration);
         smsSendEngine.sendSms(smsItemBean.getTo(), smsItemBean.getMessage());
         return smsSendEngine.getLastResponseBody();
     }
@@ -0,0 +1,189 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://code.google.com/p/pwm/
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2015 The PWM Project
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package password.pwm.util.queue;
+
+import password.pwm.util.PasswordData;
+import password.pwm.util.logging.PwmLogger;
+
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.Session;
+import javax.mail.Transport;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Connected smtp transports shared by the email sender threads.  A transport stays connected, and authenticated
+ * when credentials are configured, between messages.  It is reconnected once it has been idle longer than the
+ * relay is likely to keep the connection open, or after sending the configured number of messages.
+ * <p/>
+ * Each sender thread holds at most one transport at a time, so the number of open connections is bounded by the
+ * number of sender threads.
+ */
+class SmtpTransportPool {
+    private static final PwmLogger LOGGER = PwmLogger.forClass(SmtpTransportPool.class);
+
+    private final Session session;
+    private final String host;
+    private final int port;
+    private final String username;
+    private final PasswordData password;
+    private final long maxIdleMs;
+    private final int maxMessagesPerConnection;
+
+    private final Deque<PooledTransport> idleTransports = new ArrayDeque<>();
+    private final AtomicInteger openConnections = new AtomicInteger(0);
+    private final AtomicLong connectionsCreated = new AtomicLong(0);
+    private boolean closed;
+
+    SmtpTransportPool(
+            final Properties javaMailProps,
+            final String host,
+            final int port,
+            final String username,
+            final PasswordData password,
+            final long maxIdleMs,
+            final int maxMessagesPerConnection
+    ) {
+        this.session = Session.getInstance(javaMailProps, null);
+        this.host = host;
+        this.port = port;
+        this.username = username;
+        this.password = password;
+        this.maxIdleMs = maxIdleMs;
+        this.maxMessagesPerConnection = maxMessagesPerConnection;
+    }
+
+    boolean isAuthenticated() {
+        return username != null && username.length() > 0 && password != null;
+    }
+
+    /**
+     * @return an idle connected transport, or a newly connected one if none is idle
+     */
+    PooledTransport borrow() throws MessagingException {
+        while (true) {
+            final PooledTransport pooledTransport;
+            synchronized (this) {
+                pooledTransport = idleTransports.pollFirst();
+            }
+            if (pooledTransport == null) {
+                return connect();
+            }
+            if (pooledTransport.isReusable()) {
+                return pooledTransport;
+            }
+            closeTransport(pooledTransport);
+        }
+    }
+
+    PooledTransport connect() throws MessagingException {
+        final Transport transport = session.getTransport("smtp");
+        if (isAuthenticated()) {
+            transport.connect(host, port, username, password.getStringValue());
+        } else {
+            transport.connect();
+        }
+        openConnections.incrementAndGet();
+        connectionsCreated.incrementAndGet();
+        return new PooledTransport(transport);
+    }
+
+    void release(final PooledTransport pooledTransport, final boolean discard) {
+        if (!discard && pooledTransport.isReusable()) {
+            synchronized (this) {
+                if (!closed) {
+                    pooledTransport.lastUsedTime = System.currentTimeMillis();
+                    idleTransports.addFirst(pooledTransport);
+                    return;
+                }
+            }
+        }
+        closeTransport(pooledTransport);
+    }
+
+    void close() {
+        final PooledTransport[] transports;
+        synchronized (this) {
+            closed = true;
+            transports = idleTransports.toArray(new PooledTransport[idleTransports.size()]);
+            idleTransports.clear();
+        }
+        for (final PooledTransport pooledTransport : transports) {
+            closeTransport(pooledTransport);
+        }
+    }
+
+    int getOpenConnections() {
+        return openConnections.get();
+    }
+
+    long getConnectionsCreated() {
+        return connectionsCreated.get();
+    }
+
+    private void closeTransport(final PooledTransport pooledTransport) {
+        openConnections.decrementAndGet();
+        try {
+            pooledTransport.transport.close();
+        } catch (MessagingException e) {
+            LOGGER.debug("error closing smtp connection: " + e.getMessage());
+        }
+    }
+
+    class PooledTransport {
+        private final Transport transport;
+        private long lastUsedTime = System.currentTimeMillis();
+        private int messageCount;
+
+        private PooledTransport(final Transport transport) {
+            this.transport = transport;
+        }
+
+        void send(final Message message) throws MessagingException {
+            message.saveChanges();
+            transport.sendMessage(message, message.getAllRecipients());
+            messageCount++;
+        }
+
+        /**
+         * @return true if the transport has sent messages before, in which case the relay may have since dropped
+         * the connection
+         */
+        boolean isReused() {
+            return messageCount > 0;
+        }
+
+        /**
+         * Does not check the connection itself, since for smtp that costs a NOOP round trip per message; a send
+         * failure on a reused transport is retried on a new connection by the caller instead.
+         */
+        private boolean isReusable() {
+            return messageCount < maxMessagesPerConnection
+                    && System.currentTimeMillis() - lastUsedTime < maxIdleMs;
+        }
+    }
+}
@@ -249,7 +249,7 @@ public class HttpsServerCertificateManager
 
          LOGGER.debug("creating self-signed certificate with cn of " + cnName);
          final KeyPair keyPair = generateRSAKeyPair(config);
-         final long futureSeconds = Long.parseLong(config.readAppProperty(AppProperty.SECURITY_HTTPSSERVER_SELF_FUTURESECONDS));
+         final long futureSeconds = config.readAppPropertyAsLong(AppProperty.SECURITY_HTTPSSERVER_SELF_FUTURESECONDS);
          final X509Certificate certificate = generateV3Certificate(keyPair, cnName, futureSeconds);
          return new StoredCertData(certificate, keyPair);
       }
@@ -287,7 +287,7 @@ public class HttpsServerCertificateManager
       static KeyPair generateRSAKeyPair(final Configuration config)
               throws Exception
       {
-         final int keySize = Integer.parseInt(config.readAppProperty(AppProperty.SECURITY_HTTPSSERVER_SELF_KEY_SIZE));
+         final int keySize = config.readAppPropertyAsInt(AppProperty.SECURITY_HTTPSSERVER_SELF_KEY_SIZE);
          final String keyAlg = config.readAppProperty(AppProperty.SECURITY_HTTPSSERVER_SELF_ALG);
          final KeyPairGenerator kpGen = KeyPairGenerator.getInstance(keyAlg, "BC");
          kpGen.initialize(keySize, new SecureRandom());
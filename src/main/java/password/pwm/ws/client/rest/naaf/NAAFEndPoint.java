@@ -70,7 +70,7 @@ public class NAAFEndPoint {
         this.endpointURL = url;
         this.id = config.readAppProperty(AppProperty.NAAF_ID);
         this.secret = config.readAppProperty(AppProperty.NAAF_SECRET);
-        final int saltLength = Integer.parseInt(config.readAppProperty(AppProperty.NAAF_SALT_LENGTH));
+        final int saltLength = config.readAppPropertyAsInt(AppProperty.NAAF_SALT_LENGTH);
         this.salt = PwmRandom.getInstance().alphaNumericString(saltLength);
 
         final X509Certificate[] naafWsCerts = config.readSettingAsCertificate(PwmSetting.NAAF_WS_CERTIFICATE);
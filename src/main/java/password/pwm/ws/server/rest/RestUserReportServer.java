@@ -224,6 +224,17 @@ public class RestUserReportServer extends AbstractRestServer {
                     presentableMap.put("Estimated Time Remaining", remainingDuration.asLongString(locale));
                 }
             }
+            if (reportInfo.isInProgress()) {
+                for (final Map.Entry<String,Double> entry : reportInfo.getProfileRateLimits().entrySet()) {
+                    presentableMap.put("LDAP Rate Limit (" + entry.getKey() + ")", numberFormat.format(entry.getValue()) + " users/second");
+                }
+                for (final Map.Entry<String,ReportStatusInfo.WorkerStatus> entry : reportInfo.getWorkerStatus().entrySet()) {
+                    final ReportStatusInfo.WorkerStatus workerStatus = entry.getValue();
+                    final BigDecimal workerRate = workerStatus.getEventRateMeter().readEventRate().setScale(2, RoundingMode.UP);
+                    presentableMap.put("Worker " + entry.getKey(), numberFormat.format(workerStatus.getCount()) + " users, "
+                            + workerRate + " users/second, " + numberFormat.format(workerStatus.getErrors()) + " errors");
+                }
+            }
             if (reportInfo.getLastError() != null) {
                 presentableMap.put("Last Error", reportInfo.getLastError().toDebugStr());
             }
@@ -0,0 +1,114 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://code.google.com/p/pwm/
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2015 The PWM Project
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package password.pwm.config.stored;
+
+import junit.framework.Assert;
+import junit.framework.TestCase;
+import password.pwm.config.PwmSetting;
+import password.pwm.config.PwmSettingCategory;
+import password.pwm.config.PwmSettingSyntax;
+import password.pwm.config.value.StringArrayValue;
+import password.pwm.config.value.StringValue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks that reads through the {@link StoredConfigurationImpl} read index see every write, both on a live
+ * configuration and after a round trip through xml.
+ */
+public class StoredConfigurationImplTest extends TestCase {
+
+    private static final int PROFILES_PER_CATEGORY = 2;
+
+    public void testReadAfterWrite() throws Exception {
+        final StoredConfigurationImpl storedConfiguration = StoredConfigurationImpl.newStoredConfiguration();
+        storedConfiguration.writeSetting(PwmSetting.LDAP_PROFILE_LIST, new StringArrayValue(profileIDs()), null);
+        final String profileID = profileIDs().get(0);
+
+        storedConfiguration.writeSetting(PwmSetting.LDAP_PROXY_USER_DN, profileID, new StringValue("cn=first"), null);
+        Assert.assertEquals("cn=first", storedConfiguration.readSetting(PwmSetting.LDAP_PROXY_USER_DN, profileID).toNativeObject());
+
+        storedConfiguration.writeSetting(PwmSetting.LDAP_PROXY_USER_DN, profileID, new StringValue("cn=second"), null);
+        Assert.assertEquals("cn=second", storedConfiguration.readSetting(PwmSetting.LDAP_PROXY_USER_DN, profileID).toNativeObject());
+
+        storedConfiguration.resetSetting(PwmSetting.LDAP_PROXY_USER_DN, profileID, null);
+        Assert.assertTrue(storedConfiguration.isDefaultValue(PwmSetting.LDAP_PROXY_USER_DN, profileID));
+
+        storedConfiguration.writeConfigProperty(ConfigurationProperty.NOTES, "first");
+        Assert.assertEquals("first", storedConfiguration.readConfigProperty(ConfigurationProperty.NOTES));
+        storedConfiguration.writeConfigProperty(ConfigurationProperty.NOTES, "second");
+        Assert.assertEquals("second", storedConfiguration.readConfigProperty(ConfigurationProperty.NOTES));
+    }
+
+    public void testReadAfterXmlRoundTrip() throws Exception {
+        final StoredConfigurationImpl storedConfiguration = StoredConfigurationImpl.newStoredConfiguration();
+        for (final PwmSettingCategory category : PwmSettingCategory.values()) {
+            if (category.hasProfiles()) {
+                storedConfiguration.writeSetting(category.getProfileSetting(), new StringArrayValue(profileIDs()), null);
+                for (final String profileID : profileIDs()) {
+                    for (final PwmSetting setting : category.getSettings()) {
+                        if (setting.getSyntax() == PwmSettingSyntax.STRING) {
+                            storedConfiguration.writeSetting(setting, profileID, new StringValue(valueFor(setting, profileID)), null);
+                        }
+                    }
+                }
+            }
+        }
+        assertProfileValues(storedConfiguration);
+
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        storedConfiguration.toXml(outputStream);
+        final StoredConfigurationImpl reloadedConfiguration = StoredConfigurationImpl.fromXml(new ByteArrayInputStream(outputStream.toByteArray()));
+        reloadedConfiguration.lock();
+        assertProfileValues(reloadedConfiguration);
+    }
+
+    private static void assertProfileValues(final StoredConfigurationImpl storedConfiguration) {
+        for (final PwmSettingCategory category : PwmSettingCategory.values()) {
+            if (category.hasProfiles()) {
+                for (final String profileID : profileIDs()) {
+                    for (final PwmSetting setting : category.getSettings()) {
+                        if (setting.getSyntax() == PwmSettingSyntax.STRING) {
+                            Assert.assertEquals(valueFor(setting, profileID), storedConfiguration.readSetting(setting, profileID).toNativeObject());
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static List<String> profileIDs() {
+        final List<String> profileIDs = new ArrayList<>();
+        for (int i = 0; i < PROFILES_PER_CATEGORY; i++) {
+            profileIDs.add("profile" + i);
+        }
+        return profileIDs;
+    }
+
+    private static String valueFor(final PwmSetting setting, final String profileID) {
+        return setting.getKey() + "-" + profileID;
+    }
+}
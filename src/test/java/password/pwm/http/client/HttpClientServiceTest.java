@@ -0,0 +1,132 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://code.google.com/p/pwm/
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2015 The PWM Project
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package password.pwm.http.client;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import junit.framework.Assert;
+import junit.framework.TestCase;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.impl.conn.SchemeRegistryFactory;
+import org.apache.http.util.EntityUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.Charset;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs concurrent requests through the shared pooled client of {@link HttpClientService} against a local stub server.
+ */
+public class HttpClientServiceTest extends TestCase {
+
+    private static final int THREADS = 8;
+    private static final int REQUESTS_PER_THREAD = 500;
+    private static final byte[] RESPONSE_BODY = "{\"result\":\"ok\"}".getBytes(Charset.forName("UTF-8"));
+
+    private HttpServer httpServer;
+    private String url;
+    private final AtomicInteger successCount = new AtomicInteger();
+    private final AtomicReference<Exception> requestError = new AtomicReference<>();
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        httpServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 100);
+        httpServer.createContext("/stub", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange httpExchange) throws IOException {
+                httpExchange.sendResponseHeaders(200, RESPONSE_BODY.length);
+                final OutputStream outputStream = httpExchange.getResponseBody();
+                outputStream.write(RESPONSE_BODY);
+                outputStream.close();
+            }
+        });
+        httpServer.setExecutor(Executors.newFixedThreadPool(THREADS));
+        httpServer.start();
+        url = "http://127.0.0.1:" + httpServer.getAddress().getPort() + "/stub";
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        if (httpServer != null) {
+            httpServer.stop(0);
+        }
+        super.tearDown();
+    }
+
+    public void testPooledClientRequests() throws Exception {
+        final HttpClientService.Settings settings = new HttpClientService.Settings(50, THREADS, 60 * 1000, 30 * 1000, 30 * 1000);
+        final DefaultHttpClient pooledClient = HttpClientService.makePooledClient(SchemeRegistryFactory.createDefault(), settings);
+        try {
+            runThreads(pooledClient);
+            if (requestError.get() != null) {
+                throw requestError.get();
+            }
+            final PoolingClientConnectionManager connectionManager = (PoolingClientConnectionManager) pooledClient.getConnectionManager();
+            Assert.assertEquals(0, connectionManager.getTotalStats().getLeased());
+            Assert.assertTrue(connectionManager.getTotalStats().getAvailable() <= THREADS);
+        } finally {
+            pooledClient.getConnectionManager().shutdown();
+        }
+
+        Assert.assertEquals(THREADS * REQUESTS_PER_THREAD, successCount.get());
+    }
+
+    private void runThreads(final DefaultHttpClient httpClient) throws InterruptedException {
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        final CountDownLatch finishLatch = new CountDownLatch(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            new Thread(new Runnable() {
+                public void run() {
+                    try {
+                        startLatch.await();
+                        for (int i = 0; i < REQUESTS_PER_THREAD; i++) {
+                            final HttpResponse httpResponse = httpClient.execute(new HttpGet(url));
+                            EntityUtils.consume(httpResponse.getEntity());
+                            if (httpResponse.getStatusLine().getStatusCode() == 200) {
+                                successCount.incrementAndGet();
+                            }
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } catch (IOException e) {
+                        requestError.compareAndSet(null, e);
+                    } finally {
+                        finishLatch.countDown();
+                    }
+                }
+            }).start();
+        }
+        startLatch.countDown();
+        finishLatch.await();
+    }
+}
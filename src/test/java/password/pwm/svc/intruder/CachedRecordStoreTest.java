@@ -0,0 +1,127 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://code.google.com/p/pwm/
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2015 The PWM Project
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package password.pwm.svc.intruder;
+
+import junit.framework.Assert;
+import junit.framework.TestCase;
+import password.pwm.util.ClosableIterator;
+import password.pwm.util.TimeDuration;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class CachedRecordStoreTest extends TestCase {
+
+    private static final int THREADS = 8;
+    private static final int MARKS_PER_THREAD = 1000;
+
+    public void testConcurrentMarksWriteBack() throws Exception {
+        final MemoryRecordStore backingStore = new MemoryRecordStore();
+        final CachedRecordStore cachedStore = new CachedRecordStore(backingStore, true, 1000);
+
+        runConcurrentMarks(cachedStore, "subject1");
+
+        Assert.assertEquals(THREADS * MARKS_PER_THREAD, cachedStore.read("subject1").getAttemptCount());
+        Assert.assertEquals(0, backingStore.writeCount.get());
+
+        cachedStore.flush();
+        Assert.assertEquals(THREADS * MARKS_PER_THREAD, backingStore.records.get("subject1").getAttemptCount());
+        Assert.assertEquals(1, backingStore.writeCount.get());
+    }
+
+    public void testConcurrentMarksWriteThrough() throws Exception {
+        final MemoryRecordStore backingStore = new MemoryRecordStore();
+        final CachedRecordStore cachedStore = new CachedRecordStore(backingStore, false, 1000);
+
+        runConcurrentMarks(cachedStore, "subject1");
+
+        Assert.assertEquals(THREADS * MARKS_PER_THREAD, backingStore.records.get("subject1").getAttemptCount());
+    }
+
+    private static void runConcurrentMarks(final CachedRecordStore cachedStore, final String subject) throws Exception {
+        final CountDownLatch finished = new CountDownLatch(THREADS);
+        final AtomicReference<Exception> error = new AtomicReference<>();
+        final RecordStore.RecordUpdater incrementer = new RecordStore.RecordUpdater() {
+            @Override
+            public IntruderRecord update(final IntruderRecord existingRecord) {
+                final IntruderRecord record = existingRecord == null ? new IntruderRecord(RecordType.USERNAME, subject) : existingRecord;
+                record.incrementAttemptCount();
+                return record;
+            }
+        };
+
+        for (int t = 0; t < THREADS; t++) {
+            new Thread(new Runnable() {
+                public void run() {
+                    try {
+                        for (int i = 0; i < MARKS_PER_THREAD; i++) {
+                            cachedStore.update(subject, incrementer);
+                        }
+                    } catch (Exception e) {
+                        error.compareAndSet(null, e);
+                    } finally {
+                        finished.countDown();
+                    }
+                }
+            }).start();
+        }
+
+        finished.await();
+        if (error.get() != null) {
+            throw error.get();
+        }
+    }
+
+    private static class MemoryRecordStore implements RecordStore {
+        private final Map<String, IntruderRecord> records = new ConcurrentHashMap<>();
+        private final AtomicInteger writeCount = new AtomicInteger(0);
+
+        public IntruderRecord read(final String key) {
+            final IntruderRecord record = records.get(key);
+            return record == null ? null : record.copy();
+        }
+
+        public void write(final String key, final IntruderRecord record) {
+            writeCount.incrementAndGet();
+            records.put(key, record.copy());
+        }
+
+        public IntruderRecord update(final String key, final RecordUpdater updater) {
+            final IntruderRecord updatedRecord = updater.update(read(key));
+            if (updatedRecord != null) {
+                write(key, updatedRecord);
+            }
+            return updatedRecord;
+        }
+
+        public ClosableIterator<IntruderRecord> iterator() {
+            throw new UnsupportedOperationException();
+        }
+
+        public void cleanup(final TimeDuration maxRecordAge) {
+        }
+    }
+}
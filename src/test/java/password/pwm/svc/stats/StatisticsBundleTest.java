@@ -0,0 +1,79 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://code.google.com/p/pwm/
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2015 The PWM Project
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package password.pwm.svc.stats;
+
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+import java.util.concurrent.CountDownLatch;
+
+public class StatisticsBundleTest extends TestCase {
+
+    private static final int THREADS = 8;
+    private static final int INCREMENTS_PER_THREAD = 200 * 1000;
+
+    public void testConcurrentIncrements() throws Exception {
+        final StatisticsBundle bundle = new StatisticsBundle();
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        final CountDownLatch finishLatch = new CountDownLatch(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            new Thread(new Runnable() {
+                public void run() {
+                    try {
+                        startLatch.await();
+                        for (int i = 0; i < INCREMENTS_PER_THREAD; i++) {
+                            bundle.incrementValue(Statistic.AUTHENTICATIONS);
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        finishLatch.countDown();
+                    }
+                }
+            }).start();
+        }
+        startLatch.countDown();
+        finishLatch.await();
+
+        final long expectedCount = (long)THREADS * INCREMENTS_PER_THREAD;
+        Assert.assertEquals(String.valueOf(expectedCount), bundle.getStatistic(Statistic.AUTHENTICATIONS));
+        Assert.assertEquals("0", bundle.getStatistic(Statistic.PASSWORD_CHANGES));
+    }
+
+    public void testOutputRoundTrip() throws Exception {
+        final StatisticsBundle bundle = new StatisticsBundle();
+        for (int i = 0; i < 10; i++) {
+            bundle.incrementValue(Statistic.AUTHENTICATIONS);
+        }
+        bundle.updateAverageValue(Statistic.AVG_PASSWORD_SYNC_TIME, 100);
+        bundle.updateAverageValue(Statistic.AVG_PASSWORD_SYNC_TIME, 300);
+
+        final StatisticsBundle reloaded = StatisticsBundle.input(bundle.output());
+        reloaded.incrementValue(Statistic.AUTHENTICATIONS);
+        reloaded.updateAverageValue(Statistic.AVG_PASSWORD_SYNC_TIME, 500);
+
+        Assert.assertEquals("11", reloaded.getStatistic(Statistic.AUTHENTICATIONS));
+        Assert.assertEquals("300", reloaded.getStatistic(Statistic.AVG_PASSWORD_SYNC_TIME));
+        Assert.assertEquals("0", reloaded.getStatistic(Statistic.PASSWORD_CHANGES));
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://code.google.com/p/pwm/
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2015 The PWM Project
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package password.pwm.svc.token;
+
+import junit.framework.Assert;
+import junit.framework.TestCase;
+import password.pwm.tests.TestHelper;
+import password.pwm.util.JsonUtil;
+import password.pwm.util.localdb.LocalDB;
+import password.pwm.util.localdb.LocalDBFactory;
+import password.pwm.util.secure.PwmRandom;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class TokenExpiryIndexTest extends TestCase {
+
+    private static final int TOKEN_COUNT = 10 * 1000;
+    private static final int EXPIRED_PERCENT = 1;
+    private static final long MAX_TOKEN_AGE_MS = 24 * 60 * 60 * 1000;
+    private static final int PURGE_BATCH_SIZE = 1000;
+
+    private LocalDB localDB;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        TestHelper.setupLogging();
+        final File dbDirectory = new File(TestHelper.getParameter("localDBPath"), "token-expiry");
+        dbDirectory.mkdirs();
+        localDB = LocalDBFactory.getInstance(dbDirectory, false, null, null);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        if (localDB != null) {
+            localDB.close();
+        }
+        super.tearDown();
+    }
+
+    public void testPurgeRemovesExpiredTokens() throws Exception {
+        final long now = System.currentTimeMillis();
+        final Date cutoffDate = new Date(now - MAX_TOKEN_AGE_MS);
+
+        final List<String> expiredKeys = populate(TOKEN_COUNT, now);
+        final TokenExpiryIndex expiryIndex = buildIndex();
+        final int purgedCount = expiryIndex.purge(cutoffDate);
+
+        Assert.assertEquals(expiredKeys.size(), purgedCount);
+        Assert.assertEquals(TOKEN_COUNT - expiredKeys.size(), localDB.size(LocalDB.DB.TOKENS));
+        for (final String expiredKey : expiredKeys) {
+            Assert.assertFalse(localDB.contains(LocalDB.DB.TOKENS, expiredKey));
+        }
+    }
+
+    public void testIndexReload() throws Exception {
+        final long now = System.currentTimeMillis();
+        populateIndexed(1000, now);
+
+        final TokenExpiryIndex reloadedIndex = new TokenExpiryIndex(localDB, LocalDB.DB.TOKENS, LocalDB.DB.TOKEN_EXPIRY_INDEX, PURGE_BATCH_SIZE);
+        reloadedIndex.load();
+        Assert.assertEquals(1000 * EXPIRED_PERCENT / 100, reloadedIndex.purge(new Date(now - MAX_TOKEN_AGE_MS)));
+        Assert.assertEquals(0, reloadedIndex.purge(new Date(now - MAX_TOKEN_AGE_MS)));
+    }
+
+    private List<String> populate(final int tokenCount, final long now) throws Exception {
+        localDB.truncate(LocalDB.DB.TOKENS);
+        localDB.truncate(LocalDB.DB.TOKEN_EXPIRY_INDEX);
+        final List<String> expiredKeys = new ArrayList<>();
+        final Map<String, String> batch = new LinkedHashMap<>();
+        for (int i = 0; i < tokenCount; i++) {
+            final boolean expired = i % (100 / EXPIRED_PERCENT) == 0;
+            final long issueTime = expired
+                    ? now - MAX_TOKEN_AGE_MS - TokenExpiryIndex.BUCKET_WIDTH_MS - PwmRandom.getInstance().nextInt(1000 * 1000)
+                    : now - PwmRandom.getInstance().nextInt((int) (MAX_TOKEN_AGE_MS / 2));
+            final String key = "token-" + i;
+            if (expired) {
+                expiredKeys.add(key);
+            }
+            batch.put(key, makeStoredValue(issueTime));
+            if (batch.size() >= 1000) {
+                localDB.putAll(LocalDB.DB.TOKENS, batch);
+                batch.clear();
+            }
+        }
+        localDB.putAll(LocalDB.DB.TOKENS, batch);
+        return expiredKeys;
+    }
+
+    private TokenExpiryIndex populateIndexed(final int tokenCount, final long now) throws Exception {
+        populate(tokenCount, now);
+        return buildIndex();
+    }
+
+    private TokenExpiryIndex buildIndex() throws Exception {
+        final TokenExpiryIndex expiryIndex = new TokenExpiryIndex(localDB, LocalDB.DB.TOKENS, LocalDB.DB.TOKEN_EXPIRY_INDEX, PURGE_BATCH_SIZE);
+        expiryIndex.load();
+        final LocalDB.LocalDBIterator<String> iterator = localDB.iterator(LocalDB.DB.TOKENS);
+        try {
+            while (iterator.hasNext()) {
+                final String key = iterator.next();
+                expiryIndex.add(key, readIssueDate(localDB.get(LocalDB.DB.TOKENS, key)));
+            }
+        } finally {
+            iterator.close();
+        }
+        return expiryIndex;
+    }
+
+    private static String makeStoredValue(final long issueTime) {
+        final Map<String, String> payload = new HashMap<>();
+        payload.put("date", String.valueOf(issueTime));
+        payload.put("name", "FORGOTTEN_PW");
+        payload.put("guid", PwmRandom.getInstance().alphaNumericString(48));
+        payload.put("dest", PwmRandom.getInstance().alphaNumericString(24) + "@example.com");
+        return JsonUtil.serializeMap(payload);
+    }
+
+    private static Date readIssueDate(final String storedValue) {
+        return new Date(Long.parseLong(JsonUtil.deserializeStringMap(storedValue).get("date")));
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://code.google.com/p/pwm/
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2015 The PWM Project
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package password.pwm.svc.wordlist;
+
+import junit.framework.Assert;
+import junit.framework.TestCase;
+import org.mockito.Mockito;
+import password.pwm.AppProperty;
+import password.pwm.PwmApplication;
+import password.pwm.PwmConstants;
+import password.pwm.config.Configuration;
+import password.pwm.tests.TestHelper;
+import password.pwm.util.localdb.LocalDB;
+import password.pwm.util.localdb.LocalDBFactory;
+import password.pwm.util.secure.PwmRandom;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Checks that the single threaded and pipelined {@link Populator} paths store the same wordlist.
+ */
+public class PopulatorTest extends TestCase {
+
+    private static final int LINE_COUNT = 50 * 1000;
+    private static final int PIPELINE_THREADS = 4;
+
+    private LocalDB localDB;
+    private byte[] wordlistZip;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        TestHelper.setupLogging();
+        final File fileLocation = new File(TestHelper.getParameter("localDBPath"));
+        localDB = LocalDBFactory.getInstance(fileLocation, false, null, null);
+        wordlistZip = makeWordlistZip(LINE_COUNT);
+    }
+
+    public void testSingleThreadedMatchesPipelined() throws Exception {
+        runPopulation(1);
+        final Map<String, String> singleContents = readWordlistContents();
+
+        runPopulation(PIPELINE_THREADS);
+        final Map<String, String> pipelinedContents = readWordlistContents();
+
+        Assert.assertFalse(singleContents.isEmpty());
+        Assert.assertEquals(singleContents, pipelinedContents);
+    }
+
+    private Map<String, String> readWordlistContents() throws Exception {
+        final Map<String, String> contents = new TreeMap<>();
+        final LocalDB.LocalDBIterator<String> iterator = localDB.iterator(LocalDB.DB.WORDLIST_WORDS);
+        try {
+            while (iterator.hasNext()) {
+                final String key = iterator.next();
+                contents.put(key, localDB.get(LocalDB.DB.WORDLIST_WORDS, key));
+            }
+        } finally {
+            iterator.close();
+        }
+        return contents;
+    }
+
+    private void runPopulation(final int threads) throws Exception {
+        final Configuration config = Mockito.mock(Configuration.class);
+        Mockito.when(config.readAppProperty(AppProperty.WORDLIST_POPULATE_THREADS)).thenReturn(String.valueOf(threads));
+
+        final PwmApplication pwmApplication = Mockito.mock(PwmApplication.class);
+        Mockito.when(pwmApplication.getLocalDB()).thenReturn(localDB);
+        Mockito.when(pwmApplication.getConfig()).thenReturn(config);
+
+        final WordlistManager wordlist = new WordlistManager() {
+            @Override
+            void writeMetadata(final StoredWordlistDataBean metadataBean) {
+            }
+
+            @Override
+            public StoredWordlistDataBean readMetadata() {
+                return new StoredWordlistDataBean();
+            }
+
+            @Override
+            protected boolean isBloomFilterEnabled() {
+                return false;
+            }
+        };
+        wordlist.wordlistConfiguration = new WordlistConfiguration(false, 3);
+
+        final Populator populator = new Populator(new ByteArrayInputStream(wordlistZip), wordlist, pwmApplication);
+        populator.populate();
+    }
+
+    private static byte[] makeWordlistZip(final int lineCount) throws IOException {
+        final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        try (ZipOutputStream zipOutputStream = new ZipOutputStream(byteArrayOutputStream)) {
+            zipOutputStream.putNextEntry(new ZipEntry("wordlist.txt"));
+            final PwmRandom random = PwmRandom.getInstance();
+            for (int i = 0; i < lineCount; i++) {
+                final String line = random.alphaNumericString(6 + random.nextInt(10)) + "\n";
+                zipOutputStream.write(line.getBytes(PwmConstants.DEFAULT_CHARSET));
+            }
+            zipOutputStream.closeEntry();
+        }
+        return byteArrayOutputStream.toByteArray();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        super.tearDown();
+        if (localDB != null) {
+            localDB.close();
+            localDB = null;
+        }
+    }
+}
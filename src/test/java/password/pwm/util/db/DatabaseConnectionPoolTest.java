@@ -0,0 +1,108 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://code.google.com/p/pwm/
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2015 The PWM Project
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package password.pwm.util.db;
+
+import junit.framework.Assert;
+import junit.framework.TestCase;
+import password.pwm.error.ErrorInformation;
+import password.pwm.error.PwmError;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+public class DatabaseConnectionPoolTest extends TestCase {
+
+    private static final String DERBY_URL = "jdbc:derby:memory:poolTest;create=true";
+
+    public void testConnectionsAreReused() throws Exception {
+        final DatabaseConnectionPool pool = makePool(2, 1000);
+        try {
+            final DatabaseConnectionPool.PooledConnection first = pool.borrow();
+            final PreparedStatement statement = first.prepareStatement("VALUES 1");
+            pool.release(first, false);
+
+            final DatabaseConnectionPool.PooledConnection second = pool.borrow();
+            Assert.assertSame(first, second);
+            Assert.assertSame(statement, second.prepareStatement("VALUES 1"));
+            Assert.assertEquals(1, pool.getOpenConnections());
+            pool.release(second, false);
+        } finally {
+            pool.close();
+        }
+    }
+
+    public void testBorrowTimesOutWhenExhausted() throws Exception {
+        final DatabaseConnectionPool pool = makePool(1, 100);
+        try {
+            final DatabaseConnectionPool.PooledConnection connection = pool.borrow();
+            try {
+                pool.borrow();
+                Assert.fail("borrow should time out while the only connection is in use");
+            } catch (DatabaseException e) {
+                Assert.assertEquals(PwmError.ERROR_DB_UNAVAILABLE, e.getErrorInformation().getError());
+            }
+            Assert.assertEquals(1, pool.getBorrowTimeouts());
+            pool.release(connection, false);
+
+            pool.release(pool.borrow(), false);
+        } finally {
+            pool.close();
+        }
+    }
+
+    public void testDiscardedConnectionIsReplaced() throws Exception {
+        final DatabaseConnectionPool pool = makePool(2, 1000);
+        try {
+            final DatabaseConnectionPool.PooledConnection first = pool.borrow();
+            pool.release(first, true);
+            Assert.assertEquals(0, pool.getOpenConnections());
+
+            final DatabaseConnectionPool.PooledConnection second = pool.borrow();
+            Assert.assertNotSame(first, second);
+            Assert.assertFalse(second.getConnection().isClosed());
+            pool.release(second, false);
+        } finally {
+            pool.close();
+        }
+    }
+
+    private static DatabaseConnectionPool makePool(final int maxConnections, final long maxWaitMs) {
+        return new DatabaseConnectionPool(
+                new DatabaseConnectionPool.ConnectionFactory() {
+                    @Override
+                    public Connection openConnection() throws DatabaseException {
+                        try {
+                            return DriverManager.getConnection(DERBY_URL);
+                        } catch (SQLException e) {
+                            throw new DatabaseException(new ErrorInformation(PwmError.ERROR_DB_UNAVAILABLE, e.getMessage()));
+                        }
+                    }
+                },
+                maxConnections,
+                maxWaitMs,
+                0
+        );
+    }
+}
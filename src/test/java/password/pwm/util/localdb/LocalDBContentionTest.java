@@ -0,0 +1,148 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://code.google.com/p/pwm/
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2015 The PWM Project
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package password.pwm.util.localdb;
+
+import junit.framework.Assert;
+import junit.framework.TestCase;
+import password.pwm.tests.TestHelper;
+import password.pwm.util.secure.PwmRandom;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Reads INTRUDER/TOKENS records while other threads write log event batches, which is the mix seen on a busy server
+ * with the LocalDB logger enabled, and checks that every read and write sees consistent data and that the
+ * per-db locks let the mix finish.
+ */
+public class LocalDBContentionTest extends TestCase {
+
+    private static final int WRITER_THREADS = 2;
+    private static final int READER_THREADS = 8;
+    private static final int WRITE_BATCHES = 20;
+    private static final int WRITE_BATCH_SIZE = 100;
+    private static final int READS_PER_THREAD = 2000;
+    private static final int READ_KEY_COUNT = 1000;
+    private static final int MAX_WAIT_SECONDS = 120;
+
+    private File baseDirectory;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        TestHelper.setupLogging();
+        baseDirectory = new File(TestHelper.getParameter("localDBPath"));
+    }
+
+    public void testMapDBContention() throws Exception {
+        runContention(new MapDB_LocalDB(), "contention-mapdb");
+    }
+
+    public void testDerbyContention() throws Exception {
+        runContention(new Derby_LocalDB(), "contention-derby");
+    }
+
+    private void runContention(final LocalDBProvider localDB, final String directoryName) throws Exception {
+        final File dbDirectory = new File(baseDirectory, directoryName);
+        dbDirectory.mkdirs();
+        localDB.init(dbDirectory, Collections.<String, String>emptyMap(), false);
+        try {
+            for (final LocalDB.DB db : new LocalDB.DB[]{LocalDB.DB.INTRUDER, LocalDB.DB.TOKENS, LocalDB.DB.EVENTLOG_EVENTS}) {
+                localDB.truncate(db);
+            }
+            final Map<String, String> intruderValues = new HashMap<>();
+            final Map<String, String> tokenValues = new HashMap<>();
+            for (int i = 0; i < READ_KEY_COUNT; i++) {
+                intruderValues.put("intruder-" + i, PwmRandom.getInstance().alphaNumericString(64));
+                tokenValues.put("token-" + i, PwmRandom.getInstance().alphaNumericString(256));
+            }
+            localDB.putAll(LocalDB.DB.INTRUDER, intruderValues);
+            localDB.putAll(LocalDB.DB.TOKENS, tokenValues);
+
+            final AtomicReference<Exception> error = new AtomicReference<>();
+            final CountDownLatch finished = new CountDownLatch(WRITER_THREADS + READER_THREADS);
+
+            for (int t = 0; t < WRITER_THREADS; t++) {
+                final int writerId = t;
+                new Thread(new Runnable() {
+                    public void run() {
+                        try {
+                            long sequence = 0;
+                            for (int b = 0; b < WRITE_BATCHES; b++) {
+                                final Map<String, String> batch = new HashMap<>();
+                                for (int i = 0; i < WRITE_BATCH_SIZE; i++) {
+                                    batch.put(writerId + "-" + sequence++, PwmRandom.getInstance().alphaNumericString(512));
+                                }
+                                localDB.putAll(LocalDB.DB.EVENTLOG_EVENTS, batch);
+                            }
+                        } catch (Exception e) {
+                            error.compareAndSet(null, e);
+                        } finally {
+                            finished.countDown();
+                        }
+                    }
+                }, "contention-writer-" + t).start();
+            }
+
+            for (int t = 0; t < READER_THREADS; t++) {
+                new Thread(new Runnable() {
+                    public void run() {
+                        try {
+                            for (int r = 0; r < READS_PER_THREAD; r++) {
+                                final int keyIndex = PwmRandom.getInstance().nextInt(READ_KEY_COUNT);
+                                final boolean intruder = PwmRandom.getInstance().nextBoolean();
+                                final String key = intruder ? "intruder-" + keyIndex : "token-" + keyIndex;
+                                final String expected = intruder ? intruderValues.get(key) : tokenValues.get(key);
+                                final String value = localDB.get(intruder ? LocalDB.DB.INTRUDER : LocalDB.DB.TOKENS, key);
+                                if (!expected.equals(value)) {
+                                    throw new IllegalStateException("unexpected value for key " + key + ": " + value);
+                                }
+                            }
+                        } catch (Exception e) {
+                            error.compareAndSet(null, e);
+                        } finally {
+                            finished.countDown();
+                        }
+                    }
+                }, "contention-reader-" + t).start();
+            }
+
+            Assert.assertTrue("readers and writers did not finish within " + MAX_WAIT_SECONDS + "s",
+                    finished.await(MAX_WAIT_SECONDS, TimeUnit.SECONDS));
+            if (error.get() != null) {
+                throw error.get();
+            }
+
+            Assert.assertEquals(WRITER_THREADS * WRITE_BATCHES * WRITE_BATCH_SIZE, localDB.size(LocalDB.DB.EVENTLOG_EVENTS));
+            Assert.assertEquals(READ_KEY_COUNT, localDB.size(LocalDB.DB.INTRUDER));
+            Assert.assertEquals(READ_KEY_COUNT, localDB.size(LocalDB.DB.TOKENS));
+        } finally {
+            localDB.close();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://code.google.com/p/pwm/
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2015 The PWM Project
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package password.pwm.util.macro;
+
+import junit.framework.Assert;
+import junit.framework.TestCase;
+import password.pwm.PwmConstants;
+import password.pwm.ldap.UserDataReader;
+import password.pwm.util.StringUtil;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class MacroMachineTest extends TestCase {
+
+    public void testReplacedValuesAreNotExpanded() throws Exception {
+        final CountingUserDataReader userDataReader = new CountingUserDataReader();
+        userDataReader.values.put("description", "@LDAP:cn@");
+        final MacroMachine macroMachine = new MacroMachine(null, null, null, null, userDataReader);
+        Assert.assertEquals("user @LDAP:cn@ at a@b.com", macroMachine.expandMacros("user @LDAP:description@ at a@b.com"));
+        Assert.assertEquals("no macros here", macroMachine.expandMacros("no macros here"));
+    }
+
+    public void testNullReplacementLeavesToken() throws Exception {
+        // with no user info bean the setup time macro has no value and returns null
+        final MacroMachine macroMachine = new MacroMachine(null, null, null, null, new CountingUserDataReader());
+        Assert.assertEquals("set up on @OtpSetupTime@ by value-cn", macroMachine.expandMacros("set up on @OtpSetupTime@ by @LDAP:cn@"));
+    }
+
+    public void testEncodeReceivesExpandedValue() throws Exception {
+        final CountingUserDataReader userDataReader = new CountingUserDataReader();
+        userDataReader.values.put("cn", "first last");
+        final MacroMachine macroMachine = new MacroMachine(null, null, null, null, userDataReader);
+        Assert.assertEquals(
+                "id=" + StringUtil.base64Encode("first last:value-ou".getBytes(PwmConstants.DEFAULT_CHARSET)),
+                macroMachine.expandMacros("id=@Encode:base64:[[@LDAP:cn@:@LDAP:ou@]]@"));
+        Assert.assertEquals(
+                "user=" + StringUtil.urlEncode("first last"),
+                macroMachine.expandMacros("user=@Encode:urlParameter:[[@LDAP:cn@]]@"));
+    }
+
+    public void testAttributeReadOncePerExpansion() throws Exception {
+        final CountingUserDataReader userDataReader = new CountingUserDataReader();
+        final MacroMachine macroMachine = new MacroMachine(null, null, null, null, userDataReader);
+        final String template = "@LDAP:cn@ @LDAP:cn@ @Encode:base64:[[@LDAP:cn@]]@ @LDAP:sn@";
+        final String output = macroMachine.expandMacros(template);
+        Assert.assertEquals(2, userDataReader.reads.get());
+        Assert.assertTrue(output.startsWith("value-cn value-cn "));
+        Assert.assertTrue(output.endsWith(" value-sn"));
+
+        // values are not kept between expansions, as they may have changed in the directory
+        macroMachine.expandMacros(template);
+        Assert.assertEquals(4, userDataReader.reads.get());
+    }
+
+    private static class CountingUserDataReader implements UserDataReader {
+        private final AtomicInteger reads = new AtomicInteger();
+        private final Map<String, String> values = new HashMap<>();
+
+        public String getUserDN() {
+            return "cn=test,ou=users,o=example";
+        }
+
+        public String readStringAttribute(final String attribute) {
+            reads.incrementAndGet();
+            return values.containsKey(attribute) ? values.get(attribute) : "value-" + attribute;
+        }
+
+        public String readStringAttribute(final String attribute, final boolean ignoreCache) {
+            return readStringAttribute(attribute);
+        }
+
+        public Date readDateAttribute(final String attribute) {
+            return null;
+        }
+
+        public Map<String, String> readStringAttributes(final Collection<String> attributes) {
+            final Map<String, String> returnMap = new LinkedHashMap<>();
+            for (final String attribute : attributes) {
+                returnMap.put(attribute, readStringAttribute(attribute));
+            }
+            return returnMap;
+        }
+
+        public Map<String, String> readStringAttributes(final Collection<String> attributes, final boolean ignoreCache) {
+            return readStringAttributes(attributes);
+        }
+    }
+}